@@ -0,0 +1,97 @@
+package org.opentripplanner.ext.fares.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.model._data.TransitModelForTest.FEED_ID;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ext.fares.model.FareAttribute;
+import org.opentripplanner.routing.core.FareRuleSet;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+
+class FareRuleIndexTest {
+
+  private static final FeedScopedId R1 = new FeedScopedId(FEED_ID, "R1");
+  private static final FeedScopedId R2 = new FeedScopedId(FEED_ID, "R2");
+  private static final FeedScopedId R3 = new FeedScopedId(FEED_ID, "R3");
+  private static final FeedScopedId T1 = new FeedScopedId(FEED_ID, "T1");
+  private static final FeedScopedId T2 = new FeedScopedId(FEED_ID, "T2");
+
+  private final List<FareRuleSet> rules = new ArrayList<>();
+
+  @Test
+  void findTheSameRulesAsMatches() {
+    rule("no-restrictions");
+    rule("z1-z2").addOriginDestination("z1", "z2");
+    rule("z1-any").addOriginDestination("z1", null);
+    rule("any-z1").addOriginDestination(null, "z1");
+    var odAndRoute = rule("z2-z3-on-R1");
+    odAndRoute.addOriginDestination("z2", "z3");
+    odAndRoute.addRoute(R1);
+    var routes = rule("R1-R2");
+    routes.addRoute(R1);
+    routes.addRoute(R2);
+    var contains = rule("contains-z1-z2");
+    contains.addContains("z1");
+    contains.addContains("z2");
+    rule("T1").addTrip(T1);
+
+    var subject = new FareRuleIndex(rules);
+
+    assertSameAsMatches(subject, "z1", "z2", Set.of("z1", "z2"), Set.of(R1), Set.of(T1));
+    assertSameAsMatches(subject, "z1", "z3", Set.of("z1", "z3"), Set.of(R1, R2), Set.of(T1, T2));
+    assertSameAsMatches(subject, "z2", "z3", Set.of("z2", "z3"), Set.of(R1), Set.of(T2));
+    assertSameAsMatches(subject, "z2", "z3", Set.of("z2", "z3"), Set.of(R1, R3), Set.of(T2));
+    assertSameAsMatches(subject, "z3", "z1", Set.of("z1", "z3"), Set.of(R2), Set.of(T2));
+    assertSameAsMatches(subject, "z4", "z4", Set.of("z4"), Set.of(R3), Set.of(T1));
+    assertSameAsMatches(subject, null, null, Set.of(), Set.of(R1), Set.of(T1));
+    assertSameAsMatches(subject, "z1", "z2", Set.of("z1", "z2"), Set.of(), Set.of());
+  }
+
+  @Test
+  void isIndexForTheRulesItIsBuiltFrom() {
+    rule("no-restrictions");
+    var subject = new FareRuleIndex(rules);
+
+    assertTrue(subject.isIndexFor(rules));
+    assertFalse(subject.isIndexFor(new ArrayList<>(rules)));
+  }
+
+  private void assertSameAsMatches(
+    FareRuleIndex subject,
+    String startZone,
+    String endZone,
+    Set<String> zones,
+    Set<FeedScopedId> routes,
+    Set<FeedScopedId> trips
+  ) {
+    var expected = rules
+      .stream()
+      .filter(it -> it.matches(startZone, endZone, zones, routes, trips))
+      .map(it -> it.getFareAttribute().getId().getId())
+      .toList();
+
+    var result = subject
+      .findMatching(startZone, endZone, zones, routes, trips)
+      .stream()
+      .map(it -> it.getFareAttribute().getId().getId())
+      .toList();
+
+    assertEquals(expected, result);
+  }
+
+  private FareRuleSet rule(String id) {
+    var attribute = FareAttribute
+      .of(new FeedScopedId(FEED_ID, id))
+      .setCurrencyType("USD")
+      .setPrice(1.0f)
+      .build();
+    var rule = new FareRuleSet(attribute);
+    rules.add(rule);
+    return rule;
+  }
+}
@@ -0,0 +1,83 @@
+package org.opentripplanner.ext.flex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ext.flex.trip.FlexTrip;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.core.StateData;
+import org.opentripplanner.routing.vertextype.TransitStopVertex;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.site.RegularStop;
+
+class FlexRouterTest {
+
+  private static final RegularStop STOP_A = TransitModelForTest.stopForTest("A", 60.0, 10.0);
+  private static final RegularStop STOP_B = TransitModelForTest.stopForTest("B", 60.1, 10.1);
+  private static final FlexTrip<?, ?> TRIP_1 = mock(FlexTrip.class);
+  private static final FlexTrip<?, ?> TRIP_2 = mock(FlexTrip.class);
+
+  @Test
+  void removeDominated() {
+    var fast = accessEgress(STOP_A, TRIP_1, 60, 600, 0, true);
+    var slowFlex = accessEgress(STOP_A, TRIP_1, 60, 900, 0, true);
+    var lessWalking = accessEgress(STOP_A, TRIP_1, 30, 900, 0, true);
+    var otherTrip = accessEgress(STOP_A, TRIP_2, 60, 900, 0, true);
+    var otherStop = accessEgress(STOP_B, TRIP_1, 60, 900, 0, true);
+    var sameAsFast = accessEgress(STOP_A, TRIP_1, 60, 600, 0, true);
+
+    var result = FlexRouter.removeDominated(
+      List.of(slowFlex, fast, lessWalking, otherTrip, otherStop, sameAsFast)
+    );
+
+    assertEquals(List.of(fast, lessWalking, otherTrip, otherStop), result);
+  }
+
+  @Test
+  void keepCheaperAccessEgress() {
+    var fast = accessEgress(STOP_A, TRIP_1, 60, 600, 2000, true);
+    var cheap = accessEgress(STOP_A, TRIP_1, 60, 700, 1000, true);
+
+    assertEquals(List.of(fast, cheap), FlexRouter.removeDominated(List.of(fast, cheap)));
+  }
+
+  @Test
+  void keepAccessEgressDirectToStop() {
+    var walkToStop = accessEgress(STOP_A, TRIP_1, 60, 600, 0, false);
+    var directToStop = accessEgress(STOP_A, TRIP_1, 60, 700, 0, true);
+
+    assertEquals(
+      List.of(walkToStop, directToStop),
+      FlexRouter.removeDominated(List.of(walkToStop, directToStop))
+    );
+
+    var slowWalkToStop = accessEgress(STOP_A, TRIP_1, 60, 800, 0, false);
+
+    assertEquals(
+      List.of(directToStop),
+      FlexRouter.removeDominated(List.of(directToStop, slowWalkToStop))
+    );
+  }
+
+  private static FlexAccessEgress accessEgress(
+    RegularStop stop,
+    FlexTrip<?, ?> trip,
+    int preFlexTime,
+    int flexTime,
+    double weight,
+    boolean directToStop
+  ) {
+    var state = new State(
+      mock(TransitStopVertex.class),
+      Instant.EPOCH,
+      null,
+      StateData.getInitialStateData(new RoutingRequest())
+    );
+    state.weight = weight + preFlexTime + flexTime;
+    return new FlexAccessEgress(stop, preFlexTime, flexTime, 0, 0, 1, 0, trip, state, directToStop);
+  }
+}
@@ -0,0 +1,139 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.algorithm.astar.AStarBuilder;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.RoutingContext;
+import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.spt.DominanceFunction;
+import org.opentripplanner.routing.spt.ShortestPathTree;
+import org.opentripplanner.routing.vertextype.StreetVertex;
+
+public class StreetFlexPathTreeTest extends GraphRoutingTest {
+
+  private Graph graph;
+  private StreetVertex A, B, C, D, E;
+
+  @BeforeEach
+  protected void setUp() {
+    // Generate a very simple graph, E is not connected
+    //
+    //   A <-> B <-> C
+    //          \-> D -^
+    //
+    //   E
+
+    var otpModel = modelOf(
+      new Builder() {
+        @Override
+        public void build() {
+          A = intersection("A", 0.001, 45);
+          B = intersection("B", 0.002, 45);
+          C = intersection("C", 0.003, 45);
+          D = intersection("D", 0.0025, 45.001);
+          E = intersection("E", 0.010, 45);
+
+          street(A, B, 100, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+          street(B, C, 300, StreetTraversalPermission.ALL, StreetTraversalPermission.ALL);
+          street(B, D, 100, StreetTraversalPermission.CAR);
+          street(D, C, 100, StreetTraversalPermission.CAR);
+        }
+      }
+    );
+    graph = otpModel.graph();
+  }
+
+  @Test
+  public void samePathsAsShortestPathTree() {
+    for (boolean reverseDirection : new boolean[] { false, true }) {
+      for (Vertex origin : List.of(A, C)) {
+        var spt = routeToMany(origin, reverseDirection);
+        var subject = StreetFlexPathTree.of(spt, reverseDirection);
+
+        for (Vertex destination : List.of(A, B, C, D)) {
+          var expected = spt.getPath(destination);
+          var path = subject.getPath(destination);
+
+          assertEquals((int) expected.getDistanceMeters(), path.distanceMeters);
+          assertEquals(expected.getDuration(), path.durationSeconds);
+          assertEquals(expected.getGeometry(), path.getGeometry());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void unreachableVertex() {
+    var subject = StreetFlexPathTree.of(routeToMany(A, false), false);
+
+    assertNull(subject.getPath(E));
+  }
+
+  @Test
+  public void pathsInTravelDirection() {
+    var forward = StreetFlexPathTree.of(routeToMany(A, false), false);
+    var reverse = StreetFlexPathTree.of(routeToMany(C, true), true);
+
+    // A -> B -> D -> C in both directions, the path via D is shorter than B -> C
+    var expected = forward.getPath(C);
+    var path = reverse.getPath(A);
+
+    assertEquals(300, expected.distanceMeters);
+    assertEquals(expected.distanceMeters, path.distanceMeters);
+    assertEquals(expected.durationSeconds, path.durationSeconds);
+    assertEquals(expected.getGeometry(), path.getGeometry());
+  }
+
+  @Test
+  public void shareTreesForTheSameOriginAndDirection() {
+    var numSearches = new AtomicInteger();
+    var subject = new StreetFlexPathCache(1000);
+
+    var forward = subject.get(
+      A,
+      false,
+      v -> {
+        numSearches.incrementAndGet();
+        return StreetFlexPathTree.of(routeToMany(v, false), false);
+      }
+    );
+    var reverse = subject.get(
+      A,
+      true,
+      v -> {
+        numSearches.incrementAndGet();
+        return StreetFlexPathTree.of(routeToMany(v, true), true);
+      }
+    );
+
+    assertSame(forward, subject.get(A, false, v -> null));
+    assertSame(reverse, subject.get(A, true, v -> null));
+    assertEquals(2, numSearches.get());
+  }
+
+  private ShortestPathTree routeToMany(Vertex vertex, boolean reverseDirection) {
+    RoutingRequest routingRequest = new RoutingRequest(TraverseMode.CAR);
+    routingRequest.arriveBy = reverseDirection;
+    RoutingContext rctx = reverseDirection
+      ? new RoutingContext(routingRequest, graph, null, vertex)
+      : new RoutingContext(routingRequest, graph, vertex, null);
+
+    return AStarBuilder
+      .allDirectionsMaxDuration(Duration.ofMinutes(45))
+      .setDominanceFunction(new DominanceFunction.EarliestArrival())
+      .setContext(rctx)
+      .getShortestPathTree();
+  }
+}
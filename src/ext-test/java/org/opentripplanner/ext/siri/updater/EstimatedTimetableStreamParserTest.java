@@ -0,0 +1,77 @@
+package org.opentripplanner.ext.siri.updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
+
+class EstimatedTimetableStreamParserTest {
+
+  private static final String XML =
+    """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <Siri xmlns="http://www.siri.org.uk/siri" version="2.0">
+      <ServiceDelivery>
+        <ResponseTimestamp>2022-06-01T12:00:00+02:00</ResponseTimestamp>
+        <MoreData>true</MoreData>
+        <EstimatedTimetableDelivery version="2.0">
+          <ResponseTimestamp>2022-06-01T12:00:00+02:00</ResponseTimestamp>
+          <EstimatedJourneyVersionFrame>
+            <RecordedAtTime>2022-06-01T12:00:00+02:00</RecordedAtTime>
+            <EstimatedVehicleJourney><LineRef>L1</LineRef></EstimatedVehicleJourney>
+            <EstimatedVehicleJourney><LineRef>L2</LineRef></EstimatedVehicleJourney>
+            <EstimatedVehicleJourney><LineRef>L3</LineRef></EstimatedVehicleJourney>
+          </EstimatedJourneyVersionFrame>
+        </EstimatedTimetableDelivery>
+      </ServiceDelivery>
+    </Siri>
+    """;
+
+  private final List<List<String>> chunks = new ArrayList<>();
+
+  @Test
+  void parseInChunks() throws Exception {
+    var subject = new EstimatedTimetableStreamParser(2, t -> true, this::addChunk);
+
+    assertTrue(subject.parse(stream()));
+
+    assertEquals("[[L1, L2], [L3]]", chunks.toString());
+    assertEquals(3, subject.numberOfJourneys());
+    assertTrue(subject.moreData());
+    assertEquals(
+      ZonedDateTime.parse("2022-06-01T12:00:00+02:00").toInstant(),
+      subject.responseTimestamp().toInstant()
+    );
+  }
+
+  @Test
+  void skipRejectedResponseTimestamp() throws Exception {
+    var subject = new EstimatedTimetableStreamParser(2, t -> false, this::addChunk);
+
+    assertFalse(subject.parse(stream()));
+    assertTrue(chunks.isEmpty());
+  }
+
+  private void addChunk(List<EstimatedTimetableDeliveryStructure> deliveries) {
+    chunks.add(
+      deliveries
+        .stream()
+        .flatMap(it -> it.getEstimatedJourneyVersionFrames().stream())
+        .flatMap(it -> it.getEstimatedVehicleJourneies().stream())
+        .map(it -> it.getLineRef().getValue())
+        .toList()
+    );
+  }
+
+  private static InputStream stream() {
+    return new ByteArrayInputStream(XML.strip().getBytes(StandardCharsets.UTF_8));
+  }
+}
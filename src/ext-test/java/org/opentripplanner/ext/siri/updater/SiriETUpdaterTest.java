@@ -0,0 +1,82 @@
+package org.opentripplanner.ext.siri.updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
+
+class SiriETUpdaterTest {
+
+  private static final String XML =
+    """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <Siri xmlns="http://www.siri.org.uk/siri" version="2.0">
+      <ServiceDelivery>
+        <ResponseTimestamp>2022-06-01T12:00:00+02:00</ResponseTimestamp>
+        <EstimatedTimetableDelivery version="2.0">
+          <ResponseTimestamp>2022-06-01T12:00:00+02:00</ResponseTimestamp>
+          <EstimatedJourneyVersionFrame>
+            <RecordedAtTime>2022-06-01T12:00:00+02:00</RecordedAtTime>
+            <EstimatedVehicleJourney><LineRef>L1</LineRef></EstimatedVehicleJourney>
+            <EstimatedVehicleJourney><LineRef>L2</LineRef></EstimatedVehicleJourney>
+            <EstimatedVehicleJourney><LineRef>L3</LineRef></EstimatedVehicleJourney>
+            <EstimatedVehicleJourney><LineRef>L4</LineRef></EstimatedVehicleJourney>
+            <EstimatedVehicleJourney><LineRef>L5</LineRef></EstimatedVehicleJourney>
+          </EstimatedJourneyVersionFrame>
+        </EstimatedTimetableDelivery>
+      </ServiceDelivery>
+    </Siri>
+    """;
+
+  /** The line refs of the applied journeys, cleared when a full dataset is applied. */
+  private final List<String> buffer = new ArrayList<>();
+  private final List<Boolean> fullDatasetFlags = new ArrayList<>();
+
+  @Test
+  void keepAllChunksOfFullDataset() throws Exception {
+    buffer.add("L0");
+
+    parse(true);
+
+    assertEquals(List.of(true, false, false), fullDatasetFlags);
+    assertEquals(List.of("L1", "L2", "L3", "L4", "L5"), buffer);
+  }
+
+  @Test
+  void neverClearIncrementalUpdates() throws Exception {
+    buffer.add("L0");
+
+    parse(false);
+
+    assertEquals(List.of(false, false, false), fullDatasetFlags);
+    assertEquals(List.of("L0", "L1", "L2", "L3", "L4", "L5"), buffer);
+  }
+
+  private void parse(boolean fullDataset) throws Exception {
+    var parser = new EstimatedTimetableStreamParser(
+      2,
+      t -> true,
+      SiriETUpdater.chunkHandler(fullDataset, this::applyChunk)
+    );
+    var is = new ByteArrayInputStream(XML.strip().getBytes(StandardCharsets.UTF_8));
+    assertTrue(parser.parse(is));
+  }
+
+  private void applyChunk(List<EstimatedTimetableDeliveryStructure> etds, boolean fullDataset) {
+    fullDatasetFlags.add(fullDataset);
+    if (fullDataset) {
+      buffer.clear();
+    }
+    etds
+      .stream()
+      .flatMap(it -> it.getEstimatedJourneyVersionFrames().stream())
+      .flatMap(it -> it.getEstimatedVehicleJourneies().stream())
+      .map(it -> it.getLineRef().getValue())
+      .forEach(buffer::add);
+  }
+}
@@ -0,0 +1,52 @@
+package org.opentripplanner.ext.traveltime.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import javax.ws.rs.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+class TravelTimeMatrixResourceTest {
+
+  private static final List<String> FROM = List.of("59.9,10.7");
+  private static final List<String> TO = List.of("59.95,10.75");
+  private static final List<Integer> PERCENTILES = List.of(50);
+
+  @Test
+  void invalidTimeIsBadRequest() {
+    assertThrows(BadRequestException.class, () -> resource("tomorrow", "1h", "2h"));
+    assertThrows(BadRequestException.class, () -> resource("2022-10-01T08:00", "1h", "2h"));
+  }
+
+  @Test
+  void invalidDurationIsBadRequest() {
+    assertThrows(BadRequestException.class, () -> resource(null, "1 hour", "2h"));
+    assertThrows(BadRequestException.class, () -> resource(null, "1h", "x"));
+  }
+
+  @Test
+  void percentileOutOfRangeIsBadRequest() {
+    assertThrows(
+      BadRequestException.class,
+      () -> new TravelTimeMatrixResource(null, FROM, TO, null, "1h", "2h", List.of(101), null)
+    );
+  }
+
+  /** The parameters are validated before the server context is used. */
+  private static TravelTimeMatrixResource resource(
+    String time,
+    String searchWindow,
+    String maxTravelTime
+  ) {
+    return new TravelTimeMatrixResource(
+      null,
+      FROM,
+      TO,
+      time,
+      searchWindow,
+      maxTravelTime,
+      PERCENTILES,
+      null
+    );
+  }
+}
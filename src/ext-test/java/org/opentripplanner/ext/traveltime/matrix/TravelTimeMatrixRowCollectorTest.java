@@ -0,0 +1,96 @@
+package org.opentripplanner.ext.traveltime.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.opentripplanner.ext.traveltime.matrix.TravelTimeMatrixRowCollector.NOT_REACHED;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.api.response.StopArrivals;
+
+class TravelTimeMatrixRowCollectorTest {
+
+  private static final int STOP_A = 0;
+  private static final int STOP_B = 1;
+  private static final int STOP_C = 2;
+
+  /** Destination 1 is 60s from stop A and 300s from stop B, destination 2 is 30s from stop C. */
+  private final TravelTimeMatrixRowCollector subject = new TravelTimeMatrixRowCollector(
+    List.of(
+      new EgressStops(new int[] { STOP_A, STOP_B }, new int[] { 60, 300 }),
+      new EgressStops(new int[] { STOP_C }, new int[] { 30 })
+    ),
+    3600
+  );
+
+  @Test
+  void bestEgressStopIsUsed() {
+    // A: 1000 + 60, B: 700 + 300
+    subject.iterationComplete(100, new Arrivals(1000, 700, -1));
+
+    int[][] result = subject.travelTimePercentiles(new int[] { 50 });
+
+    assertArrayEquals(new int[] { 900 }, result[0]);
+    assertArrayEquals(new int[] { NOT_REACHED }, result[1]);
+  }
+
+  @Test
+  void travelTimeAboveMaxIsNotReached() {
+    subject.iterationComplete(0, new Arrivals(-1, -1, 3600));
+
+    int[][] result = subject.travelTimePercentiles(new int[] { 50 });
+
+    assertArrayEquals(new int[] { NOT_REACHED }, result[1]);
+  }
+
+  @Test
+  void percentilesOverIterations() {
+    // Iterations are run from the latest to the earliest departure time
+    subject.iterationComplete(180, new Arrivals(1240, -1, -1));
+    subject.iterationComplete(120, new Arrivals(1240, -1, -1));
+    subject.iterationComplete(60, new Arrivals(1240, -1, 1000));
+    subject.iterationComplete(0, new Arrivals(640, -1, 1000));
+
+    int[][] result = subject.travelTimePercentiles(new int[] { 0, 25, 50, 75, 100 });
+
+    // Travel times to destination 1: 1120, 1180, 1240, 700
+    assertArrayEquals(new int[] { 700, 700, 1120, 1180, 1240 }, result[0]);
+    // Travel times to destination 2: -, -, 970, 1030
+    assertArrayEquals(new int[] { 970, 970, 1030, NOT_REACHED, NOT_REACHED }, result[1]);
+  }
+
+  @Test
+  void noIterations() {
+    int[][] result = subject.travelTimePercentiles(new int[] { 10, 90 });
+
+    assertArrayEquals(new int[] { NOT_REACHED, NOT_REACHED }, result[0]);
+    assertArrayEquals(new int[] { NOT_REACHED, NOT_REACHED }, result[1]);
+  }
+
+  /** Transit arrival times by stop index, -1 if the stop is not reached. */
+  private record Arrivals(int... transitArrivalTimes) implements StopArrivals {
+    @Override
+    public boolean reached(int stopIndex) {
+      return reachedByTransit(stopIndex);
+    }
+
+    @Override
+    public int bestArrivalTime(int stopIndex) {
+      return bestTransitArrivalTime(stopIndex);
+    }
+
+    @Override
+    public boolean reachedByTransit(int stopIndex) {
+      return transitArrivalTimes[stopIndex] >= 0;
+    }
+
+    @Override
+    public int bestTransitArrivalTime(int stopIndex) {
+      return transitArrivalTimes[stopIndex];
+    }
+
+    @Override
+    public int smallestNumberOfTransfers(int stopIndex) {
+      return 0;
+    }
+  }
+}
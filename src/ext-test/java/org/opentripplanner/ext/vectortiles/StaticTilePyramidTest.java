@@ -0,0 +1,141 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.wdtinc.mapbox_vector_tile.VectorTile;
+import java.util.Collection;
+import java.util.List;
+import org.geotools.geometry.Envelope2D;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opentripplanner.common.geometry.WebMercatorTile;
+import org.opentripplanner.common.model.T2;
+import org.opentripplanner.util.WorldEnvelope;
+import org.opentripplanner.util.geometry.GeometryUtils;
+
+public class StaticTilePyramidTest {
+
+  /** A point one third into the tile, in both directions, at zoom level 12-14 */
+  private static final double LAT = 60.1816;
+  private static final double LON = 24.9023;
+
+  private static final VectorTilesResource.LayerParameters LAYER_PARAMETERS = new VectorTilesResource.LayerParameters() {
+    @Override
+    public String name() {
+      return "stops";
+    }
+
+    @Override
+    public String type() {
+      return "Stop";
+    }
+
+    @Override
+    public String mapper() {
+      return "Digitransit";
+    }
+
+    @Override
+    public int maxZoom() {
+      return 20;
+    }
+
+    @Override
+    public int minZoom() {
+      return 12;
+    }
+
+    @Override
+    public int cacheMaxSeconds() {
+      return 600;
+    }
+
+    @Override
+    public double expansionFactor() {
+      return 0.25;
+    }
+
+    @Override
+    public int prerenderMaxZoom() {
+      return 14;
+    }
+  };
+
+  private final StaticTilePyramid subject = StaticTilePyramid.build(
+    LAYER_PARAMETERS,
+    LAYER_PARAMETERS.prerenderMaxZoom(),
+    envelope(),
+    PointLayerBuilder::new
+  );
+
+  @Test
+  public void sameTilesAsRenderedOnRequest() {
+    for (int z = 12; z <= 14; ++z) {
+      int x = x(z);
+      int y = y(z);
+
+      assertArrayEquals(render(z, x, y), subject.get(z, x, y));
+      // The neighbour tiles are empty, but inside the pyramid
+      assertArrayEquals(render(z, x + 1, y), subject.get(z, x + 1, y));
+      assertArrayEquals(render(z, x, y - 1), subject.get(z, x, y - 1));
+    }
+    assertEquals(3, subject.numTiles());
+  }
+
+  @Test
+  public void tilesOutsideThePyramid() {
+    // Outside the zoom levels
+    assertNull(subject.get(11, x(11), y(11)));
+    assertNull(subject.get(15, x(15), y(15)));
+    // Outside the graph envelope
+    assertNull(subject.get(14, x(14) + 10, y(14)));
+  }
+
+  private static int x(int z) {
+    return WebMercatorTile.lon2tileX(LON, z);
+  }
+
+  private static int y(int z) {
+    return WebMercatorTile.lat2tileY(LAT, z);
+  }
+
+  private static byte[] render(int z, int x, int y) {
+    Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
+    Envelope envelope = new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
+    var layer = new PointLayerBuilder().build(envelope, LAYER_PARAMETERS);
+    return VectorTile.Tile.newBuilder().addLayers(layer).build().toByteArray();
+  }
+
+  private static WorldEnvelope envelope() {
+    var envelope = new WorldEnvelope();
+    envelope.expandToInclude(LON - 0.01, LAT - 0.01);
+    envelope.expandToInclude(LON + 0.01, LAT + 0.01);
+    return envelope;
+  }
+
+  private static class PointLayerBuilder extends LayerBuilder<String> {
+
+    PointLayerBuilder() {
+      super(
+        LAYER_PARAMETERS.name(),
+        new PropertyMapper<>() {
+          @Override
+          protected Collection<T2<String, Object>> map(String input) {
+            return List.of(new T2<>("name", input));
+          }
+        }
+      );
+    }
+
+    @Override
+    protected List<Geometry> getGeometries(Envelope query) {
+      var point = GeometryUtils.getGeometryFactory().createPoint(new Coordinate(LON, LAT));
+      point.setUserData("A");
+      return List.of(point);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ext.vectortiles.VectorTileCache.Tile;
+import org.opentripplanner.ext.vectortiles.VectorTileCache.TileKey;
+
+public class VectorTileCacheTest {
+
+  private static final long SECOND = 1_000_000_000L;
+  private static final TileKey KEY = new TileKey(List.of("stops"), 14, 9000, 4000);
+
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicInteger numCreated = new AtomicInteger();
+  private final VectorTileCache subject = new VectorTileCache(64 * 1024, clock::get);
+
+  @Test
+  public void cacheStaticTiles() {
+    var tile = subject.get(KEY, () -> createTile(Tile.NO_EXPIRY));
+    clock.addAndGet(3600 * SECOND);
+
+    assertSame(tile, subject.get(KEY, () -> createTile(Tile.NO_EXPIRY)));
+    assertEquals(1, numCreated.get());
+  }
+
+  @Test
+  public void expireDynamicTiles() {
+    var tile = subject.get(KEY, () -> createTile(60));
+
+    clock.addAndGet(59 * SECOND);
+    assertSame(tile, subject.get(KEY, () -> createTile(60)));
+
+    clock.addAndGet(SECOND);
+    var newTile = subject.get(KEY, () -> createTile(60));
+    assertNotEquals(tile.entityTag(), newTile.entityTag());
+    assertEquals(2, numCreated.get());
+  }
+
+  @Test
+  public void doNotCacheTilesWithoutTtl() {
+    subject.get(KEY, () -> createTile(Tile.NO_CACHE));
+    subject.get(KEY, () -> createTile(Tile.NO_CACHE));
+
+    assertEquals(2, numCreated.get());
+  }
+
+  @Test
+  public void boundNumberOfEmptyTiles() {
+    int maxTiles = 100;
+    var cache = new VectorTileCache(maxTiles * VectorTileCache.ENTRY_OVERHEAD_BYTES, clock::get);
+
+    for (int x = 0; x < 10 * maxTiles; ++x) {
+      var key = new TileKey(List.of("stops"), 14, x, 4000);
+      cache.get(key, () -> Tile.of(new byte[0], 60, Tile.NO_EXPIRY));
+    }
+
+    assertTrue(cache.size() <= maxTiles, "size: " + cache.size());
+  }
+
+  @Test
+  public void sameEntityTagForSameContent() {
+    var a = Tile.of(new byte[] { 1, 2, 3 }, 60, 60);
+    var b = Tile.of(new byte[] { 1, 2, 3 }, 60, 60);
+    var c = Tile.of(new byte[] { 1, 2, 4 }, 60, 60);
+
+    assertEquals(a.entityTag(), b.entityTag());
+    assertNotEquals(a.entityTag(), c.entityTag());
+  }
+
+  private Tile createTile(int serverTtlSeconds) {
+    byte[] bytes = { (byte) numCreated.incrementAndGet() };
+    return Tile.of(bytes, 60, serverTtlSeconds);
+  }
+}
@@ -9,14 +9,13 @@ import org.opentripplanner.routing.fares.FareService;
 public record FaresFilter(FareService fareService) implements ItineraryListFilter {
   @Override
   public List<Itinerary> filter(List<Itinerary> itineraries) {
-    return itineraries
-      .stream()
-      .peek(i -> {
-        var fare = fareService.getCost(i);
-        if (Objects.nonNull(fare)) {
-          i.setFare(fare);
-        }
-      })
-      .toList();
+    var fares = fareService.getCosts(itineraries);
+    for (int i = 0; i < itineraries.size(); ++i) {
+      var fare = fares.get(i);
+      if (Objects.nonNull(fare)) {
+        itineraries.get(i).setFare(fare);
+      }
+    }
+    return itineraries;
   }
 }
@@ -1,6 +1,7 @@
 package org.opentripplanner.ext.fares.impl;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -8,9 +9,11 @@ import java.util.Collection;
 import java.util.Currency;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.opentripplanner.ext.fares.model.FareAttribute;
 import org.opentripplanner.ext.flex.FlexibleTransitLeg;
 import org.opentripplanner.model.plan.Itinerary;
@@ -54,6 +57,55 @@ class FareSearch {
   }
 }
 
+/**
+ * Identify a sequence of rides, two sequences with the same key get the same fare. The rides are
+ * identified by trip, service date, boarding and alighting stop and time.
+ */
+record RideSequenceKey(FareType fareType, List<RideKey> rides) {
+  static RideSequenceKey of(FareType fareType, List<Leg> legs) {
+    List<RideKey> rides = new ArrayList<>(legs.size());
+    for (Leg leg : legs) {
+      rides.add(
+        new RideKey(
+          leg.getTrip().getId(),
+          leg.getServiceDate(),
+          leg.getFrom().stop.getId(),
+          leg.getTo().stop.getId(),
+          leg.getStartTime().toEpochSecond(),
+          leg.getEndTime().toEpochSecond()
+        )
+      );
+    }
+    return new RideSequenceKey(fareType, rides);
+  }
+
+  record RideKey(
+    FeedScopedId tripId,
+    LocalDate serviceDate,
+    FeedScopedId fromStopId,
+    FeedScopedId toStopId,
+    long startTime,
+    long endTime
+  ) {}
+}
+
+/** The fares of the ride sequences already calculated, for each collection of fare rules. */
+class FareMemo {
+
+  private final Map<Collection<FareRuleSet>, Map<RideSequenceKey, FareAndId>> faresByRules =
+    new IdentityHashMap<>();
+
+  FareAndId computeIfAbsent(
+    Collection<FareRuleSet> fareRules,
+    RideSequenceKey key,
+    Supplier<FareAndId> fare
+  ) {
+    return faresByRules
+      .computeIfAbsent(fareRules, r -> new HashMap<>())
+      .computeIfAbsent(key, k -> fare.get());
+  }
+}
+
 /** Holds fare and corresponding fareId */
 class FareAndId {
 
@@ -79,15 +131,45 @@ public class DefaultFareServiceImpl implements FareService {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultFareServiceImpl.class);
 
+  /**
+   * The fares of the ride sequences already calculated, shared by all itineraries of a request. The
+   * memo is only set while calculating the fares in {@link #getCosts(List)}, and is thread local
+   * since the fare service is shared by all requests.
+   */
+  private static final ThreadLocal<FareMemo> REQUEST_MEMO = new ThreadLocal<>();
+
   /** For each fare type (regular, student, etc...) the collection of rules that apply. */
   protected Map<FareType, Collection<FareRuleSet>> fareRulesPerType;
 
+  /** For each fare type an index of the rules in {@link #fareRulesPerType}. */
+  private final Map<FareType, FareRuleIndex> fareRuleIndexes;
+
   public DefaultFareServiceImpl() {
     fareRulesPerType = new HashMap<>();
+    fareRuleIndexes = new HashMap<>();
   }
 
   public void addFareRules(FareType fareType, Collection<FareRuleSet> fareRules) {
-    fareRulesPerType.put(fareType, new ArrayList<>(fareRules));
+    var rules = new ArrayList<>(fareRules);
+    fareRulesPerType.put(fareType, rules);
+    fareRuleIndexes.put(fareType, new FareRuleIndex(rules));
+  }
+
+  /**
+   * Calculate the fares for all itineraries, the fares of ride sequences shared by several
+   * itineraries are only calculated once.
+   */
+  @Override
+  public List<ItineraryFares> getCosts(List<Itinerary> itineraries) {
+    if (REQUEST_MEMO.get() != null) {
+      return FareService.super.getCosts(itineraries);
+    }
+    REQUEST_MEMO.set(new FareMemo());
+    try {
+      return FareService.super.getCosts(itineraries);
+    } finally {
+      REQUEST_MEMO.remove();
+    }
   }
 
   @Override
@@ -282,6 +364,22 @@ public class DefaultFareServiceImpl implements FareService {
     FareType fareType,
     List<Leg> legs,
     Collection<FareRuleSet> fareRules
+  ) {
+    var memo = REQUEST_MEMO.get();
+    if (memo == null) {
+      return findBestFareAndId(fareType, legs, fareRules);
+    }
+    return memo.computeIfAbsent(
+      fareRules,
+      RideSequenceKey.of(fareType, legs),
+      () -> findBestFareAndId(fareType, legs, fareRules)
+    );
+  }
+
+  private FareAndId findBestFareAndId(
+    FareType fareType,
+    List<Leg> legs,
+    Collection<FareRuleSet> fareRules
   ) {
     Set<String> zones = new HashSet<>();
     Set<FeedScopedId> routes = new HashSet<>();
@@ -318,36 +416,43 @@ public class DefaultFareServiceImpl implements FareService {
     Duration journeyTime = Duration.between(startTime, lastRideEndTime);
 
     // find the best fare that matches this set of rides
-    for (FareRuleSet ruleSet : fareRules) {
+    var matchingRules = findMatchingRules(
+      fareType,
+      fareRules,
+      startZone,
+      endZone,
+      zones,
+      routes,
+      trips
+    );
+    for (FareRuleSet ruleSet : matchingRules) {
       FareAttribute attribute = ruleSet.getFareAttribute();
       // fares also don't really have an agency id, they will have the per-feed default id
       // check only if the fare is not mapped to an agency
       if (!attribute.getId().getFeedId().equals(feedId)) continue;
 
-      if (ruleSet.matches(startZone, endZone, zones, routes, trips)) {
-        // TODO Maybe move the code below in FareRuleSet::matches() ?
-        if (attribute.isTransfersSet() && attribute.getTransfers() < transfersUsed) {
-          continue;
-        }
-        // assume transfers are evaluated at boarding time,
-        // as trimet does
-        if (
-          attribute.isTransferDurationSet() &&
-          tripTime.getSeconds() > attribute.getTransferDuration()
-        ) {
-          continue;
-        }
-        if (
-          attribute.isJourneyDurationSet() &&
-          journeyTime.getSeconds() > attribute.getJourneyDuration()
-        ) {
-          continue;
-        }
-        float newFare = getFarePrice(attribute, fareType);
-        if (newFare < bestFare) {
-          bestAttribute = attribute;
-          bestFare = newFare;
-        }
+      // TODO Maybe move the code below in FareRuleSet::matches() ?
+      if (attribute.isTransfersSet() && attribute.getTransfers() < transfersUsed) {
+        continue;
+      }
+      // assume transfers are evaluated at boarding time,
+      // as trimet does
+      if (
+        attribute.isTransferDurationSet() &&
+        tripTime.getSeconds() > attribute.getTransferDuration()
+      ) {
+        continue;
+      }
+      if (
+        attribute.isJourneyDurationSet() &&
+        journeyTime.getSeconds() > attribute.getJourneyDuration()
+      ) {
+        continue;
+      }
+      float newFare = getFarePrice(attribute, fareType);
+      if (newFare < bestFare) {
+        bestAttribute = attribute;
+        bestFare = newFare;
       }
     }
     LOG.debug("{} best for {}", bestAttribute, legs);
@@ -357,6 +462,32 @@ public class DefaultFareServiceImpl implements FareService {
     return new FareAndId(bestFare, bestAttribute == null ? null : bestAttribute.getId());
   }
 
+  /**
+   * Find the rules matching the rides using the index for the fare type. If the rules are not
+   * the rules of the fare type, each rule is checked.
+   */
+  private Collection<FareRuleSet> findMatchingRules(
+    FareType fareType,
+    Collection<FareRuleSet> fareRules,
+    String startZone,
+    String endZone,
+    Set<String> zones,
+    Set<FeedScopedId> routes,
+    Set<FeedScopedId> trips
+  ) {
+    FareRuleIndex index = fareRuleIndexes.get(fareType);
+    if (index != null && index.isIndexFor(fareRules)) {
+      return index.findMatching(startZone, endZone, zones, routes, trips);
+    }
+    List<FareRuleSet> result = new ArrayList<>();
+    for (FareRuleSet ruleSet : fareRules) {
+      if (ruleSet.matches(startZone, endZone, zones, routes, trips)) {
+        result.add(ruleSet);
+      }
+    }
+    return result;
+  }
+
   private float getFarePrice(FareAttribute fare, FareType type) {
     switch (type) {
       case senior:
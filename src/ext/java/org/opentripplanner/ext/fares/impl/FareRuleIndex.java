@@ -0,0 +1,144 @@
+package org.opentripplanner.ext.fares.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opentripplanner.common.model.P2;
+import org.opentripplanner.routing.core.FareRuleSet;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+
+/**
+ * An index of the fare rules for one fare type, used to find the rules matching a sequence of
+ * rides without checking every rule.
+ * <p>
+ * The rules with origin/destination restrictions are indexed by origin/destination. The other
+ * rules are indexed by route, if they have route restrictions. The zones each rule must contain
+ * are kept as bit sets, so comparing them with the zones visited does not need hashing.
+ * <p>
+ * The matching rules are returned in the same order as the rules given, so the best fare is the
+ * same as when checking all rules with {@link FareRuleSet#matches(String, String, Set, Set, Set)}.
+ */
+final class FareRuleIndex implements Serializable {
+
+  private final List<FareRuleSet> rules;
+  private final Map<P2<String>, List<Integer>> rulesByOriginDestination = new HashMap<>();
+  private final Map<FeedScopedId, List<Integer>> rulesByRoute = new HashMap<>();
+  private final List<Integer> routeRules = new ArrayList<>();
+  private final List<Integer> otherRules = new ArrayList<>();
+  private final Map<String, Integer> zoneIndex = new HashMap<>();
+  /** The zones each rule must contain, {@code null} if the rule has no such restriction. */
+  private final BitSet[] containsZones;
+
+  /**
+   * The index is only valid as long as the rules are not changed. The list is kept, so the caller
+   * can check that the index is built for the rules it uses, see {@link #isIndexFor(Object)}.
+   */
+  FareRuleIndex(List<FareRuleSet> rules) {
+    this.rules = rules;
+    this.containsZones = new BitSet[rules.size()];
+
+    for (int i = 0; i < rules.size(); ++i) {
+      FareRuleSet rule = rules.get(i);
+
+      if (!rule.getOriginDestinations().isEmpty()) {
+        for (P2<String> od : rule.getOriginDestinations()) {
+          rulesByOriginDestination.computeIfAbsent(od, k -> new ArrayList<>()).add(i);
+        }
+      } else if (!rule.getRoutes().isEmpty()) {
+        routeRules.add(i);
+        for (FeedScopedId route : rule.getRoutes()) {
+          rulesByRoute.computeIfAbsent(route, k -> new ArrayList<>()).add(i);
+        }
+      } else {
+        otherRules.add(i);
+      }
+
+      if (!rule.getContains().isEmpty()) {
+        BitSet zones = new BitSet();
+        for (String zone : rule.getContains()) {
+          zones.set(zoneIndex.computeIfAbsent(zone, z -> zoneIndex.size()));
+        }
+        containsZones[i] = zones;
+      }
+    }
+  }
+
+  /** Return {@code true} if this index is built for the given rules. */
+  boolean isIndexFor(Object rules) {
+    return this.rules == rules;
+  }
+
+  /**
+   * Find the rules matching the ride sequence, with the same result as calling {@link
+   * FareRuleSet#matches(String, String, Set, Set, Set)} for each rule.
+   */
+  List<FareRuleSet> findMatching(
+    String startZone,
+    String endZone,
+    Set<String> zonesVisited,
+    Set<FeedScopedId> routesVisited,
+    Set<FeedScopedId> tripsVisited
+  ) {
+    BitSet candidates = new BitSet(rules.size());
+
+    // These are the same origin/destination pairs as checked by FareRuleSet#matches
+    addAll(candidates, rulesByOriginDestination.get(new P2<>(startZone, endZone)));
+    addAll(candidates, rulesByOriginDestination.get(new P2<>(startZone, null)));
+    addAll(candidates, rulesByOriginDestination.get(new P2<>(null, startZone)));
+
+    // A rule with route restrictions must include all routes visited, so any route will do
+    if (routesVisited.isEmpty()) {
+      addAll(candidates, routeRules);
+    } else {
+      addAll(candidates, rulesByRoute.get(routesVisited.iterator().next()));
+    }
+    addAll(candidates, otherRules);
+
+    BitSet zones = zoneBits(zonesVisited);
+    List<FareRuleSet> result = new ArrayList<>();
+
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      FareRuleSet rule = rules.get(i);
+
+      if (containsZones[i] != null && !containsZones[i].equals(zones)) {
+        continue;
+      }
+      if (!rule.getRoutes().isEmpty() && !rule.getRoutes().containsAll(routesVisited)) {
+        continue;
+      }
+      if (!rule.getTrips().isEmpty() && !rule.getTrips().containsAll(tripsVisited)) {
+        continue;
+      }
+      result.add(rule);
+    }
+    return result;
+  }
+
+  /**
+   * Return the zones as a bit set, or {@code null} if a zone is not part of any rule. Then no
+   * rule with zone restrictions can match.
+   */
+  private BitSet zoneBits(Set<String> zonesVisited) {
+    BitSet zones = new BitSet();
+    for (String zone : zonesVisited) {
+      Integer index = zoneIndex.get(zone);
+      if (index == null) {
+        return null;
+      }
+      zones.set(index);
+    }
+    return zones;
+  }
+
+  private static void addAll(BitSet candidates, List<Integer> ruleIndexes) {
+    if (ruleIndexes != null) {
+      for (int index : ruleIndexes) {
+        candidates.set(index);
+      }
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.opentripplanner.ext.fares.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.core.ItineraryFares;
@@ -9,7 +11,25 @@ public record GtfsFaresService(DefaultFareServiceImpl faresV1, GtfsFaresV2Servic
   implements FareService {
   @Override
   public ItineraryFares getCost(Itinerary itinerary) {
-    var fare = Objects.requireNonNullElse(faresV1.getCost(itinerary), ItineraryFares.empty());
+    return addProducts(itinerary, faresV1.getCost(itinerary));
+  }
+
+  /**
+   * Calculate the GTFS Fares V1 fares for all itineraries together, so the fares of shared ride
+   * sequences are only calculated once.
+   */
+  @Override
+  public List<ItineraryFares> getCosts(List<Itinerary> itineraries) {
+    var v1Fares = faresV1.getCosts(itineraries);
+    List<ItineraryFares> result = new ArrayList<>(itineraries.size());
+    for (int i = 0; i < itineraries.size(); ++i) {
+      result.add(addProducts(itineraries.get(i), v1Fares.get(i)));
+    }
+    return result;
+  }
+
+  private ItineraryFares addProducts(Itinerary itinerary, ItineraryFares v1Fare) {
+    var fare = Objects.requireNonNullElse(v1Fare, ItineraryFares.empty());
     var products = faresV2.getProducts(itinerary);
     fare.addItineraryProducts(products.itineraryProducts());
     if (products.itineraryProducts().isEmpty()) {
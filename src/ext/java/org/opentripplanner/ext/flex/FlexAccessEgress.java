@@ -41,6 +41,29 @@ public class FlexAccessEgress {
     this.directToStop = directToStop;
   }
 
+  /**
+   * Return {@code true} if this is at least as good as the other access/egress in time and cost,
+   * and both use the same trip between the same stops on the same service date. Then the other
+   * can not be part of a better journey, since the trip schedule is the same for both.
+   * <p>
+   * An access/egress arriving directly at the stop on-board the flex trip can be followed by a
+   * transfer in Raptor, so it is not dominated by one walking to the stop.
+   */
+  boolean dominates(FlexAccessEgress other) {
+    return (
+      stop == other.stop &&
+      trip == other.trip &&
+      fromStopIndex == other.fromStopIndex &&
+      toStopIndex == other.toStopIndex &&
+      differenceFromStartOfTime == other.differenceFromStartOfTime &&
+      preFlexTime <= other.preFlexTime &&
+      flexTime <= other.flexTime &&
+      postFlexTime <= other.postFlexTime &&
+      lastState.getWeight() <= other.lastState.getWeight() &&
+      (directToStop || !other.directToStop)
+    );
+  }
+
   public int earliestDepartureTime(int departureTime) {
     int requestedTransitDepartureTime = departureTime + preFlexTime - differenceFromStartOfTime;
     int earliestAvailableTransitDepartureTime = trip.earliestDepartureTime(
@@ -9,25 +9,34 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.opentripplanner.common.model.T2;
 import org.opentripplanner.ext.flex.flexpathcalculator.DirectFlexPathCalculator;
 import org.opentripplanner.ext.flex.flexpathcalculator.FlexPathCalculator;
 import org.opentripplanner.ext.flex.flexpathcalculator.StreetFlexPathCalculator;
+import org.opentripplanner.ext.flex.template.FlexAccessEgressTemplate;
 import org.opentripplanner.ext.flex.template.FlexAccessTemplate;
 import org.opentripplanner.ext.flex.template.FlexEgressTemplate;
 import org.opentripplanner.ext.flex.trip.FlexTrip;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.algorithm.mapping.GraphPathToItineraryMapper;
+import org.opentripplanner.routing.framework.DebugTimingAggregator;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.util.OTPFeature;
 import org.opentripplanner.util.time.ServiceDateUtils;
 
 public class FlexRouter {
@@ -43,6 +52,7 @@ public class FlexRouter {
   private final FlexPathCalculator accessFlexPathCalculator;
   private final FlexPathCalculator egressFlexPathCalculator;
   private final GraphPathToItineraryMapper graphPathToItineraryMapper;
+  private final DebugTimingAggregator debugTimingAggregator;
 
   /* Request data */
   private final ZonedDateTime startOfTime;
@@ -65,12 +75,39 @@ public class FlexRouter {
     int additionalFutureSearchDays,
     Collection<NearbyStop> streetAccesses,
     Collection<NearbyStop> egressTransfers
+  ) {
+    this(
+      graph,
+      transitService,
+      config,
+      searchInstant,
+      arriveBy,
+      additionalPastSearchDays,
+      additionalFutureSearchDays,
+      streetAccesses,
+      egressTransfers,
+      new DebugTimingAggregator()
+    );
+  }
+
+  public FlexRouter(
+    Graph graph,
+    TransitService transitService,
+    FlexParameters config,
+    Instant searchInstant,
+    boolean arriveBy,
+    int additionalPastSearchDays,
+    int additionalFutureSearchDays,
+    Collection<NearbyStop> streetAccesses,
+    Collection<NearbyStop> egressTransfers,
+    DebugTimingAggregator debugTimingAggregator
   ) {
     this.graph = graph;
     this.transitService = transitService;
     this.config = config;
     this.streetAccesses = streetAccesses;
     this.streetEgresses = egressTransfers;
+    this.debugTimingAggregator = debugTimingAggregator;
     this.flexIndex = transitService.getFlexIndex();
     this.graphPathToItineraryMapper =
       new GraphPathToItineraryMapper(
@@ -118,28 +155,35 @@ public class FlexRouter {
     Multimap<StopLocation, NearbyStop> streetEgressByStop = HashMultimap.create();
     streetEgresses.forEach(it -> streetEgressByStop.put(it.stop, it));
 
-    Collection<Itinerary> itineraries = new ArrayList<>();
-
-    for (FlexAccessTemplate template : this.flexAccessTemplates) {
-      StopLocation transferStop = template.getTransferStop();
-      if (
-        this.flexEgressTemplates.stream()
-          .anyMatch(t -> t.getAccessEgressStop().equals(transferStop))
-      ) {
-        for (NearbyStop egress : streetEgressByStop.get(transferStop)) {
-          Itinerary itinerary = template.createDirectGraphPath(
-            egress,
-            arriveBy,
-            departureTime,
-            startOfTime,
-            graphPathToItineraryMapper
-          );
-          if (itinerary != null) {
-            itineraries.add(itinerary);
-          }
-        }
-      }
-    }
+    long startTime = System.nanoTime();
+
+    List<Itinerary> itineraries = stream(this.flexAccessTemplates)
+      .filter(template -> {
+        StopLocation transferStop = template.getTransferStop();
+        return this.flexEgressTemplates.stream()
+          .anyMatch(t -> t.getAccessEgressStop().equals(transferStop));
+      })
+      .flatMap(template ->
+        streetEgressByStop
+          .get(template.getTransferStop())
+          .stream()
+          .map(egress ->
+            template.createDirectGraphPath(
+              egress,
+              arriveBy,
+              departureTime,
+              startOfTime,
+              graphPathToItineraryMapper
+            )
+          )
+      )
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+
+    debugTimingAggregator.finishedFlexAccessEgress(
+      System.nanoTime() - startTime,
+      itineraries.size()
+    );
 
     return itineraries;
   }
@@ -147,17 +191,53 @@ public class FlexRouter {
   public Collection<FlexAccessEgress> createFlexAccesses() {
     calculateFlexAccessTemplates();
 
-    return this.flexAccessTemplates.stream()
-      .flatMap(template -> template.createFlexAccessEgressStream(graph, transitService))
-      .collect(Collectors.toList());
+    return createFlexAccessEgresses(this.flexAccessTemplates);
   }
 
   public Collection<FlexAccessEgress> createFlexEgresses() {
     calculateFlexEgressTemplates();
 
-    return this.flexEgressTemplates.stream()
-      .flatMap(template -> template.createFlexAccessEgressStream(graph, transitService))
-      .collect(Collectors.toList());
+    return createFlexAccessEgresses(this.flexEgressTemplates);
+  }
+
+  /**
+   * Remove the access/egresses dominated by another one using the same trip between the same
+   * stops, see {@link FlexAccessEgress#dominates(FlexAccessEgress)}. Only one of several equal
+   * access/egresses is kept. The order of the access/egresses is kept.
+   */
+  static List<FlexAccessEgress> removeDominated(List<FlexAccessEgress> accessEgresses) {
+    Map<StopLocation, List<FlexAccessEgress>> keptByStop = new HashMap<>();
+
+    for (FlexAccessEgress it : accessEgresses) {
+      List<FlexAccessEgress> kept = keptByStop.computeIfAbsent(it.stop, s -> new ArrayList<>());
+      if (kept.stream().noneMatch(k -> k.dominates(it))) {
+        kept.removeIf(it::dominates);
+        kept.add(it);
+      }
+    }
+
+    Set<FlexAccessEgress> result = Collections.newSetFromMap(new IdentityHashMap<>());
+    keptByStop.values().forEach(result::addAll);
+    return accessEgresses.stream().filter(result::contains).collect(Collectors.toList());
+  }
+
+  private Collection<FlexAccessEgress> createFlexAccessEgresses(
+    List<? extends FlexAccessEgressTemplate> templates
+  ) {
+    long startTime = System.nanoTime();
+
+    List<FlexAccessEgress> accessEgresses = removeDominated(
+      stream(templates)
+        .flatMap(template -> template.createFlexAccessEgressStream(graph, transitService))
+        .collect(Collectors.toList())
+    );
+
+    debugTimingAggregator.finishedFlexAccessEgress(
+      System.nanoTime() - startTime,
+      accessEgresses.size()
+    );
+
+    return accessEgresses;
   }
 
   private void calculateFlexAccessTemplates() {
@@ -165,9 +245,11 @@ public class FlexRouter {
       return;
     }
 
+    long startTime = System.nanoTime();
+
     // Fetch the closest flexTrips reachable from the access stops
     this.flexAccessTemplates =
-      getClosestFlexTrips(streetAccesses, true)
+      stream(getClosestFlexTrips(streetAccesses, true))
         // For each date the router has data for
         .flatMap(t2 ->
           Arrays
@@ -180,6 +262,11 @@ public class FlexRouter {
             )
         )
         .collect(Collectors.toList());
+
+    debugTimingAggregator.finishedFlexTemplates(
+      System.nanoTime() - startTime,
+      flexAccessTemplates.size()
+    );
   }
 
   private void calculateFlexEgressTemplates() {
@@ -187,9 +274,11 @@ public class FlexRouter {
       return;
     }
 
+    long startTime = System.nanoTime();
+
     // Fetch the closest flexTrips reachable from the egress stops
     this.flexEgressTemplates =
-      getClosestFlexTrips(streetEgresses, false)
+      stream(getClosestFlexTrips(streetEgresses, false))
         // For each date the router has data for
         .flatMap(t2 ->
           Arrays
@@ -202,9 +291,23 @@ public class FlexRouter {
             )
         )
         .collect(Collectors.toList());
+
+    debugTimingAggregator.finishedFlexTemplates(
+      System.nanoTime() - startTime,
+      flexEgressTemplates.size()
+    );
   }
 
-  private Stream<T2<NearbyStop, FlexTrip<?, ?>>> getClosestFlexTrips(
+  /**
+   * The templates are created, and the flex paths calculated, in parallel if the {@link
+   * OTPFeature#ParallelRouting} feature is on. The order of the result is the same as for a
+   * sequential stream.
+   */
+  private static <T> Stream<T> stream(Collection<T> collection) {
+    return OTPFeature.ParallelRouting.isOn() ? collection.parallelStream() : collection.stream();
+  }
+
+  private List<T2<NearbyStop, FlexTrip<?, ?>>> getClosestFlexTrips(
     Collection<NearbyStop> nearbyStops,
     boolean pickup
   ) {
@@ -234,6 +337,7 @@ public class FlexRouter {
       .map(t2s ->
         t2s.stream().min(Comparator.comparingLong(t2 -> t2.first.state.getElapsedTimeSeconds()))
       )
-      .flatMap(Optional::stream);
+      .flatMap(Optional::stream)
+      .collect(Collectors.toList());
   }
 }
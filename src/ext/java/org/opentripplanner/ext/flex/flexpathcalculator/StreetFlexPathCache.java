@@ -0,0 +1,82 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+
+/**
+ * A cache of the one-to-many car searches done by the {@link StreetFlexPathCalculator}, shared by
+ * all requests. Popular flex zones use the same stop vertices as the origin of the search in most
+ * requests, so the same trees would otherwise be computed again for each request.
+ * <p>
+ * There is one cache for each graph. The graph is held with a weak reference, so the cache is
+ * dropped together with the graph when a new graph is loaded. For this to work the cached trees
+ * must not reference the graph, so the {@link StreetFlexPathTree} is cached instead of the
+ * shortest path tree, which references the routing context and the graph from each state.
+ * <p>
+ * The cache is bounded by the total number of paths in the trees, the least recently used trees
+ * are evicted first.
+ * <p>
+ * Only trees from permanent vertices can be shared, a tree from a temporary vertex is only valid
+ * for the request creating the vertex.
+ * <p>
+ * THREAD SAFETY - The cache is thread-safe. The trees are not modified after they are created, so
+ * they can be read by several requests at the same time.
+ */
+public class StreetFlexPathCache {
+
+  /**
+   * A 45 minute car search can visit a large part of the street network, so the size of the trees
+   * varies a lot. Each path uses about 40 bytes, so this is about 200 MB.
+   */
+  private static final long MAX_PATHS = 5_000_000;
+
+  private static final LoadingCache<Graph, StreetFlexPathCache> CACHE_BY_GRAPH = CacheBuilder
+    .newBuilder()
+    .weakKeys()
+    .build(CacheLoader.from(graph -> new StreetFlexPathCache(MAX_PATHS)));
+
+  private final Cache<CacheKey, StreetFlexPathTree> cache;
+
+  StreetFlexPathCache(long maxPaths) {
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxPaths)
+        .<CacheKey, StreetFlexPathTree>weigher((key, tree) -> tree.size())
+        .build();
+  }
+
+  /** Return the cache for the given graph. */
+  public static StreetFlexPathCache forGraph(Graph graph) {
+    return CACHE_BY_GRAPH.getUnchecked(graph);
+  }
+
+  /**
+   * Return the tree for the given origin vertex and direction, and use the given function to
+   * compute it if it is not in the cache. Concurrent requests for the same tree wait for the first
+   * one to complete instead of doing the same search.
+   */
+  StreetFlexPathTree get(
+    Vertex originVertex,
+    boolean reverseDirection,
+    Function<Vertex, StreetFlexPathTree> routeToMany
+  ) {
+    try {
+      return cache.get(
+        new CacheKey(originVertex, reverseDirection),
+        () -> routeToMany.apply(originVertex)
+      );
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw new RuntimeException("Failed to get item from flex path cache", e.getCause());
+    }
+  }
+
+  private record CacheKey(Vertex originVertex, boolean reverseDirection) {}
+}
@@ -1,8 +1,8 @@
 package org.opentripplanner.ext.flex.flexpathcalculator;
 
 import java.time.Duration;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opentripplanner.routing.algorithm.astar.AStarBuilder;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.core.RoutingContext;
@@ -10,34 +10,41 @@ import org.opentripplanner.routing.core.TraverseMode;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.Vertex;
 import org.opentripplanner.routing.spt.DominanceFunction;
-import org.opentripplanner.routing.spt.GraphPath;
 import org.opentripplanner.routing.spt.ShortestPathTree;
+import org.opentripplanner.routing.vertextype.TemporaryVertex;
 
 /**
  * StreetFlexPathCalculator calculates the driving times and distances based on the street network
  * using the AStar algorithm.
  * <p>
- * Note that it caches the whole ShortestPathTree the first time it encounters a new fromVertex.
- * Subsequent requests from the same fromVertex can fetch the path to the toVertex from the existing
- * ShortestPathTree. This one-to-many approach is needed to make the performance acceptable.
+ * Note that it caches the result of a one-to-many search, as a {@link StreetFlexPathTree}, the
+ * first time it encounters a new fromVertex. Subsequent requests from the same fromVertex can fetch
+ * the path to the toVertex from the existing tree. This one-to-many approach is needed to make the
+ * performance acceptable.
  * <p>
  * Because we will have lots of searches with the same origin when doing access searches and a lot
  * of searches with the same destination when doing egress searches, the calculator needs to be
  * configured so that the caching is done with either the origin or destination vertex as the key.
  * The one-to-many search will then either be done in the forward or the reverse direction depending
  * on this configuration.
+ * <p>
+ * The trees from permanent vertices are kept in a {@link StreetFlexPathCache} shared by all
+ * requests. The trees from or to temporary vertices are only cached for this instance, since they
+ * are only valid for the current request.
  */
 public class StreetFlexPathCalculator implements FlexPathCalculator {
 
   private static final Duration MAX_FLEX_TRIP_DURATION = Duration.ofMinutes(45);
 
   private final Graph graph;
-  private final Map<Vertex, ShortestPathTree> cache = new HashMap<>();
+  private final StreetFlexPathCache sharedCache;
+  private final Map<Vertex, StreetFlexPathTree> cache = new ConcurrentHashMap<>();
   private final boolean reverseDirection;
 
   public StreetFlexPathCalculator(Graph graph, boolean reverseDirection) {
     this.graph = graph;
     this.reverseDirection = reverseDirection;
+    this.sharedCache = StreetFlexPathCache.forGraph(graph);
   }
 
   @Override
@@ -47,29 +54,18 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
     Vertex originVertex = reverseDirection ? tov : fromv;
     Vertex destinationVertex = reverseDirection ? fromv : tov;
 
-    ShortestPathTree shortestPathTree;
-    if (cache.containsKey(originVertex)) {
-      shortestPathTree = cache.get(originVertex);
+    StreetFlexPathTree tree;
+    if (originVertex instanceof TemporaryVertex || destinationVertex instanceof TemporaryVertex) {
+      // A shared tree does not include the temporary vertices of this request
+      tree = cache.computeIfAbsent(originVertex, this::routeToMany);
     } else {
-      shortestPathTree = routeToMany(originVertex);
-      cache.put(originVertex, shortestPathTree);
-    }
-
-    GraphPath path = shortestPathTree.getPath(destinationVertex);
-    if (path == null) {
-      return null;
+      tree = sharedCache.get(originVertex, reverseDirection, this::routeToMany);
     }
 
-    int distance = (int) path.getDistanceMeters();
-    int duration = path.getDuration();
-
-    // computing the linestring from the graph path is a surprisingly expensive operation
-    // so we delay it until it's actually needed. since most flex paths are never shown to the user
-    // this improves performance quite a bit.
-    return new FlexPath(distance, duration, path::getGeometry);
+    return tree.getPath(destinationVertex);
   }
 
-  private ShortestPathTree routeToMany(Vertex vertex) {
+  private StreetFlexPathTree routeToMany(Vertex vertex) {
     RoutingRequest routingRequest = new RoutingRequest(TraverseMode.CAR);
     routingRequest.arriveBy = reverseDirection;
     RoutingContext rctx;
@@ -79,10 +75,12 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
       rctx = new RoutingContext(routingRequest, graph, vertex, null);
     }
 
-    return AStarBuilder
+    ShortestPathTree spt = AStarBuilder
       .allDirectionsMaxDuration(MAX_FLEX_TRIP_DURATION)
       .setDominanceFunction(new DominanceFunction.EarliestArrival())
       .setContext(rctx)
       .getShortestPathTree();
+
+    return StreetFlexPathTree.of(spt, reverseDirection);
   }
 }
@@ -0,0 +1,192 @@
+package org.opentripplanner.ext.flex.flexpathcalculator;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.locationtech.jts.geom.LineString;
+import org.opentripplanner.api.resource.CoordinateArrayListSequence;
+import org.opentripplanner.routing.core.State;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.spt.GraphPath;
+import org.opentripplanner.routing.spt.ShortestPathTree;
+import org.opentripplanner.util.geometry.GeometryUtils;
+
+/**
+ * The result of a one-to-many car search, with the duration and distance to each vertex reached
+ * by the search. The {@link ShortestPathTree} keeps all the states of the search, and each state
+ * references the routing context with the graph and the request. This tree only keeps the numbers
+ * needed to create a {@link FlexPath}, and the back edge of each path, so the geometry can be
+ * created when it is needed.
+ * <p>
+ * The paths are the same as the paths returned by {@link ShortestPathTree#getPath(Vertex)}.
+ * <p>
+ * THREAD SAFETY - The tree is immutable, so it can be read by several requests at the same time.
+ */
+final class StreetFlexPathTree {
+
+  private static final int NOT_FOUND = -1;
+
+  private final boolean reverseDirection;
+
+  /** The index of the path to each vertex reached by the search. */
+  private final TObjectIntMap<Vertex> indexByVertex;
+
+  /** The index of the path this path extends, or {@link #NOT_FOUND} for the origin. */
+  private final int[] parents;
+
+  private final Edge[] backEdges;
+  private final int[] durations;
+  private final double[] distances;
+
+  private StreetFlexPathTree(
+    boolean reverseDirection,
+    TObjectIntMap<Vertex> indexByVertex,
+    int[] parents,
+    Edge[] backEdges,
+    int[] durations,
+    double[] distances
+  ) {
+    this.reverseDirection = reverseDirection;
+    this.indexByVertex = indexByVertex;
+    this.parents = parents;
+    this.backEdges = backEdges;
+    this.durations = durations;
+    this.distances = distances;
+  }
+
+  /**
+   * @param reverseDirection {@code true} if the search is done in the reverse direction, from the
+   *                         destination of the flex trip.
+   */
+  static StreetFlexPathTree of(ShortestPathTree spt, boolean reverseDirection) {
+    return new Builder(spt, reverseDirection).build();
+  }
+
+  /**
+   * Return the path to the given vertex from the origin of the search, or {@code null} if the
+   * vertex is not reached.
+   */
+  FlexPath getPath(Vertex destination) {
+    int index = indexByVertex.get(destination);
+    if (index == NOT_FOUND) {
+      return null;
+    }
+    // computing the linestring from the edges is a surprisingly expensive operation
+    // so we delay it until it's actually needed. since most flex paths are never shown to the user
+    // this improves performance quite a bit.
+    return new FlexPath((int) distances[index], durations[index], () -> geometry(index));
+  }
+
+  /** The number of paths in the tree, used to bound the memory used by the shared cache. */
+  int size() {
+    return parents.length;
+  }
+
+  /** Create the geometry in the same way as {@link GraphPath#getGeometry()}. */
+  private LineString geometry(int index) {
+    List<Edge> edges = new ArrayList<>();
+    for (int i = index; parents[i] != NOT_FOUND; i = parents[i]) {
+      if (backEdges[i] != null) {
+        edges.add(backEdges[i]);
+      }
+    }
+    // The edges are listed from the destination to the origin of the search. In a reverse search
+    // this is the same as the travel direction.
+    if (!reverseDirection) {
+      Collections.reverse(edges);
+    }
+
+    CoordinateArrayListSequence coordinates = new CoordinateArrayListSequence();
+    for (Edge edge : edges) {
+      LineString geometry = edge.getGeometry();
+
+      if (geometry != null) {
+        if (coordinates.size() == 0) {
+          coordinates.extend(geometry.getCoordinates());
+        } else {
+          // Avoid duplications
+          coordinates.extend(geometry.getCoordinates(), 1);
+        }
+      }
+    }
+    return GeometryUtils.getGeometryFactory().createLineString(coordinates);
+  }
+
+  private static class Builder {
+
+    private final ShortestPathTree spt;
+    private final boolean reverseDirection;
+    private final Map<State, Integer> indexByState = new IdentityHashMap<>();
+    private final TIntArrayList parents = new TIntArrayList();
+    private final List<Edge> backEdges = new ArrayList<>();
+    private final TIntArrayList durations = new TIntArrayList();
+    private final TDoubleArrayList distances = new TDoubleArrayList();
+
+    private Builder(ShortestPathTree spt, boolean reverseDirection) {
+      this.spt = spt;
+      this.reverseDirection = reverseDirection;
+    }
+
+    private StreetFlexPathTree build() {
+      TObjectIntMap<Vertex> indexByVertex = new TObjectIntHashMap<>(
+        spt.getVertexCount(),
+        0.5f,
+        NOT_FOUND
+      );
+      for (Vertex vertex : spt.getVertices()) {
+        State state = spt.getState(vertex);
+        if (state != null) {
+          indexByVertex.put(vertex, add(state));
+        }
+      }
+      return new StreetFlexPathTree(
+        reverseDirection,
+        indexByVertex,
+        parents.toArray(),
+        backEdges.toArray(new Edge[0]),
+        durations.toArray(),
+        distances.toArray()
+      );
+    }
+
+    /**
+     * Add the path to the given state, and the paths to the states before it, unless they are
+     * already added. The best states of the vertices are mostly on the paths to each other, so
+     * most paths only add one state.
+     */
+    private int add(State state) {
+      ArrayDeque<State> newStates = new ArrayDeque<>();
+      State s = state;
+      while (s != null && !indexByState.containsKey(s)) {
+        newStates.push(s);
+        s = s.getBackState();
+      }
+      int parent = s == null ? NOT_FOUND : indexByState.get(s);
+
+      while (!newStates.isEmpty()) {
+        s = newStates.pop();
+        Edge backEdge = parent == NOT_FOUND ? null : s.getBackEdge();
+        double distance = parent == NOT_FOUND ? 0 : distances.get(parent);
+        if (backEdge != null) {
+          distance += backEdge.getDistanceMeters();
+        }
+        parents.add(parent);
+        backEdges.add(backEdge);
+        durations.add((int) s.getElapsedTimeSeconds());
+        distances.add(distance);
+
+        parent = parents.size() - 1;
+        indexByState.put(s, parent);
+      }
+      return parent;
+    }
+  }
+}
@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opentripplanner.transit.model.basic.SubMode;
 import org.opentripplanner.transit.model.basic.TransitMode;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
@@ -15,8 +16,8 @@ import org.opentripplanner.transit.model.network.Route;
 import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.timetable.Trip;
 import org.opentripplanner.transit.model.timetable.TripOnServiceDate;
-import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.transit.service.TripMatchingIndex;
 import org.opentripplanner.util.time.ServiceDateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,8 +37,9 @@ import uk.org.siri.siri20.VehicleModesEnumeration;
  * process will always be applied even in places where you have good quality IDs in SIRI data and
  * don't need it - we'd have to add a way to disable it.
  * <p>
- * The same instance of this SiriFuzzyTripMatcher may appear in different SIRI updaters. Be sure
- * to fetch the instance at during the setup of the updaters, the initialization is not thread-safe.
+ * The same instance of this SiriFuzzyTripMatcher may appear in different SIRI updaters, and it is
+ * safe to use from several threads. The indexes built at startup are immutable, and the lookups on
+ * last stop arrival and vehicle ref use the shared {@link TripMatchingIndex}.
  */
 public class SiriFuzzyTripMatcher {
 
@@ -45,21 +47,19 @@ public class SiriFuzzyTripMatcher {
 
   private static SiriFuzzyTripMatcher instance;
 
-  private final Map<String, Set<Trip>> mappedTripsCache = new HashMap<>();
-  private final Map<String, Set<Trip>> mappedVehicleRefCache = new HashMap<>();
-  private final Map<String, Set<Route>> mappedRoutesCache = new HashMap<>();
-  private final Map<String, Set<Trip>> start_stop_tripCache = new HashMap<>();
-  private final Map<String, Trip> vehicleJourneyTripCache = new HashMap<>();
-  private final Set<String> nonExistingStops = new HashSet<>();
+  private static final SubMode RAIL_REPLACEMENT_BUS = SubMode.of("railReplacementBus");
+
+  private final Map<String, Set<Trip>> mappedTripsCache;
+  private final Map<String, Set<Route>> mappedRoutesCache;
+  private final Map<String, Trip> vehicleJourneyTripCache = new ConcurrentHashMap<>();
+  private final Set<String> nonExistingStops = ConcurrentHashMap.newKeySet();
   private final TransitService transitService;
+  private final TripMatchingIndex tripMatchingIndex;
 
   /**
    * Factory method used to create only one instance.
-   * <p>
-   * THIS METHOD IS NOT THREAD-SAFE AND SHOULD BE CALLED DURING THE
-   * INITIALIZATION PROCESS.
    */
-  public static SiriFuzzyTripMatcher of(TransitService transitService) {
+  public static synchronized SiriFuzzyTripMatcher of(TransitService transitService) {
     if (instance == null) {
       instance = new SiriFuzzyTripMatcher(transitService);
     }
@@ -68,7 +68,12 @@ public class SiriFuzzyTripMatcher {
 
   private SiriFuzzyTripMatcher(TransitService transitService) {
     this.transitService = transitService;
-    initCache(this.transitService);
+    this.tripMatchingIndex = transitService.getTripMatchingIndex();
+    this.mappedTripsCache = initTripsCache(transitService);
+    this.mappedRoutesCache = initRoutesCache(transitService);
+    transitService
+      .getAllTrips()
+      .forEach(trip -> vehicleJourneyTripCache.put(trip.getId().getId(), trip));
   }
 
   /**
@@ -83,7 +88,7 @@ public class SiriFuzzyTripMatcher {
         datedVehicleRef =
           monitoredVehicleJourney.getFramedVehicleJourneyRef().getDatedVehicleJourneyRef();
         if (datedVehicleRef != null) {
-          trips = mappedTripsCache.get(datedVehicleRef);
+          trips = mappedTripsCache.getOrDefault(datedVehicleRef, Set.of());
         }
       }
       if (monitoredVehicleJourney.getDestinationRef() != null) {
@@ -181,7 +186,7 @@ public class SiriFuzzyTripMatcher {
   }
 
   public Set<Route> getRoutes(String lineRefValue) {
-    return mappedRoutesCache.getOrDefault(lineRefValue, new HashSet<>());
+    return mappedRoutesCache.getOrDefault(lineRefValue, Set.of());
   }
 
   public FeedScopedId getTripId(String vehicleJourney, String feedId) {
@@ -260,77 +265,34 @@ public class SiriFuzzyTripMatcher {
     return null;
   }
 
-  private void initCache(TransitService index) {
-    if (mappedTripsCache.isEmpty()) {
-      for (Trip trip : index.getAllTrips()) {
-        TripPattern tripPattern = index.getPatternForTrip(trip);
-
-        if (tripPattern == null) {
-          continue;
-        }
-
-        String currentTripId = getUnpaddedTripId(trip.getId().getId());
-
-        if (mappedTripsCache.containsKey(currentTripId)) {
-          mappedTripsCache.get(currentTripId).add(trip);
-        } else {
-          Set<Trip> initialSet = new HashSet<>();
-          initialSet.add(trip);
-          mappedTripsCache.put(currentTripId, initialSet);
-        }
-
-        if (tripPattern.matchesModeOrSubMode(TransitMode.RAIL, SubMode.of("railReplacementBus"))) {
-          if (trip.getNetexInternalPlanningCode() != null) {
-            String internalPlanningCode = trip.getNetexInternalPlanningCode();
-            if (mappedVehicleRefCache.containsKey(internalPlanningCode)) {
-              mappedVehicleRefCache.get(internalPlanningCode).add(trip);
-            } else {
-              Set<Trip> initialSet = new HashSet<>();
-              initialSet.add(trip);
-              mappedVehicleRefCache.put(internalPlanningCode, initialSet);
-            }
-          }
-        }
-        String lastStopId = tripPattern.lastStop().getId().getId();
-
-        TripTimes tripTimes = tripPattern.getScheduledTimetable().getTripTimes(trip);
-        if (tripTimes != null) {
-          int arrivalTime = tripTimes.getArrivalTime(tripTimes.getNumStops() - 1);
-
-          String key = createStartStopKey(lastStopId, arrivalTime);
-          if (start_stop_tripCache.containsKey(key)) {
-            start_stop_tripCache.get(key).add(trip);
-          } else {
-            Set<Trip> initialSet = new HashSet<>();
-            initialSet.add(trip);
-            start_stop_tripCache.put(key, initialSet);
-          }
-        }
+  private static Map<String, Set<Trip>> initTripsCache(TransitService transitService) {
+    Map<String, Set<Trip>> cache = new HashMap<>();
+    for (Trip trip : transitService.getAllTrips()) {
+      if (transitService.getPatternForTrip(trip) == null) {
+        continue;
       }
-      for (Route route : index.getAllRoutes()) {
-        String currentRouteId = getUnpaddedTripId(route.getId().getId());
-        if (mappedRoutesCache.containsKey(currentRouteId)) {
-          mappedRoutesCache.get(currentRouteId).add(route);
-        } else {
-          Set<Route> initialSet = new HashSet<>();
-          initialSet.add(route);
-          mappedRoutesCache.put(currentRouteId, initialSet);
-        }
-      }
-
-      LOG.info("Built route-cache [{}].", mappedRoutesCache.size());
-      LOG.info("Built vehicleRef-cache [{}].", mappedVehicleRefCache.size());
-      LOG.info("Built trips-cache [{}].", mappedTripsCache.size());
-      LOG.info("Built start-stop-cache [{}].", start_stop_tripCache.size());
+      cache
+        .computeIfAbsent(getUnpaddedTripId(trip.getId().getId()), k -> new HashSet<>())
+        .add(trip);
     }
+    LOG.info("Built trips-cache [{}].", cache.size());
+    return immutableValues(cache);
+  }
 
-    if (vehicleJourneyTripCache.isEmpty()) {
-      index.getAllTrips().forEach(trip -> vehicleJourneyTripCache.put(trip.getId().getId(), trip));
+  private static Map<String, Set<Route>> initRoutesCache(TransitService transitService) {
+    Map<String, Set<Route>> cache = new HashMap<>();
+    for (Route route : transitService.getAllRoutes()) {
+      cache
+        .computeIfAbsent(getUnpaddedTripId(route.getId().getId()), k -> new HashSet<>())
+        .add(route);
     }
+    LOG.info("Built route-cache [{}].", cache.size());
+    return immutableValues(cache);
   }
 
-  private static String createStartStopKey(String lastStopId, int lastStopArrivalTime) {
-    return lastStopId + ":" + lastStopArrivalTime;
+  private static <T> Map<String, Set<T>> immutableValues(Map<String, Set<T>> map) {
+    map.replaceAll((k, v) -> Set.copyOf(v));
+    return Map.copyOf(map);
   }
 
   private static String getUnpaddedTripId(String id) {
@@ -367,33 +329,31 @@ public class SiriFuzzyTripMatcher {
       transitService.getTimeZone()
     );
 
-    Set<Trip> trips = start_stop_tripCache.get(
-      createStartStopKey(lastStopPoint, secondsSinceMidnight)
+    var lastStopId = new FeedScopedId(feedId, lastStopPoint);
+    Set<Trip> trips = tripMatchingIndex.findTripsByLastStopArrival(
+      lastStopId,
+      secondsSinceMidnight
     );
-    if (trips == null) {
+    if (trips.isEmpty()) {
       //Attempt to fetch trips that started yesterday - i.e. add 24 hours to arrival-time
       trips =
-        start_stop_tripCache.get(createStartStopKey(lastStopPoint, secondsSinceMidnightYesterday));
+        tripMatchingIndex.findTripsByLastStopArrival(lastStopId, secondsSinceMidnightYesterday);
     }
 
-    if (trips == null || trips.isEmpty()) {
+    if (trips.isEmpty()) {
       //SIRI-data may report other platform, but still on the same Parent-stop
-      var stop = transitService.getRegularStop(new FeedScopedId(feedId, lastStopPoint));
+      var stop = transitService.getRegularStop(lastStopId);
       if (stop != null && stop.isPartOfStation()) {
         // TODO OTP2 resolve stop-station split
         var allQuays = stop.getParentStation().getChildStops();
+        // The sets in the index are immutable and shared, collect the matches in a new set
+        Set<Trip> siblingTrips = new HashSet<>();
         for (var quay : allQuays) {
-          Set<Trip> tripSet = start_stop_tripCache.get(
-            createStartStopKey(quay.getId().getId(), secondsSinceMidnight)
+          siblingTrips.addAll(
+            tripMatchingIndex.findTripsByLastStopArrival(quay.getId(), secondsSinceMidnight)
           );
-          if (tripSet != null) {
-            if (trips == null) {
-              trips = tripSet;
-            } else {
-              trips.addAll(tripSet);
-            }
-          }
         }
+        trips = siblingTrips;
       }
     }
     return trips;
@@ -403,13 +363,21 @@ public class SiriFuzzyTripMatcher {
     if (vehicleRef == null) {
       return null;
     }
-    return mappedVehicleRefCache.getOrDefault(vehicleRef, new HashSet<>());
+    // Only rail and rail replacement bus trips are matched on vehicle ref
+    Set<Trip> trips = new HashSet<>();
+    for (Trip trip : tripMatchingIndex.findTripsByInternalPlanningCode(vehicleRef)) {
+      TripPattern pattern = transitService.getPatternForTrip(trip);
+      if (pattern != null && pattern.matchesModeOrSubMode(TransitMode.RAIL, RAIL_REPLACEMENT_BUS)) {
+        trips.add(trip);
+      }
+    }
+    return trips;
   }
 
   private Set<Trip> getCachedTripsBySiriId(String tripId) {
     if (tripId == null) {
       return null;
     }
-    return mappedTripsCache.getOrDefault(tripId, new HashSet<>());
+    return mappedTripsCache.getOrDefault(tripId, Set.of());
   }
 }
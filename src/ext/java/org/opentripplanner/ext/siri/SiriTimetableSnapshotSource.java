@@ -40,6 +40,7 @@ import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.updater.GraphWriterBatchListener;
 import org.opentripplanner.updater.TimetableSnapshotSourceParameters;
 import org.opentripplanner.util.time.ServiceDateUtils;
 import org.rutebanken.netex.model.BusSubmodeEnumeration;
@@ -66,7 +67,8 @@ import uk.org.siri.siri20.VehicleMonitoringDeliveryStructure;
  * necessary to provide planning threads a consistent constant view of a graph with realtime data at
  * a specific point in time.
  */
-public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
+public class SiriTimetableSnapshotSource
+  implements TimetableSnapshotProvider, GraphWriterBatchListener {
 
   private static final Logger LOG = LoggerFactory.getLogger(SiriTimetableSnapshotSource.class);
 
@@ -81,6 +83,12 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
    * Lock to indicate that buffer is in use
    */
   private final ReentrantLock bufferLock = new ReentrantLock(true);
+
+  /**
+   * Set while a batch of graph writers is executed, the snapshot commit is then deferred to the end
+   * of the batch. Should only be accessed by a thread holding the {@link #bufferLock}.
+   */
+  private boolean writeBatchInProgress = false;
   /**
    * Use a id generator to generate TripPattern ids for new TripPatterns created by RealTime
    * updates.
@@ -223,14 +231,13 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
         }
       }
 
-      // Make a snapshot after each message in anticipation of incoming requests
+      // Make a snapshot after each message in anticipation of incoming requests, unless the
+      // message is part of a write batch - then the snapshot is made after the batch.
       // Purge data if necessary (and force new snapshot if anything was purged)
       // Make sure that the public (locking) getTimetableSnapshot function is not called.
-      if (purgeExpiredData) {
-        final boolean modified = purgeExpiredData();
+      final boolean modified = purgeExpiredData && purgeExpiredData();
+      if (modified || !writeBatchInProgress) {
         getTimetableSnapshot(modified);
-      } else {
-        getTimetableSnapshot(false);
       }
     } finally {
       // Always release lock
@@ -327,14 +334,13 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       LOG.debug("message contains {} trip updates", updates.size());
       LOG.debug("end of update message");
 
-      // Make a snapshot after each message in anticipation of incoming requests
+      // Make a snapshot after each message in anticipation of incoming requests, unless the
+      // message is part of a write batch - then the snapshot is made after the batch.
       // Purge data if necessary (and force new snapshot if anything was purged)
       // Make sure that the public (locking) getTimetableSnapshot function is not called.
-      if (purgeExpiredData) {
-        final boolean modified = purgeExpiredData();
+      final boolean modified = purgeExpiredData && purgeExpiredData();
+      if (modified || !writeBatchInProgress) {
         getTimetableSnapshot(modified);
-      } else {
-        getTimetableSnapshot(false);
       }
     } finally {
       // Always release lock
@@ -342,6 +348,31 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
     }
   }
 
+  @Override
+  public void beforeWriteBatch() {
+    bufferLock.lock();
+    try {
+      writeBatchInProgress = true;
+    } finally {
+      bufferLock.unlock();
+    }
+  }
+
+  /**
+   * Make a snapshot after the batch, if the buffer is modified. The same snapshot frequency limit
+   * applies as for single updates.
+   */
+  @Override
+  public void afterWriteBatch() {
+    bufferLock.lock();
+    try {
+      writeBatchInProgress = false;
+      getTimetableSnapshot(false);
+    } finally {
+      bufferLock.unlock();
+    }
+  }
+
   private TimetableSnapshot getTimetableSnapshot(final boolean force) {
     final long now = System.currentTimeMillis();
     if (force || now - lastSnapshotTime > maxSnapshotFrequency) {
@@ -0,0 +1,164 @@
+package org.opentripplanner.ext.siri.updater;
+
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
+import uk.org.siri.siri20.EstimatedVehicleJourney;
+import uk.org.siri.siri20.EstimatedVersionFrameStructure;
+import uk.org.siri.siri20.Siri;
+
+/**
+ * Parse a SIRI ET service delivery from a stream without reading the whole document into memory.
+ * Each {@code EstimatedVehicleJourney} is unmarshalled on its own, and the journeys are passed on
+ * in chunks of at most {@code chunkSize} journeys, wrapped in a
+ * {@link EstimatedTimetableDeliveryStructure}. The memory used is bounded by the chunk size, not
+ * by the size of the delivery.
+ * <p>
+ * This class is not thread-safe, create a new instance for each stream.
+ */
+class EstimatedTimetableStreamParser {
+
+  private static final String SERVICE_DELIVERY = "ServiceDelivery";
+  private static final String RESPONSE_TIMESTAMP = "ResponseTimestamp";
+  private static final String MORE_DATA = "MoreData";
+  private static final String ESTIMATED_VEHICLE_JOURNEY = "EstimatedVehicleJourney";
+
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+  private static JAXBContext jaxbContext;
+
+  private final int chunkSize;
+  private final Predicate<ZonedDateTime> acceptResponseTimestamp;
+  private final Consumer<List<EstimatedTimetableDeliveryStructure>> chunkHandler;
+
+  private final Deque<String> path = new ArrayDeque<>();
+  private List<EstimatedVehicleJourney> chunk;
+  private ZonedDateTime responseTimestamp;
+  private boolean moreData = false;
+  private int numberOfJourneys = 0;
+
+  /**
+   * @param acceptResponseTimestamp if the service delivery response timestamp is not accepted the
+   *                                rest of the stream is skipped.
+   * @param chunkHandler            called for each chunk, in the order of the stream.
+   */
+  EstimatedTimetableStreamParser(
+    int chunkSize,
+    Predicate<ZonedDateTime> acceptResponseTimestamp,
+    Consumer<List<EstimatedTimetableDeliveryStructure>> chunkHandler
+  ) {
+    this.chunkSize = chunkSize;
+    this.acceptResponseTimestamp = acceptResponseTimestamp;
+    this.chunkHandler = chunkHandler;
+    this.chunk = new ArrayList<>(chunkSize);
+  }
+
+  /**
+   * Parse the stream and pass all journeys to the chunk handler.
+   *
+   * @return {@code false} if the stream was skipped because the response timestamp was not
+   * accepted.
+   */
+  boolean parse(InputStream is) throws JAXBException, XMLStreamException {
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+    try {
+      Unmarshaller unmarshaller = jaxbContext().createUnmarshaller();
+
+      while (reader.hasNext()) {
+        int event = reader.getEventType();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          String name = reader.getLocalName();
+          if (ESTIMATED_VEHICLE_JOURNEY.equals(name)) {
+            // The unmarshaller leaves the reader on the event after the end element
+            addJourney(unmarshaller.unmarshal(reader, EstimatedVehicleJourney.class).getValue());
+            continue;
+          }
+          if (SERVICE_DELIVERY.equals(path.peek())) {
+            if (RESPONSE_TIMESTAMP.equals(name)) {
+              responseTimestamp = ZonedDateTime.parse(reader.getElementText().trim());
+              if (!acceptResponseTimestamp.test(responseTimestamp)) {
+                return false;
+              }
+              reader.next();
+              continue;
+            }
+            if (MORE_DATA.equals(name)) {
+              moreData = Boolean.parseBoolean(reader.getElementText().trim());
+              reader.next();
+              continue;
+            }
+          }
+          path.push(name);
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          path.pop();
+        }
+        reader.next();
+      }
+      flush();
+      return true;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /** The service delivery response timestamp, {@code null} if not found. */
+  ZonedDateTime responseTimestamp() {
+    return responseTimestamp;
+  }
+
+  /** The service delivery {@code MoreData} flag. */
+  boolean moreData() {
+    return moreData;
+  }
+
+  int numberOfJourneys() {
+    return numberOfJourneys;
+  }
+
+  private void addJourney(EstimatedVehicleJourney journey) {
+    chunk.add(journey);
+    ++numberOfJourneys;
+    if (chunk.size() >= chunkSize) {
+      flush();
+    }
+  }
+
+  private void flush() {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    var frame = new EstimatedVersionFrameStructure();
+    frame.getEstimatedVehicleJourneies().addAll(chunk);
+    var delivery = new EstimatedTimetableDeliveryStructure();
+    delivery.getEstimatedJourneyVersionFrames().add(frame);
+    chunkHandler.accept(List.of(delivery));
+    chunk = new ArrayList<>(chunkSize);
+  }
+
+  private static synchronized JAXBContext jaxbContext() throws JAXBException {
+    if (jaxbContext == null) {
+      jaxbContext = JAXBContext.newInstance(Siri.class);
+    }
+    return jaxbContext;
+  }
+
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    // Do not resolve external entities
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return factory;
+  }
+}
@@ -2,19 +2,39 @@ package org.opentripplanner.ext.siri.updater;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import org.opentripplanner.ext.siri.SiriHttpUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
 import uk.org.siri.siri20.Siri;
 
 public class SiriETHttpTripUpdateSource implements EstimatedTimetableSource {
 
   private static final Logger LOG = LoggerFactory.getLogger(SiriETHttpTripUpdateSource.class);
   private static final Map<String, String> requestHeaders = new HashMap<>();
+
+  /** The request timeout used by {@link #getUpdatesAsync} if no timeout is configured. */
+  private static final Duration DEFAULT_ASYNC_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  /**
+   * The maximum time used by {@link #getUpdatesAsync} to fetch and process a delivery. The request
+   * timeout does not cover reading the streamed response, so this makes sure a stalled server can
+   * not stop the updater.
+   */
+  private static final Duration MAX_ASYNC_DELIVERY_TIME = Duration.ofMinutes(5);
   /**
    * Feed id that is used to match trip ids in the TripUpdates
    */
@@ -99,6 +119,85 @@ public class SiriETHttpTripUpdateSource implements EstimatedTimetableSource {
     return null;
   }
 
+  /**
+   * Same as {@link #getUpdates()}, but the request is sent without blocking the calling thread, and
+   * the response is parsed as a stream. The EstimatedVehicleJourneys are passed on to the handler
+   * in chunks of at most {@code chunkSize} journeys, so large deliveries are processed with bounded
+   * memory.
+   * <p>
+   * The future fails if the delivery is not processed within {@link #MAX_ASYNC_DELIVERY_TIME}, or
+   * if the response can not be read or parsed. The chunks passed on to the handler before the
+   * failure stay applied, each journey is a valid update on its own. Whether the rest of the
+   * delivery is sent again with the next request depends on the server. If the first delivery
+   * fails, the next delivery is still applied as a full dataset.
+   *
+   * @return a future completed with the {@code MoreData} flag of the delivery when the whole
+   * response is processed.
+   */
+  public CompletableFuture<Boolean> getUpdatesAsync(
+    int chunkSize,
+    Consumer<List<EstimatedTimetableDeliveryStructure>> chunkHandler
+  ) {
+    final long t0 = System.currentTimeMillis();
+    String etServiceRequest;
+    try {
+      etServiceRequest =
+        SiriHelper.createETServiceRequestAsXml(requestorRef, previewIntervalMillis);
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    var response = new AtomicReference<InputStream>();
+    return SiriHttpUtils
+      .postDataAsync(
+        URI.create(url),
+        etServiceRequest,
+        "application/xml",
+        timeout > 0 ? Duration.ofMillis(timeout) : DEFAULT_ASYNC_REQUEST_TIMEOUT,
+        requestHeaders
+      )
+      .thenApply(is -> {
+        if (is == null) {
+          return false;
+        }
+        response.set(is);
+        long t1 = System.currentTimeMillis();
+        var parser = new EstimatedTimetableStreamParser(
+          chunkSize,
+          this::acceptResponseTimestamp,
+          chunkHandler
+        );
+        try (is) {
+          if (!parser.parse(is)) {
+            LOG.info("Newer data has already been processed");
+            return false;
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } catch (Exception e) {
+          throw new CompletionException(e);
+        }
+        //All subsequent requests will return changes since last request
+        fullDataset = false;
+        LOG.info(
+          "Updating ET [{}]: Fetching data: {}, Streaming {} journeys: {}",
+          requestorRef,
+          t1 - t0,
+          parser.numberOfJourneys(),
+          System.currentTimeMillis() - t1
+        );
+        return parser.moreData();
+      })
+      .orTimeout(MAX_ASYNC_DELIVERY_TIME.toMillis(), TimeUnit.MILLISECONDS)
+      .whenComplete((moreData, e) -> {
+        // Closing the response unblocks the parser if the delivery timed out while it was reading.
+        // The failure itself is logged by the caller.
+        if (e != null && response.get() != null) {
+          closeQuietly(response.get());
+        }
+      });
+  }
+
   @Override
   public boolean getFullDatasetValueOfLastUpdates() {
     return fullDataset;
@@ -113,6 +212,20 @@ public class SiriETHttpTripUpdateSource implements EstimatedTimetableSource {
     return "SiriETHttpTripUpdateSource(" + url + ")";
   }
 
+  private static void closeQuietly(InputStream is) {
+    try {
+      is.close();
+    } catch (IOException ignore) {}
+  }
+
+  private boolean acceptResponseTimestamp(ZonedDateTime responseTimestamp) {
+    if (responseTimestamp.isBefore(lastTimestamp)) {
+      return false;
+    }
+    lastTimestamp = responseTimestamp;
+    return true;
+  }
+
   public interface Parameters {
     String getUrl();
 
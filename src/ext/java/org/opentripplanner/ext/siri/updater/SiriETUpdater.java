@@ -1,6 +1,10 @@
 package org.opentripplanner.ext.siri.updater;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import org.apache.commons.lang3.BooleanUtils;
 import org.opentripplanner.ext.siri.SiriFuzzyTripMatcher;
 import org.opentripplanner.ext.siri.SiriTimetableSnapshotSource;
@@ -30,10 +34,17 @@ import uk.org.siri.siri20.Siri;
 public class SiriETUpdater extends PollingGraphUpdater {
 
   private static final Logger LOG = LoggerFactory.getLogger(SiriETUpdater.class);
+
+  /**
+   * The number of EstimatedVehicleJourneys applied in each graph writer when the response is
+   * streamed.
+   */
+  private static final int STREAMING_CHUNK_SIZE = 500;
+
   /**
    * Update streamer
    */
-  private final EstimatedTimetableSource updateSource;
+  private final SiriETHttpTripUpdateSource updateSource;
 
   /**
    * Feed id that is used for the trip ids in the TripUpdates
@@ -113,8 +124,55 @@ public class SiriETUpdater extends PollingGraphUpdater {
     } while (moreData);
   }
 
+  /**
+   * Fetch the updates without blocking the polling thread. The response is streamed, and the
+   * journeys are applied in chunks as they are parsed. If the delivery has more data, the next page
+   * is fetched when the current page is processed.
+   */
+  @Override
+  protected CompletableFuture<?> runPollingAsync() {
+    return updateSource
+      .getUpdatesAsync(
+        STREAMING_CHUNK_SIZE,
+        chunkHandler(updateSource.getFullDatasetValueOfLastUpdates(), this::applyChunk)
+      )
+      .thenCompose(moreData -> {
+        if (moreData) {
+          return runPollingAsync();
+        }
+        // Mark this updater as primed after last page of updates.
+        saveResultOnGraph.execute((graph, transitModel) -> primed = true);
+        return CompletableFuture.completedFuture(null);
+      });
+  }
+
   public String toString() {
     String s = (updateSource == null) ? "NONE" : updateSource.toString();
     return "Polling SIRI ET updater with update source = " + s;
   }
+
+  /**
+   * Create a handler for the chunks of one delivery. If the delivery is a full dataset, only the
+   * first chunk is applied as a full dataset. Otherwise, each chunk would clear the updates applied
+   * by the previous chunks of the same delivery.
+   */
+  static Consumer<List<EstimatedTimetableDeliveryStructure>> chunkHandler(
+    boolean fullDataset,
+    BiConsumer<List<EstimatedTimetableDeliveryStructure>, Boolean> applyChunk
+  ) {
+    var firstChunk = new AtomicBoolean(true);
+    return etds -> applyChunk.accept(etds, firstChunk.getAndSet(false) && fullDataset);
+  }
+
+  private void applyChunk(List<EstimatedTimetableDeliveryStructure> etds, boolean fullDataset) {
+    saveResultOnGraph.execute((graph, transitModel) ->
+      snapshotSource.applyEstimatedTimetable(
+        transitModel,
+        fuzzyTripMatcher,
+        feedId,
+        fullDataset,
+        etds
+      )
+    );
+  }
 }
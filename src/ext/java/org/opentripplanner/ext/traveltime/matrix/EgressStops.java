@@ -0,0 +1,43 @@
+package org.opentripplanner.ext.traveltime.matrix;
+
+import java.util.Collection;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
+
+/**
+ * The stops a destination can be reached from, with the street duration from each stop. This is
+ * a compact copy of the egress paths, since it is read for every destination in every iteration.
+ */
+final class EgressStops {
+
+  private final int[] stops;
+  private final int[] durationsInSeconds;
+
+  EgressStops(int[] stops, int[] durationsInSeconds) {
+    this.stops = stops;
+    this.durationsInSeconds = durationsInSeconds;
+  }
+
+  static EgressStops of(Collection<? extends RaptorTransfer> egressPaths) {
+    int[] stops = new int[egressPaths.size()];
+    int[] durations = new int[egressPaths.size()];
+    int i = 0;
+    for (RaptorTransfer egress : egressPaths) {
+      stops[i] = egress.stop();
+      durations[i] = egress.durationInSeconds();
+      ++i;
+    }
+    return new EgressStops(stops, durations);
+  }
+
+  int size() {
+    return stops.length;
+  }
+
+  int stop(int index) {
+    return stops[index];
+  }
+
+  int durationInSeconds(int index) {
+    return durationsInSeconds[index];
+  }
+}
@@ -0,0 +1,21 @@
+package org.opentripplanner.ext.traveltime.matrix;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+
+/**
+ * A request for the travel times from a set of origins to a set of destinations, for all departure
+ * times in the search window.
+ */
+public record TravelTimeMatrixRequest(
+  List<GenericLocation> origins,
+  List<GenericLocation> destinations,
+  Instant departureTime,
+  Duration searchWindow,
+  Duration maxTravelTime,
+  int[] percentiles,
+  RoutingRequest routingRequest
+) {}
@@ -0,0 +1,232 @@
+package org.opentripplanner.ext.traveltime.matrix;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.Nullable;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.opentripplanner.api.common.LocationStringParser;
+import org.opentripplanner.api.parameter.QualifiedModeSet;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.standalone.api.OtpServerRequestContext;
+import org.opentripplanner.util.time.DurationUtils;
+
+/**
+ * Travel times from a set of origins to a set of destinations, as travel time percentiles over all
+ * departure times in the search window. The rows are streamed in origin order as soon as they are
+ * computed, so large matrices do not have to be kept in memory.
+ */
+@Path("/traveltime/matrix")
+public class TravelTimeMatrixResource {
+
+  /**
+   * Shared by all requests, so concurrent matrix requests do not use more threads than there are
+   * processors.
+   */
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+    Runtime.getRuntime().availableProcessors(),
+    new ThreadFactoryBuilder().setNameFormat("TravelTimeMatrix-%d").setDaemon(true).build()
+  );
+
+  private final OtpServerRequestContext serverContext;
+  private final List<String> origins;
+  private final List<String> destinations;
+  private final TravelTimeMatrixRequest request;
+
+  public TravelTimeMatrixResource(
+    @Context OtpServerRequestContext serverContext,
+    @QueryParam("from") List<String> origins,
+    @QueryParam("to") List<String> destinations,
+    @QueryParam("time") String time,
+    @QueryParam("searchWindow") @DefaultValue("1h") String searchWindow,
+    @QueryParam("maxTravelTime") @DefaultValue("2h") String maxTravelTime,
+    @QueryParam("percentile") @DefaultValue("50") List<Integer> percentiles,
+    @QueryParam("modes") String modes
+  ) {
+    if (origins.isEmpty() || destinations.isEmpty()) {
+      throw new BadRequestException("At least one 'from' and one 'to' location is required.");
+    }
+    for (int p : percentiles) {
+      if (p < 0 || p > 100) {
+        throw new BadRequestException("Percentiles must be in the range [0, 100]: " + p);
+      }
+    }
+    // Validate the parameters before any work is done
+    var departureTime = parseTime(time);
+    var searchWindowDuration = parseDuration("searchWindow", searchWindow);
+    var maxTravelTimeDuration = parseDuration("maxTravelTime", maxTravelTime);
+
+    this.serverContext = serverContext;
+    this.origins = origins;
+    this.destinations = destinations;
+
+    RoutingRequest routingRequest = serverContext.defaultRoutingRequest();
+    if (modes != null) {
+      routingRequest.modes = new QualifiedModeSet(modes).getRequestModes();
+    }
+
+    this.request =
+      new TravelTimeMatrixRequest(
+        origins.stream().map(LocationStringParser::fromOldStyleString).toList(),
+        destinations.stream().map(LocationStringParser::fromOldStyleString).toList(),
+        departureTime,
+        searchWindowDuration,
+        maxTravelTimeDuration,
+        percentiles.stream().mapToInt(Integer::intValue).toArray(),
+        routingRequest
+      );
+  }
+
+  /**
+   * One line for each origin and destination pair, with one column for each percentile. The travel
+   * time is in seconds, and empty if the destination is not reached.
+   */
+  @GET
+  @Path("/csv")
+  @Produces("text/csv")
+  public Response getCsv() {
+    var rows = route();
+
+    StreamingOutput out = outputStream -> {
+      Writer writer = new BufferedWriter(
+        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)
+      );
+      writer.write("origin,destination");
+      for (int p : request.percentiles()) {
+        writer.write(",p" + p);
+      }
+      writer.write('\n');
+
+      writeRows(
+        rows,
+        (origin, travelTimes) -> {
+          for (int d = 0; d < travelTimes.length; d++) {
+            writer.write(csvValue(origins.get(origin)));
+            writer.write(',');
+            writer.write(csvValue(destinations.get(d)));
+            for (int travelTime : travelTimes[d]) {
+              writer.write(',');
+              if (travelTime != TravelTimeMatrixRowCollector.NOT_REACHED) {
+                writer.write(Integer.toString(travelTime));
+              }
+            }
+            writer.write('\n');
+          }
+          writer.flush();
+        }
+      );
+    };
+    return Response.ok().entity(out).build();
+  }
+
+  /**
+   * A compact binary matrix of big-endian 32-bit ints: the number of origins, destinations and
+   * percentiles, then the percentiles, then the travel times in seconds ordered by origin,
+   * destination and percentile. Destinations not reached have the travel time -1.
+   */
+  @GET
+  @Path("/binary")
+  @Produces(MediaType.APPLICATION_OCTET_STREAM)
+  public Response getBinary() {
+    var rows = route();
+
+    StreamingOutput out = outputStream -> {
+      var data = new DataOutputStream(new BufferedOutputStream(outputStream));
+      data.writeInt(origins.size());
+      data.writeInt(destinations.size());
+      data.writeInt(request.percentiles().length);
+      for (int p : request.percentiles()) {
+        data.writeInt(p);
+      }
+
+      writeRows(
+        rows,
+        (origin, travelTimes) -> {
+          for (int[] destination : travelTimes) {
+            for (int travelTime : destination) {
+              data.writeInt(travelTime);
+            }
+          }
+          data.flush();
+        }
+      );
+    };
+    return Response.ok().entity(out).build();
+  }
+
+  private static Instant parseTime(@Nullable String time) {
+    if (time == null) {
+      return Instant.now();
+    }
+    try {
+      return Instant.parse(time);
+    } catch (DateTimeParseException e) {
+      throw new BadRequestException(
+        "Invalid 'time', expected an instant like 2022-10-01T08:00:00Z: " + time
+      );
+    }
+  }
+
+  private static Duration parseDuration(String name, String value) {
+    try {
+      return DurationUtils.duration(value);
+    } catch (DateTimeParseException e) {
+      throw new BadRequestException(
+        "Invalid '" + name + "', expected a duration like 1h30m: " + value
+      );
+    }
+  }
+
+  private List<CompletableFuture<int[][]>> route() {
+    return new TravelTimeMatrixService(serverContext, EXECUTOR).route(request);
+  }
+
+  /**
+   * Write each row when it is ready. If the client goes away, the searches not yet started are
+   * cancelled.
+   */
+  private static void writeRows(List<CompletableFuture<int[][]>> rows, RowWriter writer)
+    throws IOException {
+    try {
+      for (int i = 0; i < rows.size(); i++) {
+        writer.write(i, rows.get(i).join());
+      }
+    } catch (IOException | RuntimeException e) {
+      rows.forEach(it -> it.cancel(false));
+      throw e;
+    }
+  }
+
+  private static String csvValue(String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  @FunctionalInterface
+  private interface RowWriter {
+    void write(int origin, int[][] travelTimes) throws IOException;
+  }
+}
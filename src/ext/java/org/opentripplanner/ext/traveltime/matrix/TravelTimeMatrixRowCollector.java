@@ -0,0 +1,82 @@
+package org.opentripplanner.ext.traveltime.matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.opentripplanner.transit.raptor.api.response.IterationStopArrivalsListener;
+import org.opentripplanner.transit.raptor.api.response.StopArrivals;
+
+/**
+ * Collect the travel times from one origin to all destinations, for each departure time (Raptor
+ * iteration) in the search window. The travel time to a destination is the best transit arrival
+ * time at one of the egress stops of the destination, plus the egress duration, minus the
+ * departure time.
+ */
+class TravelTimeMatrixRowCollector implements IterationStopArrivalsListener {
+
+  static final int NOT_REACHED = -1;
+
+  private final List<EgressStops> egressStops;
+  private final int maxTravelTime;
+
+  /** The travel times to each destination, by iteration. */
+  private final List<int[]> travelTimesByIteration = new ArrayList<>();
+
+  TravelTimeMatrixRowCollector(List<EgressStops> egressStops, int maxTravelTime) {
+    this.egressStops = egressStops;
+    this.maxTravelTime = maxTravelTime;
+  }
+
+  @Override
+  public void iterationComplete(int iterationDepartureTime, StopArrivals arrivals) {
+    int[] travelTimes = new int[egressStops.size()];
+
+    for (int i = 0; i < travelTimes.length; i++) {
+      travelTimes[i] = travelTime(egressStops.get(i), iterationDepartureTime, arrivals);
+    }
+    travelTimesByIteration.add(travelTimes);
+  }
+
+  /**
+   * Return the travel time percentiles over all departure times, by destination and percentile.
+   * Departure times where the destination is not reached count as an infinite travel time, so a
+   * percentile is {@link #NOT_REACHED} if the destination is not reached for that share of the
+   * departure times.
+   */
+  int[][] travelTimePercentiles(int[] percentiles) {
+    int nIterations = travelTimesByIteration.size();
+    int[][] result = new int[egressStops.size()][percentiles.length];
+    int[] travelTimes = new int[nIterations];
+
+    for (int d = 0; d < result.length; d++) {
+      if (nIterations == 0) {
+        Arrays.fill(result[d], NOT_REACHED);
+        continue;
+      }
+      for (int i = 0; i < nIterations; i++) {
+        int travelTime = travelTimesByIteration.get(i)[d];
+        travelTimes[i] = travelTime == NOT_REACHED ? Integer.MAX_VALUE : travelTime;
+      }
+      Arrays.sort(travelTimes);
+
+      for (int p = 0; p < percentiles.length; p++) {
+        int index = (int) Math.ceil(percentiles[p] / 100.0 * nIterations) - 1;
+        int travelTime = travelTimes[Math.max(0, Math.min(index, nIterations - 1))];
+        result[d][p] = travelTime == Integer.MAX_VALUE ? NOT_REACHED : travelTime;
+      }
+    }
+    return result;
+  }
+
+  private int travelTime(EgressStops egress, int departureTime, StopArrivals arrivals) {
+    int best = Integer.MAX_VALUE;
+    for (int i = 0; i < egress.size(); i++) {
+      int stop = egress.stop(i);
+      if (arrivals.reachedByTransit(stop)) {
+        int arrivalTime = arrivals.bestTransitArrivalTime(stop) + egress.durationInSeconds(i);
+        best = Math.min(best, arrivalTime - departureTime);
+      }
+    }
+    return best <= maxTravelTime ? best : NOT_REACHED;
+  }
+}
@@ -0,0 +1,187 @@
+package org.opentripplanner.ext.traveltime.matrix;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressRouter;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.AccessEgress;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.SlackProvider;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.AccessEgressMapper;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRoutingRequestTransitData;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RoutingRequestTransitDataProviderFilter;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.RoutingContext;
+import org.opentripplanner.routing.core.TemporaryVerticesContainer;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.standalone.api.OtpServerRequestContext;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.util.time.ServiceDateUtils;
+
+/**
+ * Compute the travel times from a set of origins to a set of destinations. One standard Range
+ * Raptor search is run for each origin, over transit data shared by all origins. The travel times
+ * to the destinations are evaluated from the stop arrivals at the end of each iteration, so each
+ * search gives the travel times for all departure times in the search window.
+ * <p>
+ * The egress stops of each destination are found once, before the searches. Only travel times
+ * using transit are computed, walking directly from the origin to the destination is not included.
+ * <p>
+ * CONCURRENCY: The street searches and the Raptor searches run in parallel on the given executor.
+ */
+public class TravelTimeMatrixService {
+
+  private final Graph graph;
+  private final TransitService transitService;
+  private final RaptorService<TripSchedule> raptorService;
+  private final ExecutorService executor;
+
+  public TravelTimeMatrixService(OtpServerRequestContext serverContext, ExecutorService executor) {
+    this.graph = serverContext.graph();
+    this.transitService = serverContext.transitService();
+    this.raptorService = new RaptorService<>(serverContext.raptorConfig());
+    this.executor = executor;
+  }
+
+  /**
+   * Start computing the matrix. A future is returned for each origin, in the same order as the
+   * origins. Each future completes with the travel time percentiles in seconds, by destination and
+   * percentile, see {@link TravelTimeMatrixRowCollector#travelTimePercentiles(int[])}.
+   */
+  public List<CompletableFuture<int[][]>> route(TravelTimeMatrixRequest request) {
+    ZoneId zoneId = transitService.getTimeZone();
+    var endTime = request
+      .departureTime()
+      .plus(request.searchWindow())
+      .plus(request.maxTravelTime());
+    LocalDate startDate = LocalDate.ofInstant(request.departureTime(), zoneId);
+    LocalDate endDate = LocalDate.ofInstant(endTime, zoneId);
+    ZonedDateTime startOfTime = ServiceDateUtils.asStartOfService(startDate, zoneId);
+
+    RoutingRequest routingRequest = request.routingRequest();
+    var transitData = new RaptorRoutingRequestTransitData(
+      transitService.getRealtimeTransitLayer(),
+      startOfTime,
+      0,
+      (int) Period.between(startDate, endDate).get(ChronoUnit.DAYS),
+      new RoutingRequestTransitDataProviderFilter(routingRequest, transitService),
+      new RoutingContext(
+        Transfer.prepareTransferRoutingRequest(routingRequest),
+        graph,
+        (Vertex) null,
+        null
+      )
+    );
+
+    List<EgressStops> egressStops = request
+      .destinations()
+      .stream()
+      .map(it ->
+        CompletableFuture.supplyAsync(
+          () -> EgressStops.of(streetSearch(routingRequest, it, startOfTime, true)),
+          executor
+        )
+      )
+      .toList()
+      .stream()
+      .map(CompletableFuture::join)
+      .toList();
+
+    int departureTime = ServiceDateUtils.secondsSinceStartOfTime(
+      startOfTime,
+      request.departureTime()
+    );
+
+    return request
+      .origins()
+      .stream()
+      .map(origin ->
+        CompletableFuture.supplyAsync(
+          () -> {
+            var accessPaths = streetSearch(routingRequest, origin, startOfTime, false);
+            var collector = new TravelTimeMatrixRowCollector(
+              egressStops,
+              (int) request.maxTravelTime().toSeconds()
+            );
+            raptorService.routeStopArrivals(
+              raptorRequest(request, departureTime, accessPaths),
+              transitData,
+              collector
+            );
+            return collector.travelTimePercentiles(request.percentiles());
+          },
+          executor
+        )
+      )
+      .toList();
+  }
+
+  private RaptorRequest<TripSchedule> raptorRequest(
+    TravelTimeMatrixRequest request,
+    int departureTime,
+    Collection<AccessEgress> accessPaths
+  ) {
+    var rr = request.routingRequest();
+    int searchWindow = (int) request.searchWindow().toSeconds();
+
+    var builder = new RaptorRequestBuilder<TripSchedule>();
+    builder.slackProvider(
+      new SlackProvider(
+        rr.transferSlack,
+        rr.boardSlack,
+        rr.boardSlackForMode,
+        rr.alightSlack,
+        rr.alightSlackForMode
+      )
+    );
+    return builder
+      .profile(RaptorProfile.STANDARD)
+      .searchParams()
+      .earliestDepartureTime(departureTime)
+      .searchWindowInSeconds(searchWindow)
+      .latestArrivalTime(departureTime + searchWindow + (int) request.maxTravelTime().toSeconds())
+      .addAccessPaths(accessPaths)
+      .timetableEnabled(false)
+      .allowEmptyEgressPaths(true)
+      .constrainedTransfersEnabled(false)
+      .build();
+  }
+
+  private Collection<AccessEgress> streetSearch(
+    RoutingRequest routingRequest,
+    GenericLocation location,
+    ZonedDateTime startOfTime,
+    boolean isEgress
+  ) {
+    var streetRequest = routingRequest.clone();
+    if (isEgress) {
+      streetRequest.to = location;
+    } else {
+      streetRequest.from = location;
+    }
+    var mode = isEgress ? streetRequest.modes.egressMode : streetRequest.modes.accessMode;
+
+    try (var temporaryVertices = new TemporaryVerticesContainer(graph, streetRequest)) {
+      var nearbyStops = AccessEgressRouter.streetSearch(
+        new RoutingContext(streetRequest, graph, temporaryVertices),
+        transitService,
+        mode,
+        isEgress
+      );
+      return new AccessEgressMapper().mapNearbyStops(nearbyStops, startOfTime, isEgress);
+    }
+  }
+}
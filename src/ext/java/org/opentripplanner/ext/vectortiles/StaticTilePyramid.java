@@ -0,0 +1,204 @@
+package org.opentripplanner.ext.vectortiles;
+
+import com.wdtinc.mapbox_vector_tile.VectorTile;
+import com.wdtinc.mapbox_vector_tile.build.MvtLayerBuild;
+import com.wdtinc.mapbox_vector_tile.build.MvtLayerParams;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import org.geotools.geometry.Envelope2D;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.common.geometry.WebMercatorTile;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.standalone.config.VectorTileConfig;
+import org.opentripplanner.util.WorldEnvelope;
+
+/**
+ * The encoded tiles of one static layer, for all zoom levels from the min zoom of the layer up to
+ * a given max zoom. Each tile contains the layer only, encoded as a complete vector tile. Since the
+ * layers of a vector tile is a repeated protobuf field, the tiles of several layers can be
+ * concatenated to a tile with all the layers.
+ * <p>
+ * The tiles are stored back to back in one byte array, and looked up by a sorted array of tile
+ * keys. Tiles without any features are not stored, they all share the same encoded empty layer.
+ * If a tile has no features, neither do the tiles below it, since the query envelope of a tile
+ * contains the query envelopes of its four child tiles. So the tiles below an empty tile are
+ * never built.
+ * <p>
+ * The pyramid covers the tiles of the graph envelope, with a margin of one tile. Tiles outside
+ * this area, or outside the zoom levels, are not part of the pyramid.
+ * <p>
+ * THREAD SAFETY - The pyramid is immutable after it is built.
+ */
+final class StaticTilePyramid {
+
+  private final int minZoom;
+  private final int maxZoom;
+  private final int[][] tileRanges;
+  private final long[] keys;
+  private final int[] starts;
+  private final int[] lengths;
+  private final byte[] data;
+  private final byte[] emptyTile;
+
+  private StaticTilePyramid(
+    int minZoom,
+    int maxZoom,
+    int[][] tileRanges,
+    List<EncodedTile> tiles,
+    byte[] emptyTile
+  ) {
+    this.minZoom = minZoom;
+    this.maxZoom = maxZoom;
+    this.tileRanges = tileRanges;
+    this.emptyTile = emptyTile;
+
+    tiles.sort(Comparator.comparingLong(EncodedTile::key));
+    this.keys = new long[tiles.size()];
+    this.starts = new int[tiles.size()];
+    this.lengths = new int[tiles.size()];
+
+    var out = new ByteArrayOutputStream();
+    for (int i = 0; i < tiles.size(); ++i) {
+      byte[] bytes = tiles.get(i).bytes();
+      keys[i] = tiles.get(i).key();
+      starts[i] = out.size();
+      lengths[i] = bytes.length;
+      out.writeBytes(bytes);
+    }
+    this.data = out.toByteArray();
+  }
+
+  /**
+   * Build the pyramid for the given layer, from the min zoom of the layer up to the given max
+   * zoom.
+   *
+   * @param newLayerBuilder Create a new layer builder, a builder can only build one tile.
+   */
+  static StaticTilePyramid build(
+    LayerParameters layerParameters,
+    int maxZoom,
+    WorldEnvelope envelope,
+    Supplier<LayerBuilder<?>> newLayerBuilder
+  ) {
+    // Tiles below the min zoom of the API are always empty
+    int minZoom = Math.max(layerParameters.minZoom(), VectorTileConfig.MIN_ZOOM);
+    int[][] tileRanges = new int[maxZoom - minZoom + 1][];
+
+    for (int z = minZoom; z <= maxZoom; ++z) {
+      int maxTile = (1 << z) - 1;
+      tileRanges[z - minZoom] =
+        new int[] {
+          Math.max(0, WebMercatorTile.lon2tileX(envelope.getLowerLeftLongitude(), z) - 1),
+          Math.min(maxTile, WebMercatorTile.lon2tileX(envelope.getUpperRightLongitude(), z) + 1),
+          Math.max(0, WebMercatorTile.lat2tileY(envelope.getUpperRightLatitude(), z) - 1),
+          Math.min(maxTile, WebMercatorTile.lat2tileY(envelope.getLowerLeftLatitude(), z) + 1),
+        };
+    }
+
+    var builder = new Builder(minZoom, maxZoom, tileRanges, layerParameters, newLayerBuilder);
+    int[] range = tileRanges[0];
+    for (int x = range[0]; x <= range[1]; ++x) {
+      for (int y = range[2]; y <= range[3]; ++y) {
+        builder.buildTileAndChildren(minZoom, x, y);
+      }
+    }
+
+    var emptyLayer = MvtLayerBuild
+      .newLayerBuilder(layerParameters.name(), MvtLayerParams.DEFAULT)
+      .build();
+    byte[] emptyTile = VectorTile.Tile.newBuilder().addLayers(emptyLayer).build().toByteArray();
+
+    return new StaticTilePyramid(minZoom, maxZoom, tileRanges, builder.tiles, emptyTile);
+  }
+
+  /**
+   * Return the encoded tile with this layer only, or {@code null} if the tile is not part of the
+   * pyramid.
+   */
+  byte[] get(int z, int x, int y) {
+    if (!contains(z, x, y)) {
+      return null;
+    }
+    int index = Arrays.binarySearch(keys, key(z, x, y));
+    if (index < 0) {
+      return emptyTile;
+    }
+    return Arrays.copyOfRange(data, starts[index], starts[index] + lengths[index]);
+  }
+
+  /** The number of tiles with features, the other tiles share the same encoded empty layer. */
+  int numTiles() {
+    return keys.length;
+  }
+
+  int sizeInBytes() {
+    return data.length;
+  }
+
+  private boolean contains(int z, int x, int y) {
+    if (z < minZoom || z > maxZoom) {
+      return false;
+    }
+    int[] range = tileRanges[z - minZoom];
+    return range[0] <= x && x <= range[1] && range[2] <= y && y <= range[3];
+  }
+
+  private static long key(int z, int x, int y) {
+    return ((long) z << 50) | ((long) x << 25) | y;
+  }
+
+  private record EncodedTile(long key, byte[] bytes) {}
+
+  private static class Builder {
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final int[][] tileRanges;
+    private final LayerParameters layerParameters;
+    private final Supplier<LayerBuilder<?>> newLayerBuilder;
+    private final List<EncodedTile> tiles = new ArrayList<>();
+
+    private Builder(
+      int minZoom,
+      int maxZoom,
+      int[][] tileRanges,
+      LayerParameters layerParameters,
+      Supplier<LayerBuilder<?>> newLayerBuilder
+    ) {
+      this.minZoom = minZoom;
+      this.maxZoom = maxZoom;
+      this.tileRanges = tileRanges;
+      this.layerParameters = layerParameters;
+      this.newLayerBuilder = newLayerBuilder;
+    }
+
+    private void buildTileAndChildren(int z, int x, int y) {
+      int[] range = tileRanges[z - minZoom];
+      if (x < range[0] || x > range[1] || y < range[2] || y > range[3]) {
+        return;
+      }
+
+      Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
+      Envelope envelope = new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
+      VectorTile.Tile.Layer layer = newLayerBuilder.get().build(envelope, layerParameters);
+
+      if (layer.getFeaturesCount() == 0) {
+        return;
+      }
+      byte[] bytes = VectorTile.Tile.newBuilder().addLayers(layer).build().toByteArray();
+      tiles.add(new EncodedTile(key(z, x, y), bytes));
+
+      if (z < maxZoom) {
+        for (int dx = 0; dx < 2; ++dx) {
+          for (int dy = 0; dy < 2; ++dy) {
+            buildTileAndChildren(z + 1, 2 * x + dx, 2 * y + dy);
+          }
+        }
+      }
+    }
+  }
+}
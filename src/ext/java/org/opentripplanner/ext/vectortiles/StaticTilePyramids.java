@@ -0,0 +1,97 @@
+package org.opentripplanner.ext.vectortiles;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerType;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.standalone.api.OtpServerRequestContext;
+import org.opentripplanner.standalone.config.VectorTileConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The pre-rendered tiles of the static vector tile layers, see {@link StaticTilePyramid}. The
+ * tiles are rendered when the server starts, for the layers with a {@code prerenderMaxZoom}. The
+ * tiles are kept for each graph, held with a weak reference, so they are dropped together with
+ * the graph.
+ */
+public class StaticTilePyramids {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StaticTilePyramids.class);
+
+  private static final Cache<Graph, Map<String, StaticTilePyramid>> PYRAMIDS_BY_GRAPH = CacheBuilder
+    .newBuilder()
+    .weakKeys()
+    .build();
+
+  private StaticTilePyramids() {}
+
+  /**
+   * Render the tiles of the static layers with a {@code prerenderMaxZoom} for the graph of the
+   * given server context.
+   */
+  public static void prerender(OtpServerRequestContext serverContext) {
+    Graph graph = serverContext.graph();
+    Map<String, StaticTilePyramid> pyramids = new HashMap<>();
+
+    for (LayerParameters layerParameters : serverContext
+      .routerConfig()
+      .vectorTileLayers()
+      .layers()) {
+      LayerType layerType = LayerType.valueOf(layerParameters.type());
+      int maxZoom = Math.min(layerParameters.prerenderMaxZoom(), layerParameters.maxZoom());
+
+      if (maxZoom < Math.max(layerParameters.minZoom(), VectorTileConfig.MIN_ZOOM)) {
+        continue;
+      }
+      if (layerType.dynamic) {
+        LOG.warn(
+          "The vector tile layer {} is updated in realtime, and can not be pre-rendered.",
+          layerParameters.name()
+        );
+        continue;
+      }
+
+      LOG.info(
+        "Pre-rendering vector tile layer {} for zoom levels {}-{}.",
+        layerParameters.name(),
+        layerParameters.minZoom(),
+        maxZoom
+      );
+      var pyramid = StaticTilePyramid.build(
+        layerParameters,
+        maxZoom,
+        graph.getEnvelope(),
+        () ->
+          VectorTilesResource.layers
+            .get(layerType)
+            .create(graph, serverContext.transitService(), layerParameters)
+      );
+      LOG.info(
+        "Pre-rendered {} tiles with features for vector tile layer {}, {} KiB.",
+        pyramid.numTiles(),
+        layerParameters.name(),
+        pyramid.sizeInBytes() / 1024
+      );
+      pyramids.put(layerParameters.name(), pyramid);
+    }
+
+    PYRAMIDS_BY_GRAPH.put(graph, Map.copyOf(pyramids));
+  }
+
+  /**
+   * Return the pre-rendered tile with the given layer only, or {@code null} if the tile is not
+   * pre-rendered.
+   */
+  static byte[] get(Graph graph, String layerName, int z, int x, int y) {
+    Map<String, StaticTilePyramid> pyramids = PYRAMIDS_BY_GRAPH.getIfPresent(graph);
+    if (pyramids == null) {
+      return null;
+    }
+    StaticTilePyramid pyramid = pyramids.get(layerName);
+    return pyramid == null ? null : pyramid.get(z, x, y);
+  }
+}
@@ -0,0 +1,120 @@
+package org.opentripplanner.ext.vectortiles;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hashing;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.ws.rs.core.EntityTag;
+import org.opentripplanner.routing.graph.Graph;
+
+/**
+ * A cache of encoded vector tiles, shared by all requests. Map clients request the same tiles over
+ * and over again, so this saves querying the spatial indexes and encoding the tiles each time.
+ * <p>
+ * There is one cache for each graph. The graph is held with a weak reference, so the cache is
+ * dropped together with the graph when a new graph is loaded. This invalidates the tiles with
+ * static layers (stops and stations). Tiles with dynamic layers (vehicle rental and parking) are
+ * invalidated when the time given by the {@code cacheMaxSeconds} of the layers has passed. If the
+ * layers have no {@code cacheMaxSeconds}, tiles with dynamic layers are not cached, see
+ * {@link Tile#isCached()}.
+ * <p>
+ * The cache is bounded by the total size of the encoded tiles, the least recently used tiles are
+ * evicted first. Each tile is weighed with a fixed overhead for the cache entry, so the cache can
+ * not grow unbounded with empty tiles. Tiles outside the graph are not cached, see
+ * {@link VectorTilesResource}.
+ * <p>
+ * THREAD SAFETY - The cache is thread-safe. The tiles are not modified after they are created.
+ */
+class VectorTileCache {
+
+  private static final long MAX_SIZE_BYTES = 64 * 1024 * 1024;
+
+  /**
+   * The approximate size of a cache entry, in addition to the encoded tile: the key with the list
+   * of layers, the entry, the tile, the entity tag and the cache internals.
+   */
+  static final int ENTRY_OVERHEAD_BYTES = 512;
+
+  private static final LoadingCache<Graph, VectorTileCache> CACHE_BY_GRAPH = CacheBuilder
+    .newBuilder()
+    .weakKeys()
+    .build(CacheLoader.from(graph -> new VectorTileCache(MAX_SIZE_BYTES, System::nanoTime)));
+
+  private final Cache<TileKey, Entry> cache;
+  private final LongSupplier nanoClock;
+
+  VectorTileCache(long maxSizeBytes, LongSupplier nanoClock) {
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxSizeBytes)
+        .<TileKey, Entry>weigher((key, entry) -> ENTRY_OVERHEAD_BYTES + entry.tile().bytes().length)
+        .build();
+    this.nanoClock = nanoClock;
+  }
+
+  /** Return the cache for the given graph. */
+  static VectorTileCache forGraph(Graph graph) {
+    return CACHE_BY_GRAPH.getUnchecked(graph);
+  }
+
+  /**
+   * Return the cached tile for the given key, or create it if it is not cached or has expired.
+   * The layers of the key should be the layers included in the tile, in a well-defined order.
+   */
+  Tile get(TileKey key, Supplier<Tile> createTile) {
+    Entry entry = cache.getIfPresent(key);
+    long now = nanoClock.getAsLong();
+
+    if (entry != null && !entry.isExpired(now)) {
+      return entry.tile();
+    }
+    Tile tile = createTile.get();
+    if (tile.isCached()) {
+      cache.put(key, new Entry(tile, now));
+    } else {
+      cache.invalidate(key);
+    }
+    return tile;
+  }
+
+  /** The number of cached tiles. */
+  long size() {
+    return cache.size();
+  }
+
+  record TileKey(List<String> layers, int z, int x, int y) {}
+
+  /**
+   * An encoded tile.
+   *
+   * @param cacheMaxSeconds  The max-age to send to the client, or -1 if none.
+   * @param serverTtlSeconds How long the tile is valid in the server cache, {@link #NO_EXPIRY} if
+   *                         the tile only has static layers, or {@link #NO_CACHE} if the tile
+   *                         should not be cached.
+   */
+  record Tile(byte[] bytes, EntityTag entityTag, int cacheMaxSeconds, int serverTtlSeconds) {
+    static final int NO_EXPIRY = Integer.MAX_VALUE;
+    static final int NO_CACHE = 0;
+
+    static Tile of(byte[] bytes, int cacheMaxSeconds, int serverTtlSeconds) {
+      var entityTag = new EntityTag(Hashing.murmur3_128().hashBytes(bytes).toString());
+      return new Tile(bytes, entityTag, cacheMaxSeconds, serverTtlSeconds);
+    }
+
+    boolean isCached() {
+      return serverTtlSeconds > NO_CACHE;
+    }
+  }
+
+  private record Entry(Tile tile, long createdNanos) {
+    boolean isExpired(long nowNanos) {
+      int ttl = tile.serverTtlSeconds();
+      return ttl != Tile.NO_EXPIRY && nowNanos - createdNanos >= ttl * 1_000_000_000L;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.opentripplanner.ext.vectortiles;
 
 import com.wdtinc.mapbox_vector_tile.VectorTile;
+import java.io.ByteArrayOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -8,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -17,6 +19,7 @@ import javax.ws.rs.core.CacheControl;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import org.geotools.geometry.Envelope2D;
@@ -35,7 +38,7 @@ import org.opentripplanner.util.WorldEnvelope;
 @Path("/routers/{ignoreRouterId}/vectorTiles")
 public class VectorTilesResource {
 
-  private static final Map<LayerType, LayerBuilderFactory> layers = new HashMap<>();
+  static final Map<LayerType, LayerBuilderFactory> layers = new HashMap<>();
   private final OtpServerRequestContext serverContext;
   private final String ignoreRouterId;
 
@@ -62,49 +65,59 @@ public class VectorTilesResource {
   @Path("/{layers}/{z}/{x}/{y}.pbf")
   @Produces("application/x-protobuf")
   public Response tileGet(
+    @Context Request request,
     @PathParam("x") int x,
     @PathParam("y") int y,
     @PathParam("z") int z,
     @PathParam("layers") String requestedLayers
   ) {
-    VectorTile.Tile.Builder mvtBuilder = VectorTile.Tile.newBuilder();
-
     if (z < VectorTileConfig.MIN_ZOOM) {
-      return Response.status(Response.Status.OK).entity(mvtBuilder.build().toByteArray()).build();
+      var emptyTile = VectorTile.Tile.newBuilder().build();
+      return Response.status(Response.Status.OK).entity(emptyTile.toByteArray()).build();
     }
 
-    Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
-    Envelope envelope = new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
-
     List<String> layers = Arrays.asList(requestedLayers.split(","));
 
-    int cacheMaxSeconds = Integer.MAX_VALUE;
-
-    for (LayerParameters layerParameters : serverContext
+    List<LayerParameters> layersInTile = serverContext
       .routerConfig()
       .vectorTileLayers()
-      .layers()) {
-      if (
-        layers.contains(layerParameters.name()) &&
-        layerParameters.minZoom() <= z &&
-        z <= layerParameters.maxZoom()
-      ) {
-        cacheMaxSeconds = Math.min(cacheMaxSeconds, layerParameters.cacheMaxSeconds());
-        mvtBuilder.addLayers(
-          VectorTilesResource.layers
-            .get(LayerType.valueOf(layerParameters.type()))
-            .create(serverContext.graph(), serverContext.transitService(), layerParameters)
-            .build(envelope, layerParameters)
-        );
-      }
+      .layers()
+      .stream()
+      .filter(it -> layers.contains(it.name()) && it.minZoom() <= z && z <= it.maxZoom())
+      .toList();
+
+    Envelope envelope = tileEnvelope(x, y, z);
+    Supplier<VectorTileCache.Tile> createTile = () -> createTile(layersInTile, envelope, x, y, z);
+
+    // Tiles outside the graph are empty, they are not cached to keep the cache for useful tiles
+    VectorTileCache.Tile tile;
+    if (isOutsideGraph(envelope)) {
+      tile = createTile.get();
+    } else {
+      var key = new VectorTileCache.TileKey(
+        layersInTile.stream().map(LayerParameters::name).toList(),
+        z,
+        x,
+        y
+      );
+      tile = VectorTileCache.forGraph(serverContext.graph()).get(key, createTile);
     }
 
     CacheControl cacheControl = new CacheControl();
-    if (cacheMaxSeconds != Integer.MAX_VALUE) {
-      cacheControl.setMaxAge(cacheMaxSeconds);
+    if (tile.cacheMaxSeconds() != Integer.MAX_VALUE) {
+      cacheControl.setMaxAge(tile.cacheMaxSeconds());
+    }
+
+    Response.ResponseBuilder notModified = request.evaluatePreconditions(tile.entityTag());
+    if (notModified != null) {
+      return notModified.cacheControl(cacheControl).tag(tile.entityTag()).build();
     }
-    byte[] bytes = mvtBuilder.build().toByteArray();
-    return Response.status(Response.Status.OK).cacheControl(cacheControl).entity(bytes).build();
+    return Response
+      .status(Response.Status.OK)
+      .cacheControl(cacheControl)
+      .tag(tile.entityTag())
+      .entity(tile.bytes())
+      .build();
   }
 
   @GET
@@ -124,6 +137,86 @@ public class VectorTilesResource {
     );
   }
 
+  /**
+   * Build and encode the tile. The tile is cached until the graph is reloaded if all layers are
+   * static, otherwise it is cached as long as the lowest {@code cacheMaxSeconds} of the dynamic
+   * layers, see {@link VectorTileCache}.
+   * <p>
+   * The layers are encoded one by one and concatenated, this gives the same result as encoding a
+   * tile with all the layers. Pre-rendered layers are used as they are, see
+   * {@link StaticTilePyramids}.
+   */
+  private VectorTileCache.Tile createTile(
+    List<LayerParameters> layersInTile,
+    Envelope envelope,
+    int x,
+    int y,
+    int z
+  ) {
+    var out = new ByteArrayOutputStream();
+
+    int cacheMaxSeconds = Integer.MAX_VALUE;
+    int serverTtlSeconds = VectorTileCache.Tile.NO_EXPIRY;
+
+    for (LayerParameters layerParameters : layersInTile) {
+      LayerType layerType = LayerType.valueOf(layerParameters.type());
+      cacheMaxSeconds = Math.min(cacheMaxSeconds, layerParameters.cacheMaxSeconds());
+      if (layerType.dynamic) {
+        serverTtlSeconds =
+          Math.min(
+            serverTtlSeconds,
+            Math.max(layerParameters.cacheMaxSeconds(), VectorTileCache.Tile.NO_CACHE)
+          );
+      }
+
+      byte[] prerendered = StaticTilePyramids.get(
+        serverContext.graph(),
+        layerParameters.name(),
+        z,
+        x,
+        y
+      );
+      if (prerendered != null) {
+        out.writeBytes(prerendered);
+        continue;
+      }
+      var layer = VectorTilesResource.layers
+        .get(layerType)
+        .create(serverContext.graph(), serverContext.transitService(), layerParameters)
+        .build(envelope, layerParameters);
+      out.writeBytes(VectorTile.Tile.newBuilder().addLayers(layer).build().toByteArray());
+    }
+
+    return VectorTileCache.Tile.of(out.toByteArray(), cacheMaxSeconds, serverTtlSeconds);
+  }
+
+  private static Envelope tileEnvelope(int x, int y, int z) {
+    Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
+    return new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
+  }
+
+  /**
+   * Return {@code true} if the tile does not intersect the envelope of the graph. If the graph
+   * envelope is not known, or crosses the 180th meridian, all tiles are treated as inside.
+   */
+  private boolean isOutsideGraph(Envelope tileEnvelope) {
+    WorldEnvelope graphEnvelope = serverContext.graph().getEnvelope();
+    if (
+      graphEnvelope == null ||
+      graphEnvelope.getLowerLeftLongitude() > graphEnvelope.getUpperRightLongitude()
+    ) {
+      return false;
+    }
+    return !tileEnvelope.intersects(
+      new Envelope(
+        graphEnvelope.getLowerLeftLongitude(),
+        graphEnvelope.getUpperRightLongitude(),
+        graphEnvelope.getLowerLeftLatitude(),
+        graphEnvelope.getUpperRightLatitude()
+      )
+    );
+  }
+
   private String getBaseAddress(UriInfo uri, HttpHeaders headers) {
     String protocol;
     if (headers.getRequestHeader("X-Forwarded-Proto") != null) {
@@ -145,10 +238,17 @@ public class VectorTilesResource {
   }
 
   enum LayerType {
-    Stop,
-    Station,
-    VehicleRental,
-    VehicleParking,
+    Stop(false),
+    Station(false),
+    VehicleRental(true),
+    VehicleParking(true);
+
+    /** Dynamic layers change without the graph being reloaded, by realtime updates. */
+    final boolean dynamic;
+
+    LayerType(boolean dynamic) {
+      this.dynamic = dynamic;
+    }
   }
 
   public interface LayersParameters {
@@ -169,6 +269,15 @@ public class VectorTilesResource {
     int cacheMaxSeconds();
 
     double expansionFactor();
+
+    /**
+     * The max zoom level to pre-render the tiles of a static layer for when the server starts, see
+     * {@link StaticTilePyramids}. The tiles are not pre-rendered if this is lower than the min
+     * zoom.
+     */
+    default int prerenderMaxZoom() {
+      return -1;
+    }
   }
 
   private class TileJson implements Serializable {
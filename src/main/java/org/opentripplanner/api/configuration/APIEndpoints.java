@@ -31,6 +31,7 @@ import org.opentripplanner.ext.parkAndRideApi.ParkAndRideResource;
 import org.opentripplanner.ext.reportapi.resource.ReportResource;
 import org.opentripplanner.ext.transmodelapi.TransmodelAPI;
 import org.opentripplanner.ext.traveltime.TravelTimeResource;
+import org.opentripplanner.ext.traveltime.matrix.TravelTimeMatrixResource;
 import org.opentripplanner.ext.vectortiles.VectorTilesResource;
 import org.opentripplanner.index.IndexAPI;
 import org.opentripplanner.util.OTPFeature;
@@ -65,6 +66,7 @@ public class APIEndpoints {
     addIfEnabled(SandboxAPIParkAndRideApi, ParkAndRideResource.class);
     addIfEnabled(SandboxAPIGeocoder, GeocoderResource.class);
     addIfEnabled(SandboxAPITravelTime, TravelTimeResource.class);
+    addIfEnabled(SandboxAPITravelTime, TravelTimeMatrixResource.class);
   }
 
   /**
@@ -0,0 +1,47 @@
+package org.opentripplanner.api.resource;
+
+import org.opentripplanner.transit.raptor.api.debug.RaptorSearchStatistics;
+
+/**
+ * Holds the work done by one Raptor search, to be included in the REST Response for debugging and
+ * profiling purposes. The counts are summed over all iterations and rounds of the search.
+ */
+public class RaptorSearchStatisticsOutput {
+
+  /**
+   * The Raptor request alias, identify the profile, direction and optimizations used.
+   */
+  public final String alias;
+
+  /** The number of Range Raptor iterations, one for each departure minute. */
+  public final int iterations;
+
+  /** The number of rounds. */
+  public final int rounds;
+
+  /** The number of routes scanned. */
+  public final int routesScanned;
+
+  /** The number of times a trip is boarded. */
+  public final int tripsBoarded;
+
+  /** The number of stops reached by transit. */
+  public final int stopsTouched;
+
+  /** The number of stop arrivals added to the pareto-sets, multi-criteria search only. */
+  public final int stopArrivalsAccepted;
+
+  /** The number of stop arrivals rejected by the pareto-sets, multi-criteria search only. */
+  public final int stopArrivalsRejected;
+
+  public RaptorSearchStatisticsOutput(RaptorSearchStatistics statistics) {
+    this.alias = statistics.alias();
+    this.iterations = statistics.iterations();
+    this.rounds = statistics.rounds();
+    this.routesScanned = statistics.routesScanned();
+    this.tripsBoarded = statistics.tripsBoarded();
+    this.stopsTouched = statistics.stopsTouched();
+    this.stopArrivalsAccepted = statistics.stopArrivalsAccepted();
+    this.stopArrivalsRejected = statistics.stopArrivalsRejected();
+  }
+}
@@ -1,5 +1,7 @@
 package org.opentripplanner.api.resource;
 
+import java.util.List;
+
 /**
  * Holds information to be included in the REST Response for debugging and profiling purposes of a
  * single transit routing search.
@@ -26,15 +28,22 @@ public class TransitTimingOutput {
    */
   public final long itineraryCreationTime;
 
+  /**
+   * The work done by each Raptor search, the heuristic searches and the main search.
+   */
+  public final List<RaptorSearchStatisticsOutput> raptorSearches;
+
   public TransitTimingOutput(
     long tripPatternFilterTime,
     long accessEgressTime,
     long raptorSearchTime,
-    long itineraryCreationTime
+    long itineraryCreationTime,
+    List<RaptorSearchStatisticsOutput> raptorSearches
   ) {
     this.tripPatternFilterTime = tripPatternFilterTime;
     this.accessEgressTime = accessEgressTime;
     this.raptorSearchTime = raptorSearchTime;
     this.itineraryCreationTime = itineraryCreationTime;
+    this.raptorSearches = raptorSearches;
   }
 }
@@ -7,13 +7,19 @@ import org.geotools.referencing.crs.DefaultGeographicCRS;
 public class WebMercatorTile {
 
   public static String getTileNumber(final double lat, final double lon, final int zoom) {
-    int xtile = (int) Math.floor((lon + 180) / 360 * (1 << zoom));
-    int ytile = (int) Math.floor(
+    return ("" + zoom + "/" + lon2tileX(lon, zoom) + "/" + lat2tileY(lat, zoom));
+  }
+
+  public static int lon2tileX(final double lon, final int zoom) {
+    return (int) Math.floor((lon + 180) / 360 * (1 << zoom));
+  }
+
+  public static int lat2tileY(final double lat, final int zoom) {
+    return (int) Math.floor(
       (1 - Math.log(Math.tan(Math.toRadians(lat)) + 1 / Math.cos(Math.toRadians(lat))) / Math.PI) /
       2 *
       (1 << zoom)
     );
-    return ("" + zoom + "/" + xtile + "/" + ytile);
   }
 
   public static double tile2lon(int x, int z) {
@@ -52,6 +52,23 @@ public class DataImportIssueStore {
     add(Issue.issue(type, message, arguments));
   }
 
+  /**
+   * Create a new empty store, which stores issues only if this store does. Use this to collect the
+   * issues of a task running in parallel with other tasks, and add them to this store with {@link
+   * #addAll(DataImportIssueStore)} when the task is complete. This keeps the order of the issues
+   * the same as when running the tasks in sequence.
+   */
+  public DataImportIssueStore newLocalStore() {
+    return storeIssues ? new DataImportIssueStore(true) : NOOP;
+  }
+
+  /** Add all issues in the given store to this store. */
+  public void addAll(DataImportIssueStore other) {
+    if (storeIssues && other != this) {
+      this.issues.addAll(other.issues);
+    }
+  }
+
   public List<DataImportIssue> getIssues() {
     return this.issues;
   }
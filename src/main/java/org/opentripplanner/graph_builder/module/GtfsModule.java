@@ -1,14 +1,24 @@
 package org.opentripplanner.graph_builder.module;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.awt.Color;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.onebusaway.csv_entities.EntityHandler;
 import org.onebusaway.gtfs.impl.GtfsRelationalDaoImpl;
 import org.onebusaway.gtfs.model.Agency;
@@ -26,11 +36,13 @@ import org.onebusaway.gtfs.model.ServiceCalendarDate;
 import org.onebusaway.gtfs.model.ShapePoint;
 import org.onebusaway.gtfs.model.Stop;
 import org.onebusaway.gtfs.model.StopArea;
+import org.onebusaway.gtfs.model.StopTime;
 import org.onebusaway.gtfs.model.Trip;
 import org.onebusaway.gtfs.serialization.GtfsReader;
 import org.onebusaway.gtfs.services.GenericMutableDao;
 import org.onebusaway.gtfs.services.GtfsMutableRelationalDao;
 import org.opentripplanner.ext.fares.impl.DefaultFareServiceFactory;
+import org.opentripplanner.ext.fares.model.FareRulesData;
 import org.opentripplanner.ext.flex.FlexTripsMapper;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.model.GraphBuilderModule;
@@ -38,7 +50,9 @@ import org.opentripplanner.graph_builder.model.GtfsBundle;
 import org.opentripplanner.graph_builder.module.geometry.GeometryProcessor;
 import org.opentripplanner.graph_builder.module.interlining.InterlineProcessor;
 import org.opentripplanner.gtfs.GenerateTripPatternsOperation;
+import org.opentripplanner.gtfs.GtfsStopTimesByTrip;
 import org.opentripplanner.gtfs.mapping.GTFSToOtpTransitServiceMapper;
+import org.opentripplanner.gtfs.mapping.StaySeatedNotAllowed;
 import org.opentripplanner.model.OtpTransitService;
 import org.opentripplanner.model.TripStopTimes;
 import org.opentripplanner.model.calendar.CalendarServiceData;
@@ -47,7 +61,6 @@ import org.opentripplanner.model.impl.OtpTransitServiceBuilder;
 import org.opentripplanner.routing.fares.FareServiceFactory;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.config.BuildConfig;
-import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
@@ -77,6 +90,7 @@ public class GtfsModule implements GraphBuilderModule {
   private final boolean discardMinTransferTimes;
   private final boolean blockBasedInterlining;
   private final int maxInterlineDistance;
+  private final int loadParallelism;
 
   private final TransitModel transitModel;
   private final Graph graph;
@@ -92,7 +106,8 @@ public class GtfsModule implements GraphBuilderModule {
     FareServiceFactory fareServiceFactory,
     boolean discardMinTransferTimes,
     boolean blockBasedInterlining,
-    int maxInterlineDistance
+    int maxInterlineDistance,
+    int loadParallelism
   ) {
     this.gtfsBundles = bundles;
     this.transitModel = transitModel;
@@ -103,6 +118,7 @@ public class GtfsModule implements GraphBuilderModule {
     this.discardMinTransferTimes = discardMinTransferTimes;
     this.blockBasedInterlining = blockBasedInterlining;
     this.maxInterlineDistance = maxInterlineDistance;
+    this.loadParallelism = loadParallelism;
   }
 
   public GtfsModule(
@@ -120,7 +136,8 @@ public class GtfsModule implements GraphBuilderModule {
       new DefaultFareServiceFactory(),
       false,
       true,
-      100
+      100,
+      1
     );
   }
 
@@ -130,69 +147,76 @@ public class GtfsModule implements GraphBuilderModule {
 
     boolean hasTransit = false;
 
+    ExecutorService executor = loadParallelism > 1
+      ? Executors.newFixedThreadPool(
+        loadParallelism,
+        new ThreadFactoryBuilder().setNameFormat("GtfsLoader-%d").setDaemon(true).build()
+      )
+      : null;
+    Deque<Future<LoadedFeed>> feedsLoading = new ArrayDeque<>();
+
     try {
+      // The agency ids are checked for conflicts with the previous feeds, so the agencies are
+      // read for all feeds before the rest of the feeds are loaded - possibly in parallel.
+      List<FeedReader> feedReaders = new ArrayList<>();
       for (GtfsBundle gtfsBundle : gtfsBundles) {
-        GtfsMutableRelationalDao gtfsDao = loadBundle(gtfsBundle);
-        GTFSToOtpTransitServiceMapper mapper = new GTFSToOtpTransitServiceMapper(
-          gtfsBundle.getFeedId().getId(),
-          issueStore,
-          discardMinTransferTimes,
-          gtfsDao
-        );
-        mapper.mapStopTripAndRouteDataIntoBuilder();
-
-        OtpTransitServiceBuilder builder = mapper.getBuilder();
-        var fareRulesService = mapper.getFareRulesService();
-
-        builder.limitServiceDays(transitPeriodLimit);
-
-        calendarServiceData.add(builder.buildCalendarServiceData());
+        feedReaders.add(readAgencies(gtfsBundle));
+      }
 
-        if (OTPFeature.FlexRouting.isOn()) {
-          builder.getFlexTripsById().addAll(FlexTripsMapper.createFlexTrips(builder, issueStore));
+      Iterator<FeedReader> it = feedReaders.iterator();
+
+      while (it.hasNext() || !feedsLoading.isEmpty()) {
+        // Load up to 'loadParallelism' feeds ahead of the feed added to the graph
+        while (it.hasNext() && feedsLoading.size() < Math.max(loadParallelism, 1)) {
+          FeedReader feedReader = it.next();
+          feedsLoading.add(
+            executor == null
+              ? CompletableFuture.completedFuture(loadFeed(feedReader))
+              : executor.submit(() -> loadFeed(feedReader))
+          );
         }
+        LoadedFeed feed = waitFor(feedsLoading.poll());
 
-        validateAndInterpolateStopTimesForEachTrip(builder.getStopTimesSortedByTrip(), issueStore);
+        // The feeds are added to the graph and transit model one at the time, in the same
+        // order as the bundles are listed.
+        issueStore.addAll(feed.issueStore());
 
-        GeometryProcessor geometryProcessor = new GeometryProcessor(
-          builder,
-          gtfsBundle.getMaxStopToShapeSnapDistance(),
-          issueStore
-        );
+        calendarServiceData.add(feed.calendarServiceData());
 
-        // NB! The calls below have side effects - the builder state is updated!
-        createTripPatterns(
-          graph,
-          transitModel,
-          builder,
-          calendarServiceData.getServiceIds(),
-          geometryProcessor,
-          issueStore
+        transitModel.setHasFrequencyService(
+          transitModel.hasFrequencyService() || feed.hasFrequencyBasedTrips()
+        );
+        transitModel.setHasScheduledService(
+          transitModel.hasScheduledService() || feed.hasScheduledTrips()
         );
 
-        OtpTransitService otpTransitService = builder.build();
+        OtpTransitService otpTransitService = feed.otpTransitService();
 
         // if this or previously processed gtfs bundle has transit that has not been filtered out
         hasTransit = hasTransit || otpTransitService.hasActiveTransit();
 
-        addTransitModelToGraph(graph, transitModel, gtfsBundle, otpTransitService);
+        addTransitModelToGraph(graph, transitModel, feed.bundle(), otpTransitService);
 
         if (blockBasedInterlining) {
           new InterlineProcessor(
             transitModel.getTransferService(),
-            builder.getStaySeatedNotAllowed(),
+            feed.staySeatedNotAllowed(),
             maxInterlineDistance,
             issueStore
           )
             .run(transitModel.getAllTripPatterns());
         }
 
-        fareServiceFactory.processGtfs(fareRulesService, otpTransitService);
+        fareServiceFactory.processGtfs(feed.fareRulesService(), otpTransitService);
         graph.setFareService(fareServiceFactory.makeFareService());
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
     } finally {
+      feedsLoading.forEach(f -> f.cancel(true));
+      if (executor != null) {
+        executor.shutdownNow();
+      }
       // Note the close method of each bundle should NOT throw an exception, so this
       // code should be safe without the try/catch block.
       gtfsBundles.forEach(GtfsBundle::close);
@@ -213,42 +237,74 @@ public class GtfsModule implements GraphBuilderModule {
   /* Private Methods */
 
   /**
-   * This method has side effects, the {@code stopTimesByTrip} is updated.
+   * Read the rest of the feed, map it and generate the trip patterns. The feed is not added to
+   * the graph or transit model, and the issues are collected in a store local to the feed. This
+   * makes it safe to load feeds in parallel.
    */
-  private void validateAndInterpolateStopTimesForEachTrip(
-    TripStopTimes stopTimesByTrip,
-    DataImportIssueStore issueStore
-  ) {
-    new ValidateAndInterpolateStopTimesForEachTrip(stopTimesByTrip, true, issueStore).run();
-  }
+  private LoadedFeed loadFeed(FeedReader feedReader) throws IOException {
+    GtfsBundle gtfsBundle = feedReader.bundle();
+    GtfsMutableRelationalDao gtfsDao = readOtherEntities(feedReader);
+    DataImportIssueStore feedIssueStore = issueStore.newLocalStore();
+
+    GTFSToOtpTransitServiceMapper mapper = new GTFSToOtpTransitServiceMapper(
+      gtfsBundle.getFeedId().getId(),
+      feedIssueStore,
+      discardMinTransferTimes,
+      gtfsDao,
+      feedReader.store().stopTimes()
+    );
+    mapper.mapStopTripAndRouteDataIntoBuilder();
 
-  /**
-   * This method has side effects, the {@code builder} is updated with new TripPatterns.
-   */
-  private void createTripPatterns(
-    Graph graph,
-    TransitModel transitModel,
-    OtpTransitServiceBuilder builder,
-    Set<FeedScopedId> calServiceIds,
-    GeometryProcessor geometryProcessor,
-    DataImportIssueStore issueStore
-  ) {
+    OtpTransitServiceBuilder builder = mapper.getBuilder();
+
+    builder.limitServiceDays(transitPeriodLimit);
+
+    CalendarServiceData calendarServiceData = builder.buildCalendarServiceData();
+
+    if (OTPFeature.FlexRouting.isOn()) {
+      builder.getFlexTripsById().addAll(FlexTripsMapper.createFlexTrips(builder, feedIssueStore));
+    }
+
+    validateAndInterpolateStopTimesForEachTrip(builder.getStopTimesSortedByTrip(), feedIssueStore);
+
+    GeometryProcessor geometryProcessor = new GeometryProcessor(
+      builder,
+      gtfsBundle.getMaxStopToShapeSnapDistance(),
+      feedIssueStore
+    );
+
+    // NB! The call below has side effects - the builder state is updated!
     GenerateTripPatternsOperation buildTPOp = new GenerateTripPatternsOperation(
       builder,
-      issueStore,
+      feedIssueStore,
       graph.deduplicator,
-      calServiceIds,
+      calendarServiceData.getServiceIds(),
       geometryProcessor
     );
     buildTPOp.run();
-    transitModel.setHasFrequencyService(
-      transitModel.hasFrequencyService() || buildTPOp.hasFrequencyBasedTrips()
-    );
-    transitModel.setHasScheduledService(
-      transitModel.hasScheduledService() || buildTPOp.hasScheduledTrips()
+
+    return new LoadedFeed(
+      gtfsBundle,
+      builder.build(),
+      mapper.getFareRulesService(),
+      builder.getStaySeatedNotAllowed(),
+      calendarServiceData,
+      buildTPOp.hasFrequencyBasedTrips(),
+      buildTPOp.hasScheduledTrips(),
+      feedIssueStore
     );
   }
 
+  /**
+   * This method has side effects, the {@code stopTimesByTrip} is updated.
+   */
+  private void validateAndInterpolateStopTimesForEachTrip(
+    TripStopTimes stopTimesByTrip,
+    DataImportIssueStore issueStore
+  ) {
+    new ValidateAndInterpolateStopTimesForEachTrip(stopTimesByTrip, true, issueStore).run();
+  }
+
   private void addTransitModelToGraph(
     Graph graph,
     TransitModel transitModel,
@@ -264,7 +320,11 @@ public class GtfsModule implements GraphBuilderModule {
     );
   }
 
-  private GtfsMutableRelationalDao loadBundle(GtfsBundle gtfsBundle) throws IOException {
+  /**
+   * Read the agencies of the given feed, and replace agency ids already seen in a previous feed.
+   * This must be done for one feed at the time, in the same order as the feeds are listed.
+   */
+  private FeedReader readAgencies(GtfsBundle gtfsBundle) throws IOException {
     StoreImpl store = new StoreImpl(new GtfsRelationalDaoImpl());
     store.open();
     LOG.info("reading {}", gtfsBundle.toString());
@@ -279,7 +339,51 @@ public class GtfsModule implements GraphBuilderModule {
 
     if (LOG.isDebugEnabled()) reader.addEntityHandler(counter);
 
+    LOG.info("Reading entity: " + Agency.class.getName());
+    reader.readEntities(Agency.class);
+    store.flush();
+
+    // NOTE that agencies are read before all other entity types, so it is effective to set the
+    // agencyId here. Each feed ("bundle") is loaded by a separate reader, so there is no risk of
+    // agency mappings accumulating.
+    for (Agency agency : reader.getAgencies()) {
+      String agencyId = agency.getId();
+      LOG.info("This Agency has the ID {}", agencyId);
+      // Somehow, when the agency's id field is missing, OBA replaces it with the agency's name.
+      // TODO Figure out how and why this is happening.
+      if (agencyId == null || agencyIdsSeen.contains(gtfsFeedId.getId() + agencyId)) {
+        // Loop in case generated name is already in use.
+        String generatedAgencyId = null;
+        while (generatedAgencyId == null || agencyIdsSeen.contains(generatedAgencyId)) {
+          generatedAgencyId = "F" + nextAgencyId;
+          nextAgencyId++;
+        }
+        LOG.warn(
+          "The agency ID '{}' was already seen, or I think it's bad. Replacing with '{}'.",
+          agencyId,
+          generatedAgencyId
+        );
+        reader.addAgencyIdMapping(agencyId, generatedAgencyId); // NULL key should work
+        agency.setId(generatedAgencyId);
+        agencyId = generatedAgencyId;
+      }
+      if (agencyId != null) agencyIdsSeen.add(gtfsFeedId.getId() + agencyId);
+    }
+    return new FeedReader(gtfsBundle, reader, store);
+  }
+
+  /**
+   * Read all entities except the agencies, see {@link #readAgencies(GtfsBundle)}. This only
+   * accesses the state of the given feed reader, so feeds can be read in parallel.
+   */
+  private GtfsMutableRelationalDao readOtherEntities(FeedReader feedReader) throws IOException {
+    GtfsReader reader = feedReader.reader();
+    StoreImpl store = feedReader.store();
+
     for (Class<?> entityClass : reader.getEntityClasses()) {
+      if (entityClass == Agency.class) {
+        continue;
+      }
       if (skipEntityClass(entityClass)) {
         LOG.info("Skipping entity: " + entityClass.getName());
         continue;
@@ -287,34 +391,6 @@ public class GtfsModule implements GraphBuilderModule {
       LOG.info("Reading entity: " + entityClass.getName());
       reader.readEntities(entityClass);
       store.flush();
-      // NOTE that agencies are first in the list and read before all other entity types, so it is effective to
-      // set the agencyId here. Each feed ("bundle") is loaded by a separate reader, so there is no risk of
-      // agency mappings accumulating.
-      if (entityClass == Agency.class) {
-        for (Agency agency : reader.getAgencies()) {
-          String agencyId = agency.getId();
-          LOG.info("This Agency has the ID {}", agencyId);
-          // Somehow, when the agency's id field is missing, OBA replaces it with the agency's name.
-          // TODO Figure out how and why this is happening.
-          if (agencyId == null || agencyIdsSeen.contains(gtfsFeedId.getId() + agencyId)) {
-            // Loop in case generated name is already in use.
-            String generatedAgencyId = null;
-            while (generatedAgencyId == null || agencyIdsSeen.contains(generatedAgencyId)) {
-              generatedAgencyId = "F" + nextAgencyId;
-              nextAgencyId++;
-            }
-            LOG.warn(
-              "The agency ID '{}' was already seen, or I think it's bad. Replacing with '{}'.",
-              agencyId,
-              generatedAgencyId
-            );
-            reader.addAgencyIdMapping(agencyId, generatedAgencyId); // NULL key should work
-            agency.setId(generatedAgencyId);
-            agencyId = generatedAgencyId;
-          }
-          if (agencyId != null) agencyIdsSeen.add(gtfsFeedId.getId() + agencyId);
-        }
-      }
     }
 
     for (ShapePoint shapePoint : store.getAllEntitiesForType(ShapePoint.class)) {
@@ -400,14 +476,56 @@ public class GtfsModule implements GraphBuilderModule {
     route.setTextColor(textColor);
   }
 
+  private static LoadedFeed waitFor(Future<LoadedFeed> feed) throws IOException {
+    try {
+      return feed.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** A feed with the agencies read, ready to read the rest of the entities. */
+  private record FeedReader(GtfsBundle bundle, GtfsReader reader, StoreImpl store) {}
+
+  /** A feed mapped to the OTP model with trip patterns, not yet added to the graph. */
+  private record LoadedFeed(
+    GtfsBundle bundle,
+    OtpTransitService otpTransitService,
+    FareRulesData fareRulesService,
+    List<StaySeatedNotAllowed> staySeatedNotAllowed,
+    CalendarServiceData calendarServiceData,
+    boolean hasFrequencyBasedTrips,
+    boolean hasScheduledTrips,
+    DataImportIssueStore issueStore
+  ) {}
+
   private static class StoreImpl implements GenericMutableDao {
 
     private final GtfsMutableRelationalDao dao;
 
+    /**
+     * The stop times are kept out of the DAO and stored per trip in primitive arrays, this is
+     * the by far largest file in most feeds.
+     */
+    private final GtfsStopTimesByTrip stopTimes = new GtfsStopTimesByTrip();
+
     StoreImpl(GtfsMutableRelationalDao dao) {
       this.dao = dao;
     }
 
+    GtfsStopTimesByTrip stopTimes() {
+      return stopTimes;
+    }
+
     @Override
     public void open() {
       dao.open();
@@ -415,7 +533,11 @@ public class GtfsModule implements GraphBuilderModule {
 
     @Override
     public void saveEntity(Object entity) {
-      dao.saveEntity(entity);
+      if (entity instanceof StopTime stopTime) {
+        stopTimes.add(stopTime);
+      } else {
+        dao.saveEntity(entity);
+      }
     }
 
     @Override
@@ -474,7 +596,7 @@ public class GtfsModule implements GraphBuilderModule {
       }
     }
 
-    private int incrementCount(Class<?> entityType) {
+    private synchronized int incrementCount(Class<?> entityType) {
       Integer value = count.get(entityType);
       if (value == null) {
         value = 0;
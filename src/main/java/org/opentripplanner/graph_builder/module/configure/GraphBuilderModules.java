@@ -97,7 +97,8 @@ public class GraphBuilderModules {
       config.fareServiceFactory,
       config.discardMinTransferTimes,
       config.blockBasedInterlining,
-      config.maxInterlineDistance
+      config.maxInterlineDistance,
+      config.gtfsLoadParallelism
     );
   }
 
@@ -0,0 +1,226 @@
+package org.opentripplanner.gtfs;
+
+import static org.onebusaway.gtfs.model.StopTime.MISSING_VALUE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.onebusaway.gtfs.model.Stop;
+import org.onebusaway.gtfs.model.StopTime;
+import org.onebusaway.gtfs.model.Trip;
+
+/**
+ * Keep the stop times read from a GTFS feed in primitive arrays grouped by trip, instead of
+ * keeping one onebusaway {@link StopTime} in the DAO for each row in {@code stop_times.txt}. For
+ * national feeds with tens of millions of stop times, the stop time objects dominate the memory
+ * used to build the graph.
+ * <p>
+ * The stop times are added one at the time while the feed is read. The stop times for one trip
+ * are created again, when the trip is mapped to the OTP model, see {@link #drain(Consumer)}.
+ * <p>
+ * Only the fields used by regular scheduled trips are stored in arrays. If one of the stop times
+ * for a trip has flex, booking, fare period or route short name information, or is not visiting a
+ * regular stop, all stop times for the trip are kept as onebusaway objects.
+ * <p>
+ * THREAD SAFETY - This class is not thread safe, use one instance for each feed.
+ */
+public class GtfsStopTimesByTrip {
+
+  private final Map<Trip, TripRows> rowsByTrip = new LinkedHashMap<>();
+  private TripRows lastTripRows = null;
+  private int size = 0;
+
+  /** Add a stop time, adding the stop times for the same trip in sequence use less memory. */
+  public void add(StopTime stopTime) {
+    if (lastTripRows == null || lastTripRows.trip != stopTime.getTrip()) {
+      if (lastTripRows != null) {
+        lastTripRows.trimToSize();
+      }
+      lastTripRows = rowsByTrip.computeIfAbsent(stopTime.getTrip(), TripRows::new);
+    }
+    lastTripRows.add(stopTime);
+    ++size;
+  }
+
+  /** The number of stop times in this buffer. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Remove the stop times from this buffer one trip at the time, and pass them on to the given
+   * consumer. The trips are passed on in the order they are first seen in the feed.
+   */
+  public void drain(Consumer<List<StopTime>> consumer) {
+    lastTripRows = null;
+    Iterator<TripRows> it = rowsByTrip.values().iterator();
+    while (it.hasNext()) {
+      List<StopTime> stopTimes = it.next().toStopTimes();
+      it.remove();
+      size -= stopTimes.size();
+      consumer.accept(stopTimes);
+    }
+  }
+
+  private static final class TripRows {
+
+    private static final int INITIAL_CAPACITY = 16;
+    /** Represent {@link StopTime#MISSING_VALUE} in the byte arrays. */
+    private static final byte MISSING_BYTE = Byte.MIN_VALUE;
+
+    private final Trip trip;
+    private int size = 0;
+    private Stop[] stops = new Stop[INITIAL_CAPACITY];
+    private int[] stopSequences = new int[INITIAL_CAPACITY];
+    private int[] arrivalTimes = new int[INITIAL_CAPACITY];
+    private int[] departureTimes = new int[INITIAL_CAPACITY];
+    private byte[] timepoints = new byte[INITIAL_CAPACITY];
+    private byte[] pickupTypes = new byte[INITIAL_CAPACITY];
+    private byte[] dropOffTypes = new byte[INITIAL_CAPACITY];
+    /** Created when the first stop time with a headsign is added. */
+    private String[] headsigns = null;
+    /** Created when the first stop time with the shape distance traveled is added. */
+    private double[] shapeDistTraveled = null;
+
+    /**
+     * The stop times for the trip, used instead of the arrays if one of the stop times can not be
+     * stored in arrays.
+     */
+    private List<StopTime> stopTimes = null;
+
+    private TripRows(Trip trip) {
+      this.trip = trip;
+    }
+
+    void add(StopTime st) {
+      if (stopTimes == null && !isCompactable(st)) {
+        stopTimes = toStopTimes();
+        clearArrays();
+      }
+      if (stopTimes != null) {
+        stopTimes.add(st);
+        return;
+      }
+      if (size == stops.length) {
+        resize(size * 2);
+      }
+      stops[size] = (Stop) st.getStop();
+      stopSequences[size] = st.getStopSequence();
+      arrivalTimes[size] = st.getArrivalTime();
+      departureTimes[size] = st.getDepartureTime();
+      timepoints[size] = toByte(st.getTimepoint());
+      pickupTypes[size] = toByte(st.getPickupType());
+      dropOffTypes[size] = toByte(st.getDropOffType());
+
+      if (st.getStopHeadsign() != null && headsigns == null) {
+        headsigns = new String[stops.length];
+      }
+      if (headsigns != null) {
+        headsigns[size] = st.getStopHeadsign();
+      }
+      if (st.getShapeDistTraveled() != MISSING_VALUE && shapeDistTraveled == null) {
+        shapeDistTraveled = new double[stops.length];
+        Arrays.fill(shapeDistTraveled, MISSING_VALUE);
+      }
+      if (shapeDistTraveled != null) {
+        shapeDistTraveled[size] = st.getShapeDistTraveled();
+      }
+      ++size;
+    }
+
+    void trimToSize() {
+      if (stopTimes == null && size < stops.length) {
+        resize(size);
+      }
+    }
+
+    List<StopTime> toStopTimes() {
+      if (stopTimes != null) {
+        return stopTimes;
+      }
+      List<StopTime> list = new ArrayList<>(size);
+      for (int i = 0; i < size; ++i) {
+        StopTime it = new StopTime();
+        it.setTrip(trip);
+        it.setStop(stops[i]);
+        it.setStopSequence(stopSequences[i]);
+        it.setArrivalTime(arrivalTimes[i]);
+        it.setDepartureTime(departureTimes[i]);
+        it.setTimepoint(fromByte(timepoints[i]));
+        it.setPickupType(fromByte(pickupTypes[i]));
+        it.setDropOffType(fromByte(dropOffTypes[i]));
+        if (headsigns != null) {
+          it.setStopHeadsign(headsigns[i]);
+        }
+        if (shapeDistTraveled != null) {
+          it.setShapeDistTraveled(shapeDistTraveled[i]);
+        }
+        list.add(it);
+      }
+      return list;
+    }
+
+    private boolean isCompactable(StopTime st) {
+      return (
+        st.getStop() instanceof Stop &&
+        st.getRouteShortName() == null &&
+        st.getFarePeriodId() == null &&
+        st.getStartPickupDropOffWindow() == MISSING_VALUE &&
+        st.getEndPickupDropOffWindow() == MISSING_VALUE &&
+        st.getContinuousPickup() == MISSING_VALUE &&
+        st.getContinuousDropOff() == MISSING_VALUE &&
+        st.getPickupBookingRule() == null &&
+        st.getDropOffBookingRule() == null &&
+        st.getProxy() == null &&
+        isByte(st.getTimepoint()) &&
+        isByte(st.getPickupType()) &&
+        isByte(st.getDropOffType())
+      );
+    }
+
+    private static boolean isByte(int value) {
+      return value == MISSING_VALUE || (value > MISSING_BYTE && value <= Byte.MAX_VALUE);
+    }
+
+    private static byte toByte(int value) {
+      return value == MISSING_VALUE ? MISSING_BYTE : (byte) value;
+    }
+
+    private static int fromByte(byte value) {
+      return value == MISSING_BYTE ? MISSING_VALUE : value;
+    }
+
+    private void resize(int capacity) {
+      stops = Arrays.copyOf(stops, capacity);
+      stopSequences = Arrays.copyOf(stopSequences, capacity);
+      arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+      departureTimes = Arrays.copyOf(departureTimes, capacity);
+      timepoints = Arrays.copyOf(timepoints, capacity);
+      pickupTypes = Arrays.copyOf(pickupTypes, capacity);
+      dropOffTypes = Arrays.copyOf(dropOffTypes, capacity);
+      if (headsigns != null) {
+        headsigns = Arrays.copyOf(headsigns, capacity);
+      }
+      if (shapeDistTraveled != null) {
+        shapeDistTraveled = Arrays.copyOf(shapeDistTraveled, capacity);
+      }
+    }
+
+    private void clearArrays() {
+      size = 0;
+      stops = null;
+      stopSequences = null;
+      arrivalTimes = null;
+      departureTimes = null;
+      timepoints = null;
+      pickupTypes = null;
+      dropOffTypes = null;
+      headsigns = null;
+      shapeDistTraveled = null;
+    }
+  }
+}
@@ -11,7 +11,9 @@ import java.util.function.Function;
 import org.onebusaway.gtfs.services.GtfsRelationalDao;
 import org.opentripplanner.ext.fares.model.FareRulesData;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.gtfs.GtfsStopTimesByTrip;
 import org.opentripplanner.model.ShapePoint;
+import org.opentripplanner.model.TripStopTimes;
 import org.opentripplanner.model.impl.OtpTransitServiceBuilder;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.site.RegularStop;
@@ -82,11 +84,28 @@ public class GTFSToOtpTransitServiceMapper {
   private final TranslationHelper translationHelper;
   private final boolean discardMinTransferTimes;
 
+  /** Stop times read outside the DAO, drained when mapped. */
+  private final GtfsStopTimesByTrip gtfsStopTimes;
+
   public GTFSToOtpTransitServiceMapper(
     String feedId,
     DataImportIssueStore issueStore,
     boolean discardMinTransferTimes,
     GtfsRelationalDao data
+  ) {
+    this(feedId, issueStore, discardMinTransferTimes, data, new GtfsStopTimesByTrip());
+  }
+
+  /**
+   * @param gtfsStopTimes Stop times kept outside the DAO, these are mapped in addition to the
+   *                      stop times in the DAO.
+   */
+  public GTFSToOtpTransitServiceMapper(
+    String feedId,
+    DataImportIssueStore issueStore,
+    boolean discardMinTransferTimes,
+    GtfsRelationalDao data,
+    GtfsStopTimesByTrip gtfsStopTimes
   ) {
     // Create callbacks for mappers to retrieve stop and stations
     Function<FeedScopedId, Station> stationLookup = id -> builder.getStations().get(id);
@@ -94,6 +113,7 @@ public class GTFSToOtpTransitServiceMapper {
 
     this.issueStore = issueStore;
     this.data = data;
+    this.gtfsStopTimes = gtfsStopTimes;
     this.discardMinTransferTimes = discardMinTransferTimes;
     translationHelper = new TranslationHelper();
     feedInfoMapper = new FeedInfoMapper(feedId);
@@ -154,7 +174,7 @@ public class GTFSToOtpTransitServiceMapper {
     }
 
     builder.getPathways().addAll(pathwayMapper.map(data.getAllPathways()));
-    builder.getStopTimesSortedByTrip().addAll(stopTimeMapper.map(data.getAllStopTimes()));
+    mapStopTimes();
     builder.getTripsById().addAll(tripMapper.map(data.getAllTrips()));
 
     fareRulesBuilder.fareAttributes().addAll(fareAttributeMapper.map(data.getAllFareAttributes()));
@@ -164,6 +184,17 @@ public class GTFSToOtpTransitServiceMapper {
     mapAndAddTransfersToBuilder();
   }
 
+  /**
+   * Map the stop times one trip at the time, the GTFS stop times are released as soon as they are
+   * mapped. This way the GTFS and the OTP stop times for the whole feed are never in memory at the
+   * same time.
+   */
+  private void mapStopTimes() {
+    TripStopTimes stopTimesByTrip = builder.getStopTimesSortedByTrip();
+    stopTimesByTrip.addAll(stopTimeMapper.map(data.getAllStopTimes()));
+    gtfsStopTimes.drain(it -> stopTimesByTrip.addAll(stopTimeMapper.map(it)));
+  }
+
   private void mapGtfsStopsToOtpTypes(Collection<org.onebusaway.gtfs.model.Stop> stops) {
     // Map station first, so we can link to them
     for (org.onebusaway.gtfs.model.Stop it : stops) {
@@ -1,8 +1,6 @@
 package org.opentripplanner.gtfs.mapping;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 import org.onebusaway.gtfs.model.Location;
 import org.onebusaway.gtfs.model.LocationGroup;
 import org.onebusaway.gtfs.model.Stop;
@@ -23,8 +21,6 @@ class StopTimeMapper {
   private final TripMapper tripMapper;
   private final BookingRuleMapper bookingRuleMapper;
 
-  private final Map<org.onebusaway.gtfs.model.StopTime, StopTime> mappedStopTimes = new HashMap<>();
-
   StopTimeMapper(
     StopMapper stopMapper,
     LocationMapper locationMapper,
@@ -43,9 +39,12 @@ class StopTimeMapper {
     return MapUtils.mapToList(times, this::map);
   }
 
-  /** Map from GTFS to OTP model, {@code null} safe. */
+  /**
+   * Map from GTFS to OTP model, {@code null} safe. The stop times are not cached, each stop time
+   * is only mapped once and caching them would keep all stop times in memory.
+   */
   StopTime map(org.onebusaway.gtfs.model.StopTime orginal) {
-    return orginal == null ? null : mappedStopTimes.computeIfAbsent(orginal, this::doMap);
+    return orginal == null ? null : doMap(orginal);
   }
 
   private StopTime doMap(org.onebusaway.gtfs.model.StopTime rhs) {
@@ -0,0 +1,173 @@
+package org.opentripplanner.model;
+
+import static org.opentripplanner.model.StopTime.MISSING_VALUE;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.opentripplanner.transit.model.site.StopLocation;
+import org.opentripplanner.transit.model.timetable.Trip;
+
+/**
+ * The stop times of one trip stored in primitive arrays. A {@link StopTime} uses about 100 bytes,
+ * the arrays use about 25 bytes for each stop time. For a feed with millions of stop times this is
+ * a significant part of the memory used to build the graph.
+ * <p>
+ * Only the fields used by regular scheduled trips are stored in arrays. If one of the stop times
+ * has flex, booking, fare period, route short name or headsign-via information the list of stop
+ * times is kept as is.
+ * <p>
+ * This class is immutable, new {@link StopTime}s are created each time {@link #toStopTimes()} is
+ * called. Changes to the returned stop times are not reflected in this class.
+ */
+final class CompactStopTimes {
+
+  private static final PickDrop[] PICK_DROP_VALUES = PickDrop.values();
+  private static final byte MISSING_TIMEPOINT = Byte.MIN_VALUE;
+
+  private final Trip trip;
+  private final StopLocation[] stops;
+  private final int[] stopSequences;
+  private final int[] arrivalTimes;
+  private final int[] departureTimes;
+  private final byte[] timepoints;
+  private final byte[] pickupTypes;
+  private final byte[] dropOffTypes;
+  /** {@code null} if no stop time has a headsign. */
+  private final String[] headsigns;
+  /** {@code null} if no stop time has the shape distance traveled set. */
+  private final double[] shapeDistTraveled;
+
+  /** The stop times, only used if the stop times can not be stored in arrays. */
+  private final List<StopTime> stopTimes;
+
+  private CompactStopTimes(Trip trip, List<StopTime> stopTimes) {
+    this.trip = trip;
+    this.stopTimes = stopTimes;
+    this.stops = null;
+    this.stopSequences = null;
+    this.arrivalTimes = null;
+    this.departureTimes = null;
+    this.timepoints = null;
+    this.pickupTypes = null;
+    this.dropOffTypes = null;
+    this.headsigns = null;
+    this.shapeDistTraveled = null;
+  }
+
+  private CompactStopTimes(Trip trip, int size, boolean hasHeadsigns, boolean hasShapeDist) {
+    this.trip = trip;
+    this.stopTimes = null;
+    this.stops = new StopLocation[size];
+    this.stopSequences = new int[size];
+    this.arrivalTimes = new int[size];
+    this.departureTimes = new int[size];
+    this.timepoints = new byte[size];
+    this.pickupTypes = new byte[size];
+    this.dropOffTypes = new byte[size];
+    this.headsigns = hasHeadsigns ? new String[size] : null;
+    this.shapeDistTraveled = hasShapeDist ? new double[size] : null;
+  }
+
+  /**
+   * Store the given stop times, they must be sorted and belong to the given trip. The stop times
+   * are copied if stored in arrays, if not the list is kept as is.
+   */
+  static CompactStopTimes of(Trip trip, List<StopTime> stopTimes) {
+    boolean hasHeadsigns = false;
+    boolean hasShapeDist = false;
+
+    for (StopTime it : stopTimes) {
+      if (!isCompactable(trip, it)) {
+        return new CompactStopTimes(trip, stopTimes);
+      }
+      hasHeadsigns |= it.getStopHeadsign() != null;
+      hasShapeDist |= it.isShapeDistTraveledSet();
+    }
+
+    var c = new CompactStopTimes(trip, stopTimes.size(), hasHeadsigns, hasShapeDist);
+
+    for (int i = 0; i < stopTimes.size(); ++i) {
+      StopTime it = stopTimes.get(i);
+      c.stops[i] = it.getStop();
+      c.stopSequences[i] = it.getStopSequence();
+      c.arrivalTimes[i] = it.getArrivalTime();
+      c.departureTimes[i] = it.getDepartureTime();
+      c.timepoints[i] = encodeTimepoint(it.getTimepoint());
+      c.pickupTypes[i] = (byte) it.getPickupType().ordinal();
+      c.dropOffTypes[i] = (byte) it.getDropOffType().ordinal();
+      if (hasHeadsigns) {
+        c.headsigns[i] = it.getStopHeadsign();
+      }
+      if (hasShapeDist) {
+        c.shapeDistTraveled[i] = it.getShapeDistTraveled();
+      }
+    }
+    return c;
+  }
+
+  int size() {
+    return stopTimes != null ? stopTimes.size() : stops.length;
+  }
+
+  /**
+   * Return an unmodifiable list of the stop times. If the stop times are stored in arrays, new
+   * stop times are created.
+   */
+  List<StopTime> toStopTimes() {
+    if (stopTimes != null) {
+      return Collections.unmodifiableList(stopTimes);
+    }
+    List<StopTime> list = new ArrayList<>(stops.length);
+
+    for (int i = 0; i < stops.length; ++i) {
+      StopTime it = new StopTime();
+      it.setTrip(trip);
+      it.setStop(stops[i]);
+      it.setStopSequence(stopSequences[i]);
+      it.setArrivalTime(arrivalTimes[i]);
+      it.setDepartureTime(departureTimes[i]);
+      it.setTimepoint(decodeTimepoint(timepoints[i]));
+      it.setPickupType(PICK_DROP_VALUES[pickupTypes[i]]);
+      it.setDropOffType(PICK_DROP_VALUES[dropOffTypes[i]]);
+      if (headsigns != null) {
+        it.setStopHeadsign(headsigns[i]);
+      }
+      if (shapeDistTraveled != null) {
+        it.setShapeDistTraveled(shapeDistTraveled[i]);
+      }
+      list.add(it);
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  private static boolean isCompactable(Trip trip, StopTime it) {
+    return (
+      it.getTrip() == trip &&
+      it.getRouteShortName() == null &&
+      it.getFarePeriodId() == null &&
+      it.getHeadsignVias() == null &&
+      it.getFlexWindowStart() == MISSING_VALUE &&
+      it.getFlexWindowEnd() == MISSING_VALUE &&
+      it.getFlexContinuousPickup() == PickDrop.NONE &&
+      it.getFlexContinuousDropOff() == PickDrop.NONE &&
+      it.getPickupBookingInfo() == null &&
+      it.getDropOffBookingInfo() == null &&
+      isTimepointCompactable(it.getTimepoint())
+    );
+  }
+
+  private static boolean isTimepointCompactable(int timepoint) {
+    return (
+      timepoint == MISSING_VALUE || (timepoint > Byte.MIN_VALUE && timepoint <= Byte.MAX_VALUE)
+    );
+  }
+
+  private static byte encodeTimepoint(int timepoint) {
+    return timepoint == MISSING_VALUE ? MISSING_TIMEPOINT : (byte) timepoint;
+  }
+
+  private static int decodeTimepoint(byte timepoint) {
+    return timepoint == MISSING_TIMEPOINT ? MISSING_VALUE : timepoint;
+  }
+}
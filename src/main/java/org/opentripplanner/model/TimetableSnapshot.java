@@ -1,15 +1,11 @@
 package org.opentripplanner.model;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
@@ -21,6 +17,7 @@ import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.model.timetable.TripIdAndServiceDate;
 import org.opentripplanner.transit.model.timetable.TripOnServiceDate;
 import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.opentripplanner.util.lang.PersistentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +34,11 @@ import org.slf4j.LoggerFactory;
  * <p>
  * At this point, only one writing thread at a time is supported.
  * <p>
+ * The maps are {@link PersistentMap}s, so a commit does not copy them. The committed snapshot and
+ * the buffer share the maps, and each update in the buffer only copies the path to the changed
+ * entry. The cost of a commit is proportional to the changes since the last commit, not to the
+ * total amount of realtime data.
+ * <p>
  *  TODO OTP2 - Move this to package: org.opentripplanner.model
  *            - after ass Entur NeTEx PRs are merged.
  */
@@ -55,36 +57,31 @@ public class TimetableSnapshot {
    * Route) for which we have an updated Timetable. The keys include both TripPatterns from the
    * scheduled GTFS, and TripPatterns added by realtime messages and tracked by the
    * TripPatternCache. Note that the keys will not include all scheduled TripPatterns, only those
-   * for which we've got an update. We use a HashMap rather than a Map so we can clone it. If this
-   * turns out to be slow/spacious we can use an array with integer pattern indexes. The SortedSet
-   * members are copy-on-write.
-   * FIXME: this could be made into a flat hashtable with compound keys.
+   * for which we've got an update. The SortedSet members are copy-on-write.
    */
-  private HashMap<TripPattern, SortedSet<Timetable>> timetables = new HashMap();
+  private PersistentMap<TripPattern, SortedSet<Timetable>> timetables = PersistentMap.empty();
 
   /**
    * <p>
    * Map containing the current trip pattern given a trip id and a service date, if it has been
    * changed from the scheduled pattern with an update, for which the stopPattern is different.
    * </p>
-   * <p>
-   * This is a HashMap and not a Map so the clone function is available.
    */
-  private HashMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern = new HashMap<>();
+  private PersistentMap<TripIdAndServiceDate, TripPattern> realtimeAddedTripPattern = PersistentMap.empty();
 
-  private HashMap<FeedScopedId, TripOnServiceDate> realtimeAddedTripOnServiceDate = new HashMap<>();
-  private HashMap<TripIdAndServiceDate, TripOnServiceDate> realtimeAddedTripOnServiceDateByTripIdAndServiceDate = new HashMap<>();
+  private PersistentMap<FeedScopedId, TripOnServiceDate> realtimeAddedTripOnServiceDate = PersistentMap.empty();
+  private PersistentMap<TripIdAndServiceDate, TripOnServiceDate> realtimeAddedTripOnServiceDateByTripIdAndServiceDate = PersistentMap.empty();
 
   /**
    * This maps contains all of the new or updated TripPatterns added by realtime data indexed on
    * stop. This has to be kept in order for them to be included in the stop times api call on a
    * specific stop.
    * <p>
-   * This is a SetMultimap, so that each pattern can only be added once.
+   * The values are immutable sets, so that each pattern can only be added once.
    * <p>
    * TODO Find a generic way to keep all realtime indexes.
    */
-  private SetMultimap<StopLocation, TripPattern> patternsForStop = HashMultimap.create();
+  private PersistentMap<StopLocation, Set<TripPattern>> patternsForStop = PersistentMap.empty();
 
   /**
    * Boolean value indicating that timetable snapshot is read only if true. Once it is true, it
@@ -202,7 +199,7 @@ public class TimetableSnapshot {
       }
       if (old.getServiceDate() != null) sortedTimetables.remove(old);
       sortedTimetables.add(tt);
-      timetables.put(pattern, sortedTimetables);
+      timetables = timetables.put(pattern, sortedTimetables);
       dirtyTimetables.add(tt);
       dirty = true;
     }
@@ -222,7 +219,7 @@ public class TimetableSnapshot {
       // Remember this pattern for the added trip id and service date
       FeedScopedId tripId = updatedTripTimes.getTrip().getId();
       TripIdAndServiceDate tripIdAndServiceDate = new TripIdAndServiceDate(tripId, serviceDate);
-      realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
+      realtimeAddedTripPattern = realtimeAddedTripPattern.put(tripIdAndServiceDate, pattern);
     }
 
     // To make these trip patterns visible for departureRow searches.
@@ -234,12 +231,10 @@ public class TimetableSnapshot {
   }
 
   /**
-   * This produces a small delay of typically around 50ms, which is almost entirely due to the
-   * indexing step. Cloning the map is much faster (2ms). It is perhaps better to index timetables
-   * as they are changed to avoid experiencing all this lag at once, but we want to avoid
-   * re-indexing when receiving multiple updates for the same timetable in rapid succession. This
-   * compromise is expressed by the maxSnapshotFrequency property of StoptimeUpdater. The indexing
-   * could be made much more efficient as well.
+   * The maps are persistent, so they are shared with the new snapshot instead of copied. The cost
+   * of the commit is the update of the transit layer with the dirty timetables. We still want to
+   * avoid re-indexing when receiving multiple updates for the same timetable in rapid succession.
+   * This compromise is expressed by the maxSnapshotFrequency property of StoptimeUpdater.
    *
    * @return an immutable copy of this TimetableSnapshot with all updates applied
    */
@@ -247,7 +242,6 @@ public class TimetableSnapshot {
     return commit(null, false);
   }
 
-  @SuppressWarnings("unchecked")
   public TimetableSnapshot commit(TransitLayerUpdater transitLayerUpdater, boolean force) {
     if (readOnly) {
       throw new ConcurrentModificationException("This TimetableSnapshot is read-only.");
@@ -257,22 +251,20 @@ public class TimetableSnapshot {
     if (!force && !this.isDirty()) {
       return null;
     }
-    ret.timetables = (HashMap<TripPattern, SortedSet<Timetable>>) this.timetables.clone();
-    ret.realtimeAddedTripPattern =
-      (HashMap<TripIdAndServiceDate, TripPattern>) this.realtimeAddedTripPattern.clone();
+    ret.timetables = this.timetables;
+    ret.realtimeAddedTripPattern = this.realtimeAddedTripPattern;
 
     if (transitLayerUpdater != null) {
-      transitLayerUpdater.update(dirtyTimetables, timetables);
+      transitLayerUpdater.update(dirtyTimetables, timetables.asMap());
     }
 
-    ret.realtimeAddedTripOnServiceDate =
-      (HashMap<FeedScopedId, TripOnServiceDate>) this.realtimeAddedTripOnServiceDate.clone();
+    ret.realtimeAddedTripOnServiceDate = this.realtimeAddedTripOnServiceDate;
     ret.realtimeAddedTripOnServiceDateByTripIdAndServiceDate =
-      (HashMap<TripIdAndServiceDate, TripOnServiceDate>) this.realtimeAddedTripOnServiceDateByTripIdAndServiceDate.clone();
+      this.realtimeAddedTripOnServiceDateByTripIdAndServiceDate;
     this.dirtyTimetables.clear();
     this.dirty = false;
 
-    ret.setPatternsForStop(HashMultimap.create(this.patternsForStop));
+    ret.patternsForStop = this.patternsForStop;
 
     ret.readOnly = true; // mark the snapshot as henceforth immutable
     return ret;
@@ -302,7 +294,8 @@ public class TimetableSnapshot {
    * trip times from the timetable the trip has been added to.
    */
   public void removeLastAddedTripPattern(FeedScopedId feedScopedTripId, LocalDate serviceDate) {
-    realtimeAddedTripPattern.remove(new TripIdAndServiceDate(feedScopedTripId, serviceDate));
+    realtimeAddedTripPattern =
+      realtimeAddedTripPattern.remove(new TripIdAndServiceDate(feedScopedTripId, serviceDate));
   }
 
   /**
@@ -314,40 +307,35 @@ public class TimetableSnapshot {
     }
 
     boolean modified = false;
-    for (Iterator<TripPattern> it = timetables.keySet().iterator(); it.hasNext();) {
-      TripPattern pattern = it.next();
-      SortedSet<Timetable> sortedTimetables = timetables.get(pattern);
+    for (Map.Entry<TripPattern, SortedSet<Timetable>> it : timetables.asMap().entrySet()) {
+      TripPattern pattern = it.getKey();
       SortedSet<Timetable> toKeepTimetables = new TreeSet<>(new SortedTimetableComparator());
-      for (Timetable timetable : sortedTimetables) {
+      boolean purged = false;
+      for (Timetable timetable : it.getValue()) {
         if (serviceDate.compareTo(timetable.getServiceDate()) < 0) {
           toKeepTimetables.add(timetable);
         } else {
-          modified = true;
+          purged = true;
         }
       }
 
-      if (toKeepTimetables.isEmpty()) {
-        it.remove();
-      } else {
-        timetables.put(pattern, toKeepTimetables);
+      if (purged) {
+        modified = true;
+        timetables =
+          toKeepTimetables.isEmpty()
+            ? timetables.remove(pattern)
+            : timetables.put(pattern, toKeepTimetables);
       }
     }
 
     // Also remove last added trip pattern for days that are purged
-    for (
-      Iterator<Entry<TripIdAndServiceDate, TripPattern>> iterator = realtimeAddedTripPattern
-        .entrySet()
-        .iterator();
-      iterator.hasNext();
-    ) {
-      TripIdAndServiceDate tripIdAndServiceDate = iterator.next().getKey();
-      if (serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0) {
-        iterator.remove();
-        modified = true;
-      }
-    }
+    var old = realtimeAddedTripPattern;
+    realtimeAddedTripPattern =
+      realtimeAddedTripPattern.removeIf((tripIdAndServiceDate, pattern) ->
+        serviceDate.compareTo(tripIdAndServiceDate.serviceDate()) >= 0
+      );
 
-    return modified;
+    return modified || old != realtimeAddedTripPattern;
   }
 
   public boolean isDirty() {
@@ -363,27 +351,25 @@ public class TimetableSnapshot {
   }
 
   public Collection<TripPattern> getPatternsForStop(StopLocation stop) {
-    return patternsForStop.get(stop);
-  }
-
-  public void setPatternsForStop(SetMultimap<StopLocation, TripPattern> patternsForStop) {
-    this.patternsForStop = patternsForStop;
+    return patternsForStop.getOrDefault(stop, Set.of());
   }
 
   public void addLastAddedTripOnServiceDate(TripOnServiceDate tripOnServiceDate) {
-    realtimeAddedTripOnServiceDate.put(tripOnServiceDate.getId(), tripOnServiceDate);
-    realtimeAddedTripOnServiceDateByTripIdAndServiceDate.put(
-      tripOnServiceDate.getTripIdAndServiceDate(),
-      tripOnServiceDate
-    );
+    realtimeAddedTripOnServiceDate =
+      realtimeAddedTripOnServiceDate.put(tripOnServiceDate.getId(), tripOnServiceDate);
+    realtimeAddedTripOnServiceDateByTripIdAndServiceDate =
+      realtimeAddedTripOnServiceDateByTripIdAndServiceDate.put(
+        tripOnServiceDate.getTripIdAndServiceDate(),
+        tripOnServiceDate
+      );
   }
 
-  public HashMap<FeedScopedId, TripOnServiceDate> getRealtimeAddedTripOnServiceDate() {
-    return realtimeAddedTripOnServiceDate;
+  public Map<FeedScopedId, TripOnServiceDate> getRealtimeAddedTripOnServiceDate() {
+    return realtimeAddedTripOnServiceDate.asMap();
   }
 
-  public HashMap<TripIdAndServiceDate, TripOnServiceDate> getRealtimeAddedTripOnServiceDateByTripIdAndServiceDate() {
-    return realtimeAddedTripOnServiceDateByTripIdAndServiceDate;
+  public Map<TripIdAndServiceDate, TripOnServiceDate> getRealtimeAddedTripOnServiceDateByTripIdAndServiceDate() {
+    return realtimeAddedTripOnServiceDateByTripIdAndServiceDate.asMap();
   }
 
   /**
@@ -393,7 +379,9 @@ public class TimetableSnapshot {
    * @return true if the timetable changed as a result of the call
    */
   protected boolean clearTimetable(String feedId) {
-    return timetables.keySet().removeIf(tripPattern -> feedId.equals(tripPattern.getFeedId()));
+    var old = timetables;
+    timetables = timetables.removeIf((tripPattern, tt) -> feedId.equals(tripPattern.getFeedId()));
+    return old != timetables;
   }
 
   /**
@@ -403,11 +391,12 @@ public class TimetableSnapshot {
    * @return true if the realtimeAddedTripPattern changed as a result of the call
    */
   protected boolean clearRealtimeAddedTripPattern(String feedId) {
-    return realtimeAddedTripPattern
-      .keySet()
-      .removeIf(realtimeAddedTripPattern ->
-        feedId.equals(realtimeAddedTripPattern.tripId().getFeedId())
+    var old = realtimeAddedTripPattern;
+    realtimeAddedTripPattern =
+      realtimeAddedTripPattern.removeIf((tripIdAndServiceDate, pattern) ->
+        feedId.equals(tripIdAndServiceDate.tripId().getFeedId())
       );
+    return old != realtimeAddedTripPattern;
   }
 
   /**
@@ -418,7 +407,12 @@ public class TimetableSnapshot {
       //TODO - SIRI: Add pattern to index?
 
       for (var stop : tripPattern.getStops()) {
-        patternsForStop.put(stop, tripPattern);
+        Set<TripPattern> patterns = patternsForStop.getOrDefault(stop, Set.of());
+        if (!patterns.contains(tripPattern)) {
+          Set<TripPattern> newPatterns = new HashSet<>(patterns);
+          newPatterns.add(tripPattern);
+          patternsForStop = patternsForStop.put(stop, Set.copyOf(newPatterns));
+        }
       }
     }
   }
@@ -4,10 +4,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.opentripplanner.transit.model.timetable.Trip;
@@ -16,41 +14,48 @@ import org.opentripplanner.transit.model.timetable.Trip;
  * A multimap from Trip to a sorted list of StopTimes.
  * <p>
  * The list of stop times  for a given trip is guarantied to be sorted.
+ * <p>
+ * The stop times are stored in primitive arrays, see {@link CompactStopTimes}. New stop times are
+ * created each time {@link #get(Trip)} is called, so changes to the returned stop times must be
+ * stored with {@link #replace(Trip, Collection)}.
  */
 public class TripStopTimes {
 
   private static final List<StopTime> EMPTY_LIST = Collections.emptyList();
 
-  private final Map<Trip, List<StopTime>> map = new HashMap<>();
+  private final Map<Trip, CompactStopTimes> map = new HashMap<>();
 
   /**
    * Return a unmodifiable, nullsafe list of stop times for the given trip. An <em>empty</em>empty
    * list is returned if no values exist for a given key.
    */
   public List<StopTime> get(Trip key) {
-    List<StopTime> list = map.get(key);
-    return list == null ? EMPTY_LIST : Collections.unmodifiableList(list);
+    CompactStopTimes value = map.get(key);
+    return value == null ? EMPTY_LIST : value.toStopTimes();
   }
 
+  /**
+   * Add the given stop times to the existing stop times for each trip. To keep the memory used
+   * low, add the stop times for one trip at the time.
+   */
   public void addAll(Collection<StopTime> values) {
-    Set<Trip> keysUpdated = new HashSet<>();
+    Map<Trip, List<StopTime>> stopTimesByTrip = new HashMap<>();
     for (StopTime value : values) {
-      Trip key = value.getTrip();
-      keysUpdated.add(key);
-      map.computeIfAbsent(key, trip -> new ArrayList<>()).add(value);
+      stopTimesByTrip.computeIfAbsent(value.getTrip(), this::mutableCopy).add(value);
     }
     // Sort and updated stops for all keys touched.
-    for (Trip key : keysUpdated) {
-      Collections.sort(map.get(key));
+    for (Map.Entry<Trip, List<StopTime>> it : stopTimesByTrip.entrySet()) {
+      Collections.sort(it.getValue());
+      map.put(it.getKey(), CompactStopTimes.of(it.getKey(), it.getValue()));
     }
   }
 
   public void replace(Trip key, Collection<StopTime> list) {
-    map.replace(key, sort(list));
+    map.replace(key, CompactStopTimes.of(key, sort(list)));
   }
 
   public void put(Trip key, Collection<StopTime> list) {
-    map.put(key, sort(list));
+    map.put(key, CompactStopTimes.of(key, sort(list)));
   }
 
   public void removeIf(Predicate<Trip> test) {
@@ -61,13 +66,13 @@ public class TripStopTimes {
   }
 
   /**
-   * Return a copy of the internal map. Changes in the source are not reflected in the destination
-   * (returned Map), and visa versa.
-   * <p>
-   * The returned map is immutable.
+   * Return a copy of this. Changes in the source are not reflected in the copy, and visa versa.
+   * The stop times are immutable, so they are shared by this and the copy.
    */
-  public Map<Trip, List<StopTime>> asImmutableMap() {
-    return Map.copyOf(map);
+  public TripStopTimes copy() {
+    TripStopTimes copy = new TripStopTimes();
+    copy.map.putAll(map);
+    return copy;
   }
 
   public int size() {
@@ -83,6 +88,10 @@ public class TripStopTimes {
 
   /* private methods */
 
+  private List<StopTime> mutableCopy(Trip key) {
+    return new ArrayList<>(get(key));
+  }
+
   private static List<StopTime> sort(Collection<StopTime> list) {
     List<StopTime> values = new ArrayList<>(list);
     Collections.sort(values);
@@ -14,6 +14,7 @@ import org.opentripplanner.model.FeedInfo;
 import org.opentripplanner.model.OtpTransitService;
 import org.opentripplanner.model.ShapePoint;
 import org.opentripplanner.model.StopTime;
+import org.opentripplanner.model.TripStopTimes;
 import org.opentripplanner.model.transfer.ConstrainedTransfer;
 import org.opentripplanner.transit.model.basic.Notice;
 import org.opentripplanner.transit.model.framework.AbstractTransitEntity;
@@ -61,7 +62,7 @@ class OtpTransitServiceImpl implements OtpTransitService {
 
   private final Map<FeedScopedId, BoardingArea> boardingAreasById;
 
-  private final Map<Trip, List<StopTime>> stopTimesByTrip;
+  private final TripStopTimes stopTimesByTrip;
 
   private final Collection<ConstrainedTransfer> transfers;
 
@@ -86,7 +87,7 @@ class OtpTransitServiceImpl implements OtpTransitService {
     this.entrancesById = builder.getEntrances().asImmutableMap();
     this.pathwayNodesById = builder.getPathwayNodes().asImmutableMap();
     this.boardingAreasById = builder.getBoardingAreas().asImmutableMap();
-    this.stopTimesByTrip = builder.getStopTimesSortedByTrip().asImmutableMap();
+    this.stopTimesByTrip = builder.getStopTimesSortedByTrip().copy();
     this.transfers = immutableList(builder.getTransfers());
     this.tripPatterns = immutableList(builder.getTripPatterns().values());
     this.trips = immutableList(builder.getTripsById().values());
@@ -158,7 +159,7 @@ class OtpTransitServiceImpl implements OtpTransitService {
 
   @Override
   public List<StopTime> getStopTimesForTrip(Trip trip) {
-    return immutableList(stopTimesByTrip.get(trip));
+    return stopTimesByTrip.get(trip);
   }
 
   @Override
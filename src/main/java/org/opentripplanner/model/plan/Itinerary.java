@@ -20,15 +20,15 @@ import org.opentripplanner.util.lang.ToStringBuilder;
  */
 public class Itinerary {
 
-  /* final primitive properties */
-  private final Duration duration;
-  private final Duration transitDuration;
-  private final int numberOfTransfers;
-  private final Duration waitingDuration;
-  private final double nonTransitDistanceMeters;
-  private final boolean walkOnly;
-  private final boolean streetOnly;
-  private final Duration nonTransitDuration;
+  /* primitive properties derived from the legs */
+  private Duration duration;
+  private Duration transitDuration;
+  private int numberOfTransfers;
+  private Duration waitingDuration;
+  private double nonTransitDistanceMeters;
+  private boolean walkOnly;
+  private boolean streetOnly;
+  private Duration nonTransitDuration;
 
   /* mutable primitive properties */
   private Double elevationLost = 0.0;
@@ -52,19 +52,6 @@ public class Itinerary {
 
   public Itinerary(List<Leg> legs) {
     setLegs(legs);
-
-    // Set aggregated data
-    ItinerariesCalculateLegTotals totals = new ItinerariesCalculateLegTotals(legs);
-    this.duration = totals.totalDuration;
-    this.numberOfTransfers = totals.transfers();
-    this.transitDuration = totals.transitDuration;
-    this.nonTransitDuration = totals.nonTransitDuration;
-    this.nonTransitDistanceMeters = DoubleUtils.roundTo2Decimals(totals.nonTransitDistanceMeters);
-    this.waitingDuration = totals.walkingDuration;
-    this.walkOnly = totals.walkOnly;
-    this.streetOnly = totals.streetOnly;
-    this.setElevationGained(totals.totalElevationGained);
-    this.setElevationLost(totals.totalElevationLost);
   }
 
   /**
@@ -334,8 +321,25 @@ public class Itinerary {
     return legs;
   }
 
+  /**
+   * Set the legs, and the durations, distance, number of transfers and elevation derived from
+   * them.
+   */
   public void setLegs(List<Leg> legs) {
     this.legs = List.copyOf(legs);
+
+    // Set aggregated data
+    ItinerariesCalculateLegTotals totals = new ItinerariesCalculateLegTotals(legs);
+    this.duration = totals.totalDuration;
+    this.numberOfTransfers = totals.transfers();
+    this.transitDuration = totals.transitDuration;
+    this.nonTransitDuration = totals.nonTransitDuration;
+    this.nonTransitDistanceMeters = DoubleUtils.roundTo2Decimals(totals.nonTransitDistanceMeters);
+    this.waitingDuration = totals.walkingDuration;
+    this.walkOnly = totals.walkOnly;
+    this.streetOnly = totals.streetOnly;
+    this.setElevationGained(totals.totalElevationGained);
+    this.setElevationLost(totals.totalElevationLost);
   }
 
   /**
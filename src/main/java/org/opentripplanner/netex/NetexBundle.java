@@ -1,9 +1,18 @@
 package org.opentripplanner.netex;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.bind.JAXBException;
 import org.opentripplanner.datastore.api.CompositeDataSource;
 import org.opentripplanner.datastore.api.DataSource;
@@ -30,6 +39,12 @@ import org.slf4j.LoggerFactory;
  * keeping an index of entities to enable linking. The convention is documented here {@link
  * NetexConfig#sharedFilePattern} and here {@link NetexDataSourceHierarchy}.
  * <p>
+ * The independent group files can be parsed in parallel, see {@link NetexConfig#parseParallelism}.
+ * Each file is parsed into its own index partition, with the group index as parent. The partitions
+ * are validated and mapped one at the time in the same order as when loading the files
+ * sequentially, so the result does not depend on the parallelism. The shared files are always
+ * loaded sequentially.
+ * <p>
  * This class is also responsible for logging progress and exception handling.
  */
 public class NetexBundle implements Closeable {
@@ -43,26 +58,32 @@ public class NetexBundle implements Closeable {
   private final String netexFeedId;
   private final Set<String> ferryIdsNotAllowedForBicycle;
   private final double maxStopToShapeSnapDistance;
+  private final int parseParallelism;
   /** The NeTEx entities loaded from the input files and passed on to the mapper. */
   private NetexEntityIndex index = new NetexEntityIndex();
   /** Report errors to issue store */
   private DataImportIssueStore issueStore;
   /** maps the NeTEx XML document to OTP transit model. */
   private NetexMapper mapper;
-  private NetexXmlParser xmlParser;
+  /** The JAXB unmarshaller is not thread safe, so each thread uses its own parser. */
+  private ThreadLocal<NetexXmlParser> xmlParser;
+  /** Used to parse the independent group files, {@code null} if the files are parsed in sequence */
+  private ExecutorService parseExecutor;
 
   public NetexBundle(
     String netexFeedId,
     CompositeDataSource source,
     NetexDataSourceHierarchy hierarchy,
     Set<String> ferryIdsNotAllowedForBicycle,
-    double maxStopToShapeSnapDistance
+    double maxStopToShapeSnapDistance,
+    int parseParallelism
   ) {
     this.netexFeedId = netexFeedId;
     this.source = source;
     this.hierarchy = hierarchy;
     this.ferryIdsNotAllowedForBicycle = ferryIdsNotAllowedForBicycle;
     this.maxStopToShapeSnapDistance = maxStopToShapeSnapDistance;
+    this.parseParallelism = parseParallelism;
   }
 
   /** load the bundle, map it to the OTP transit model and return */
@@ -78,7 +99,7 @@ public class NetexBundle implements Closeable {
     OtpTransitServiceBuilder transitBuilder = new OtpTransitServiceBuilder();
 
     // init parser and mapper
-    xmlParser = new NetexXmlParser();
+    xmlParser = ThreadLocal.withInitial(NetexXmlParser::new);
     mapper =
       new NetexMapper(
         transitBuilder,
@@ -90,7 +111,21 @@ public class NetexBundle implements Closeable {
       );
 
     // Load data
-    loadFileEntries();
+    if (parseParallelism > 1) {
+      parseExecutor =
+        Executors.newFixedThreadPool(
+          parseParallelism,
+          new ThreadFactoryBuilder().setNameFormat("NetexParser-%d").setDaemon(true).build()
+        );
+    }
+    try {
+      loadFileEntries();
+    } finally {
+      if (parseExecutor != null) {
+        parseExecutor.shutdownNow();
+        parseExecutor = null;
+      }
+    }
 
     return transitBuilder;
   }
@@ -120,11 +155,15 @@ public class NetexBundle implements Closeable {
         // Load shared group files
         loadFilesThenMapToOtpTransitModel("shared group file", group.sharedEntries());
 
-        for (DataSource entry : group.independentEntries()) {
-          scopeInputData(() -> {
-            // Load each independent file in group
-            loadFilesThenMapToOtpTransitModel("group file", List.of(entry));
-          });
+        if (parseExecutor != null) {
+          loadGroupFilesInParallel(group.independentEntries());
+        } else {
+          for (DataSource entry : group.independentEntries()) {
+            scopeInputData(() -> {
+              // Load each independent file in group
+              loadFilesThenMapToOtpTransitModel("group file", List.of(entry));
+            });
+          }
         }
       });
     }
@@ -156,9 +195,45 @@ public class NetexBundle implements Closeable {
   ) {
     for (DataSource entry : entries) {
       // Load entry and store it in the index
-      loadSingeFileEntry(fileDescription, entry);
+      loadSingeFileEntry(fileDescription, entry, index);
     }
+    validateThenMapToOtpTransitModel();
+  }
 
+  /**
+   * Parse the independent group files in parallel, each into a new index partition with the
+   * current group index as parent. The group index is not changed while the files are parsed. The
+   * partitions are validated and mapped in the same order as the files are listed in the group.
+   * To bound the memory used, no more than {@code parseParallelism} files are parsed ahead of the
+   * mapping.
+   */
+  private void loadGroupFilesInParallel(Collection<DataSource> entries) {
+    Deque<Future<NetexEntityIndex>> partitions = new ArrayDeque<>();
+    Iterator<DataSource> it = entries.iterator();
+    try {
+      while (it.hasNext() || !partitions.isEmpty()) {
+        while (it.hasNext() && partitions.size() < parseParallelism) {
+          DataSource entry = it.next();
+          NetexEntityIndex partition = index.push();
+          partitions.add(
+            parseExecutor.submit(() -> {
+              loadSingeFileEntry("group file", entry, partition);
+              return partition;
+            })
+          );
+        }
+        index = waitFor(partitions.poll());
+        mapper = mapper.push();
+        validateThenMapToOtpTransitModel();
+        mapper = mapper.pop();
+        index = index.pop();
+      }
+    } finally {
+      partitions.forEach(p -> p.cancel(true));
+    }
+  }
+
+  private void validateThenMapToOtpTransitModel() {
     // Validate input data, and remove invalid data
     Validator.validate(index, issueStore);
 
@@ -166,15 +241,33 @@ public class NetexBundle implements Closeable {
     mapper.mapNetexToOtp(index.readOnlyView());
   }
 
-  /** Load a single entry and store it in the index for later */
-  private void loadSingeFileEntry(String fileDescription, DataSource entry) {
+  /** Load a single entry and store it in the given index for later */
+  private void loadSingeFileEntry(
+    String fileDescription,
+    DataSource entry,
+    NetexEntityIndex targetIndex
+  ) {
     try {
       LOG.info("reading entity {}: {}", fileDescription, entry.name());
 
-      PublicationDeliveryStructure doc = xmlParser.parseXmlDoc(entry.asInputStream());
-      NetexDocumentParser.parseAndPopulateIndex(index, doc);
+      PublicationDeliveryStructure doc = xmlParser.get().parseXmlDoc(entry.asInputStream());
+      NetexDocumentParser.parseAndPopulateIndex(targetIndex, doc);
     } catch (JAXBException e) {
       throw new RuntimeException(e.getMessage(), e);
     }
   }
+
+  private static NetexEntityIndex waitFor(Future<NetexEntityIndex> partition) {
+    try {
+      return partition.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e.getMessage(), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+    }
+  }
 }
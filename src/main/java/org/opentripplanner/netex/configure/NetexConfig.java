@@ -70,7 +70,8 @@ public class NetexConfig {
       source,
       hierarchy(source),
       buildParams.netex.ferryIdsNotAllowedForBicycle,
-      buildParams.maxStopToShapeSnapDistance
+      buildParams.maxStopToShapeSnapDistance,
+      buildParams.netex.parseParallelism
     );
   }
 
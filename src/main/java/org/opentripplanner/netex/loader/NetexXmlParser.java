@@ -7,9 +7,16 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import org.rutebanken.netex.model.PublicationDeliveryStructure;
 
-/** Simple wrapper to perform typesafe xml parsing and simple error handling. */
+/**
+ * Simple wrapper to perform typesafe xml parsing and simple error handling.
+ * <p>
+ * THREAD SAFETY - The JAXB unmarshaller is not thread safe, so use one parser per thread. The
+ * JAXB context is thread safe and expensive to create, so it is shared by all parsers.
+ */
 public class NetexXmlParser {
 
+  private static JAXBContext context;
+
   /** used to parse the XML. */
   private final Unmarshaller unmarshaller;
 
@@ -32,7 +39,7 @@ public class NetexXmlParser {
   /** factory method for unmarshaller */
   private static Unmarshaller createUnmarshaller() {
     try {
-      return JAXBContext.newInstance(PublicationDeliveryStructure.class).createUnmarshaller();
+      return context().createUnmarshaller();
     } catch (JAXBException e) {
       // This is a programming error - not expected!
       // We abort early and also allow for this to happen in the constructor;
@@ -40,4 +47,11 @@ public class NetexXmlParser {
       throw new RuntimeException(e);
     }
   }
+
+  private static synchronized JAXBContext context() throws JAXBException {
+    if (context == null) {
+      context = JAXBContext.newInstance(PublicationDeliveryStructure.class);
+    }
+    return context;
+  }
 }
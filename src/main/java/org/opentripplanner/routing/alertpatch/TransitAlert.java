@@ -71,6 +71,10 @@ public class TransitAlert implements Serializable {
     return false;
   }
 
+  public List<TimePeriod> getTimePeriods() {
+    return timePeriods;
+  }
+
   public void setTimePeriods(List<TimePeriod> periods) {
     timePeriods = periods;
   }
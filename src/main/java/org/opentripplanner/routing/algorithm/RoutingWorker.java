@@ -11,6 +11,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.model.plan.PagingSearchWindowAdjuster;
 import org.opentripplanner.routing.algorithm.filterchain.ItineraryListFilterChain;
@@ -18,6 +19,7 @@ import org.opentripplanner.routing.algorithm.mapping.RoutingRequestToFilterChain
 import org.opentripplanner.routing.algorithm.mapping.RoutingResponseMapper;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.AdditionalSearchDays;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.FilterTransitWhenDirectModeIsEmpty;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.PagingSession;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.TransitRouter;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.street.DirectFlexRouter;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.street.DirectStreetRouter;
@@ -63,6 +65,8 @@ public class RoutingWorker {
   private final AdditionalSearchDays additionalSearchDays;
   private SearchParams raptorSearchParamsUsed = null;
   private Itinerary firstRemovedItinerary = null;
+  private PagingSession pagingSession = null;
+  private Consumer<Itinerary> addTransitItineraryDetails = null;
 
   public RoutingWorker(
     OtpServerRequestContext serverContext,
@@ -133,6 +137,7 @@ public class RoutingWorker {
       request.maxNumberOfItinerariesCropHead(),
       request.modes,
       it -> firstRemovedItinerary = it,
+      addTransitItineraryDetails,
       request.wheelchairAccessibility.enabled(),
       request.wheelchairAccessibility.maxSlope(),
       serverContext.graph().getFareService(),
@@ -162,7 +167,7 @@ public class RoutingWorker {
     // is off (too few or too many results found).
     var searchWindowNextSearch = calculateSearchWindowNextSearch(filteredItineraries);
 
-    return RoutingResponseMapper.map(
+    var response = RoutingResponseMapper.map(
       request,
       transitSearchTimeZero,
       raptorSearchParamsUsed,
@@ -172,6 +177,13 @@ public class RoutingWorker {
       routingErrors,
       debugTimingAggregator
     );
+
+    // Keep the transit search state for the next and previous page
+    if (pagingSession != null) {
+      serverContext.pagingSessionCache().put(response.getNextPageCursor(), pagingSession);
+      serverContext.pagingSessionCache().put(response.getPreviousPageCursor(), pagingSession);
+    }
+    return response;
   }
 
   private static AdditionalSearchDays createAdditionalSearchDays(
@@ -238,7 +250,14 @@ public class RoutingWorker {
 
     debugTimingAggregator.startedDirectFlexRouter();
     try {
-      itineraries.addAll(DirectFlexRouter.route(serverContext, request, additionalSearchDays));
+      itineraries.addAll(
+        DirectFlexRouter.route(
+          serverContext,
+          request,
+          additionalSearchDays,
+          debugTimingAggregator
+        )
+      );
     } catch (RoutingValidationException e) {
       routingErrors.addAll(e.getRoutingErrors());
     } finally {
@@ -257,6 +276,8 @@ public class RoutingWorker {
         debugTimingAggregator
       );
       raptorSearchParamsUsed = transitResults.getSearchParams();
+      pagingSession = transitResults.getPagingSession();
+      addTransitItineraryDetails = transitResults.getAddItineraryDetails();
       itineraries.addAll(transitResults.getItineraries());
     } catch (RoutingValidationException e) {
       routingErrors.addAll(e.getRoutingErrors());
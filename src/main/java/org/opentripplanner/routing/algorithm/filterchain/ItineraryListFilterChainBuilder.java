@@ -27,6 +27,8 @@ import org.opentripplanner.routing.algorithm.filterchain.deletionflagger.RemoveP
 import org.opentripplanner.routing.algorithm.filterchain.deletionflagger.RemoveTransitIfStreetOnlyIsBetterFilter;
 import org.opentripplanner.routing.algorithm.filterchain.deletionflagger.RemoveWalkOnlyFilter;
 import org.opentripplanner.routing.algorithm.filterchain.deletionflagger.TransitGeneralizedCostFilter;
+import org.opentripplanner.routing.algorithm.filterchain.filter.AddItineraryDetailsFilter;
+import org.opentripplanner.routing.algorithm.filterchain.filter.DecoratingFilter;
 import org.opentripplanner.routing.algorithm.filterchain.filter.DeletionFlaggingFilter;
 import org.opentripplanner.routing.algorithm.filterchain.filter.GroupByFilter;
 import org.opentripplanner.routing.algorithm.filterchain.filter.RemoveDeletionFlagForLeastTransfersItinerary;
@@ -69,6 +71,8 @@ public class ItineraryListFilterChainBuilder {
   private FareService faresService;
   private TransitAlertService transitAlertService;
   private Function<Station, MultiModalStation> getMultiModalStation;
+  private Consumer<Itinerary> addItineraryDetails;
+  private boolean addItineraryDetailsInParallel;
   private boolean removeItinerariesWithSameRoutesAndStops;
   private double minBikeParkingDistance = NOT_SET;
   private boolean removeBikeOnlyParkAndRideItineraries;
@@ -267,6 +271,21 @@ public class ItineraryListFilterChainBuilder {
     return this;
   }
 
+  /**
+   * Add the details not needed by the filters to the itineraries kept, before the itineraries are
+   * decorated with accessibility score, fares and alerts. The itineraries not created by the
+   * transit router are passed in too, the given function should ignore them. The filter is
+   * ignored if the function is {@code null}.
+   */
+  public ItineraryListFilterChainBuilder withItineraryDetails(
+    Consumer<Itinerary> addItineraryDetails,
+    boolean runInParallel
+  ) {
+    this.addItineraryDetails = addItineraryDetails;
+    this.addItineraryDetailsInParallel = runInParallel;
+    return this;
+  }
+
   public ItineraryListFilterChainBuilder withRemoveTimeshiftedItinerariesWithSameRoutesAndStops(
     boolean remove
   ) {
@@ -324,18 +343,6 @@ public class ItineraryListFilterChainBuilder {
       filters.add(new SameFirstOrLastTripFilter());
     }
 
-    if (accessibilityScore) {
-      filters.add(new AccessibilityScoreFilter(wheelchairMaxSlope));
-    }
-
-    if (faresService != null) {
-      filters.add(new FaresFilter(faresService));
-    }
-
-    if (transitAlertService != null) {
-      filters.add(new TransitAlertFilter(transitAlertService, getMultiModalStation));
-    }
-
     // Filter transit itineraries on generalized-cost
     if (transitGeneralizedCostFilterParams != null) {
       filters.add(
@@ -418,6 +425,36 @@ public class ItineraryListFilterChainBuilder {
       );
     }
 
+    // Decorate the itineraries kept, the decorators does not affect the filters above. The
+    // itineraries flagged for deletion are only decorated if debugging is enabled.
+    {
+      if (addItineraryDetails != null) {
+        filters.add(
+          new DecoratingFilter(
+            new AddItineraryDetailsFilter(addItineraryDetails, addItineraryDetailsInParallel),
+            debug
+          )
+        );
+      }
+
+      if (accessibilityScore) {
+        filters.add(new DecoratingFilter(new AccessibilityScoreFilter(wheelchairMaxSlope), debug));
+      }
+
+      if (faresService != null) {
+        filters.add(new DecoratingFilter(new FaresFilter(faresService), debug));
+      }
+
+      if (transitAlertService != null) {
+        filters.add(
+          new DecoratingFilter(
+            new TransitAlertFilter(transitAlertService, getMultiModalStation),
+            debug
+          )
+        );
+      }
+    }
+
     // Do the final itineraries sort
     filters.add(new SortingFilter(SortOrderComparator.comparator(sortOrder)));
 
@@ -1,9 +1,9 @@
 package org.opentripplanner.routing.algorithm.filterchain.deletionflagger;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.OptionalInt;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.model.plan.Leg;
@@ -38,38 +38,25 @@ public class OtherThanSameLegsMaxGeneralizedCostFilter implements ItineraryDelet
       return List.of();
     }
 
-    // Get all transit trips for an itinerary
-    Function<Itinerary, Set<Trip>> getTripsForItinerary = itinerary ->
-      itinerary
-        .getLegs()
-        .stream()
-        .filter(Leg::isTransitLeg)
-        .map(Leg::getTrip)
-        .collect(Collectors.toSet());
-
-    // Find the trips that are shared between all itineraries
-    Set<Trip> commonTrips = itineraries
-      .stream()
-      .map(getTripsForItinerary)
-      .reduce((a, b) -> {
-        a.retainAll(b);
-        return a;
-      })
-      .get();
+    // Find the trips that are shared between all itineraries, stop when no trips are left
+    Set<Trip> commonTrips = getTripsForItinerary(itineraries.get(0));
+    for (int i = 1; i < itineraries.size() && !commonTrips.isEmpty(); ++i) {
+      commonTrips.retainAll(getTripsForItinerary(itineraries.get(i)));
+    }
 
     // Find the lowest cost of the common legs
-    OptionalInt commonCost = itineraries
-      .stream()
-      .mapToInt(itinerary ->
-        itinerary
-          .getLegs()
-          .stream()
-          .filter(Leg::isTransitLeg)
-          .filter(leg -> commonTrips.contains(leg.getTrip()))
-          .mapToInt(leg -> leg.getGeneralizedCost())
-          .sum()
-      )
-      .min();
+    OptionalInt commonCost = OptionalInt.empty();
+    for (Itinerary itinerary : itineraries) {
+      int cost = 0;
+      for (Leg leg : itinerary.getLegs()) {
+        if (leg.isTransitLeg() && commonTrips.contains(leg.getTrip())) {
+          cost += leg.getGeneralizedCost();
+        }
+      }
+      if (commonCost.isEmpty() || cost < commonCost.getAsInt()) {
+        commonCost = OptionalInt.of(cost);
+      }
+    }
 
     if (commonCost.isEmpty()) {
       return List.of();
@@ -95,4 +82,15 @@ public class OtherThanSameLegsMaxGeneralizedCostFilter implements ItineraryDelet
       .filter(it -> it.getGeneralizedCost() > maxLimit)
       .collect(Collectors.toList());
   }
+
+  /** Get all transit trips for an itinerary */
+  private static Set<Trip> getTripsForItinerary(Itinerary itinerary) {
+    Set<Trip> trips = new HashSet<>();
+    for (Leg leg : itinerary.getLegs()) {
+      if (leg.isTransitLeg()) {
+        trips.add(leg.getTrip());
+      }
+    }
+    return trips;
+  }
 }
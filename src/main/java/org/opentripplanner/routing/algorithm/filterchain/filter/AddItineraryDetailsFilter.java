@@ -0,0 +1,33 @@
+package org.opentripplanner.routing.algorithm.filterchain.filter;
+
+import java.util.List;
+import java.util.function.Consumer;
+import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.routing.algorithm.filterchain.ItineraryListFilter;
+
+/**
+ * The routers may create the itineraries without the details not needed by the filters, like the
+ * walk steps of a transfer. This decorator adds the details, and should run before any other
+ * decorator using the legs. The itineraries are independent, so the details can be added in
+ * parallel.
+ */
+public final class AddItineraryDetailsFilter implements ItineraryListFilter {
+
+  private final Consumer<Itinerary> addDetails;
+  private final boolean runInParallel;
+
+  public AddItineraryDetailsFilter(Consumer<Itinerary> addDetails, boolean runInParallel) {
+    this.addDetails = addDetails;
+    this.runInParallel = runInParallel;
+  }
+
+  @Override
+  public List<Itinerary> filter(List<Itinerary> itineraries) {
+    if (runInParallel && itineraries.size() > 1) {
+      itineraries.parallelStream().forEach(addDetails);
+    } else {
+      itineraries.forEach(addDetails);
+    }
+    return itineraries;
+  }
+}
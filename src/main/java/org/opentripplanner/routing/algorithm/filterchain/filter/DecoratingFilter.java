@@ -0,0 +1,35 @@
+package org.opentripplanner.routing.algorithm.filterchain.filter;
+
+import java.util.List;
+import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.routing.algorithm.filterchain.ItineraryListFilter;
+
+/**
+ * This filter decorates the itineraries NOT flagged for deletion, using the given decorator. The
+ * decorator should add information to the itineraries, like fares and alerts, and must not
+ * add, remove or flag itineraries. There is no point in decorating itineraries witch are removed,
+ * unless debugging is enabled - then all itineraries are decorated.
+ */
+public final class DecoratingFilter implements ItineraryListFilter {
+
+  private final ItineraryListFilter decorator;
+  private final boolean decorateItinerariesFlaggedForDeletion;
+
+  public DecoratingFilter(
+    ItineraryListFilter decorator,
+    boolean decorateItinerariesFlaggedForDeletion
+  ) {
+    this.decorator = decorator;
+    this.decorateItinerariesFlaggedForDeletion = decorateItinerariesFlaggedForDeletion;
+  }
+
+  @Override
+  public List<Itinerary> filter(List<Itinerary> itineraries) {
+    if (decorateItinerariesFlaggedForDeletion) {
+      decorator.filter(itineraries);
+    } else {
+      decorator.filter(itineraries.stream().filter(it -> !it.isFlaggedForDeletion()).toList());
+    }
+    return itineraries;
+  }
+}
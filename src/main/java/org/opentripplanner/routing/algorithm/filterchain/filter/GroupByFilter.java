@@ -1,15 +1,21 @@
 package org.opentripplanner.routing.algorithm.filterchain.filter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.algorithm.filterchain.ItineraryListFilter;
 import org.opentripplanner.routing.algorithm.filterchain.groupids.GroupId;
+import org.opentripplanner.routing.algorithm.filterchain.groupids.HashableGroupId;
 
 /**
  * This filter groups the itineraries using a group-id and filter each group by the given {@code
  * filter}.
+ * <p>
+ * If the group-ids are {@link HashableGroupId}s, the groups are looked up by key in linear time.
+ * Other group-ids are compared with all existing groups, since groups may need to be merged.
  *
  * @see GroupId on how to group itineraries
  */
@@ -26,9 +32,15 @@ public class GroupByFilter<T extends GroupId<T>> implements ItineraryListFilter
   @Override
   public final List<Itinerary> filter(List<Itinerary> itineraries) {
     List<Entry<T>> groups = new ArrayList<>();
+    Map<Object, Entry<T>> groupsByKey = new HashMap<>();
 
     for (Itinerary it : itineraries) {
       T groupId = groupingBy.apply(it);
+
+      if (groupId instanceof HashableGroupId<?> hashable) {
+        addToGroupByKey(groups, groupsByKey, hashable.key(), groupId, it);
+        continue;
+      }
       Entry<T> matchFound = null;
 
       for (Entry<T> e : groups) {
@@ -64,6 +76,26 @@ public class GroupByFilter<T extends GroupId<T>> implements ItineraryListFilter
     return result;
   }
 
+  private static <T extends GroupId<T>> void addToGroupByKey(
+    List<Entry<T>> groups,
+    Map<Object, Entry<T>> groupsByKey,
+    Object key,
+    T groupId,
+    Itinerary it
+  ) {
+    Entry<T> group = key == null ? null : groupsByKey.get(key);
+
+    if (group != null) {
+      group.merge(groupId, it);
+      return;
+    }
+    group = new Entry<>(groupId, it);
+    groups.add(group);
+    if (key != null) {
+      groupsByKey.put(key, group);
+    }
+  }
+
   private static class Entry<T extends GroupId<T>> {
 
     T groupId;
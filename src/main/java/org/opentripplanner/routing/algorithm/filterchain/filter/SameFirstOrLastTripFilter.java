@@ -1,7 +1,8 @@
 package org.opentripplanner.routing.algorithm.filterchain.filter;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.opentripplanner.model.SystemNotice;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.algorithm.filterchain.ItineraryListFilter;
@@ -12,27 +13,33 @@ import org.opentripplanner.routing.algorithm.filterchain.groupids.GroupBySameFir
  * It loops through itineraries from top to bottom. If itinerary matches with any other itinerary
  * from above, it is removed from list.
  * Uses {@link org.opentripplanner.routing.algorithm.filterchain.groupids.GroupBySameFirstOrLastTrip}.
- * for matching itineraries.
+ * for matching itineraries. The first and last trips of the itineraries kept are stored in hash
+ * sets, so each itinerary is checked in constant time.
  */
 public class SameFirstOrLastTripFilter implements ItineraryListFilter {
 
   @Override
   public List<Itinerary> filter(List<Itinerary> itineraries) {
-    List<GroupBySameFirstOrLastTrip> groups = new ArrayList<>();
+    Set<Object> firstTrips = new HashSet<>();
+    Set<Object> lastTrips = new HashSet<>();
 
-    OUTER_LOOP:for (Itinerary it : itineraries) {
+    for (Itinerary it : itineraries) {
       GroupBySameFirstOrLastTrip currentGroup = new GroupBySameFirstOrLastTrip(it);
+      Object firstTrip = currentGroup.firstTripKey();
+      Object lastTrip = currentGroup.lastTripKey();
 
-      for (GroupBySameFirstOrLastTrip group : groups) {
-        if (group.match(currentGroup)) {
-          it.flagForDeletion(
-            new SystemNotice("SameFirstOrLastTripFilter", "Deleted by SameFirstOrLastTripFilter")
-          );
-          continue OUTER_LOOP;
-        }
+      // Itineraries without transit are not filtered
+      if (firstTrip == null) {
+        continue;
       }
-
-      groups.add(currentGroup);
+      if (firstTrips.contains(firstTrip) || lastTrips.contains(lastTrip)) {
+        it.flagForDeletion(
+          new SystemNotice("SameFirstOrLastTripFilter", "Deleted by SameFirstOrLastTripFilter")
+        );
+        continue;
+      }
+      firstTrips.add(firstTrip);
+      lastTrips.add(lastTrip);
     }
 
     return itineraries;
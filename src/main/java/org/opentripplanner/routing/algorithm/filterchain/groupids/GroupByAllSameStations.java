@@ -15,7 +15,7 @@ import org.opentripplanner.transit.model.framework.FeedScopedId;
  * time advantage and the other a slight cost advantage eg. due to shorter walking distance inside
  * the station.
  */
-public class GroupByAllSameStations implements GroupId<GroupByAllSameStations> {
+public class GroupByAllSameStations implements HashableGroupId<GroupByAllSameStations> {
 
   private final List<P2<FeedScopedId>> keySet;
 
@@ -32,17 +32,9 @@ public class GroupByAllSameStations implements GroupId<GroupByAllSameStations> {
   }
 
   @Override
-  public boolean match(GroupByAllSameStations other) {
-    if (this == other) {
-      return true;
-    }
-
+  public Object key() {
     // Itineraries without transit is not filtered - they are considered different
-    if (this.keySet.isEmpty() || other.keySet.isEmpty()) {
-      return false;
-    }
-
-    return this.keySet.equals(other.keySet);
+    return keySet.isEmpty() ? null : keySet;
   }
 
   @Override
@@ -1,5 +1,6 @@
 package org.opentripplanner.routing.algorithm.filterchain.groupids;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -39,6 +40,24 @@ public class GroupBySameFirstOrLastTrip implements GroupId<GroupBySameFirstOrLas
     return this;
   }
 
+  /**
+   * Return a key for the trip and service date of the first transit leg, two itineraries with
+   * equal keys for the first or last trip match. Return {@code null} for itineraries without
+   * transit, they do not match any other itinerary.
+   */
+  public Object firstTripKey() {
+    return keySet.isEmpty() ? null : tripKey(keySet.get(0));
+  }
+
+  /**
+   * Return a key for the trip and service date of the last transit leg.
+   *
+   * @see #firstTripKey()
+   */
+  public Object lastTripKey() {
+    return keySet.isEmpty() ? null : tripKey(keySet.get(keySet.size() - 1));
+  }
+
   /**
    * Read-only access to key-set to allow unit-tests access.
    */
@@ -55,6 +74,10 @@ public class GroupBySameFirstOrLastTrip implements GroupId<GroupBySameFirstOrLas
     return isTheSame(firstLegA, firstLegB) || isTheSame(lastLegA, lastLegB);
   }
 
+  private static TripKey tripKey(Leg leg) {
+    return new TripKey(leg.getTrip() != null ? leg.getTrip().getId() : null, leg.getServiceDate());
+  }
+
   private static boolean isTheSame(Leg a, Leg b) {
     final FeedScopedId idA = a.getTrip() != null ? a.getTrip().getId() : null;
     final FeedScopedId idB = b.getTrip() != null ? b.getTrip().getId() : null;
@@ -65,4 +88,6 @@ public class GroupBySameFirstOrLastTrip implements GroupId<GroupBySameFirstOrLas
 
     return Objects.equals(a.getServiceDate(), b.getServiceDate());
   }
+
+  private record TripKey(FeedScopedId tripId, LocalDate serviceDate) {}
 }
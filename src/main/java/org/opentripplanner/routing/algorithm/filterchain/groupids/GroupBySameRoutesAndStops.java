@@ -13,7 +13,7 @@ import org.opentripplanner.transit.model.framework.FeedScopedId;
  * This is useful if you want to see a wide variety of possible options rather than the ones with
  * the lowest cost.
  */
-public class GroupBySameRoutesAndStops implements GroupId<GroupBySameRoutesAndStops> {
+public class GroupBySameRoutesAndStops implements HashableGroupId<GroupBySameRoutesAndStops> {
 
   public static final String TAG = "group-by-same-stations-and-routes";
   private final List<FeedScopedId> keySet;
@@ -35,17 +35,9 @@ public class GroupBySameRoutesAndStops implements GroupId<GroupBySameRoutesAndSt
   }
 
   @Override
-  public boolean match(GroupBySameRoutesAndStops other) {
-    if (this == other) {
-      return true;
-    }
-
+  public Object key() {
     // Itineraries without transit is not filtered - they are considered different
-    if (this.keySet.isEmpty() || other.keySet.isEmpty()) {
-      return false;
-    }
-
-    return this.keySet.equals(other.keySet);
+    return keySet.isEmpty() ? null : keySet;
   }
 
   @Override
@@ -0,0 +1,25 @@
+package org.opentripplanner.routing.algorithm.filterchain.groupids;
+
+/**
+ * A group-id where two group-ids match if and only if they have equal keys. Matching is then
+ * transitive and groups never need to be merged, so the groups can be looked up by key in a hash
+ * map instead of comparing each group-id with all existing groups.
+ *
+ * @see org.opentripplanner.routing.algorithm.filterchain.filter.GroupByFilter
+ */
+public interface HashableGroupId<T extends HashableGroupId<T>> extends GroupId<T> {
+  /**
+   * The key used to look up the group. Return {@code null} if this group-id does not match any
+   * other group-id, e.g. for itineraries without transit.
+   */
+  Object key();
+
+  @Override
+  default boolean match(T other) {
+    if (this == other) {
+      return true;
+    }
+    Object key = key();
+    return key != null && key.equals(other.key());
+  }
+}
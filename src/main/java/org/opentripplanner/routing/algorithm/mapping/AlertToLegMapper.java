@@ -1,14 +1,13 @@
 package org.opentripplanner.routing.algorithm.mapping;
 
 import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Function;
 import org.opentripplanner.model.plan.Leg;
 import org.opentripplanner.model.plan.StopArrival;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.StopCondition;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.services.TransitAlertService;
@@ -51,8 +50,8 @@ public class AlertToLegMapper {
       ? StopCondition.DEPARTURE
       : StopCondition.FIRST_DEPARTURE;
 
-    ZonedDateTime legStartTime = leg.getStartTime();
-    ZonedDateTime legEndTime = leg.getEndTime();
+    long legStartTime = leg.getStartTime().toEpochSecond();
+    long legEndTime = leg.getEndTime().toEpochSecond();
     StopLocation fromStop = leg.getFrom() == null ? null : leg.getFrom().stop;
     StopLocation toStop = leg.getTo() == null ? null : leg.getTo().stop;
 
@@ -61,29 +60,40 @@ public class AlertToLegMapper {
     LocalDate serviceDate = leg.getServiceDate();
 
     if (fromStop instanceof RegularStop stop) {
-      Collection<TransitAlert> alerts = getAlertsForStopAndRoute(stop, routeId);
-      alerts.addAll(getAlertsForStopAndTrip(stop, tripId, serviceDate));
-      alerts.addAll(getAlertsForRelatedStops(stop, transitAlertService::getStopAlerts));
-      addTransitAlertsToLeg(leg, departingStopConditions, alerts, legStartTime, legEndTime);
+      Collection<TransitAlert> alerts = getAlertsForStop(
+        stop,
+        routeId,
+        tripId,
+        serviceDate,
+        legStartTime,
+        legEndTime
+      );
+      addTransitAlertsToLeg(leg, departingStopConditions, alerts);
     }
     if (toStop instanceof RegularStop stop) {
-      Collection<TransitAlert> alerts = getAlertsForStopAndRoute(stop, routeId);
-      alerts.addAll(getAlertsForStopAndTrip(stop, tripId, serviceDate));
-      alerts.addAll(getAlertsForRelatedStops(stop, transitAlertService::getStopAlerts));
-      addTransitAlertsToLeg(leg, StopCondition.ARRIVING, alerts, legStartTime, legEndTime);
+      Collection<TransitAlert> alerts = getAlertsForStop(
+        stop,
+        routeId,
+        tripId,
+        serviceDate,
+        legStartTime,
+        legEndTime
+      );
+      addTransitAlertsToLeg(leg, StopCondition.ARRIVING, alerts);
     }
 
     if (leg.getIntermediateStops() != null) {
       for (StopArrival visit : leg.getIntermediateStops()) {
         if (visit.place.stop instanceof RegularStop stop) {
-          Collection<TransitAlert> alerts = getAlertsForStopAndRoute(stop, routeId);
-          alerts.addAll(getAlertsForStopAndTrip(stop, tripId, serviceDate));
-          alerts.addAll(getAlertsForRelatedStops(stop, transitAlertService::getStopAlerts));
-
-          ZonedDateTime stopArrival = visit.arrival;
-          ZonedDateTime stopDeparture = visit.departure;
-
-          addTransitAlertsToLeg(leg, StopCondition.PASSING, alerts, stopArrival, stopDeparture);
+          Collection<TransitAlert> alerts = getAlertsForStop(
+            stop,
+            routeId,
+            tripId,
+            serviceDate,
+            visit.arrival.toEpochSecond(),
+            visit.departure.toEpochSecond()
+          );
+          addTransitAlertsToLeg(leg, StopCondition.PASSING, alerts);
         }
       }
     }
@@ -91,154 +101,124 @@ public class AlertToLegMapper {
     Collection<TransitAlert> alerts;
 
     // trips - alerts tagged on ServiceDate
-    alerts = transitAlertService.getTripAlerts(leg.getTrip().getId(), serviceDate);
-    addTransitAlertsToLeg(leg, alerts, legStartTime, legEndTime);
+    alerts = getAlerts(new EntitySelector.Trip(tripId, serviceDate), legStartTime, legEndTime);
+    addTransitAlertsToLeg(leg, null, alerts);
 
     // trips - alerts tagged on any date
-    alerts = transitAlertService.getTripAlerts(leg.getTrip().getId(), null);
-    addTransitAlertsToLeg(leg, alerts, legStartTime, legEndTime);
+    alerts = getAlerts(new EntitySelector.Trip(tripId, null), legStartTime, legEndTime);
+    addTransitAlertsToLeg(leg, null, alerts);
 
     // route
-    alerts = transitAlertService.getRouteAlerts(leg.getRoute().getId());
-    addTransitAlertsToLeg(leg, alerts, legStartTime, legEndTime);
+    alerts = getAlerts(new EntitySelector.Route(routeId), legStartTime, legEndTime);
+    addTransitAlertsToLeg(leg, null, alerts);
 
     // agency
-    alerts = transitAlertService.getAgencyAlerts(leg.getAgency().getId());
-    addTransitAlertsToLeg(leg, alerts, legStartTime, legEndTime);
+    alerts =
+      getAlerts(new EntitySelector.Agency(leg.getAgency().getId()), legStartTime, legEndTime);
+    addTransitAlertsToLeg(leg, null, alerts);
 
     // Filter alerts when there are multiple timePeriods for each alert
-    leg
-      .getTransitAlerts()
-      .removeIf(alert ->
-        !alert.displayDuring(leg.getStartTime().toEpochSecond(), leg.getEndTime().toEpochSecond())
-      );
+    leg.getTransitAlerts().removeIf(alert -> !alert.displayDuring(legStartTime, legEndTime));
   }
 
   /**
-   * Add alerts for the leg, if they are valid for the duration of the leg, and if the stop
-   * condition(s) match
+   * Add alerts for the leg if the stop condition(s) match. The alerts must already be filtered
+   * on the period they are displayed during.
    */
   private static void addTransitAlertsToLeg(
     Leg leg,
     Collection<StopCondition> stopConditions,
-    Collection<TransitAlert> alerts,
-    ZonedDateTime fromTime,
-    ZonedDateTime toTime
+    Collection<TransitAlert> alerts
   ) {
-    if (alerts != null) {
-      for (TransitAlert alert : alerts) {
-        if (alert.displayDuring(fromTime.toEpochSecond(), toTime.toEpochSecond())) {
-          if (
-            !alert.getStopConditions().isEmpty() && // Skip if stopConditions are not set for alert
-            stopConditions != null &&
-            !stopConditions.isEmpty()
-          ) { // ...or specific stopConditions are not requested
-            for (StopCondition stopCondition : stopConditions) {
-              if (alert.getStopConditions().contains(stopCondition)) {
-                leg.addAlert(alert);
-                break; //Only add alert once
-              }
-            }
-          } else {
+    for (TransitAlert alert : alerts) {
+      if (
+        !alert.getStopConditions().isEmpty() && // Skip if stopConditions are not set for alert
+        stopConditions != null &&
+        !stopConditions.isEmpty()
+      ) { // ...or specific stopConditions are not requested
+        for (StopCondition stopCondition : stopConditions) {
+          if (alert.getStopConditions().contains(stopCondition)) {
             leg.addAlert(alert);
+            break; //Only add alert once
           }
         }
+      } else {
+        leg.addAlert(alert);
       }
     }
   }
 
   /**
-   * Add alerts for the leg, if they are valid for the duration of the leg, without considering the
-   * stop condition(s) of the alert
+   * Find the alerts displayed during the given period for the stop and its related stops: alerts
+   * for the stop alone, for the stop and route and for the stop and trip.
    */
-  private static void addTransitAlertsToLeg(
-    Leg leg,
-    Collection<TransitAlert> alerts,
-    ZonedDateTime fromTime,
-    ZonedDateTime toTime
-  ) {
-    addTransitAlertsToLeg(leg, null, alerts, fromTime, toTime);
-  }
-
-  private Collection<TransitAlert> getAlertsForStopAndRoute(
+  private Collection<TransitAlert> getAlertsForStop(
     RegularStop stop,
-    FeedScopedId routeId
+    FeedScopedId routeId,
+    FeedScopedId tripId,
+    LocalDate serviceDate,
+    long fromTime,
+    long toTime
   ) {
-    return getAlertsForRelatedStops(
+    Collection<TransitAlert> alerts = new HashSet<>();
+    addAlertsForRelatedStops(
+      alerts,
       stop,
-      id -> transitAlertService.getStopAndRouteAlerts(id, routeId)
+      id -> getAlerts(new EntitySelector.StopAndRoute(id, routeId), fromTime, toTime)
     );
-  }
-
-  private Collection<TransitAlert> getAlertsForStopAndTrip(
-    RegularStop stop,
-    FeedScopedId tripId,
-    LocalDate serviceDate
-  ) {
     // Finding alerts for ServiceDate
-    final Collection<TransitAlert> alerts = getAlertsForRelatedStops(
+    addAlertsForRelatedStops(
+      alerts,
       stop,
-      id -> transitAlertService.getStopAndTripAlerts(id, tripId, serviceDate)
+      id -> getAlerts(new EntitySelector.StopAndTrip(id, tripId, serviceDate), fromTime, toTime)
     );
-
     // Finding alerts for any date
-    alerts.addAll(
-      getAlertsForRelatedStops(
-        stop,
-        id -> transitAlertService.getStopAndTripAlerts(id, tripId, null)
-      )
+    addAlertsForRelatedStops(
+      alerts,
+      stop,
+      id -> getAlerts(new EntitySelector.StopAndTrip(id, tripId, null), fromTime, toTime)
+    );
+    addAlertsForRelatedStops(
+      alerts,
+      stop,
+      id -> getAlerts(new EntitySelector.Stop(id), fromTime, toTime)
     );
-
     return alerts;
   }
 
+  private Collection<TransitAlert> getAlerts(EntitySelector entity, long fromTime, long toTime) {
+    return transitAlertService.getAlertsDisplayedDuring(entity, fromTime, toTime);
+  }
+
   /**
-   * Find alerts, which are for the stop, its parent(s) and siblings, using a provided function for
+   * Add alerts, which are for the stop, its parent(s) and siblings, using a provided function for
    * finding alerts for those stops. This can be used to only find eg. alerts that are valid for
    * only a specific route at that stop.
    */
-  private Collection<TransitAlert> getAlertsForRelatedStops(
+  private void addAlertsForRelatedStops(
+    Collection<TransitAlert> alertsForStop,
     RegularStop stop,
     Function<FeedScopedId, Collection<TransitAlert>> getAlertsForStop
   ) {
-    if (stop == null) {
-      return new ArrayList<>();
-    }
-
-    Collection<TransitAlert> alertsForStop = getAlertsForStop.apply(stop.getId());
-    if (alertsForStop == null) {
-      alertsForStop = new HashSet<>();
-    }
+    alertsForStop.addAll(getAlertsForStop.apply(stop.getId()));
 
     if (stop.isPartOfStation()) {
       // Also check parent
       final Station parentStation = stop.getParentStation();
-      Collection<TransitAlert> parentStopAlerts = getAlertsForStop.apply(parentStation.getId());
-      if (parentStopAlerts != null) {
-        alertsForStop.addAll(parentStopAlerts);
-      }
+      alertsForStop.addAll(getAlertsForStop.apply(parentStation.getId()));
 
       // ...and siblings - platform may have been changed
       for (var siblingStop : parentStation.getChildStops()) {
         if (!stop.getId().equals(siblingStop.getId())) {
-          Collection<TransitAlert> siblingAlerts = getAlertsForStop.apply(parentStation.getId());
-          if (siblingAlerts != null) {
-            alertsForStop.addAll(siblingAlerts);
-          }
+          alertsForStop.addAll(getAlertsForStop.apply(parentStation.getId()));
         }
       }
 
       // Also check multimodal parent
       MultiModalStation multiModalStation = getMultiModalStation.apply(parentStation);
       if (multiModalStation != null) {
-        Collection<TransitAlert> multimodalStopAlerts = getAlertsForStop.apply(
-          multiModalStation.getId()
-        );
-        if (multimodalStopAlerts != null) {
-          alertsForStop.addAll(multimodalStopAlerts);
-        }
+        alertsForStop.addAll(getAlertsForStop.apply(multiModalStation.getId()));
       }
     }
-    return alertsForStop;
   }
 }
@@ -4,7 +4,10 @@ import static org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.R
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import org.opentripplanner.model.plan.FrequencyTransitLeg;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.model.plan.Leg;
@@ -42,6 +45,15 @@ import org.opentripplanner.util.geometry.GeometryUtils;
  * used by OTP. The paths, access/egress transfers and transit layer only contains the minimal
  * information needed for routing. Additional information has to be fetched from the graph index to
  * create complete itineraries that can be shown in a trip planner.
+ * <p>
+ * The itineraries are created in two steps. Most of the itineraries are removed by the itinerary
+ * filter chain, so the transfer legs following the street network are first mapped without
+ * re-traversing the edges - the leg has the times, cost and distance used by the filters, but not
+ * the walk steps and the detailed geometry. Call {@link #addTransferDetails(Itinerary)} to map
+ * these legs for the itineraries kept by the filter chain.
+ * <p>
+ * THREAD SAFETY - The mapper has request scope, and paths and itineraries can be mapped in
+ * parallel.
  */
 public class RaptorPathToItineraryMapper {
 
@@ -55,6 +67,10 @@ public class RaptorPathToItineraryMapper {
 
   private final GraphPathToItineraryMapper graphPathToItineraryMapper;
 
+  /** The transfer legs created without details, and the path leg to create the details from. */
+  private final Map<Leg, TransferPathLeg<TripSchedule>> transferLegsWithoutDetails =
+    Collections.synchronizedMap(new IdentityHashMap<>());
+
   /**
    * Constructs an itinerary mapper for a request and a set of results
    *
@@ -100,12 +116,7 @@ public class RaptorPathToItineraryMapper {
       }
       // Map transfer leg
       else if (pathLeg.isTransferLeg()) {
-        legs.addAll(
-          mapTransferLeg(
-            pathLeg.asTransferLeg(),
-            request.modes.transferMode == StreetMode.BIKE ? TraverseMode.BICYCLE : TraverseMode.WALK
-          )
-        );
+        legs.addAll(mapTransferLeg(pathLeg.asTransferLeg(), false));
       }
 
       pathLeg = pathLeg.nextLeg();
@@ -134,6 +145,34 @@ public class RaptorPathToItineraryMapper {
     return itinerary;
   }
 
+  /**
+   * Replace the transfer legs created without the walk steps and the detailed geometry with the
+   * complete legs. Nothing is done if the itinerary is not created by this mapper, or if the
+   * details are already added.
+   */
+  public void addTransferDetails(Itinerary itinerary) {
+    if (transferLegsWithoutDetails.isEmpty()) {
+      return;
+    }
+    List<Leg> legs = new ArrayList<>();
+    boolean legsReplaced = false;
+
+    for (Leg leg : itinerary.getLegs()) {
+      var pathLeg = transferLegsWithoutDetails.remove(leg);
+
+      if (pathLeg == null) {
+        legs.add(leg);
+        continue;
+      }
+      legs.addAll(mapTransferLeg(pathLeg, true));
+      legsReplaced = true;
+    }
+    // The totals derived from the legs, like the elevation, are updated with the complete legs
+    if (legsReplaced) {
+      itinerary.setLegs(legs);
+    }
+  }
+
   private List<Leg> mapAccessLeg(AccessPathLeg<TripSchedule> accessPathLeg) {
     AccessEgress accessPath = (AccessEgress) accessPathLeg.access();
 
@@ -203,17 +242,37 @@ public class RaptorPathToItineraryMapper {
     );
   }
 
-  private List<Leg> mapTransferLeg(
-    TransferPathLeg<TripSchedule> pathLeg,
-    TraverseMode transferMode
-  ) {
+  private List<Leg> mapTransferLeg(TransferPathLeg<TripSchedule> pathLeg, boolean withDetails) {
     var transferFromStop = transitLayer.getStopByIndex(pathLeg.fromStop());
     var transferToStop = transitLayer.getStopByIndex(pathLeg.toStop());
     Transfer transfer = ((TransferWithDuration) pathLeg.transfer()).transfer();
+    TraverseMode transferMode = request.modes.transferMode == StreetMode.BIKE
+      ? TraverseMode.BICYCLE
+      : TraverseMode.WALK;
 
     Place from = Place.forStop(transferFromStop);
     Place to = Place.forStop(transferToStop);
-    return mapNonTransitLeg(pathLeg, transfer, transferMode, from, to);
+
+    if (withDetails || transfer.getEdges() == null || transfer.getEdges().isEmpty()) {
+      return mapNonTransitLeg(pathLeg, transfer, transferMode, from, to);
+    }
+
+    // The distance is the sum of the edge distances, the same as for the leg with details
+    var leg = StreetLeg
+      .create()
+      .withMode(transferMode)
+      .withStartTime(createZonedDateTime(pathLeg.fromTime()))
+      .withEndTime(createZonedDateTime(pathLeg.toTime()))
+      .withFrom(from)
+      .withTo(to)
+      .withDistanceMeters(transfer.getEdges().stream().mapToDouble(Edge::getDistanceMeters).sum())
+      .withGeneralizedCost(toOtpDomainCost(pathLeg.generalizedCost()))
+      .withGeometry(GeometryUtils.makeLineString(transfer.getCoordinates()))
+      .withWalkSteps(List.of())
+      .build();
+
+    transferLegsWithoutDetails.put(leg, pathLeg);
+    return List.of(leg);
   }
 
   private Itinerary mapEgressLeg(EgressPathLeg<TripSchedule> egressPathLeg) {
@@ -16,6 +16,7 @@ import org.opentripplanner.routing.fares.FareService;
 import org.opentripplanner.routing.services.TransitAlertService;
 import org.opentripplanner.transit.model.site.MultiModalStation;
 import org.opentripplanner.transit.model.site.Station;
+import org.opentripplanner.util.OTPFeature;
 
 public class RoutingRequestToFilterChainMapper {
 
@@ -34,6 +35,7 @@ public class RoutingRequestToFilterChainMapper {
     boolean maxNumberOfItinerariesCropHead,
     RequestModes modes,
     Consumer<Itinerary> maxLimitReachedSubscriber,
+    Consumer<Itinerary> addItineraryDetails,
     boolean wheelchairAccessible,
     double wheelchairMaxSlope,
     FareService fareService,
@@ -82,6 +84,7 @@ public class RoutingRequestToFilterChainMapper {
       .withNonTransitGeneralizedCostLimit(params.nonTransitGeneralizedCostLimit)
       .withSameFirstOrLastTripFilter(params.filterItinerariesWithSameFirstOrLastTrip)
       .withAccessibilityScore(params.accessibilityScore && wheelchairAccessible, wheelchairMaxSlope)
+      .withItineraryDetails(addItineraryDetails, OTPFeature.ParallelRouting.isOn())
       .withFares(fareService)
       .withRemoveTimeshiftedItinerariesWithSameRoutesAndStops(
         params.removeItinerariesWithSameRoutesAndStops
@@ -0,0 +1,252 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.api.request.RequestFunctions;
+import org.opentripplanner.routing.api.request.RequestModes;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.routing.api.request.WheelchairAccessibilityRequest;
+import org.opentripplanner.routing.core.BicycleOptimizeType;
+import org.opentripplanner.routing.core.RouteMatcher;
+import org.opentripplanner.transit.model.basic.TransitMode;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.raptor.api.request.Optimization;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.transit.SearchDirection;
+
+/**
+ * The request parameters used to create the state kept in a {@link PagingSession}: the request
+ * transit data, the access and egress, and the heuristics. Two requests with the same key only
+ * differ in parameters not used by the session, like the page cursor, the search time and the
+ * itinerary filters, so they can share a session.
+ * <p>
+ * The direct mode is not part of the key, it is removed from the request when paging, see
+ * {@link RoutingRequest#applyPageCursor()}. The search window of the request is part of the key,
+ * the search window of the next page is read from the page cursor, not from the request.
+ * <p>
+ * A new request parameter used by the transit data, the access and egress or the heuristics must
+ * be added here, otherwise a session created with another value of the parameter is reused.
+ */
+record PagingRequestKey(
+  Place from,
+  Place to,
+  RequestModes modes,
+  boolean arriveBy,
+  Duration searchWindow,
+  TransitFilter transitFilter,
+  StreetPreferences streetPreferences,
+  VehiclePreferences vehiclePreferences,
+  TransitPreferences transitPreferences
+) {
+  static PagingRequestKey of(RoutingRequest request) {
+    return new PagingRequestKey(
+      Place.of(request.from),
+      Place.of(request.to),
+      request.modes.copy().withDirectMode(StreetMode.NOT_SET).build(),
+      request.arriveBy,
+      request.searchWindow,
+      TransitFilter.of(request),
+      StreetPreferences.of(request),
+      VehiclePreferences.of(request),
+      TransitPreferences.of(request)
+    );
+  }
+
+  /** The label of a location is not used by the search. */
+  record Place(FeedScopedId stopId, Double lat, Double lng) {
+    static Place of(GenericLocation location) {
+      return location == null ? null : new Place(location.stopId, location.lat, location.lng);
+    }
+  }
+
+  /** The parameters used to filter the patterns and trips of the request transit data. */
+  record TransitFilter(
+    Set<FeedScopedId> bannedAgencies,
+    Set<FeedScopedId> whiteListedAgencies,
+    RouteMatcher bannedRoutes,
+    RouteMatcher whiteListedRoutes,
+    Set<FeedScopedId> bannedTrips,
+    boolean includePlannedCancellations,
+    WheelchairAccessibilityRequest wheelchairAccessibility
+  ) {
+    static TransitFilter of(RoutingRequest request) {
+      return new TransitFilter(
+        request.getBannedAgencies(),
+        request.getWhiteListedAgencies(),
+        request.getBannedRouteMatcher().clone(),
+        request.getWhiteListedRouteMatcher().clone(),
+        Set.copyOf(request.bannedTrips),
+        request.includePlannedCancellations,
+        request.wheelchairAccessibility
+      );
+    }
+  }
+
+  /** The parameters used by the street search of the access, egress and transfers. */
+  record StreetPreferences(
+    Duration maxAccessEgressDuration,
+    Map<StreetMode, Duration> maxAccessEgressDurationForMode,
+    double walkSpeed,
+    double bikeSpeed,
+    double bikeWalkingSpeed,
+    double carSpeed,
+    double walkReluctance,
+    double bikeWalkingReluctance,
+    double bikeReluctance,
+    double carReluctance,
+    double walkSafetyFactor,
+    double stairsReluctance,
+    double stairsTimeFactor,
+    double turnReluctance,
+    int elevatorBoardTime,
+    int elevatorBoardCost,
+    int elevatorHopTime,
+    int elevatorHopCost,
+    BicycleOptimizeType bicycleOptimizeType,
+    double bikeTriangleTimeFactor,
+    double bikeTriangleSlopeFactor,
+    double bikeTriangleSafetyFactor,
+    int bikeSwitchTime,
+    int bikeSwitchCost,
+    double carAccelerationSpeed,
+    double carDecelerationSpeed
+  ) {
+    static StreetPreferences of(RoutingRequest request) {
+      return new StreetPreferences(
+        request.maxAccessEgressDuration,
+        Map.copyOf(request.maxAccessEgressDurationForMode),
+        request.walkSpeed,
+        request.bikeSpeed,
+        request.bikeWalkingSpeed,
+        request.carSpeed,
+        request.walkReluctance,
+        request.bikeWalkingReluctance,
+        request.bikeReluctance,
+        request.carReluctance,
+        request.walkSafetyFactor,
+        request.stairsReluctance,
+        request.stairsTimeFactor,
+        request.turnReluctance,
+        request.elevatorBoardTime,
+        request.elevatorBoardCost,
+        request.elevatorHopTime,
+        request.elevatorHopCost,
+        request.bicycleOptimizeType,
+        request.bikeTriangleTimeFactor,
+        request.bikeTriangleSlopeFactor,
+        request.bikeTriangleSafetyFactor,
+        request.bikeSwitchTime,
+        request.bikeSwitchCost,
+        request.carAccelerationSpeed,
+        request.carDecelerationSpeed
+      );
+    }
+  }
+
+  /** The rental, parking and car pickup parameters used by the access and egress. */
+  record VehiclePreferences(
+    int vehicleRentalPickupTime,
+    int vehicleRentalPickupCost,
+    int vehicleRentalDropoffTime,
+    int vehicleRentalDropoffCost,
+    Set<String> allowedVehicleRentalNetworks,
+    Set<String> bannedVehicleRentalNetworks,
+    boolean useVehicleRentalAvailabilityInformation,
+    boolean allowKeepingRentedVehicleAtDestination,
+    double keepingRentedVehicleAtDestinationCost,
+    int bikeParkTime,
+    int bikeParkCost,
+    int carParkTime,
+    int carParkCost,
+    Set<String> requiredVehicleParkingTags,
+    Set<String> bannedVehicleParkingTags,
+    Set<String> preferredVehicleParkingTags,
+    double unpreferredVehicleParkingTagPenalty,
+    boolean useVehicleParkingOpeningHours,
+    boolean useVehicleParkingAvailabilityInformation,
+    int carDropoffTime,
+    int carPickupTime,
+    int carPickupCost
+  ) {
+    static VehiclePreferences of(RoutingRequest request) {
+      return new VehiclePreferences(
+        request.vehicleRentalPickupTime,
+        request.vehicleRentalPickupCost,
+        request.vehicleRentalDropoffTime,
+        request.vehicleRentalDropoffCost,
+        Set.copyOf(request.allowedVehicleRentalNetworks),
+        Set.copyOf(request.bannedVehicleRentalNetworks),
+        request.useVehicleRentalAvailabilityInformation,
+        request.allowKeepingRentedVehicleAtDestination,
+        request.keepingRentedVehicleAtDestinationCost,
+        request.bikeParkTime,
+        request.bikeParkCost,
+        request.carParkTime,
+        request.carParkCost,
+        Set.copyOf(request.requiredVehicleParkingTags),
+        Set.copyOf(request.bannedVehicleParkingTags),
+        Set.copyOf(request.preferredVehicleParkingTags),
+        request.unpreferredVehicleParkingTagPenalty,
+        request.useVehicleParkingOpeningHours,
+        request.useVehicleParkingAvailabilityInformation,
+        request.carDropoffTime,
+        request.carPickupTime,
+        request.carPickupCost
+      );
+    }
+  }
+
+  /** The cost, slack and search parameters used by the heuristics. */
+  record TransitPreferences(
+    int transferCost,
+    double waitReluctance,
+    int walkBoardCost,
+    int bikeBoardCost,
+    Map<TransitMode, Double> transitReluctanceForMode,
+    Set<FeedScopedId> unpreferredRoutes,
+    Set<FeedScopedId> unpreferredAgencies,
+    String unpreferredCost,
+    int transferSlack,
+    int boardSlack,
+    Map<TransitMode, Integer> boardSlackForMode,
+    int alightSlack,
+    Map<TransitMode, Integer> alightSlackForMode,
+    Integer maxTransfers,
+    Duration maxJourneyDuration,
+    boolean timetableView,
+    Set<Optimization> optimizations,
+    RaptorProfile profile,
+    SearchDirection searchDirection,
+    Instant timeLimit
+  ) {
+    static TransitPreferences of(RoutingRequest request) {
+      var raptorOptions = request.raptorOptions;
+      return new TransitPreferences(
+        request.transferCost,
+        request.waitReluctance,
+        request.walkBoardCost,
+        request.bikeBoardCost,
+        Map.copyOf(request.transitReluctanceForMode()),
+        Set.copyOf(request.getUnpreferredRoutes()),
+        Set.copyOf(request.getUnpreferredAgencies()),
+        RequestFunctions.serialize(request.unpreferredCost),
+        request.transferSlack,
+        request.boardSlack,
+        Map.copyOf(request.boardSlackForMode),
+        request.alightSlack,
+        Map.copyOf(request.alightSlackForMode),
+        request.maxTransfers,
+        request.maxJourneyDuration,
+        request.timetableView,
+        Set.copyOf(raptorOptions.getOptimizations()),
+        raptorOptions.getProfile(),
+        raptorOptions.getSearchDirection(),
+        raptorOptions.getTimeLimit()
+      );
+    }
+  }
+}
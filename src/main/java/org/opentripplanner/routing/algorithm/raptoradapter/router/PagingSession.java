@@ -0,0 +1,99 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router;
+
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRoutingRequestTransitData;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.transit.raptor.service.DestinationHeuristicsCache;
+import org.opentripplanner.util.lang.ToStringBuilder;
+
+/**
+ * The request state that does not change when a client pages through the results: the request
+ * transit data, the access and egress, and the REVERSE heuristics used for destination pruning.
+ * The session is created by the first search and kept in the {@link PagingSessionCache}, keyed by
+ * the page cursors returned to the client.
+ * <p>
+ * The client should keep the original request as is when paging. The session is only reused if
+ * the request parameters used to create it are the same, see {@link PagingRequestKey}. The
+ * transit layer, the transit search time-zero and the additional search days must also be the
+ * same. A realtime update replaces the transit layer, so the session is not reused after an
+ * update.
+ * <p>
+ * THREAD SAFETY - The session is immutable, except for the heuristics cache witch is thread-safe.
+ */
+public final class PagingSession {
+
+  private final TransitLayer transitLayer;
+  private final ZonedDateTime transitSearchTimeZero;
+  private final int additionalSearchDaysInPast;
+  private final int additionalSearchDaysInFuture;
+  private final PagingRequestKey requestKey;
+  private final String from;
+  private final String to;
+  private final RaptorRoutingRequestTransitData transitData;
+  private final AccessEgresses accessEgresses;
+  private final DestinationHeuristicsCache heuristicsCache = new DestinationHeuristicsCache();
+
+  PagingSession(
+    TransitLayer transitLayer,
+    ZonedDateTime transitSearchTimeZero,
+    AdditionalSearchDays additionalSearchDays,
+    RoutingRequest request,
+    RaptorRoutingRequestTransitData transitData,
+    AccessEgresses accessEgresses
+  ) {
+    this.transitLayer = transitLayer;
+    this.transitSearchTimeZero = transitSearchTimeZero;
+    this.additionalSearchDaysInPast = additionalSearchDays.additionalSearchDaysInPast();
+    this.additionalSearchDaysInFuture = additionalSearchDays.additionalSearchDaysInFuture();
+    this.requestKey = PagingRequestKey.of(request);
+    this.from = Objects.toString(request.from);
+    this.to = Objects.toString(request.to);
+    this.transitData = transitData;
+    this.accessEgresses = accessEgresses;
+  }
+
+  /**
+   * Return {@code true} if the state in this session can be used by the given request.
+   */
+  boolean matches(
+    TransitLayer transitLayer,
+    ZonedDateTime transitSearchTimeZero,
+    AdditionalSearchDays additionalSearchDays,
+    RoutingRequest request
+  ) {
+    return (
+      this.transitLayer == transitLayer &&
+      this.transitSearchTimeZero.equals(transitSearchTimeZero) &&
+      additionalSearchDaysInPast == additionalSearchDays.additionalSearchDaysInPast() &&
+      additionalSearchDaysInFuture == additionalSearchDays.additionalSearchDaysInFuture() &&
+      requestKey.equals(PagingRequestKey.of(request))
+    );
+  }
+
+  RaptorRoutingRequestTransitData transitData() {
+    return transitData;
+  }
+
+  AccessEgresses accessEgresses() {
+    return accessEgresses;
+  }
+
+  DestinationHeuristicsCache heuristicsCache() {
+    return heuristicsCache;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(PagingSession.class)
+      .addObj("transitSearchTimeZero", transitSearchTimeZero)
+      .addNum("additionalSearchDaysInPast", additionalSearchDaysInPast)
+      .addNum("additionalSearchDaysInFuture", additionalSearchDaysInFuture)
+      .addStr("from", from)
+      .addStr("to", to)
+      .addBoolIfTrue("heuristicsCached", !heuristicsCache.isEmpty())
+      .toString();
+  }
+}
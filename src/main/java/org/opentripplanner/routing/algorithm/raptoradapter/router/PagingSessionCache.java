@@ -0,0 +1,67 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import javax.annotation.Nullable;
+import org.opentripplanner.model.plan.pagecursor.PageCursor;
+
+/**
+ * Keep the {@link PagingSession}s for a short time, so the next and previous page searches can
+ * reuse the request transit data, the access and egress and the heuristics. The sessions are
+ * keyed by the encoded page cursors returned to the client. The sessions are dropped when they
+ * time out, or when the cache is full. If the max size is zero, nothing is cached.
+ * <p>
+ * This class is thread-safe and has APPLICATION scope.
+ */
+public class PagingSessionCache {
+
+  /** A cache witch never keep any sessions. */
+  public static final PagingSessionCache DISABLED = new PagingSessionCache(0, Duration.ZERO);
+
+  @Nullable
+  private final Cache<String, PagingSession> sessions;
+
+  public PagingSessionCache(int maximumSize, Duration timeToLive) {
+    this.sessions =
+      maximumSize <= 0 || timeToLive.isZero()
+        ? null
+        : CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).build();
+  }
+
+  public boolean isEnabled() {
+    return sessions != null;
+  }
+
+  /**
+   * Return the session the given cursor was created for, or {@code null} if the session is not
+   * found.
+   */
+  @Nullable
+  public PagingSession get(@Nullable PageCursor cursor) {
+    if (sessions == null || cursor == null) {
+      return null;
+    }
+    String key = cursor.encode();
+    return key == null ? null : sessions.getIfPresent(key);
+  }
+
+  /**
+   * Add the session for the given cursor. The session is added for both the next and previous
+   * page cursor returned to the client. The time-to-live starts over for each page.
+   */
+  public void put(@Nullable PageCursor cursor, PagingSession session) {
+    if (sessions == null || cursor == null) {
+      return;
+    }
+    String key = cursor.encode();
+    if (key != null) {
+      sessions.put(key, session);
+    }
+  }
+
+  /** The number of sessions in the cache, approximately. */
+  public long size() {
+    return sessions == null ? 0 : sessions.size();
+  }
+}
@@ -6,7 +6,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import javax.annotation.Nullable;
 import org.opentripplanner.routing.algorithm.mapping.RaptorPathToItineraryMapper;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.performance.PerformanceTimersForRaptor;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.street.AccessEgressRouter;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.street.FlexAccessEgressRouter;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.AccessEgress;
@@ -35,9 +37,13 @@ import org.opentripplanner.transit.raptor.api.path.Path;
 import org.opentripplanner.transit.raptor.api.response.RaptorResponse;
 import org.opentripplanner.transit.service.TransitService;
 import org.opentripplanner.util.OTPFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class TransitRouter {
 
+  private static final Logger LOG = LoggerFactory.getLogger(TransitRouter.class);
+
   public static final int NOT_SET = -1;
 
   private final RoutingRequest request;
@@ -79,7 +85,7 @@ public class TransitRouter {
 
   private TransitRouterResult route() {
     if (request.modes.transitModes.isEmpty()) {
-      return new TransitRouterResult(List.of(), null);
+      return new TransitRouterResult(List.of(), null, null, null);
     }
 
     if (!serverContext.transitService().transitFeedCovers(request.getDateTime())) {
@@ -92,17 +98,36 @@ public class TransitRouter {
       ? serverContext.transitService().getTransitLayer()
       : serverContext.transitService().getRealtimeTransitLayer();
 
-    var requestTransitDataProvider = createRequestTransitDataProvider(transitLayer);
+    // Reuse the transit data, access and egress from the previous page, if the session exist
+    var pagingSession = findPagingSession(transitLayer);
+
+    var requestTransitDataProvider = pagingSession == null
+      ? createRequestTransitDataProvider(transitLayer)
+      : pagingSession.transitData();
 
     debugTimingAggregator.finishedPatternFiltering();
 
-    var accessEgresses = getAccessEgresses(transitSearchTimeZero);
+    var accessEgresses = pagingSession == null
+      ? getAccessEgresses(transitSearchTimeZero)
+      : pagingSession.accessEgresses();
 
     debugTimingAggregator.finishedAccessEgress(
       accessEgresses.getAccesses().size(),
       accessEgresses.getEgresses().size()
     );
 
+    if (pagingSession == null && serverContext.pagingSessionCache().isEnabled()) {
+      pagingSession =
+        new PagingSession(
+          transitLayer,
+          transitSearchTimeZero,
+          additionalSearchDays,
+          request,
+          requestTransitDataProvider,
+          accessEgresses
+        );
+    }
+
     // Prepare transit search
     var raptorRequest = RaptorRequestMapper.mapRequest(
       request,
@@ -115,12 +140,20 @@ public class TransitRouter {
 
     // Route transit
     var raptorService = new RaptorService<>(serverContext.raptorConfig());
-    var transitResponse = raptorService.route(raptorRequest, requestTransitDataProvider);
+    var transitResponse = raptorService.route(
+      raptorRequest,
+      requestTransitDataProvider,
+      pagingSession == null ? null : pagingSession.heuristicsCache()
+    );
 
     checkIfTransitConnectionExists(transitResponse);
 
     debugTimingAggregator.finishedRaptorSearch();
 
+    if (raptorRequest.performanceTimers() instanceof PerformanceTimersForRaptor timers) {
+      debugTimingAggregator.raptorSearchStatistics(timers.searchStatistics());
+    }
+
     Collection<Path<TripSchedule>> paths = transitResponse.paths();
 
     if (OTPFeature.OptimizeTransfers.isOn()) {
@@ -148,11 +181,32 @@ public class TransitRouter {
       request
     );
 
-    var itineraries = paths.stream().map(itineraryMapper::createItinerary).toList();
+    // The transfer details are added later, to the itineraries kept by the filter chain
+    var pathStream = OTPFeature.ParallelRouting.isOn() ? paths.parallelStream() : paths.stream();
+    var itineraries = pathStream.map(itineraryMapper::createItinerary).toList();
 
     debugTimingAggregator.finishedItineraryCreation();
 
-    return new TransitRouterResult(itineraries, transitResponse.requestUsed().searchParams());
+    return new TransitRouterResult(
+      itineraries,
+      transitResponse.requestUsed().searchParams(),
+      pagingSession,
+      itineraryMapper::addTransferDetails
+    );
+  }
+
+  @Nullable
+  private PagingSession findPagingSession(TransitLayer transitLayer) {
+    var session = serverContext.pagingSessionCache().get(request.pageCursor);
+
+    if (session == null) {
+      return null;
+    }
+    if (!session.matches(transitLayer, transitSearchTimeZero, additionalSearchDays, request)) {
+      LOG.debug("Paging session not reused, the request does not match: {}", session);
+      return null;
+    }
+    return session;
   }
 
   private AccessEgresses getAccessEgresses(ZonedDateTime time) {
@@ -232,7 +286,8 @@ public class TransitRouter {
           serverContext.transitService(),
           additionalSearchDays,
           serverContext.routerConfig().flexParameters(request),
-          isEgress
+          isEgress,
+          debugTimingAggregator
         );
 
         results.addAll(accessEgressMapper.mapFlexAccessEgresses(flexAccessList, time, isEgress));
@@ -1,6 +1,8 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.router;
 
 import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.transit.raptor.api.request.SearchParams;
 
@@ -8,10 +10,19 @@ public class TransitRouterResult {
 
   private final List<Itinerary> itineraries;
   private final SearchParams searchParams;
+  private final PagingSession pagingSession;
+  private final Consumer<Itinerary> addItineraryDetails;
 
-  public TransitRouterResult(List<Itinerary> itineraries, SearchParams searchParams) {
+  public TransitRouterResult(
+    List<Itinerary> itineraries,
+    SearchParams searchParams,
+    @Nullable PagingSession pagingSession,
+    @Nullable Consumer<Itinerary> addItineraryDetails
+  ) {
     this.itineraries = itineraries;
     this.searchParams = searchParams;
+    this.pagingSession = pagingSession;
+    this.addItineraryDetails = addItineraryDetails;
   }
 
   public List<Itinerary> getItineraries() {
@@ -21,4 +32,23 @@ public class TransitRouterResult {
   public SearchParams getSearchParams() {
     return searchParams;
   }
+
+  /**
+   * The session to reuse for the next and previous page, {@code null} if paging sessions are not
+   * enabled.
+   */
+  @Nullable
+  public PagingSession getPagingSession() {
+    return pagingSession;
+  }
+
+  /**
+   * The itineraries are created without the details not needed by the itinerary filter chain. Use
+   * this to add the details to the itineraries kept by the filter chain. Thread-safe, {@code null}
+   * if no itineraries are found.
+   */
+  @Nullable
+  public Consumer<Itinerary> getAddItineraryDetails() {
+    return addItineraryDetails;
+  }
 }
@@ -1,12 +1,16 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.router.performance;
 
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import org.opentripplanner.routing.api.request.RoutingTag;
 import org.opentripplanner.routing.framework.MicrometerUtils;
+import org.opentripplanner.transit.raptor.api.debug.RaptorSearchStatistics;
 import org.opentripplanner.transit.raptor.api.debug.RaptorTimers;
 
 public class PerformanceTimersForRaptor implements RaptorTimers {
@@ -15,22 +19,59 @@ public class PerformanceTimersForRaptor implements RaptorTimers {
   private final Timer timerRoute;
   private final Timer findTransitPerRound;
   private final Timer findTransfersPerRound;
+
+  // Variables to track the work done, tagged by profile(the request alias)
+  private final DistributionSummary iterations;
+  private final DistributionSummary rounds;
+  private final DistributionSummary routesScanned;
+  private final DistributionSummary tripsBoarded;
+  private final DistributionSummary stopsTouched;
+  private final DistributionSummary stopArrivalsAccepted;
+  private final DistributionSummary stopArrivalsRejected;
+
   private final MeterRegistry registry;
   private final Collection<RoutingTag> routingTags;
 
+  /**
+   * The statistics of all Raptor searches done for the routing request, including the heuristic
+   * searches. The list is shared with the instances created by {@link #withNamePrefix(String)},
+   * the heuristic searches may run in parallel.
+   */
+  private final List<RaptorSearchStatistics> searchStatistics;
+
   public PerformanceTimersForRaptor(
     String namePrefix,
     Collection<RoutingTag> routingTags,
     MeterRegistry registry
+  ) {
+    this(namePrefix, routingTags, registry, Collections.synchronizedList(new ArrayList<>()));
+  }
+
+  private PerformanceTimersForRaptor(
+    String namePrefix,
+    Collection<RoutingTag> routingTags,
+    MeterRegistry registry,
+    List<RaptorSearchStatistics> searchStatistics
   ) {
     this.registry = registry;
     this.routingTags = routingTags;
+    this.searchStatistics = searchStatistics;
     var tags = MicrometerUtils.mapTimingTags(routingTags);
     timerRoute = Timer.builder("raptor." + namePrefix + ".route").tags(tags).register(registry);
     findTransitPerRound =
       Timer.builder("raptor." + namePrefix + ".minute.transit").tags(tags).register(registry);
     findTransfersPerRound =
       Timer.builder("raptor." + namePrefix + ".minute.transfers").tags(tags).register(registry);
+
+    var profileTags = new ArrayList<>(tags);
+    profileTags.add(Tag.of("profile", namePrefix));
+    iterations = summary("raptor.search.iterations", profileTags);
+    rounds = summary("raptor.search.rounds", profileTags);
+    routesScanned = summary("raptor.search.routesScanned", profileTags);
+    tripsBoarded = summary("raptor.search.tripsBoarded", profileTags);
+    stopsTouched = summary("raptor.search.stopsTouched", profileTags);
+    stopArrivalsAccepted = summary("raptor.search.stopArrivalsAccepted", profileTags);
+    stopArrivalsRejected = summary("raptor.search.stopArrivalsRejected", profileTags);
   }
 
   public Timer timerRoute() {
@@ -45,6 +86,16 @@ public class PerformanceTimersForRaptor implements RaptorTimers {
     return findTransfersPerRound;
   }
 
+  /**
+   * The statistics of all Raptor searches done for the routing request, in the order they
+   * completed.
+   */
+  public List<RaptorSearchStatistics> searchStatistics() {
+    synchronized (searchStatistics) {
+      return List.copyOf(searchStatistics);
+    }
+  }
+
   @Override
   public void route(Runnable body) {
     timerRoute.record(body);
@@ -60,8 +111,27 @@ public class PerformanceTimersForRaptor implements RaptorTimers {
     findTransfersPerRound.record(body);
   }
 
+  @Override
+  public void searchStatistics(RaptorSearchStatistics statistics) {
+    iterations.record(statistics.iterations());
+    rounds.record(statistics.rounds());
+    routesScanned.record(statistics.routesScanned());
+    tripsBoarded.record(statistics.tripsBoarded());
+    stopsTouched.record(statistics.stopsTouched());
+    // The stop arrival pareto-sets only exist in the multi-criteria search
+    if (statistics.stopArrivalsAccepted() > 0) {
+      stopArrivalsAccepted.record(statistics.stopArrivalsAccepted());
+      stopArrivalsRejected.record(statistics.stopArrivalsRejected());
+    }
+    searchStatistics.add(statistics);
+  }
+
   @Override
   public RaptorTimers withNamePrefix(String namePrefix) {
-    return new PerformanceTimersForRaptor(namePrefix, routingTags, registry);
+    return new PerformanceTimersForRaptor(namePrefix, routingTags, registry, searchStatistics);
+  }
+
+  private DistributionSummary summary(String name, List<Tag> tags) {
+    return DistributionSummary.builder(name).tags(tags).register(registry);
   }
 }
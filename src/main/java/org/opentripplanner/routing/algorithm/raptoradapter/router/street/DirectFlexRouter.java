@@ -11,6 +11,7 @@ import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.core.RoutingContext;
 import org.opentripplanner.routing.core.TemporaryVerticesContainer;
+import org.opentripplanner.routing.framework.DebugTimingAggregator;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 
@@ -19,7 +20,8 @@ public class DirectFlexRouter {
   public static List<Itinerary> route(
     OtpServerRequestContext serverContext,
     RoutingRequest request,
-    AdditionalSearchDays additionalSearchDays
+    AdditionalSearchDays additionalSearchDays,
+    DebugTimingAggregator debugTimingAggregator
   ) {
     if (!StreetMode.FLEXIBLE.equals(request.modes.directMode)) {
       return Collections.emptyList();
@@ -57,7 +59,8 @@ public class DirectFlexRouter {
         additionalSearchDays.additionalSearchDaysInPast(),
         additionalSearchDays.additionalSearchDaysInFuture(),
         accessStops,
-        egressStops
+        egressStops,
+        debugTimingAggregator
       );
 
       return new ArrayList<>(flexRouter.createFlexOnlyItineraries(request.locale));
@@ -8,6 +8,7 @@ import org.opentripplanner.ext.flex.FlexRouter;
 import org.opentripplanner.routing.algorithm.raptoradapter.router.AdditionalSearchDays;
 import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.core.RoutingContext;
+import org.opentripplanner.routing.framework.DebugTimingAggregator;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
 import org.opentripplanner.transit.service.TransitService;
 
@@ -20,7 +21,8 @@ public class FlexAccessEgressRouter {
     TransitService transitService,
     AdditionalSearchDays searchDays,
     FlexParameters params,
-    boolean isEgress
+    boolean isEgress,
+    DebugTimingAggregator debugTimingAggregator
   ) {
     Collection<NearbyStop> accessStops = !isEgress
       ? AccessEgressRouter.streetSearch(routingContext, transitService, StreetMode.WALK, false)
@@ -39,7 +41,8 @@ public class FlexAccessEgressRouter {
       searchDays.additionalSearchDaysInPast(),
       searchDays.additionalSearchDaysInFuture(),
       accessStops,
-      egressStops
+      egressStops,
+      debugTimingAggregator
     );
 
     return isEgress ? flexRouter.createFlexEgresses() : flexRouter.createFlexAccesses();
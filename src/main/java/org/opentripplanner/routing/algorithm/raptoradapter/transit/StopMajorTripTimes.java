@@ -0,0 +1,131 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import javax.annotation.Nullable;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+/**
+ * The arrival and departure times of all trips of a pattern on a range of consecutive dates,
+ * copied into two flat arrays. The trips are ordered by date, and by the trip index within each
+ * date. The times are stored first by the stop position and then by trip index, so with stops 1
+ * and 2, and trips A and B, the order is [1A, 1B, 2A, 2B]. This way the trip search, which scans
+ * the times of all trips at one stop, reads contiguous memory.
+ * <p>
+ * The times are shifted by the offset of each date, so they are seconds since the start of the
+ * search day. The instance is shared by all requests with the same search day, see
+ * {@link StopMajorTripTimesCache}, so it must not be modified.
+ */
+public final class StopMajorTripTimes {
+
+  private final int numberOfTrips;
+  private final int[] arrivalTimes;
+  private final int[] departureTimes;
+
+  /**
+   * The index of the first trip of each date. The last element is the number of trips, so the
+   * trips of date {@code d} are in the range {@code [firstTripIndex[d], firstTripIndex[d+1])}.
+   */
+  private final int[] firstTripIndex;
+
+  /**
+   * The index of the date of each trip, or {@code null} if there is only one date. Looking up the
+   * date of a trip is used when the search creates a trip schedule, so it is precomputed instead of
+   * searching {@link #firstTripIndex}. A search spans a few dates only, so the date index fits in a
+   * short.
+   */
+  @Nullable
+  private final short[] dateIndexByTrip;
+
+  /**
+   * @param tripPatternForDates the dates of one pattern, sorted by date.
+   * @param offsets the offset of each date from the start of the search day.
+   */
+  public StopMajorTripTimes(List<TripPatternForDate> tripPatternForDates, int[] offsets) {
+    final int nDates = tripPatternForDates.size();
+    if (nDates > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many dates in the search: " + nDates);
+    }
+    this.firstTripIndex = new int[nDates + 1];
+    for (int d = 0; d < nDates; d++) {
+      int nTrips = tripPatternForDates.get(d).numberOfTripSchedules();
+      firstTripIndex[d + 1] = firstTripIndex[d] + nTrips;
+    }
+    this.numberOfTrips = firstTripIndex[nDates];
+
+    final int nStops = nDates == 0
+      ? 0
+      : tripPatternForDates.get(0).getTripPattern().numberOfStopsInPattern();
+    this.arrivalTimes = new int[nStops * numberOfTrips];
+    this.departureTimes = new int[nStops * numberOfTrips];
+
+    for (int d = 0; d < nDates; d++) {
+      var tripPatternForDate = tripPatternForDates.get(d);
+      int offset = offsets[d];
+      for (int i = firstTripIndex[d]; i < firstTripIndex[d + 1]; i++) {
+        TripTimes trip = tripPatternForDate.getTripTimes(i - firstTripIndex[d]);
+        for (int s = 0; s < nStops; s++) {
+          arrivalTimes[s * numberOfTrips + i] = trip.getArrivalTime(s) + offset;
+          departureTimes[s * numberOfTrips + i] = trip.getDepartureTime(s) + offset;
+        }
+      }
+    }
+
+    if (nDates > 1) {
+      this.dateIndexByTrip = new short[numberOfTrips];
+      for (short d = 0; d < nDates; ++d) {
+        Arrays.fill(dateIndexByTrip, firstTripIndex[d], firstTripIndex[d + 1], d);
+      }
+    } else {
+      this.dateIndexByTrip = null;
+    }
+  }
+
+  public int numberOfTrips() {
+    return numberOfTrips;
+  }
+
+  /** The arrival times of all trips at the given stop, indexed by trip. */
+  public IntUnaryOperator arrivalTimesAtStop(int stopPositionInPattern) {
+    final int[] times = arrivalTimes;
+    final int start = stopPositionInPattern * numberOfTrips;
+    return (int tripIndex) -> times[start + tripIndex];
+  }
+
+  /** The departure times of all trips at the given stop, indexed by trip. */
+  public IntUnaryOperator departureTimesAtStop(int stopPositionInPattern) {
+    final int[] times = departureTimes;
+    final int start = stopPositionInPattern * numberOfTrips;
+    return (int tripIndex) -> times[start + tripIndex];
+  }
+
+  /** The arrival times of the given trip, indexed by stop position. */
+  public IntUnaryOperator arrivalTimesForTrip(int tripIndex) {
+    final int[] times = arrivalTimes;
+    final int n = numberOfTrips;
+    return (int stopPositionInPattern) -> times[stopPositionInPattern * n + tripIndex];
+  }
+
+  /** The departure times of the given trip, indexed by stop position. */
+  public IntUnaryOperator departureTimesForTrip(int tripIndex) {
+    final int[] times = departureTimes;
+    final int n = numberOfTrips;
+    return (int stopPositionInPattern) -> times[stopPositionInPattern * n + tripIndex];
+  }
+
+  /** The index of the date of the given trip. */
+  public int dateIndex(int tripIndex) {
+    return dateIndexByTrip == null ? 0 : dateIndexByTrip[tripIndex];
+  }
+
+  /** The index of the given trip within the trips of its date. */
+  public int tripIndexInDate(int tripIndex) {
+    return tripIndex - firstTripIndex[dateIndex(tripIndex)];
+  }
+
+  /** The number of times stored, used to bound the memory used by the shared cache. */
+  int size() {
+    return arrivalTimes.length + departureTimes.length;
+  }
+}
@@ -0,0 +1,120 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A cache of the {@link StopMajorTripTimes} of each pattern on the dates of a search, shared by
+ * all requests. Requests searching from the same day use the same dates, so the arrays are only
+ * created by the first request.
+ * <p>
+ * The key is the {@link TripPatternForDate} instances of the pattern, compared by identity, and
+ * the offset of each date. A realtime update replaces the TripPatternForDate of the updated
+ * patterns, so only the times of these patterns are created again. The cache is shared by all
+ * copies of the {@link TransitLayer}. The entries of replaced TripPatternForDates are not used
+ * again, they expire when they have not been used for {@link #EXPIRE_AFTER_ACCESS}.
+ * <p>
+ * The cache is bounded by the total number of times in the arrays, the least recently used arrays
+ * are evicted first.
+ * <p>
+ * THREAD SAFETY - The cache is thread-safe. The times are not modified after they are created, so
+ * they can be read by several requests at the same time.
+ */
+public class StopMajorTripTimesCache {
+
+  /** Each time uses 4 bytes, so this is about 200 MB. */
+  private static final long MAX_TIMES = 50_000_000;
+
+  private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+
+  private final Cache<CacheKey, StopMajorTripTimes> cache;
+
+  public StopMajorTripTimesCache() {
+    this(MAX_TIMES);
+  }
+
+  StopMajorTripTimesCache(long maxTimes) {
+    this.cache =
+      CacheBuilder
+        .newBuilder()
+        .maximumWeight(maxTimes)
+        .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+        .<CacheKey, StopMajorTripTimes>weigher((key, times) -> times.size())
+        .build();
+  }
+
+  /**
+   * Return the times of the given dates of one pattern, create them if they are not in the
+   * cache.
+   *
+   * @param tripPatternForDates the dates of one pattern, sorted by date.
+   * @param offsets the offset of each date from the start of the search day.
+   */
+  public StopMajorTripTimes get(List<TripPatternForDate> tripPatternForDates, int[] offsets) {
+    try {
+      return cache.get(
+        new CacheKey(tripPatternForDates.toArray(new TripPatternForDate[0]), offsets),
+        () -> new StopMajorTripTimes(tripPatternForDates, offsets)
+      );
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw new RuntimeException("Failed to get item from trip times cache", e.getCause());
+    }
+  }
+
+  /** The number of cached patterns. */
+  long size() {
+    return cache.size();
+  }
+
+  private static final class CacheKey {
+
+    private final TripPatternForDate[] tripPatternForDates;
+    private final int[] offsets;
+    private final int hashCode;
+
+    private CacheKey(TripPatternForDate[] tripPatternForDates, int[] offsets) {
+      this.tripPatternForDates = tripPatternForDates;
+      this.offsets = offsets;
+      // TripPatternForDate compares the trip times by value, which is expensive. The instances
+      // are shared by all requests, so they are compared by identity instead.
+      int hash = Arrays.hashCode(offsets);
+      for (TripPatternForDate it : tripPatternForDates) {
+        hash = 31 * hash + System.identityHashCode(it);
+      }
+      this.hashCode = hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey other)) {
+        return false;
+      }
+      if (
+        hashCode != other.hashCode ||
+        tripPatternForDates.length != other.tripPatternForDates.length ||
+        !Arrays.equals(offsets, other.offsets)
+      ) {
+        return false;
+      }
+      for (int i = 0; i < tripPatternForDates.length; i++) {
+        if (tripPatternForDates[i] != other.tripPatternForDates[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -14,7 +14,10 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtr
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferForPatternByStopPos;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased.TripBasedTransferIndex;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased.TripBasedTransferService;
 import org.opentripplanner.routing.core.RoutingContext;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.service.StopModel;
 
@@ -49,6 +52,15 @@ public class TransitLayer {
 
   private final int[] stopBoardAlightCosts;
 
+  /**
+   * The transfers used by the Trip-Based search, {@code null} if the Trip-Based search is not
+   * enabled. The service is shared by all copies of the transit layer.
+   */
+  private final TripBasedTransferService tripBasedTransferService;
+
+  /** The stop-major trip times of the searched dates, shared by all copies of the transit layer. */
+  private final StopMajorTripTimesCache stopMajorTripTimesCache;
+
   /**
    * Makes a shallow copy of the TransitLayer, except for the tripPatternsForDate, where a shallow
    * copy of the HashMap is made. This is sufficient, as the TransitLayerUpdater will replace entire
@@ -64,7 +76,9 @@ public class TransitLayer {
       transitLayer.transferCache,
       transitLayer.constrainedTransfers,
       transitLayer.transferIndexGenerator,
-      transitLayer.stopBoardAlightCosts
+      transitLayer.stopBoardAlightCosts,
+      transitLayer.tripBasedTransferService,
+      transitLayer.stopMajorTripTimesCache
     );
   }
 
@@ -77,7 +91,36 @@ public class TransitLayer {
     RaptorRequestTransferCache transferCache,
     ConstrainedTransfersForPatterns constrainedTransfers,
     TransferIndexGenerator transferIndexGenerator,
-    int[] stopBoardAlightCosts
+    int[] stopBoardAlightCosts,
+    @Nullable TripBasedTransferService tripBasedTransferService
+  ) {
+    this(
+      tripPatternsRunningOnDate,
+      transfersByStopIndex,
+      transferService,
+      stopModel,
+      transitDataZoneId,
+      transferCache,
+      constrainedTransfers,
+      transferIndexGenerator,
+      stopBoardAlightCosts,
+      tripBasedTransferService,
+      new StopMajorTripTimesCache()
+    );
+  }
+
+  private TransitLayer(
+    Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate,
+    List<List<Transfer>> transfersByStopIndex,
+    TransferService transferService,
+    StopModel stopModel,
+    ZoneId transitDataZoneId,
+    RaptorRequestTransferCache transferCache,
+    ConstrainedTransfersForPatterns constrainedTransfers,
+    TransferIndexGenerator transferIndexGenerator,
+    int[] stopBoardAlightCosts,
+    @Nullable TripBasedTransferService tripBasedTransferService,
+    StopMajorTripTimesCache stopMajorTripTimesCache
   ) {
     this.tripPatternsRunningOnDate = new HashMap<>(tripPatternsRunningOnDate);
     this.transfersByStopIndex = transfersByStopIndex;
@@ -88,6 +131,8 @@ public class TransitLayer {
     this.constrainedTransfers = constrainedTransfers;
     this.transferIndexGenerator = transferIndexGenerator;
     this.stopBoardAlightCosts = stopBoardAlightCosts;
+    this.tripBasedTransferService = tripBasedTransferService;
+    this.stopMajorTripTimesCache = stopMajorTripTimesCache;
   }
 
   @Nullable
@@ -126,6 +171,18 @@ public class TransitLayer {
       .collect(Collectors.toList());
   }
 
+  /**
+   * List the patterns with trips running on any of the dates, each pattern once.
+   */
+  public Collection<RoutingTripPattern> listTripPatterns() {
+    return tripPatternsRunningOnDate
+      .values()
+      .stream()
+      .flatMap(Collection::stream)
+      .map(TripPatternForDate::getTripPattern)
+      .collect(Collectors.toSet());
+  }
+
   public TransferService getTransferService() {
     return transferService;
   }
@@ -154,6 +211,24 @@ public class TransitLayer {
     return stopBoardAlightCosts;
   }
 
+  public StopMajorTripTimesCache getStopMajorTripTimesCache() {
+    return stopMajorTripTimesCache;
+  }
+
+  @Nullable
+  public TripBasedTransferService getTripBasedTransferService() {
+    return tripBasedTransferService;
+  }
+
+  /**
+   * Return the latest generated transfers for the Trip-Based search, or {@code null} if the search
+   * is not enabled or the transfers are not generated yet.
+   */
+  @Nullable
+  public TripBasedTransferIndex getTripBasedTransfers() {
+    return tripBasedTransferService != null ? tripBasedTransferService.index() : null;
+  }
+
   /**
    * Replaces all the TripPatternForDates for a single date. This is an atomic operation according
    * to the HashMap implementation.
@@ -7,6 +7,7 @@ import org.opentripplanner.util.time.DurationUtils;
 
 public interface TransitTuningParameters {
   List<Duration> PAGING_SEARCH_WINDOW_ADJUSTMENTS = DurationUtils.durations("4h 2h 1h 30m 20m 10m");
+  Duration PAGING_SESSION_TIME_TO_LIVE = Duration.ofMinutes(5);
 
   /**
    * These tuning parameters are typically used in unit tests. The values are:
@@ -46,10 +47,25 @@ public interface TransitTuningParameters {
       return 5;
     }
 
+    @Override
+    public boolean enableTripBasedSearch() {
+      return false;
+    }
+
     @Override
     public List<Duration> pagingSearchWindowAdjustments() {
       return PAGING_SEARCH_WINDOW_ADJUSTMENTS;
     }
+
+    @Override
+    public int pagingSessionCacheMaxSize() {
+      return 0;
+    }
+
+    @Override
+    public Duration pagingSessionTimeToLive() {
+      return PAGING_SESSION_TIME_TO_LIVE;
+    }
   };
 
   /**
@@ -71,6 +87,14 @@ public interface TransitTuningParameters {
    */
   int transferCacheMaxSize();
 
+  /**
+   * Return {@code true} to generate the transfers used by the Trip-Based search, see
+   * {@link org.opentripplanner.transit.raptor.api.request.Optimization#TRIP_BASED}. The transfers
+   * are generated in the background after the graph is loaded, and take some memory. The search is
+   * only used for requests with the optimization enabled.
+   */
+  boolean enableTripBasedSearch();
+
   /**
    * This parameter is used to reduce the number of pages a client have to step through for a
    * journey where there are few alternatives/low frequency. This also work well to adjust for
@@ -96,4 +120,18 @@ public interface TransitTuningParameters {
    * The default values are: {@link #PAGING_SEARCH_WINDOW_ADJUSTMENTS}
    */
   List<Duration> pagingSearchWindowAdjustments();
+
+  /**
+   * The maximum number of paging sessions to keep. A paging session keeps the request transit
+   * data, the access and egress and the destination heuristics of a search, so the next and
+   * previous page searches only need to run the main Range Raptor search. Each session hold on to
+   * a few megabytes for a large network, so set this to about the number of clients paging at the
+   * same time. If zero, no sessions are kept.
+   */
+  int pagingSessionCacheMaxSize();
+
+  /**
+   * The time a paging session is kept after the last page is returned to the client.
+   */
+  Duration pagingSessionTimeToLive();
 }
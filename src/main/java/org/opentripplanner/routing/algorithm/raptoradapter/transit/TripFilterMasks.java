@@ -0,0 +1,122 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.opentripplanner.model.modes.AllowTransitModeFilter;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RoutingRequestTransitDataProviderFilter;
+import org.opentripplanner.transit.model.basic.MainAndSubMode;
+import org.opentripplanner.transit.model.basic.WheelchairAccessibility;
+import org.opentripplanner.transit.model.network.BikeAccess;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+/**
+ * Bitmasks over the trips of a {@link TripPatternForDate}, one for each of the common request
+ * filter dimensions: wheelchair accessibility, bikes allowed, planned cancellations and
+ * mode/sub-mode. The masks are built once for each trip pattern for date, and are shared
+ * by all requests. A request combines the masks it needs, instead of testing each trip.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class TripFilterMasks {
+
+  private final int numberOfTrips;
+  private final BitSet wheelchairAccessible;
+  private final BitSet bikesAllowed;
+  private final BitSet notCanceledOrReplaced;
+
+  /** The distinct (mode, sub-mode) pairs of the trips, most patterns have only one. */
+  private final List<MainAndSubMode> modes;
+  /** The trips for each of the {@link #modes}, in the same order. */
+  private final List<BitSet> tripsByMode;
+
+  TripFilterMasks(List<TripTimes> tripTimes) {
+    this.numberOfTrips = tripTimes.size();
+    this.wheelchairAccessible = new BitSet(numberOfTrips);
+    this.bikesAllowed = new BitSet(numberOfTrips);
+    this.notCanceledOrReplaced = new BitSet(numberOfTrips);
+
+    List<MainAndSubMode> modes = new ArrayList<>(1);
+    List<BitSet> tripsByMode = new ArrayList<>(1);
+
+    for (int i = 0; i < numberOfTrips; ++i) {
+      TripTimes it = tripTimes.get(i);
+      Trip trip = it.getTrip();
+
+      if (it.getWheelchairAccessibility() == WheelchairAccessibility.POSSIBLE) {
+        wheelchairAccessible.set(i);
+      }
+      if (
+        RoutingRequestTransitDataProviderFilter.bikeAccessForTrip(trip) == BikeAccess.ALLOWED
+      ) {
+        bikesAllowed.set(i);
+      }
+      if (!trip.getNetexAlteration().isCanceledOrReplaced()) {
+        notCanceledOrReplaced.set(i);
+      }
+
+      var mode = new MainAndSubMode(trip.getMode(), trip.getNetexSubMode());
+      int modeIndex = modes.indexOf(mode);
+      if (modeIndex < 0) {
+        modeIndex = modes.size();
+        modes.add(mode);
+        tripsByMode.add(new BitSet(numberOfTrips));
+      }
+      tripsByMode.get(modeIndex).set(i);
+    }
+    this.modes = List.copyOf(modes);
+    this.tripsByMode = List.copyOf(tripsByMode);
+  }
+
+  /**
+   * Combine the masks for the given filter values.
+   *
+   * @return the trips allowed by the filter, or {@code null} if all trips are allowed. The
+   * returned bitset is a new instance, owned by the caller.
+   */
+  public BitSet allowedTrips(
+    boolean requireWheelchairAccessible,
+    boolean requireBikesAllowed,
+    boolean excludeCanceledOrReplaced,
+    AllowTransitModeFilter modeFilter
+  ) {
+    BitSet result = null;
+
+    if (modes.size() == 1) {
+      if (!allows(modeFilter, modes.get(0))) {
+        return new BitSet();
+      }
+    } else {
+      result = new BitSet(numberOfTrips);
+      for (int i = 0; i < modes.size(); ++i) {
+        if (allows(modeFilter, modes.get(i))) {
+          result.or(tripsByMode.get(i));
+        }
+      }
+    }
+
+    if (requireWheelchairAccessible) {
+      result = and(result, wheelchairAccessible);
+    }
+    if (requireBikesAllowed) {
+      result = and(result, bikesAllowed);
+    }
+    if (excludeCanceledOrReplaced) {
+      result = and(result, notCanceledOrReplaced);
+    }
+    return result == null || result.cardinality() == numberOfTrips ? null : result;
+  }
+
+  private static boolean allows(AllowTransitModeFilter modeFilter, MainAndSubMode mode) {
+    return modeFilter.allows(mode.mainMode(), mode.subMode());
+  }
+
+  private static BitSet and(BitSet result, BitSet mask) {
+    if (result == null) {
+      return (BitSet) mask.clone();
+    }
+    result.and(mask);
+    return result;
+  }
+}
@@ -39,6 +39,12 @@ public class TripPatternForDate {
    */
   private final List<FrequencyEntry> frequencies;
 
+  /**
+   * Filter masks over the {@link #tripTimes}, shared by all requests. Created the first time they
+   * are used, creating them twice in a race is harmless.
+   */
+  private volatile TripFilterMasks tripFilterMasks;
+
   /** The date for which the filtering was performed. */
   private final LocalDate localDate;
 
@@ -114,6 +120,15 @@ public class TripPatternForDate {
     return tripTimes.get(i);
   }
 
+  public TripFilterMasks getTripFilterMasks() {
+    var masks = tripFilterMasks;
+    if (masks == null) {
+      masks = new TripFilterMasks(tripTimes);
+      tripFilterMasks = masks;
+    }
+    return masks;
+  }
+
   public LocalDate getLocalDate() {
     return localDate;
   }
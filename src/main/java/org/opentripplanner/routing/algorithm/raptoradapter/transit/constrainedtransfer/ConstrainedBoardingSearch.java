@@ -6,6 +6,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.TransferConstraint;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TripSearchTimetable;
 import org.opentripplanner.transit.model.timetable.Trip;
 import org.opentripplanner.transit.raptor.api.transit.RaptorConstrainedTripScheduleBoardingSearch;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTimeTable;
@@ -167,6 +168,10 @@ public final class ConstrainedBoardingSearch
     var index = searchStrategy.scheduleIndexIterator(timetable);
     outer:while (index.hasNext()) {
       onTripIndex = index.next();
+
+      if (timetable instanceof TripSearchTimetable<?> t && !t.isTripAllowed(onTripIndex)) {
+        continue;
+      }
       var it = timetable.getTripSchedule(onTripIndex);
 
       // Forward: boardTime, Reverse: alightTime
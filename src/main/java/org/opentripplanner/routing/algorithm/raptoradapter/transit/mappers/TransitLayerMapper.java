@@ -22,6 +22,7 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtr
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferIndexGenerator;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.RaptorCostConverter;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.RaptorRequestTransferCache;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased.TripBasedTransferService;
 import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
 import org.opentripplanner.transit.model.timetable.TripTimes;
@@ -92,6 +93,16 @@ public class TransitLayerMapper {
 
     var transferCache = new RaptorRequestTransferCache(tuningParameters.transferCacheMaxSize());
 
+    TripBasedTransferService tripBasedTransferService = null;
+    if (tuningParameters.enableTripBasedSearch()) {
+      // The transfers are generated in the background, Range Raptor is used until they are ready
+      tripBasedTransferService =
+        new TripBasedTransferService(
+          transferByStopIndex,
+          allTripPatterns.stream().map(TripPattern::getRoutingTripPattern).toList()
+        );
+    }
+
     LOG.info("Mapping complete.");
 
     return new TransitLayer(
@@ -103,7 +114,8 @@ public class TransitLayerMapper {
       transferCache,
       constrainedTransfers,
       transferIndexGenerator,
-      createStopTransferCosts(stopModel, tuningParameters)
+      createStopTransferCosts(stopModel, tuningParameters),
+      tripBasedTransferService
     );
   }
 
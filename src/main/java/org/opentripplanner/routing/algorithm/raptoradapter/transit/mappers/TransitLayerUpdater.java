@@ -227,6 +227,13 @@ public class TransitLayerUpdater {
     // guarantee that the reference is set after all the fields have been updated.
     transitModel.setRealtimeTransitLayer(realtimeTransitLayer);
 
+    // The Trip-Based transfers are updated with the patterns of the new realtime transit layer in
+    // the background, requests using new patterns fall back to Range Raptor until they are ready
+    var tripBasedTransferService = realtimeTransitLayer.getTripBasedTransferService();
+    if (tripBasedTransferService != null) {
+      tripBasedTransferService.updateRealtimePatterns(realtimeTransitLayer::listTripPatterns);
+    }
+
     LOG.debug(
       "UPDATING {} tripPatterns took {} ms",
       updatedTimetables.size(),
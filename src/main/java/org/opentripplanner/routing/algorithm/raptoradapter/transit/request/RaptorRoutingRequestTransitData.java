@@ -14,6 +14,7 @@ import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtr
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.constrainedtransfer.TransferForPatternByStopPos;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.cost.CostCalculatorFactory;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.McCostParamsMapper;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased.TripBasedTransferIndex;
 import org.opentripplanner.routing.core.RoutingContext;
 import org.opentripplanner.transit.model.network.RoutingTripPattern;
 import org.opentripplanner.transit.raptor.api.transit.CostCalculator;
@@ -25,6 +26,7 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorRoute;
 import org.opentripplanner.transit.raptor.api.transit.RaptorStopNameResolver;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripBasedTransfers;
 import org.opentripplanner.transit.raptor.util.BitSetIterator;
 import org.opentripplanner.util.OTPFeature;
 import org.opentripplanner.util.time.ServiceDateUtils;
@@ -63,6 +65,11 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
 
   private final CostCalculator<TripSchedule> generalizedCostCalculator;
 
+  /**
+   * The Trip-Based transfers, {@code null} if not generated for all patterns in the request
+   */
+  private final TripBasedTransferIndex tripBasedTransfers;
+
   private final int validTransitDataStartTime;
 
   private final int validTransitDataEndTime;
@@ -97,6 +104,8 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
 
     this.forwardConstrainedTransfers = transitLayer.getForwardConstrainedTransfers();
     this.reverseConstrainedTransfers = transitLayer.getReverseConstrainedTransfers();
+    this.tripBasedTransfers =
+      tripBasedTransfersCoveringAll(transitLayer.getTripBasedTransfers(), tripPatterns);
 
     var mcCostParams = McCostParamsMapper.map(routingContext.opt, patternIndex);
 
@@ -153,6 +162,12 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
     return transitLayer.getStopCount();
   }
 
+  @Nullable
+  @Override
+  public RaptorTripBasedTransfers tripBasedTransfers() {
+    return tripBasedTransfers;
+  }
+
   @Override
   public CostCalculator<TripSchedule> multiCriteriaCostCalculator() {
     return generalizedCostCalculator;
@@ -229,4 +244,24 @@ public class RaptorRoutingRequestTransitData implements RaptorTransitDataProvide
   public ZonedDateTime getStartOfTime() {
     return transitSearchTimeZero;
   }
+
+  /**
+   * The Trip-Based search can only be used if the transfers are generated for all patterns in the
+   * request, if not the search falls back to Range Raptor.
+   */
+  @Nullable
+  private static TripBasedTransferIndex tripBasedTransfersCoveringAll(
+    @Nullable TripBasedTransferIndex transfers,
+    List<TripPatternForDates> tripPatterns
+  ) {
+    if (transfers == null) {
+      return null;
+    }
+    for (TripPatternForDates tripPattern : tripPatterns) {
+      if (!transfers.covers(tripPattern.getTripPattern().patternIndex())) {
+        return null;
+      }
+    }
+    return transfers;
+  }
 }
@@ -10,12 +10,15 @@ import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.StopMajorTripTimes;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.StopMajorTripTimesCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
 import org.opentripplanner.transit.model.network.RoutingTripPattern;
@@ -93,6 +96,25 @@ class RaptorRoutingRequestTransitDataCreator {
     ZonedDateTime transitSearchTimeZero,
     List<TripPatternForDate> patternForDateList,
     TransitDataProviderFilter filter
+  ) {
+    return merge(transitSearchTimeZero, patternForDateList, filter, Map.of(), null);
+  }
+
+  /**
+   * Same as {@link #merge(ZonedDateTime, List, TransitDataProviderFilter)}, but with the allowed
+   * trips for each TripPatternForDate. TripPatternForDates not in the {@code allowedTrips} map
+   * allow all trips. The masks are combined into one mask over the trips of each merged pattern.
+   * <p>
+   * The stop-major trip times of each merged pattern are taken from the given cache, and created
+   * for this request only if the cache is {@code null}. Frequency based patterns are filtered for
+   * each request, so their times are never cached.
+   */
+  static List<TripPatternForDates> merge(
+    ZonedDateTime transitSearchTimeZero,
+    List<TripPatternForDate> patternForDateList,
+    TransitDataProviderFilter filter,
+    Map<TripPatternForDate, BitSet> allowedTrips,
+    @Nullable StopMajorTripTimesCache stopMajorTripTimesCache
   ) {
     // Group TripPatternForDate objects by TripPattern.
     // This is done in a loop to increase performance.
@@ -130,14 +152,21 @@ class RaptorRoutingRequestTransitDataCreator {
 
       // Combine TripPatternForDate objects
       final RoutingTripPattern tripPattern = patternEntry.getKey();
+      final int[] offsetArray = offsets.toArray();
+      final StopMajorTripTimes times = stopMajorTripTimesCache == null ||
+        patternsSorted.stream().anyMatch(TripPatternForDate::hasFrequencies)
+        ? new StopMajorTripTimes(patternsSorted, offsetArray)
+        : stopMajorTripTimesCache.get(patternsSorted, offsetArray);
 
       combinedList.add(
         new TripPatternForDates(
           tripPattern,
           patternsSorted,
-          offsets,
+          offsetArray,
+          times,
           filter.filterAvailableStops(tripPattern, tripPattern.getBoardingPossible()),
-          filter.filterAvailableStops(tripPattern, tripPattern.getAlightingPossible())
+          filter.filterAvailableStops(tripPattern, tripPattern.getAlightingPossible()),
+          mergeAllowedTrips(patternsSorted, allowedTrips)
         )
       );
     }
@@ -150,47 +179,114 @@ class RaptorRoutingRequestTransitDataCreator {
     int additionalFutureSearchDays,
     TransitDataProviderFilter filter
   ) {
+    Map<TripPatternForDate, BitSet> allowedTrips = new IdentityHashMap<>();
     List<TripPatternForDate> tripPatternForDates = getTripPatternsForDateRange(
       additionalPastSearchDays,
       additionalFutureSearchDays,
-      filter
+      filter,
+      allowedTrips
     );
 
-    return merge(transitSearchTimeZero, tripPatternForDates, filter);
+    return merge(
+      transitSearchTimeZero,
+      tripPatternForDates,
+      filter,
+      allowedTrips,
+      transitLayer.getStopMajorTripTimesCache()
+    );
+  }
+
+  /**
+   * Combine the allowed trips of each TripPatternForDate into one bitset over the trips of the
+   * merged pattern, in the same order as the trips are added in {@link TripPatternForDates}.
+   *
+   * @return {@code null} if all trips are allowed
+   */
+  private static BitSet mergeAllowedTrips(
+    List<TripPatternForDate> patternsSorted,
+    Map<TripPatternForDate, BitSet> allowedTrips
+  ) {
+    BitSet result = null;
+    int offset = 0;
+    for (TripPatternForDate patternForDate : patternsSorted) {
+      int nTrips = patternForDate.numberOfTripSchedules();
+      BitSet allowed = allowedTrips.get(patternForDate);
+
+      if (allowed != null) {
+        if (result == null) {
+          result = new BitSet();
+          result.set(0, offset);
+        }
+        for (int i = allowed.nextSetBit(0); i >= 0; i = allowed.nextSetBit(i + 1)) {
+          result.set(offset + i);
+        }
+      } else if (result != null) {
+        result.set(offset, offset + nTrips);
+      }
+      offset += nTrips;
+    }
+    return result;
   }
 
-  private static List<TripPatternForDate> filterActiveTripPatterns(
+  /**
+   * On the first search day we want to add both TripPatternsForDate objects that start that day
+   * and any previous day, while on subsequent search days we only want to add the
+   * TripPatternForDate objects that start on that particular day. This is to prevent duplicates.
+   * <p>
+   * The trips of regular patterns are not copied, instead the allowed trips are added to the
+   * {@code allowedTrips} map if some trips are filtered away. Frequency based patterns are copied
+   * with the filtered trips, since the frequency trip search does not use the trip masks.
+   */
+  private static void filterActiveTripPatterns(
     TransitLayer transitLayer,
     LocalDate date,
     boolean firstDay,
-    TransitDataProviderFilter filter
+    TransitDataProviderFilter filter,
+    List<TripPatternForDate> result,
+    Map<TripPatternForDate, BitSet> allowedTrips
   ) {
-    // On the first search day we want to add both TripPatternsForDate objects that start that day
-    // and any previous day, while on subsequent search days we only want to add the
-    // TripPatternForDate objects that start on that particular day. This is to prevent duplicates.
-
-    return transitLayer
-      .getTripPatternsForDate(date)
-      .stream()
-      .filter(filter::tripPatternPredicate)
-      .filter(p -> firstDay || p.getStartOfRunningPeriod().toLocalDate().equals(date))
-      .map(p -> p.newWithFilteredTripTimes(filter::tripTimesPredicate))
-      .filter(Objects::nonNull)
-      .collect(Collectors.toList());
+    for (TripPatternForDate p : transitLayer.getTripPatternsForDate(date)) {
+      if (!filter.tripPatternPredicate(p)) {
+        continue;
+      }
+      if (!firstDay && !p.getStartOfRunningPeriod().toLocalDate().equals(date)) {
+        continue;
+      }
+      if (p.hasFrequencies()) {
+        var filtered = p.newWithFilteredTripTimes(filter::tripTimesPredicate);
+        if (filtered != null) {
+          result.add(filtered);
+        }
+        continue;
+      }
+      BitSet allowed = filter.filterTrips(p);
+      if (allowed == null) {
+        result.add(p);
+      } else if (!allowed.isEmpty()) {
+        result.add(p);
+        allowedTrips.put(p, allowed);
+      }
+    }
   }
 
   private List<TripPatternForDate> getTripPatternsForDateRange(
     int additionalPastSearchDays,
     int additionalFutureSearchDays,
-    TransitDataProviderFilter filter
+    TransitDataProviderFilter filter,
+    Map<TripPatternForDate, BitSet> allowedTrips
   ) {
     List<TripPatternForDate> tripPatternForDates = new ArrayList<>();
     long start = System.currentTimeMillis();
 
     // This filters trips by the search date as well as additional dates before and after
     for (int d = -additionalPastSearchDays; d <= additionalFutureSearchDays; ++d) {
-      tripPatternForDates.addAll(
-        filterActiveTripPatterns(transitLayer, departureDate.plusDays(d), d == 0, filter)
+      filterActiveTripPatterns(
+        transitLayer,
+        departureDate.plusDays(d),
+        d == 0,
+        filter,
+        tripPatternForDates,
+        allowedTrips
       );
     }
 
@@ -110,6 +110,40 @@ public class RoutingRequestTransitDataProviderFilter implements TransitDataProvi
     return true;
   }
 
+  /**
+   * Combine the precomputed {@link TripPatternForDate#getTripFilterMasks()}, and then remove the
+   * banned trips. This gives the same result as {@link #tripTimesPredicate(TripTimes)}.
+   */
+  @Override
+  public BitSet filterTrips(TripPatternForDate tripPatternForDate) {
+    boolean requireAccessibleTrips =
+      wheelchairAccessibility.enabled() && wheelchairAccessibility.trip().onlyConsiderAccessible();
+
+    BitSet allowed = tripPatternForDate
+      .getTripFilterMasks()
+      .allowedTrips(
+        requireAccessibleTrips,
+        requireBikesAllowed,
+        !includePlannedCancellations,
+        transitModeFilter
+      );
+
+    if (bannedTrips.isEmpty()) {
+      return allowed;
+    }
+    int nTrips = tripPatternForDate.numberOfTripSchedules();
+    for (int i = 0; i < nTrips; ++i) {
+      if (bannedTrips.contains(tripPatternForDate.getTripTimes(i).getTrip().getId())) {
+        if (allowed == null) {
+          allowed = new BitSet(nTrips);
+          allowed.set(0, nTrips);
+        }
+        allowed.clear(i);
+      }
+    }
+    return allowed;
+  }
+
   @Override
   public BitSet filterAvailableStops(RoutingTripPattern tripPattern, BitSet boardingPossible) {
     // if the user wants wheelchair-accessible routes and the configuration requires us to only
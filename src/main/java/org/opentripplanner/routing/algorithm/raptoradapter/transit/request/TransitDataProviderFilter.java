@@ -1,6 +1,7 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import java.util.BitSet;
+import javax.annotation.Nullable;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
 import org.opentripplanner.transit.model.network.RoutingTripPattern;
 import org.opentripplanner.transit.model.timetable.TripTimes;
@@ -20,6 +21,25 @@ public interface TransitDataProviderFilter {
 
   boolean tripTimesPredicate(TripTimes tripTimes);
 
+  /**
+   * Find the trips in the given trip pattern for date allowed by this filter, without copying it.
+   * The default implementation tests each trip with {@link #tripTimesPredicate(TripTimes)}.
+   *
+   * @return a bitset over the trip indexes of the trip pattern for date with the allowed trips, or
+   * {@code null} if all trips are allowed.
+   */
+  @Nullable
+  default BitSet filterTrips(TripPatternForDate tripPatternForDate) {
+    int nTrips = tripPatternForDate.numberOfTripSchedules();
+    BitSet allowed = new BitSet(nTrips);
+    for (int i = 0; i < nTrips; ++i) {
+      if (tripTimesPredicate(tripPatternForDate.getTripTimes(i))) {
+        allowed.set(i);
+      }
+    }
+    return allowed.cardinality() == nTrips ? null : allowed;
+  }
+
   /**
    * Check if boarding/alighting is possible at each stop. If the values differ from the default
    * input values, create a clone of the bitset and subtract the unavailable stops.
@@ -4,7 +4,9 @@ import gnu.trove.list.TIntList;
 import java.util.BitSet;
 import java.util.List;
 import java.util.function.IntUnaryOperator;
+import javax.annotation.Nullable;
 import org.opentripplanner.routing.algorithm.raptoradapter.api.DefaultTripPattern;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.StopMajorTripTimes;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.frequency.TripFrequencyAlightSearch;
@@ -43,66 +45,63 @@ public class TripPatternForDates
   private final boolean isFrequencyBased;
 
   /**
-   * The arrival times in a nStops * numberOfTripSchedules sized array. The trips are stored first
-   * by the stop position and then by trip index, so with stops 1 and 2, and trips A and B, the
-   * order is [1A, 1B, 2A, 2B]
+   * The time-shifted, stop-major times of all trips, usually shared with other requests searching
+   * from the same day.
    */
-  private final int[] arrivalTimes;
-
-  /**
-   * The arrival times in a nStops * numberOfTripSchedules sized array. The order is the same as in
-   * arrivalTimes.
-   */
-  private final int[] departureTimes;
-
-  private final WheelchairAccessibility[] wheelchairBoardings;
+  private final StopMajorTripTimes stopMajorTripTimes;
 
   // bit arrays with boarding/alighting information for all stops on trip pattern,
   // potentially filtered by wheelchair accessibility
   private final BitSet boardingPossible;
   private final BitSet alightingPossible;
 
+  /**
+   * The trips allowed by the request filter, or {@code null} if all trips are allowed. Indexed
+   * by the trip index in this timetable.
+   */
+  @Nullable
+  private final BitSet allowedTrips;
+
   TripPatternForDates(
     RoutingTripPattern tripPattern,
     List<TripPatternForDate> tripPatternForDates,
     TIntList offsets,
     BitSet boardingPossible,
     BitSet alightningPossible
+  ) {
+    this(
+      tripPattern,
+      tripPatternForDates,
+      offsets.toArray(),
+      new StopMajorTripTimes(tripPatternForDates, offsets.toArray()),
+      boardingPossible,
+      alightningPossible,
+      null
+    );
+  }
+
+  /**
+   * @param stopMajorTripTimes the times of the given dates, shifted by the given offsets.
+   */
+  TripPatternForDates(
+    RoutingTripPattern tripPattern,
+    List<TripPatternForDate> tripPatternForDates,
+    int[] offsets,
+    StopMajorTripTimes stopMajorTripTimes,
+    BitSet boardingPossible,
+    BitSet alightningPossible,
+    @Nullable BitSet allowedTrips
   ) {
     this.tripPattern = tripPattern;
+    this.allowedTrips = allowedTrips;
     this.tripPatternForDates = tripPatternForDates.toArray(new TripPatternForDate[] {});
-    this.offsets = offsets.toArray();
+    this.offsets = offsets;
+    this.stopMajorTripTimes = stopMajorTripTimes;
     this.boardingPossible = boardingPossible;
     this.alightingPossible = alightningPossible;
-
-    int numberOfTripSchedules = 0;
-    boolean hasFrequencies = false;
-    for (TripPatternForDate tripPatternForDate : this.tripPatternForDates) {
-      numberOfTripSchedules += tripPatternForDate.numberOfTripSchedules();
-      if (tripPatternForDate.hasFrequencies()) {
-        hasFrequencies = true;
-      }
-    }
-    this.numberOfTripSchedules = numberOfTripSchedules;
-    this.isFrequencyBased = hasFrequencies;
-
-    wheelchairBoardings = new WheelchairAccessibility[numberOfTripSchedules];
-
-    final int nStops = tripPattern.numberOfStopsInPattern();
-    this.arrivalTimes = new int[nStops * numberOfTripSchedules];
-    this.departureTimes = new int[nStops * numberOfTripSchedules];
-    int i = 0;
-    for (int d = 0; d < this.tripPatternForDates.length; d++) {
-      int offset = this.offsets[d];
-      for (var trip : this.tripPatternForDates[d].tripTimes()) {
-        wheelchairBoardings[i] = trip.getWheelchairAccessibility();
-        for (int s = 0; s < nStops; s++) {
-          this.arrivalTimes[s * numberOfTripSchedules + i] = trip.getArrivalTime(s) + offset;
-          this.departureTimes[s * numberOfTripSchedules + i] = trip.getDepartureTime(s) + offset;
-        }
-        i++;
-      }
-    }
+    this.numberOfTripSchedules = stopMajorTripTimes.numberOfTrips();
+    this.isFrequencyBased =
+      tripPatternForDates.stream().anyMatch(TripPatternForDate::hasFrequencies);
   }
 
   public RoutingTripPattern getTripPattern() {
@@ -199,24 +198,20 @@ public class TripPatternForDates
 
   @Override
   public IntUnaryOperator getArrivalTimes(int stopPositionInPattern) {
-    final int base = stopPositionInPattern * numberOfTripSchedules;
-    return (int index) -> arrivalTimes[base + index];
+    return stopMajorTripTimes.arrivalTimesAtStop(stopPositionInPattern);
   }
 
   @Override
   public IntUnaryOperator getDepartureTimes(int stopPositionInPattern) {
-    final int base = stopPositionInPattern * numberOfTripSchedules;
-    return (int index) -> departureTimes[base + index];
+    return stopMajorTripTimes.departureTimesAtStop(stopPositionInPattern);
   }
 
   public IntUnaryOperator getArrivalTimesForTrip(int index) {
-    return (int stopPositionInPattern) ->
-      arrivalTimes[stopPositionInPattern * numberOfTripSchedules + index];
+    return stopMajorTripTimes.arrivalTimesForTrip(index);
   }
 
   public IntUnaryOperator getDepartureTimesForTrip(int index) {
-    return (int stopPositionInPattern) ->
-      departureTimes[stopPositionInPattern * numberOfTripSchedules + index];
+    return stopMajorTripTimes.departureTimesForTrip(index);
   }
 
   @Override
@@ -224,6 +219,11 @@ public class TripPatternForDates
     return numberOfTripSchedules;
   }
 
+  @Override
+  public boolean isTripAllowed(int tripIndex) {
+    return allowedTrips == null || allowedTrips.get(tripIndex);
+  }
+
   @Override
   public Route route() {
     return tripPattern.route();
@@ -265,6 +265,8 @@ public class TripPatternForDates
   }
 
   public WheelchairAccessibility wheelchairBoardingForTrip(int index) {
-    return wheelchairBoardings[index];
+    int d = stopMajorTripTimes.dateIndex(index);
+    var tripTimes = tripPatternForDates[d].getTripTimes(stopMajorTripTimes.tripIndexInDate(index));
+    return tripTimes.getWheelchairAccessibility();
   }
 }
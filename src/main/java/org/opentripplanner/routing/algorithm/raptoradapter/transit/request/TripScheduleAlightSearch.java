@@ -155,7 +155,9 @@ public final class TripScheduleAlightSearch<T extends RaptorTripSchedule>
   ) {
     for (int i = tripIndexLowerBound; i < nTrips; ++i) {
       if (arrivalTimes.applyAsInt(i) <= latestAlightTime) {
-        candidateTripIndex = i;
+        if (timetable.isTripAllowed(i)) {
+          candidateTripIndex = i;
+        }
       } else {
         // this trip arrives too late. We can break out of the loop since
         // trips are sorted by departure time (trips in given schedule)
@@ -181,7 +183,7 @@ public final class TripScheduleAlightSearch<T extends RaptorTripSchedule>
     final int tripIndexUpperBound
   ) {
     for (int i = tripIndexUpperBound - 1; i >= 0; --i) {
-      if (arrivalTimes.applyAsInt(i) <= latestAlightTime) {
+      if (arrivalTimes.applyAsInt(i) <= latestAlightTime && timetable.isTripAllowed(i)) {
         candidateTrip = timetable.getTripSchedule(i);
         candidateTripIndex = i;
         return this;
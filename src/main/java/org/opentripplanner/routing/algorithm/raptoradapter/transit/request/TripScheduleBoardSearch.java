@@ -158,7 +158,9 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
   ) {
     for (int i = tripIndexUpperBound - 1; i >= 0; --i) {
       if (departureTimes.applyAsInt(i) >= earliestBoardTime) {
-        candidateTripIndex = i;
+        if (timetable.isTripAllowed(i)) {
+          candidateTripIndex = i;
+        }
       } else {
         // this trip arrives too early. We can break out of the loop since
         // trips are sorted by departure time (trips in given schedule)
@@ -184,7 +186,7 @@ public final class TripScheduleBoardSearch<T extends RaptorTripSchedule>
     final int tripIndexLowerBound
   ) {
     for (int i = tripIndexLowerBound; i < nTrips; ++i) {
-      if (departureTimes.applyAsInt(i) >= earliestBoardTime) {
+      if (departureTimes.applyAsInt(i) >= earliestBoardTime && timetable.isTripAllowed(i)) {
         candidateTrip = timetable.getTripSchedule(i);
         candidateTripIndex = i;
         return this;
@@ -103,6 +103,28 @@ public final class TripScheduleWithOffset implements TripSchedule {
     return secondsOffset;
   }
 
+  /**
+   * A new instance is created each time a trip is read from the pattern, two instances are equal
+   * if they represent the same trip on the same service day. The trip index is an index into the
+   * trips of all service days of the pattern.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TripScheduleWithOffset that = (TripScheduleWithOffset) o;
+    return pattern == that.pattern && tripIndexForDates == that.tripIndexForDates;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * pattern.patternIndex() + tripIndexForDates;
+  }
+
   @Override
   public String toString() {
     return ToStringBuilder
@@ -26,4 +26,12 @@ public interface TripSearchTimetable<T extends RaptorTripSchedule> extends Rapto
    * seconds from midnight on the search date.
    */
   IntUnaryOperator getDepartureTimes(int stopPositionInPattern);
+
+  /**
+   * Return {@code false} if the trip is filtered away by the request, and the search should skip
+   * it. The timetable is shared between requests, so filtered trips are not removed from it.
+   */
+  default boolean isTripAllowed(int tripIndex) {
+    return true;
+  }
 }
@@ -0,0 +1,36 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased;
+
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripBasedTransfers;
+
+/**
+ * The reduced transfers for the Trip-Based search, by pattern index and stop position in pattern.
+ * The index is immutable, it is created by the {@link TripBasedTransferIndexGenerator} and shared
+ * by all requests.
+ * <p>
+ * The index only covers the patterns it was generated for. Patterns added later, by the realtime
+ * updaters, are not covered before the index is generated again.
+ */
+public final class TripBasedTransferIndex implements RaptorTripBasedTransfers {
+
+  private static final int[] EMPTY = new int[0];
+
+  /** The transfers by pattern index and stop position, {@code null} if not covered. */
+  private final int[][][] transfers;
+
+  TripBasedTransferIndex(int[][][] transfers) {
+    this.transfers = transfers;
+  }
+
+  /**
+   * Return {@code true} if the transfers from the pattern with the given index are included.
+   */
+  public boolean covers(int patternIndex) {
+    return patternIndex < transfers.length && transfers[patternIndex] != null;
+  }
+
+  @Override
+  public int[] transfersFrom(int routeIndex, int stopPositionInPattern) {
+    int[] result = transfers[routeIndex][stopPositionInPattern];
+    return result == null ? EMPTY : result;
+  }
+}
@@ -0,0 +1,235 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased;
+
+import gnu.trove.list.array.TIntArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripPattern;
+
+/**
+ * Generate the {@link TripBasedTransferIndex} for a set of patterns. For each stop position a
+ * pattern can be alighted at, the generator lists all stop positions of other patterns that can be
+ * boarded at the same stop, or at a stop reached by one of the transfers from the stop.
+ * <p>
+ * The transfers are the same for all requests and all service days, so only the reductions which
+ * hold for all trips, all requests and any slack are done:
+ * <ul>
+ *   <li>The first stop of a pattern is not alighted, and the last stop is not boarded.
+ *   <li>Positions later in the same pattern are left out - staying on board is at least as fast.
+ * </ul>
+ * U-turn transfers are kept. Alighting one stop earlier is only as good if the request allows
+ * boarding and alighting there, and the board and alight slack of the request can make the
+ * u-turn transfer the only way to reach a trip.
+ * <p>
+ * The positions are taken from the boarding and alighting possible in the pattern. A request may
+ * filter some of them away, for example for wheelchair users, the search skips the positions not
+ * allowed for the request. In the same way the transfers include all transfers any request can
+ * use, the search skips the positions not reached with the transfers of the request.
+ * <p>
+ * The set of patterns can be updated, see {@link #update(Collection)}. Only the transfers from
+ * patterns which can reach the boarding positions of the added or removed patterns are generated
+ * again.
+ * <p>
+ * THREAD SAFETY - The generator is not thread-safe, it should be used by one thread at a time. The
+ * generated indexes are immutable.
+ */
+public class TripBasedTransferIndexGenerator {
+
+  /** The stops reached by a transfer from each stop, by stop index. */
+  private final int[][] transferStopsByStop;
+
+  /** The stops with a transfer to each stop, by stop index. */
+  private final int[][] transferSourceStopsByStop;
+
+  /** The pattern and stop position pairs each stop can be boarded at, by stop index. */
+  private final TIntArrayList[] boardPositionsByStop;
+
+  /** The patterns included in the last generated index, by pattern index. */
+  private RaptorTripPattern[] patternsByIndex = new RaptorTripPattern[0];
+
+  /** The transfers of the last generated index. */
+  private int[][][] transfers = new int[0][][];
+
+  /**
+   * @param transferStopsByStop the stops reached by a transfer from each stop, by stop index.
+   */
+  public TripBasedTransferIndexGenerator(int[][] transferStopsByStop) {
+    this.transferStopsByStop = transferStopsByStop;
+    this.transferSourceStopsByStop = reverse(transferStopsByStop);
+    this.boardPositionsByStop = new TIntArrayList[transferStopsByStop.length];
+  }
+
+  /** Create a generator for the given transit layer transfers. */
+  public static TripBasedTransferIndexGenerator of(List<List<Transfer>> transfersByStopIndex) {
+    int[][] transferStopsByStop = new int[transfersByStopIndex.size()][];
+    for (int stop = 0; stop < transferStopsByStop.length; ++stop) {
+      transferStopsByStop[stop] =
+        transfersByStopIndex.get(stop).stream().mapToInt(Transfer::getToStop).toArray();
+    }
+    return new TripBasedTransferIndexGenerator(transferStopsByStop);
+  }
+
+  /**
+   * Generate the index for the given patterns. Patterns included in the previous index, but not in
+   * the given patterns are removed. The transfers from the patterns not affected by the changes are
+   * shared with the previous index.
+   */
+  public TripBasedTransferIndex update(Collection<? extends RaptorTripPattern> patterns) {
+    int size = patterns.stream().mapToInt(RaptorTripPattern::patternIndex).max().orElse(-1) + 1;
+    var newPatternsByIndex = new RaptorTripPattern[size];
+    for (RaptorTripPattern pattern : patterns) {
+      newPatternsByIndex[pattern.patternIndex()] = pattern;
+    }
+
+    // The stops where the boarding positions change
+    var changedStops = new BitSet();
+    for (int i = 0; i < patternsByIndex.length; ++i) {
+      var old = patternsByIndex[i];
+      if (old != null && (i >= size || newPatternsByIndex[i] != old)) {
+        removeBoardPositions(old, changedStops);
+      }
+    }
+    for (RaptorTripPattern pattern : newPatternsByIndex) {
+      if (pattern != null && !isIncluded(pattern)) {
+        addBoardPositions(pattern, changedStops);
+      }
+    }
+
+    // The transfers from a pattern change if it alights at one of these stops
+    var affectedStops = (BitSet) changedStops.clone();
+    changedStops
+      .stream()
+      .flatMap(stop -> Arrays.stream(transferSourceStopsByStop[stop]))
+      .forEach(affectedStops::set);
+
+    var newTransfers = new int[size][][];
+    for (RaptorTripPattern pattern : newPatternsByIndex) {
+      if (pattern == null) {
+        continue;
+      }
+      int index = pattern.patternIndex();
+      if (isIncluded(pattern) && !alightsAtAny(pattern, affectedStops)) {
+        newTransfers[index] = transfers[index];
+      } else {
+        newTransfers[index] = transfersFromPattern(pattern);
+      }
+    }
+
+    this.patternsByIndex = newPatternsByIndex;
+    this.transfers = newTransfers;
+    return new TripBasedTransferIndex(newTransfers);
+  }
+
+  private boolean isIncluded(RaptorTripPattern pattern) {
+    int index = pattern.patternIndex();
+    return index < patternsByIndex.length && patternsByIndex[index] == pattern;
+  }
+
+  private void addBoardPositions(RaptorTripPattern pattern, BitSet changedStops) {
+    // The last stop can not be boarded
+    for (int pos = 0; pos < pattern.numberOfStopsInPattern() - 1; ++pos) {
+      int stop = pattern.stopIndex(pos);
+      if (pattern.boardingPossibleAt(pos) && stop < boardPositionsByStop.length) {
+        if (boardPositionsByStop[stop] == null) {
+          boardPositionsByStop[stop] = new TIntArrayList();
+        }
+        boardPositionsByStop[stop].add(pattern.patternIndex());
+        boardPositionsByStop[stop].add(pos);
+        changedStops.set(stop);
+      }
+    }
+  }
+
+  private void removeBoardPositions(RaptorTripPattern pattern, BitSet changedStops) {
+    for (int pos = 0; pos < pattern.numberOfStopsInPattern(); ++pos) {
+      int stop = pattern.stopIndex(pos);
+      var boardPositions = stop < boardPositionsByStop.length ? boardPositionsByStop[stop] : null;
+      if (boardPositions == null) {
+        continue;
+      }
+      for (int i = boardPositions.size() - 2; i >= 0; i -= 2) {
+        if (boardPositions.getQuick(i) == pattern.patternIndex()) {
+          boardPositions.remove(i, 2);
+          changedStops.set(stop);
+        }
+      }
+    }
+  }
+
+  private static boolean alightsAtAny(RaptorTripPattern pattern, BitSet stops) {
+    for (int pos = 1; pos < pattern.numberOfStopsInPattern(); ++pos) {
+      if (pattern.alightingPossibleAt(pos) && stops.get(pattern.stopIndex(pos))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int[][] transfersFromPattern(RaptorTripPattern pattern) {
+    int[][] transfers = new int[pattern.numberOfStopsInPattern()][];
+    var result = new TIntArrayList();
+
+    // The first stop can not be alighted
+    for (int pos = 1; pos < pattern.numberOfStopsInPattern(); ++pos) {
+      if (!pattern.alightingPossibleAt(pos)) {
+        continue;
+      }
+      int stop = pattern.stopIndex(pos);
+      result.resetQuick();
+
+      addBoardPositions(pattern, pos, stop, result);
+      if (stop < transferStopsByStop.length) {
+        for (int toStop : transferStopsByStop[stop]) {
+          addBoardPositions(pattern, pos, toStop, result);
+        }
+      }
+      if (!result.isEmpty()) {
+        transfers[pos] = result.toArray();
+      }
+    }
+    return transfers;
+  }
+
+  private void addBoardPositions(
+    RaptorTripPattern fromPattern,
+    int fromPos,
+    int toStop,
+    TIntArrayList result
+  ) {
+    if (toStop >= boardPositionsByStop.length || boardPositionsByStop[toStop] == null) {
+      return;
+    }
+    TIntArrayList boardPositions = boardPositionsByStop[toStop];
+
+    for (int i = 0; i < boardPositions.size(); i += 2) {
+      int toPatternIndex = boardPositions.getQuick(i);
+      int toPos = boardPositions.getQuick(i + 1);
+
+      if (toPatternIndex == fromPattern.patternIndex() && toPos >= fromPos) {
+        continue;
+      }
+      result.add(toPatternIndex);
+      result.add(toPos);
+    }
+  }
+
+  private static int[][] reverse(int[][] transferStopsByStop) {
+    var sources = new TIntArrayList[transferStopsByStop.length];
+    for (int stop = 0; stop < transferStopsByStop.length; ++stop) {
+      for (int toStop : transferStopsByStop[stop]) {
+        if (toStop >= sources.length) {
+          continue;
+        }
+        if (sources[toStop] == null) {
+          sources[toStop] = new TIntArrayList();
+        }
+        sources[toStop].add(stop);
+      }
+    }
+    var result = new int[sources.length][];
+    Arrays.setAll(result, i -> sources[i] == null ? new int[0] : sources[i].toArray());
+    return result;
+  }
+}
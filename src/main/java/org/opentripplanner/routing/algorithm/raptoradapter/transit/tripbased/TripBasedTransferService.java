@@ -0,0 +1,130 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.util.time.DurationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generate the {@link TripBasedTransferIndex} in the background, and keep the latest generated
+ * index. The service is shared by the scheduled and the realtime transit layer, in the same way as
+ * the transfer cache. Until the first index is generated, and for requests using patterns added
+ * after the last index was generated, the search falls back to Range Raptor.
+ * <p>
+ * The index covers the scheduled patterns and the patterns of the latest realtime transit layer.
+ * Patterns created by the realtime updaters are removed from the index when they are no longer in
+ * the realtime transit layer. The realtime updates are collected for {@link #UPDATE_DELAY} before
+ * the index is updated, and only the transfers affected by the changed patterns are generated
+ * again, see {@link TripBasedTransferIndexGenerator}.
+ * <p>
+ * THREAD SAFETY - The patterns can be updated from any thread, the index is generated on a single
+ * background thread.
+ */
+public class TripBasedTransferService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TripBasedTransferService.class);
+
+  private static final Duration UPDATE_DELAY = Duration.ofSeconds(30);
+
+  private final Collection<RoutingTripPattern> scheduledPatterns;
+
+  /** Only used by the executor thread. */
+  private final TripBasedTransferIndexGenerator generator;
+
+  /** The realtime patterns not yet included in the index, {@code null} if none are pending. */
+  private final AtomicReference<Supplier<Collection<RoutingTripPattern>>> pendingRealtimePatterns =
+    new AtomicReference<>();
+
+  private final ScheduledExecutorService executor;
+
+  @Nullable
+  private volatile TripBasedTransferIndex index = null;
+
+  /**
+   * Create the service, and start generating the index for the scheduled patterns.
+   */
+  public TripBasedTransferService(
+    List<List<Transfer>> transfersByStopIndex,
+    Collection<RoutingTripPattern> scheduledPatterns
+  ) {
+    this.scheduledPatterns = List.copyOf(scheduledPatterns);
+    this.generator = TripBasedTransferIndexGenerator.of(transfersByStopIndex);
+    this.executor =
+      Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("TripBasedTransfers-%d").setDaemon(true).build()
+      );
+    executor.execute(() -> generate(this.scheduledPatterns));
+  }
+
+  /**
+   * The latest generated index, or {@code null} if the first index is not generated yet.
+   */
+  @Nullable
+  public TripBasedTransferIndex index() {
+    return index;
+  }
+
+  /**
+   * Update the index in the background with the patterns of a new realtime transit layer. The
+   * patterns are read when the index is updated, and replace the realtime patterns of the previous
+   * update. If several updates arrive before the index is updated, only the last one is used.
+   */
+  public void updateRealtimePatterns(Supplier<Collection<RoutingTripPattern>> realtimePatterns) {
+    if (pendingRealtimePatterns.getAndSet(realtimePatterns) != null) {
+      // An update is already scheduled, it will use these patterns
+      return;
+    }
+    try {
+      executor.schedule(this::generateRealtime, UPDATE_DELAY.toSeconds(), TimeUnit.SECONDS);
+    } catch (RejectedExecutionException e) {
+      LOG.debug("The Trip-Based transfers are not updated, the service is shut down.");
+    }
+  }
+
+  /**
+   * Stop generating the index. The last generated index is still available.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void generateRealtime() {
+    var realtimePatterns = pendingRealtimePatterns.getAndSet(null);
+    if (realtimePatterns == null) {
+      return;
+    }
+    Set<RoutingTripPattern> patterns = Collections.newSetFromMap(new IdentityHashMap<>());
+    patterns.addAll(scheduledPatterns);
+    patterns.addAll(realtimePatterns.get());
+    generate(patterns);
+  }
+
+  private void generate(Collection<RoutingTripPattern> patterns) {
+    try {
+      long startTime = System.currentTimeMillis();
+      index = generator.update(patterns);
+      LOG.info(
+        "Trip-based transfers generated for {} patterns in {}.",
+        patterns.size(),
+        DurationUtils.msToSecondsStr(System.currentTimeMillis() - startTime)
+      );
+    } catch (RuntimeException e) {
+      LOG.error("Failed to generate the trip-based transfers: " + e.getMessage(), e);
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.opentripplanner.routing.algorithm.transferoptimization;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.opentripplanner.routing.algorithm.raptoradapter.path.PathDiff;
 import org.opentripplanner.routing.algorithm.transferoptimization.api.OptimizedPath;
 import org.opentripplanner.routing.algorithm.transferoptimization.model.MinSafeTransferTimeCalculator;
@@ -15,6 +16,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Optimize the transfers for each path. The paths are independent of each other, so they are
+ * optimized in parallel if enabled. The result keeps the order of the paths.
+ *
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
 public class OptimizeTransferService<T extends RaptorTripSchedule> {
@@ -25,21 +29,25 @@ public class OptimizeTransferService<T extends RaptorTripSchedule> {
   private final OptimizePathDomainService<T> optimizePathDomainService;
   private final MinSafeTransferTimeCalculator<T> minSafeTransferTimeCalculator;
   private final TransferWaitTimeCostCalculator transferWaitTimeCostCalculator;
+  private final boolean runInParallel;
 
   public OptimizeTransferService(
     OptimizePathDomainService<T> optimizePathDomainService,
     MinSafeTransferTimeCalculator<T> minSafeTransferTimeCalculator,
-    TransferWaitTimeCostCalculator transferWaitTimeCostCalculator
+    TransferWaitTimeCostCalculator transferWaitTimeCostCalculator,
+    boolean runInParallel
   ) {
     this.optimizePathDomainService = optimizePathDomainService;
     this.minSafeTransferTimeCalculator = minSafeTransferTimeCalculator;
     this.transferWaitTimeCostCalculator = transferWaitTimeCostCalculator;
+    this.runInParallel = runInParallel;
   }
 
-  public OptimizeTransferService(OptimizePathDomainService<T> optimizePathDomainService) {
-    this.optimizePathDomainService = optimizePathDomainService;
-    this.minSafeTransferTimeCalculator = null;
-    this.transferWaitTimeCostCalculator = null;
+  public OptimizeTransferService(
+    OptimizePathDomainService<T> optimizePathDomainService,
+    boolean runInParallel
+  ) {
+    this(optimizePathDomainService, null, null, runInParallel);
   }
 
   public List<Path<T>> optimize(Collection<Path<T>> paths) {
@@ -47,10 +55,20 @@ public class OptimizeTransferService<T extends RaptorTripSchedule> {
 
     long start = LOG.isDebugEnabled() ? System.currentTimeMillis() : 0;
 
-    List<Path<T>> results = new ArrayList<>();
+    List<Path<T>> results;
 
-    for (Path<T> path : paths) {
-      results.addAll(optimize(path));
+    if (runInParallel && paths.size() > 1) {
+      results =
+        paths
+          .parallelStream()
+          .map(this::optimize)
+          .flatMap(Collection::stream)
+          .collect(Collectors.toList());
+    } else {
+      results = new ArrayList<>();
+      for (Path<T> path : paths) {
+        results.addAll(optimize(path));
+      }
     }
 
     if (LOG.isDebugEnabled()) {
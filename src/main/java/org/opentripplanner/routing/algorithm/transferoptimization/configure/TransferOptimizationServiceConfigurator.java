@@ -96,7 +96,8 @@ public class TransferOptimizationServiceConfigurator<T extends RaptorTripSchedul
       return new OptimizeTransferService<>(
         transfersPermutationService,
         createMinSafeTxTimeService(),
-        transferWaitTimeCalculator
+        transferWaitTimeCalculator,
+        raptorRequest.runInParallel()
       );
     } else {
       var transfersPermutationService = createOptimizePathService(
@@ -105,7 +106,10 @@ public class TransferOptimizationServiceConfigurator<T extends RaptorTripSchedul
         null,
         transitDataProvider.multiCriteriaCostCalculator()
       );
-      return new OptimizeTransferService<>(transfersPermutationService);
+      return new OptimizeTransferService<>(
+        transfersPermutationService,
+        raptorRequest.runInParallel()
+      );
     }
   }
 
@@ -1,5 +1,7 @@
 package org.opentripplanner.routing.algorithm.transferoptimization.services;
 
+import static java.util.stream.Collectors.toSet;
+
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
@@ -49,7 +51,8 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
  *   A ~ L1 ~ D ~ L2 ~ F ~ L3 ~ G
  *
  * However the implementation filters after finding each sub-path to generate less alternatives.
- * The construction starts from the end (tail) and works its way forward.
+ * The construction starts from the end (tail) and works its way forward. Tails which never can
+ * be selected are dropped as soon as each sub-path is complete.
  *
  * 1. Find transfer between L2 and L3:
  *    1.1 When boarding L2 at D we have 2 options for the next transfer: E and F => E is best
@@ -179,6 +182,7 @@ public class OptimizePathDomainService<T extends RaptorTripSchedule> {
           }
         }
       }
+      tails = removeTailsNeverSelected(tails);
     }
 
     // Filter tails one final time
@@ -192,6 +196,30 @@ public class OptimizePathDomainService<T extends RaptorTripSchedule> {
     return tails;
   }
 
+  /**
+   * Tails with the same latest-possible-boarding-time are always selected together by the {@link
+   * TransitPathLegSelector}, so only the best tails in each group can make it through the filter.
+   * Removing the rest as soon as they are created keeps the number of tails the selector need to
+   * look at, and the number of tails copied in the next round, down.
+   */
+  private Set<OptimizedPathTail<T>> removeTailsNeverSelected(Set<OptimizedPathTail<T>> tails) {
+    if (tails.size() < 2) {
+      return tails;
+    }
+    var groups = tails
+      .stream()
+      .collect(Collectors.groupingBy(OptimizedPathTail::latestPossibleBoardingTime, toSet()));
+
+    if (groups.size() == tails.size()) {
+      return tails;
+    }
+    Set<OptimizedPathTail<T>> result = new HashSet<>();
+    for (var group : groups.values()) {
+      result.addAll(minCostFilterChain.filter(group));
+    }
+    return result;
+  }
+
   /**
    * Insert the access leg and the following transfer. The transfer can only exist if the access has
    * rides (is FLEX).
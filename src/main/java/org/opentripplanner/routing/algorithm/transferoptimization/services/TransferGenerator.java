@@ -5,6 +5,8 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.opentripplanner.model.transfer.ConstrainedTransfer;
@@ -29,6 +31,10 @@ import org.opentripplanner.transit.raptor.api.transit.SearchDirection;
  * <p>
  * This service does NOT combine transfers between various trips to form full paths. There are
  * potentially millions of permutations, so we do that later when we can prune the result.
+ * <p>
+ * The paths returned by Raptor often share the same pair of trips, so the transfers found
+ * between two trips are cached. The generator has request scope, so the cache is dropped
+ * with it. The generator is thread-safe, paths may be optimized in parallel.
  *
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
@@ -40,8 +46,8 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
   private final RaptorSlackProvider slackProvider;
   private final RaptorTransitDataProvider<T> stdTransfers;
 
-  private T fromTrip;
-  private T toTrip;
+  private final Map<TransfersKey<T>, List<TripToTripTransfer<T>>> transfersCache =
+    new ConcurrentHashMap<>();
 
   public TransferGenerator(
     TransferServiceAdaptor<T> transferServiceAdaptor,
@@ -87,11 +93,15 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
     StopTime fromTripDeparture,
     T toTrip
   ) {
-    this.fromTrip = fromTrip;
-    this.toTrip = toTrip;
-
     int firstStopPos = firstPossibleArrivalStopPos(fromTrip, fromTripDeparture);
-    return findAllTransfers(firstStopPos);
+    var key = new TransfersKey<>(fromTrip, firstStopPos, toTrip);
+
+    var transfers = transfersCache.get(key);
+    if (transfers == null) {
+      transfers = List.copyOf(findAllTransfers(fromTrip, firstStopPos, toTrip));
+      transfersCache.put(key, transfers);
+    }
+    return transfers;
   }
 
   /** Given the trip and departure, find the first possible stop position to alight. */
@@ -99,7 +109,7 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
     return 1 + trip.findDepartureStopPosition(departure.time(), departure.stop());
   }
 
-  private List<TripToTripTransfer<T>> findAllTransfers(int stopPos) {
+  private List<TripToTripTransfer<T>> findAllTransfers(T fromTrip, int stopPos, T toTrip) {
     final List<TripToTripTransfer<T>> result = new ArrayList<>();
 
     while (stopPos < fromTrip.pattern().numberOfStopsInPattern()) {
@@ -108,8 +118,8 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
         var from = TripStopTime.arrival(fromTrip, stopPos);
 
         // First add high priority transfers
-        result.addAll(transferFromSameStop(from));
-        result.addAll(findStandardTransfers(from));
+        result.addAll(transferFromSameStop(from, toTrip));
+        result.addAll(findStandardTransfers(from, toTrip));
       }
 
       ++stopPos;
@@ -120,7 +130,10 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
   /**
    * Find potential transfers where traveller does not have to "walk" between stops
    */
-  private Collection<TripToTripTransfer<T>> transferFromSameStop(TripStopTime<T> from) {
+  private Collection<TripToTripTransfer<T>> transferFromSameStop(
+    TripStopTime<T> from,
+    T toTrip
+  ) {
     var result = new ArrayList<TripToTripTransfer<T>>();
 
     final int stop = from.stop();
@@ -133,14 +146,19 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
       // Find transfer constraint for stop position
       var tx = transferServiceAdaptor.findTransfer(from, toTrip, stop, stopPos);
 
-      if (!isAllowedTransfer(stopPos, tx)) {
+      if (!isAllowedTransfer(toTrip, stopPos, tx)) {
         continue;
       }
 
       // Check whether traveller will have enough time to do the transfer
       // We have to do it here because every stop position may have unique transfer constraint
       // So it may be possible to transfer at stop position 2 but not on 1...
-      final int earliestBoardTime = calculateEarliestBoardTime(from, tx, SAME_STOP_TRANSFER_TIME);
+      final int earliestBoardTime = calculateEarliestBoardTime(
+        from,
+        toTrip,
+        tx,
+        SAME_STOP_TRANSFER_TIME
+      );
 
       if (earliestBoardTime > toTrip.departure(stopPos)) {
         continue;
@@ -156,7 +174,10 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
   /**
    * Find potential transfers where traveller has to "walk" between stops
    */
-  private Collection<? extends TripToTripTransfer<T>> findStandardTransfers(TripStopTime<T> from) {
+  private Collection<? extends TripToTripTransfer<T>> findStandardTransfers(
+    TripStopTime<T> from,
+    T toTrip
+  ) {
     final List<TripToTripTransfer<T>> result = new ArrayList<>();
     Iterator<? extends RaptorTransfer> transfers = stdTransfers.getTransfersFromStop(from.stop());
 
@@ -172,14 +193,19 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
         // Find transfer constraint for stop position
         var tx = transferServiceAdaptor.findTransfer(from, toTrip, toStop, stopPos);
 
-        if (!isAllowedTransfer(stopPos, tx)) {
+        if (!isAllowedTransfer(toTrip, stopPos, tx)) {
           continue;
         }
 
         // Check whether traveller will have enough time to do the transfer
         // We have to do it here because every stopPos may have unique transfer constraint
         // So it may be possible to transfer at stop position 2 but not on 1 etc...
-        int earliestBoardTime = calculateEarliestBoardTime(from, tx, it.durationInSeconds());
+        int earliestBoardTime = calculateEarliestBoardTime(
+          from,
+          toTrip,
+          tx,
+          it.durationInSeconds()
+        );
 
         if (earliestBoardTime > toTrip.departure(stopPos)) {
           continue;
@@ -201,11 +227,12 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
    */
   private int calculateEarliestBoardTime(
     TripStopTime<T> from,
+    T toTrip,
     @Nullable ConstrainedTransfer tx,
     int regularTransferDurationInSec
   ) {
     if (tx == null) {
-      return calcRegularTransferEarliestBoardTime(from, regularTransferDurationInSec);
+      return calcRegularTransferEarliestBoardTime(from, toTrip, regularTransferDurationInSec);
     }
 
     return tx
@@ -213,18 +240,19 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
       .calculateTransferTargetTime(
         from.time(),
         slackProvider.transferSlack(),
-        () -> calcRegularTransferEarliestBoardTime(from, regularTransferDurationInSec),
+        () -> calcRegularTransferEarliestBoardTime(from, toTrip, regularTransferDurationInSec),
         SearchDirection.FORWARD
       );
   }
 
   private int calcRegularTransferEarliestBoardTime(
     TripStopTime<T> from,
+    T toTrip,
     int transferDurationInSeconds
   ) {
     int transferDuration = slackProvider.calcRegularTransferDuration(
       transferDurationInSeconds,
-      fromTrip.pattern().slackIndex(),
+      from.trip().pattern().slackIndex(),
       toTrip.pattern().slackIndex()
     );
     return from.time() + transferDuration;
@@ -270,7 +298,7 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
    * @param tx optional transfer constraint
    * @return whether this transfer is possible
    */
-  private boolean isAllowedTransfer(int stopPosition, ConstrainedTransfer tx) {
+  private boolean isAllowedTransfer(T toTrip, int stopPosition, ConstrainedTransfer tx) {
     // Check in trip pattern whether boarding is possible
     if (!toTrip.pattern().boardingPossibleAt(stopPosition)) {
       return false;
@@ -281,4 +309,11 @@ public class TransferGenerator<T extends RaptorTripSchedule> {
     }
     return !tx.getTransferConstraint().isNotAllowed();
   }
+
+  /**
+   * The transfers between two trips only depend on the trips and the first possible stop position
+   * to alight the from-trip. The trip schedules are often created for each path, so they must be
+   * compared by value, see {@code TripScheduleWithOffset#equals(Object)}.
+   */
+  private record TransfersKey<T>(T fromTrip, int firstStopPos, T toTrip) {}
 }
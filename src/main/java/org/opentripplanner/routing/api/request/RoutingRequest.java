@@ -1299,6 +1299,22 @@ public class RoutingRequest implements Cloneable, Serializable {
     return maxDirectStreetDurationForMode.getOrDefault(mode, maxDirectStreetDuration);
   }
 
+  public Set<FeedScopedId> getBannedAgencies() {
+    return bannedAgencies;
+  }
+
+  public Set<FeedScopedId> getWhiteListedAgencies() {
+    return whiteListedAgencies;
+  }
+
+  public RouteMatcher getBannedRouteMatcher() {
+    return bannedRoutes;
+  }
+
+  public RouteMatcher getWhiteListedRouteMatcher() {
+    return whiteListedRoutes;
+  }
+
   public Set<FeedScopedId> getUnpreferredAgencies() {
     return unpreferredAgencies;
   }
@@ -37,6 +37,10 @@ public class FareRuleSet implements Serializable {
     contains.add(containsId);
   }
 
+  public Set<String> getContains() {
+    return contains;
+  }
+
   public void addRoute(FeedScopedId route) {
     routes.add(route);
   }
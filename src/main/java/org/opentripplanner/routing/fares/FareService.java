@@ -1,6 +1,8 @@
 package org.opentripplanner.routing.fares;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.routing.core.ItineraryFares;
 
@@ -13,4 +15,17 @@ public interface FareService extends Serializable {
    * @param itinerary the OTP2 Itinerary for which we want to compute a fare
    */
   ItineraryFares getCost(Itinerary itinerary);
+
+  /**
+   * Compute the fares for all itineraries of one request, the fares are returned in the same
+   * order as the itineraries. The fare is {@code null} if {@link #getCost(Itinerary)} returns
+   * {@code null}. Implementations may override this to share work between the itineraries.
+   */
+  default List<ItineraryFares> getCosts(List<Itinerary> itineraries) {
+    List<ItineraryFares> result = new ArrayList<>(itineraries.size());
+    for (Itinerary it : itineraries) {
+      result.add(getCost(it));
+    }
+    return result;
+  }
 }
@@ -8,9 +8,12 @@ import io.micrometer.core.instrument.Timer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.opentripplanner.api.resource.DebugOutput;
+import org.opentripplanner.api.resource.RaptorSearchStatisticsOutput;
 import org.opentripplanner.api.resource.TransitTimingOutput;
 import org.opentripplanner.routing.api.request.RoutingTag;
+import org.opentripplanner.transit.raptor.api.debug.RaptorSearchStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +33,9 @@ public class DebugTimingAggregator {
 
   private final Timer directStreetRouterTimer;
   private final Timer directFlexRouterTimer;
+  private final Timer flexTemplatesTimer;
+  private final Timer flexAccessEgressTimer;
+  private final DistributionSummary numFlexTemplatesDistribution;
 
   private final Timer accessTimer;
   private final Timer egressTimer;
@@ -53,6 +59,10 @@ public class DebugTimingAggregator {
   private long directStreetRouterTime;
   private Timer.Sample startedDirectFlexRouter;
   private long directFlexRouterTime;
+  private long flexTemplatesTime;
+  private long flexAccessEgressTime;
+  private int numFlexTemplates;
+  private int numFlexAccessEgresses;
   private Timer.Sample finishedPatternFiltering;
   private Timer.Sample finishedAccessEgress;
   private Timer.Sample finishedRaptorSearch;
@@ -74,6 +84,7 @@ public class DebugTimingAggregator {
   private long filteringTime;
   private long renderingTime;
   private long requestTotalTime;
+  private List<RaptorSearchStatistics> raptorSearchStatistics = List.of();
 
   /**
    * Record the time when we first began calculating a path for this request. Note that timings will
@@ -105,6 +116,11 @@ public class DebugTimingAggregator {
     egressTimer = Timer.builder("routing.egress").tags(tags).register(registry);
     accessTimer = Timer.builder("routing.access").tags(tags).register(registry);
     directFlexRouterTimer = Timer.builder("routing.directFlex").tags(tags).register(registry);
+    flexTemplatesTimer = Timer.builder("routing.flex.templates").tags(tags).register(registry);
+    flexAccessEgressTimer =
+      Timer.builder("routing.flex.accessEgress").tags(tags).register(registry);
+    numFlexTemplatesDistribution =
+      DistributionSummary.builder("routing.flex.numTemplates").tags(tags).register(registry);
     directStreetRouterTimer = Timer.builder("routing.directStreet").tags(tags).register(registry);
   }
 
@@ -149,6 +165,27 @@ public class DebugTimingAggregator {
     directFlexRouterTime = startedDirectFlexRouter.stop(directFlexRouterTimer);
   }
 
+  /**
+   * Record the time used to create flex templates. This is called once for each flex search, the
+   * flex access, egress and direct searches may run at the same time, so the times are summed.
+   */
+  public synchronized void finishedFlexTemplates(long nanos, int numTemplates) {
+    flexTemplatesTimer.record(nanos, TimeUnit.NANOSECONDS);
+    numFlexTemplatesDistribution.record(numTemplates);
+    flexTemplatesTime += nanos;
+    this.numFlexTemplates += numTemplates;
+  }
+
+  /**
+   * Record the time used to create flex access/egress paths or direct flex itineraries from the
+   * templates, see {@link #finishedFlexTemplates(long, int)}.
+   */
+  public synchronized void finishedFlexAccessEgress(long nanos, int numAccessEgresses) {
+    flexAccessEgressTimer.record(nanos, TimeUnit.NANOSECONDS);
+    flexAccessEgressTime += nanos;
+    this.numFlexAccessEgresses += numAccessEgresses;
+  }
+
   /** Record the time when starting the transit router search. */
   public void startedTransitRouting() {
     startedTransitRouterTime = Timer.start(clock);
@@ -213,6 +250,13 @@ public class DebugTimingAggregator {
     raptorSearchTime = finishedAccessEgress.stop(raptorSearchTimer);
   }
 
+  /**
+   * Record the work done by the Raptor searches, see {@link RaptorSearchStatistics}.
+   */
+  public void raptorSearchStatistics(List<RaptorSearchStatistics> raptorSearchStatistics) {
+    this.raptorSearchStatistics = raptorSearchStatistics;
+  }
+
   /**
    * Record the time when we have created internal itinerary objects from the raptor responses.
    */
@@ -244,6 +288,10 @@ public class DebugTimingAggregator {
     if (directFlexRouterTime > 0) {
       log("├  Direct flex routing", directFlexRouterTime);
     }
+    if (numFlexTemplates > 0) {
+      log("├  Flex templates (" + numFlexTemplates + " templates)", flexTemplatesTime);
+      log("├  Flex paths (" + numFlexAccessEgresses + " paths)", flexAccessEgressTime);
+    }
 
     if (transitRouterTime > 0) {
       log("│┌ Creating raptor data model", tripPatternFilterTime);
@@ -251,6 +299,7 @@ public class DebugTimingAggregator {
       log("│├ Egress routing (" + numEgresses + " egresses)", egressTime);
       log("││ Access/Egress routing", accessEgressTime);
       log("│├ Main routing", raptorSearchTime);
+      raptorSearchStatistics.forEach(it -> messages.add("││ " + it));
       log("│├ Creating itineraries", itineraryCreationTime);
       log("├┴ Transit routing total", transitRouterTime);
     }
@@ -295,7 +344,8 @@ public class DebugTimingAggregator {
         tripPatternFilterTime,
         accessEgressTime,
         raptorSearchTime,
-        itineraryCreationTime
+        itineraryCreationTime,
+        raptorSearchStatistics.stream().map(RaptorSearchStatisticsOutput::new).toList()
       )
     );
   }
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.services.TransitAlertService;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
@@ -141,4 +142,17 @@ public class DelegatingTransitAlertServiceImpl implements TransitAlertService {
       .flatMap(Collection::stream)
       .collect(Collectors.toList());
   }
+
+  @Override
+  public Collection<TransitAlert> getAlertsDisplayedDuring(
+    EntitySelector entity,
+    long startEpochSecond,
+    long endEpochSecond
+  ) {
+    return transitAlertServices
+      .stream()
+      .map(it -> it.getAlertsDisplayedDuring(entity, startEpochSecond, endEpochSecond))
+      .flatMap(Collection::stream)
+      .collect(Collectors.toList());
+  }
 }
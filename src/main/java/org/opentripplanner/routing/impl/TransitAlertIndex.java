@@ -0,0 +1,168 @@
+package org.opentripplanner.routing.impl;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TimePeriod;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+
+/**
+ * An immutable index of transit alerts by {@link EntitySelector}. For each entity the active
+ * periods of the alerts are kept in an interval tree, so the alerts displayed during a given
+ * period are found in {@code O(log n + k)} time, where {@code n} is the number of periods for the
+ * entity and {@code k} is the number of matching periods.
+ * <p>
+ * The index is built once for each set of alerts, and replaced as a whole when the alerts are
+ * updated.
+ */
+final class TransitAlertIndex {
+
+  static final TransitAlertIndex EMPTY = new TransitAlertIndex(List.of());
+
+  private final Multimap<EntitySelector, TransitAlert> alertsByEntity = HashMultimap.create();
+  private final Map<EntitySelector, PeriodTree> periodsByEntity = new HashMap<>();
+  private final Map<String, TransitAlert> alertsById = new HashMap<>();
+  private final Set<TransitAlert> allAlerts = new HashSet<>();
+
+  TransitAlertIndex(Collection<TransitAlert> alerts) {
+    Map<EntitySelector, List<Period>> periods = new HashMap<>();
+
+    for (TransitAlert alert : alerts) {
+      allAlerts.add(alert);
+      if (alert.getId() != null) {
+        alertsById.putIfAbsent(alert.getId(), alert);
+      }
+      for (EntitySelector entity : alert.getEntities()) {
+        if (alertsByEntity.put(entity, alert)) {
+          var list = periods.computeIfAbsent(entity, e -> new ArrayList<>());
+          for (TimePeriod it : alert.getTimePeriods()) {
+            // An end time of 0 is open-ended, see TransitAlert#displayDuring
+            long end = it.endTime == 0 ? TimePeriod.OPEN_ENDED : it.endTime;
+            list.add(new Period(it.startTime, end, alert));
+          }
+        }
+      }
+    }
+    periods.forEach((entity, list) -> periodsByEntity.put(entity, new PeriodTree(list)));
+  }
+
+  Collection<TransitAlert> getAllAlerts() {
+    return Collections.unmodifiableSet(allAlerts);
+  }
+
+  TransitAlert getAlertById(String id) {
+    return alertsById.get(id);
+  }
+
+  /** Return all alerts for the given entity, regardless of the active periods. */
+  Collection<TransitAlert> get(EntitySelector entity) {
+    return Collections.unmodifiableCollection(alertsByEntity.get(entity));
+  }
+
+  /**
+   * Return the alerts for the given entity displayed during the given period, using the same
+   * rules as {@link TransitAlert#displayDuring(long, long)}.
+   */
+  Collection<TransitAlert> getDisplayedDuring(
+    EntitySelector entity,
+    long startEpochSecond,
+    long endEpochSecond
+  ) {
+    PeriodTree tree = periodsByEntity.get(entity);
+    if (tree == null) {
+      return List.of();
+    }
+    Set<TransitAlert> result = new LinkedHashSet<>();
+    tree.findOverlapping(startEpochSecond, endEpochSecond, result);
+    return result;
+  }
+
+  private record Period(long start, long end, TransitAlert alert) {}
+
+  /**
+   * A static, augmented interval tree. The periods are sorted by start time and the tree is
+   * implicit: the root of the subtree {@code [lo, hi)} is the middle element. For each element the
+   * max end time of its subtree is kept, this allows skipping subtrees that end before the period
+   * searched for.
+   */
+  private static final class PeriodTree {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final TransitAlert[] alerts;
+
+    private PeriodTree(List<Period> periods) {
+      periods.sort(Comparator.comparingLong(Period::start));
+      int size = periods.size();
+      this.starts = new long[size];
+      this.ends = new long[size];
+      this.maxEnds = new long[size];
+      this.alerts = new TransitAlert[size];
+
+      for (int i = 0; i < size; ++i) {
+        Period it = periods.get(i);
+        starts[i] = it.start();
+        ends[i] = it.end();
+        alerts[i] = it.alert();
+      }
+      initMaxEnds(0, size);
+    }
+
+    /**
+     * Add the alerts with a period starting at or before the given end time, and ending after
+     * the given start time.
+     */
+    void findOverlapping(long start, long end, Collection<TransitAlert> result) {
+      findOverlapping(0, starts.length, start, end, result);
+    }
+
+    private void findOverlapping(
+      int lo,
+      int hi,
+      long start,
+      long end,
+      Collection<TransitAlert> result
+    ) {
+      if (lo >= hi) {
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+
+      // All periods in this subtree end before the start
+      if (maxEnds[mid] <= start) {
+        return;
+      }
+      findOverlapping(lo, mid, start, end, result);
+
+      // The periods to the right start after this one
+      if (starts[mid] > end) {
+        return;
+      }
+      if (ends[mid] > start) {
+        result.add(alerts[mid]);
+      }
+      findOverlapping(mid + 1, hi, start, end, result);
+    }
+
+    private long initMaxEnds(int lo, int hi) {
+      if (lo >= hi) {
+        return Long.MIN_VALUE;
+      }
+      int mid = (lo + hi) >>> 1;
+      long max = Math.max(ends[mid], Math.max(initMaxEnds(lo, mid), initMaxEnds(mid + 1, hi)));
+      maxEnds[mid] = max;
+      return max;
+    }
+  }
+}
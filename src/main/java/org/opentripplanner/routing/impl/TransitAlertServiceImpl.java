@@ -1,7 +1,5 @@
 package org.opentripplanner.routing.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.HashSet;
@@ -17,12 +15,15 @@ import org.opentripplanner.transit.service.TransitModel;
  * When an alert is added with more than one transit entity, e.g. a Stop and a Trip, both conditions
  * must be met for the alert to be displayed. This is the case in both the Norwegian interpretation
  * of SIRI, and the GTFS-RT alerts specification.
+ * <p>
+ * THREAD SAFETY - The alerts are kept in an immutable {@link TransitAlertIndex}, which is replaced
+ * atomically when the alerts are set. Requests see either the old or the new set of alerts.
  */
 public class TransitAlertServiceImpl implements TransitAlertService {
 
   private final TransitModel transitModel;
 
-  private Multimap<EntitySelector, TransitAlert> alerts = HashMultimap.create();
+  private volatile TransitAlertIndex alerts = TransitAlertIndex.EMPTY;
 
   public TransitAlertServiceImpl(TransitModel transitModel) {
     this.transitModel = transitModel;
@@ -30,29 +31,18 @@ public class TransitAlertServiceImpl implements TransitAlertService {
 
   @Override
   public void setAlerts(Collection<TransitAlert> alerts) {
-    Multimap<EntitySelector, TransitAlert> newAlerts = HashMultimap.create();
-    for (TransitAlert alert : alerts) {
-      for (EntitySelector entity : alert.getEntities()) {
-        newAlerts.put(entity, alert);
-      }
-    }
-
-    this.alerts = newAlerts;
+    this.alerts = new TransitAlertIndex(alerts);
   }
 
   @Override
   public Collection<TransitAlert> getAllAlerts() {
-    return new HashSet<>(alerts.values());
+    // Return a copy, the callers may modify the returned collection
+    return new HashSet<>(alerts.getAllAlerts());
   }
 
   @Override
   public TransitAlert getAlertById(String id) {
-    return alerts
-      .values()
-      .stream()
-      .filter(transitAlert -> transitAlert.getId().equals(id))
-      .findAny()
-      .orElse(null);
+    return alerts.getAlertById(id);
   }
 
   @Override
@@ -126,4 +116,13 @@ public class TransitAlertServiceImpl implements TransitAlertService {
   ) {
     return alerts.get(new EntitySelector.DirectionAndRoute(direction, route));
   }
+
+  @Override
+  public Collection<TransitAlert> getAlertsDisplayedDuring(
+    EntitySelector entity,
+    long startEpochSecond,
+    long endEpochSecond
+  ) {
+    return alerts.getDisplayedDuring(entity, startEpochSecond, endEpochSecond);
+  }
 }
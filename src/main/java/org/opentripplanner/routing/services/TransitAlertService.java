@@ -2,6 +2,7 @@ package org.opentripplanner.routing.services;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.timetable.Direction;
@@ -34,4 +35,15 @@ public interface TransitAlertService {
   Collection<TransitAlert> getRouteTypeAlerts(int routeType, String feedId);
 
   Collection<TransitAlert> getDirectionAndRouteAlerts(Direction direction, FeedScopedId route);
+
+  /**
+   * Return the alerts for the given entity, which are displayed during the given period. This is
+   * the same as filtering the alerts for the entity with
+   * {@link TransitAlert#displayDuring(long, long)}, but the alerts are looked up in an index.
+   */
+  Collection<TransitAlert> getAlertsDisplayedDuring(
+    EntitySelector entity,
+    long startEpochSecond,
+    long endEpochSecond
+  );
 }
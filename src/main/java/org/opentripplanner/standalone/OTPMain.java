@@ -208,6 +208,7 @@ public class OTPMain {
    * Shut down this server when evicted or (auto-)reloaded.
    * <ol>
    *   <li>Stop any real-time updater threads.</li>
+   *   <li>Stop generating the Trip-Based transfers.</li>
    *   <li>Cleanup various stuff of some used libraries (org.geotools), which depend on the
    *   external client to call them for cleaning-up.</li>
    * </ol>
@@ -220,12 +221,20 @@ public class OTPMain {
       LOG.info("OTP shutdown started...");
       UpdaterConfigurator.shutdownGraph(transitModel);
       raptorConfig.shutdown();
+      shutdownTripBasedTransferService(transitModel);
       WeakCollectionCleaner.DEFAULT.exit();
       DeferredAuthorityFactory.exit();
     });
     Runtime.getRuntime().addShutdownHook(hook);
   }
 
+  private static void shutdownTripBasedTransferService(TransitModel transitModel) {
+    var transitLayer = transitModel.getTransitLayer();
+    if (transitLayer != null && transitLayer.getTripBasedTransferService() != null) {
+      transitLayer.getTripBasedTransferService().shutdown();
+    }
+  }
+
   private static void logLocationOfRequestLog(String requestLogFile) {
     if (requestLogFile != null) {
       LOG.info("Logging incoming requests at '{}'", requestLogFile);
@@ -5,6 +5,7 @@ import java.util.Locale;
 import org.opentripplanner.inspector.TileRendererManager;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.algorithm.astar.TraverseVisitor;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.PagingSessionCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.graph.Graph;
@@ -54,6 +55,12 @@ public interface OtpServerRequestContext {
 
   RaptorConfig<TripSchedule> raptorConfig();
 
+  /**
+   * The paging sessions, used to reuse the transit search state when paging. This has APPLICATION
+   * scope, the same cache is shared by all requests.
+   */
+  PagingSessionCache pagingSessionCache();
+
   Graph graph();
 
   @HttpRequestScoped
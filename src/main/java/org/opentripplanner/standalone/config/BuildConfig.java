@@ -322,6 +322,14 @@ public class BuildConfig {
    */
   public boolean blockBasedInterlining;
 
+  /**
+   * The number of GTFS feeds to read, map and generate trip patterns for in parallel. The feeds
+   * are added to the graph one at the time in the configured order, so the result does not depend
+   * on this value. Each feed is kept in memory until it is added to the graph, so the memory used
+   * increases with the parallelism. Default is 1, the feeds are loaded in sequence.
+   */
+  public final int gtfsLoadParallelism;
+
   /**
    * Set all parameters from the given Jackson JSON tree, applying defaults. Supplying
    * MissingNode.getInstance() will cause all the defaults to be applied. This could be done
@@ -347,6 +355,7 @@ public class BuildConfig {
     elevationUnitMultiplier = c.asDouble("elevationUnitMultiplier", 1);
     embedRouterConfig = c.asBoolean("embedRouterConfig", true);
     extraEdgesStopPlatformLink = c.asBoolean("extraEdgesStopPlatformLink", false);
+    gtfsLoadParallelism = c.asInt("gtfsLoadParallelism", 1);
     includeEllipsoidToGeoidDifference = c.asBoolean("includeEllipsoidToGeoidDifference", false);
     pruningThresholdIslandWithStops = c.asInt("islandWithStopsMaxSize", 5);
     pruningThresholdIslandWithoutStops = c.asInt("islandWithoutStopsMaxSize", 40);
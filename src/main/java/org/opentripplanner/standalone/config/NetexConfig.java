@@ -20,6 +20,8 @@ public class NetexConfig {
 
   private static final Set<String> FERRY_IDS_NOT_ALLOWED_FOR_BICYCLE = Collections.emptySet();
 
+  private static final int PARSE_PARALLELISM = 1;
+
   /**
    * This field is used to identify the specific NeTEx feed. It is used instead of the feed_id field
    * in GTFS file feed_info.txt.
@@ -98,6 +100,17 @@ public class NetexConfig {
    */
   public final Set<String> ferryIdsNotAllowedForBicycle;
 
+  /**
+   * The number of <em>group files</em> to parse in parallel. Each group file is parsed into its
+   * own index and mapped in the same order as the files are loaded sequentially, so the result is
+   * the same. Set this to the number of available cores to speed up loading of large NeTEx
+   * feeds. The memory used increases with the parallelism, since up to this number of parsed files
+   * are kept in memory waiting to be mapped. The shared files are always loaded sequentially.
+   * <p>
+   * Default value is <code>1</code>, the group files are parsed in sequence.
+   */
+  public final int parseParallelism;
+
   NetexConfig(NodeAdapter config) {
     ignoreFilePattern = config.asPattern("ignoreFilePattern", IGNORE_FILE_PATTERN);
     sharedFilePattern = config.asPattern("sharedFilePattern", SHARED_FILE_PATTERN);
@@ -106,5 +119,6 @@ public class NetexConfig {
     netexFeedId = config.asText("netexFeedId", NETEX_FEED_ID);
     ferryIdsNotAllowedForBicycle =
       config.asTextSet("ferryIdsNotAllowedForBicycle", FERRY_IDS_NOT_ALLOWED_FOR_BICYCLE);
+    parseParallelism = config.asInt("parseParallelism", PARSE_PARALLELISM);
   }
 }
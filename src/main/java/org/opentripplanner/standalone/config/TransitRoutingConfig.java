@@ -17,8 +17,12 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
   private final int scheduledTripBinarySearchThreshold;
   private final int iterationDepartureStepInSeconds;
   private final int searchThreadPoolSize;
+  private final int workerMemoryPoolSize;
   private final int transferCacheMaxSize;
+  private final boolean enableTripBasedSearch;
   private final List<Duration> pagingSearchWindowAdjustments;
+  private final int pagingSessionCacheMaxSize;
+  private final Duration pagingSessionTimeToLive;
 
   private final Map<StopTransferPriority, Integer> stopTransferCost;
   private final DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients;
@@ -32,6 +36,7 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
     this.iterationDepartureStepInSeconds =
       c.asInt("iterationDepartureStepInSeconds", dft.iterationDepartureStepInSeconds());
     this.searchThreadPoolSize = c.asInt("searchThreadPoolSize", dft.searchThreadPoolSize());
+    this.workerMemoryPoolSize = c.asInt("workerMemoryPoolSize", dft.workerMemoryPoolSize());
     // Dynamic Search Window
     this.stopTransferCost =
       c.asEnumMapAllKeysRequired(
@@ -40,9 +45,13 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
         NodeAdapter::asInt
       );
     this.transferCacheMaxSize = c.asInt("transferCacheMaxSize", 25);
+    this.enableTripBasedSearch = c.asBoolean("enableTripBasedSearch", false);
 
     this.pagingSearchWindowAdjustments =
       c.asDurations("pagingSearchWindowAdjustments", PAGING_SEARCH_WINDOW_ADJUSTMENTS);
+    this.pagingSessionCacheMaxSize = c.asInt("pagingSessionCacheMaxSize", 0);
+    this.pagingSessionTimeToLive =
+      c.asDuration("pagingSessionTimeToLive", PAGING_SESSION_TIME_TO_LIVE);
 
     this.dynamicSearchWindowCoefficients =
       new DynamicSearchWindowConfig(c.path("dynamicSearchWindow"));
@@ -68,6 +77,11 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
     return searchThreadPoolSize;
   }
 
+  @Override
+  public int workerMemoryPoolSize() {
+    return workerMemoryPoolSize;
+  }
+
   @Override
   public DynamicSearchWindowCoefficients dynamicSearchWindowCoefficients() {
     return dynamicSearchWindowCoefficients;
@@ -88,11 +102,26 @@ public final class TransitRoutingConfig implements RaptorTuningParameters, Trans
     return transferCacheMaxSize;
   }
 
+  @Override
+  public boolean enableTripBasedSearch() {
+    return enableTripBasedSearch;
+  }
+
   @Override
   public List<Duration> pagingSearchWindowAdjustments() {
     return pagingSearchWindowAdjustments;
   }
 
+  @Override
+  public int pagingSessionCacheMaxSize() {
+    return pagingSessionCacheMaxSize;
+  }
+
+  @Override
+  public Duration pagingSessionTimeToLive() {
+    return pagingSessionTimeToLive;
+  }
+
   private static class DynamicSearchWindowConfig implements DynamicSearchWindowCoefficients {
 
     private final double minTransitTimeCoefficient;
@@ -128,7 +128,8 @@ public class UpdatersConfig implements UpdatersParameters {
     return new TimetableSnapshotSourceParameters(
       c.asInt("logFrequency", dflt.logFrequency()),
       c.asInt("maxSnapshotFrequency", dflt.maxSnapshotFrequencyMs()),
-      c.asBoolean("purgeExpiredData", dflt.purgeExpiredData())
+      c.asBoolean("purgeExpiredData", dflt.purgeExpiredData()),
+      c.asBoolean("parallelPrepare", dflt.parallelPrepare())
     );
   }
 
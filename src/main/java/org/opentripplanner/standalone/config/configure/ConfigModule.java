@@ -3,6 +3,7 @@ package org.opentripplanner.standalone.config.configure;
 import dagger.Module;
 import dagger.Provides;
 import javax.inject.Singleton;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.PagingSessionCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.standalone.config.ConfigModel;
@@ -37,4 +38,11 @@ public class ConfigModule {
   static RaptorConfig<TripSchedule> providesRaptorConfig(ConfigModel config) {
     return new RaptorConfig<>(config.routerConfig().raptorTuningParameters());
   }
+
+  @Provides
+  @Singleton
+  static PagingSessionCache providesPagingSessionCache(ConfigModel config) {
+    var c = config.routerConfig().transitTuningParameters();
+    return new PagingSessionCache(c.pagingSessionCacheMaxSize(), c.pagingSessionTimeToLive());
+  }
 }
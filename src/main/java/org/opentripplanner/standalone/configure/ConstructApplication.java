@@ -5,6 +5,7 @@ import javax.ws.rs.core.Application;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.ext.geocoder.LuceneIndex;
 import org.opentripplanner.ext.transmodelapi.TransmodelAPI;
+import org.opentripplanner.ext.vectortiles.StaticTilePyramids;
 import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.graph_builder.GraphBuilderDataSources;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitLayer;
@@ -144,6 +145,10 @@ public class ConstructApplication {
       );
     }
 
+    if (OTPFeature.SandboxAPIMapboxVectorTilesApi.isOn()) {
+      StaticTilePyramids.prerender(createServerContext());
+    }
+
     if (OTPFeature.SandboxAPIGeocoder.isOn()) {
       LOG.info("Creating debug client geocoder lucene index");
       LuceneIndex.forServer(createServerContext());
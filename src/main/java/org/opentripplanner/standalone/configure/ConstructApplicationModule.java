@@ -5,6 +5,7 @@ import dagger.Provides;
 import io.micrometer.core.instrument.Metrics;
 import javax.annotation.Nullable;
 import org.opentripplanner.routing.algorithm.astar.TraverseVisitor;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.PagingSessionCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
@@ -21,6 +22,7 @@ public class ConstructApplicationModule {
   OtpServerRequestContext providesServerContext(
     RouterConfig routerConfig,
     RaptorConfig<TripSchedule> raptorConfig,
+    PagingSessionCache pagingSessionCache,
     Graph graph,
     TransitService transitService,
     @Nullable TraverseVisitor traverseVisitor
@@ -28,6 +30,7 @@ public class ConstructApplicationModule {
     return DefaultServerRequestContext.create(
       routerConfig,
       raptorConfig,
+      pagingSessionCache,
       graph,
       transitService,
       Metrics.globalRegistry,
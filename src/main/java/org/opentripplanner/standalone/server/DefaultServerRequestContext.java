@@ -6,6 +6,7 @@ import javax.annotation.Nullable;
 import org.opentripplanner.inspector.TileRendererManager;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.algorithm.astar.TraverseVisitor;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.PagingSessionCache;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.graph.Graph;
@@ -26,6 +27,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
   private final RouterConfig routerConfig;
   private final MeterRegistry meterRegistry;
   private final RaptorConfig<TripSchedule> raptorConfig;
+  private final PagingSessionCache pagingSessionCache;
   public final Logger requestLogger;
   private final TileRendererManager tileRendererManager;
   public final TraverseVisitor traverseVisitor;
@@ -39,6 +41,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     RouterConfig routerConfig,
     MeterRegistry meterRegistry,
     RaptorConfig<TripSchedule> raptorConfig,
+    PagingSessionCache pagingSessionCache,
     Logger requestLogger,
     TileRendererManager tileRendererManager,
     TraverseVisitor traverseVisitor
@@ -48,6 +51,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     this.routerConfig = routerConfig;
     this.meterRegistry = meterRegistry;
     this.raptorConfig = raptorConfig;
+    this.pagingSessionCache = pagingSessionCache;
     this.requestLogger = requestLogger;
     this.tileRendererManager = tileRendererManager;
     this.traverseVisitor = traverseVisitor;
@@ -59,6 +63,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
   public static DefaultServerRequestContext create(
     RouterConfig routerConfig,
     RaptorConfig<TripSchedule> raptorConfig,
+    PagingSessionCache pagingSessionCache,
     Graph graph,
     TransitService transitService,
     MeterRegistry meterRegistry,
@@ -72,6 +77,7 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
       routerConfig,
       meterRegistry,
       raptorConfig,
+      pagingSessionCache,
       RequestLoggerFactory.createLogger(routerConfig.requestLogFile()),
       new TileRendererManager(graph, defaultRoutingRequest),
       traverseVisitor
@@ -105,6 +111,11 @@ public class DefaultServerRequestContext implements OtpServerRequestContext {
     return raptorConfig;
   }
 
+  @Override
+  public PagingSessionCache pagingSessionCache() {
+    return pagingSessionCache;
+  }
+
   @Override
   public Graph graph() {
     return graph;
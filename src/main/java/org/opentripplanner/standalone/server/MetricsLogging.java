@@ -1,5 +1,7 @@
 package org.opentripplanner.standalone.server;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
@@ -20,6 +22,7 @@ import java.util.concurrent.ForkJoinPool;
 import javax.inject.Inject;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemoryPool;
 import org.opentripplanner.transit.service.TransitModel;
 
 /**
@@ -81,5 +84,23 @@ public class MetricsLogging {
       )
         .bindTo(Metrics.globalRegistry);
     }
+
+    var memoryPool = raptorConfig.workerMemoryPool();
+    FunctionCounter
+      .builder("raptor.memory.allocated", memoryPool, WorkerMemoryPool::allocatedBytes)
+      .baseUnit("bytes")
+      .description("Bytes allocated for the Raptor worker state")
+      .register(Metrics.globalRegistry);
+    FunctionCounter
+      .builder("raptor.memory.reused", memoryPool, WorkerMemoryPool::reusedBytes)
+      .baseUnit("bytes")
+      .description("Bytes of Raptor worker state reused instead of allocated")
+      .register(Metrics.globalRegistry);
+    FunctionCounter
+      .builder("raptor.memory.leases", memoryPool, WorkerMemoryPool::leaseCount)
+      .register(Metrics.globalRegistry);
+    Gauge
+      .builder("raptor.memory.idle", memoryPool, WorkerMemoryPool::idleSize)
+      .register(Metrics.globalRegistry);
   }
 }
@@ -17,6 +17,9 @@ import org.opentripplanner.util.lang.ToStringBuilder;
 /**
  * Does the same thing as String.intern, but for several different types. Java's String.intern uses
  * perm gen space and is broken anyway.
+ * <p>
+ * THREAD SAFETY - The methods are synchronized, the deduplicator can be shared by graph builder
+ * tasks running in parallel.
  */
 public class Deduplicator implements Serializable {
 
@@ -34,7 +37,7 @@ public class Deduplicator implements Serializable {
   public Deduplicator() {}
 
   /** Free up any memory used by the deduplicator. */
-  public void reset() {
+  public synchronized void reset() {
     canonicalBitSets.clear();
     canonicalIntArrays.clear();
     canonicalStrings.clear();
@@ -45,7 +48,7 @@ public class Deduplicator implements Serializable {
   }
 
   @Nullable
-  public BitSet deduplicateBitSet(BitSet original) {
+  public synchronized BitSet deduplicateBitSet(BitSet original) {
     if (original == null) {
       return null;
     }
@@ -60,7 +63,7 @@ public class Deduplicator implements Serializable {
 
   /** Used to deduplicate time and stop sequence arrays. The same times may occur in many trips. */
   @Nullable
-  public int[] deduplicateIntArray(int[] original) {
+  public synchronized int[] deduplicateIntArray(int[] original) {
     if (original == null) {
       return null;
     }
@@ -75,7 +78,7 @@ public class Deduplicator implements Serializable {
   }
 
   @Nullable
-  public String deduplicateString(String original) {
+  public synchronized String deduplicateString(String original) {
     if (original == null) {
       return null;
     }
@@ -85,7 +88,7 @@ public class Deduplicator implements Serializable {
   }
 
   @Nullable
-  public String[] deduplicateStringArray(String[] original) {
+  public synchronized String[] deduplicateStringArray(String[] original) {
     if (original == null) {
       return null;
     }
@@ -103,7 +106,7 @@ public class Deduplicator implements Serializable {
    * arrays.
    */
   @Nullable
-  public String[][] deduplicateString2DArray(String[][] original) {
+  public synchronized String[][] deduplicateString2DArray(String[][] original) {
     if (original == null) {
       return null;
     }
@@ -118,7 +121,7 @@ public class Deduplicator implements Serializable {
 
   @SuppressWarnings("unchecked")
   @Nullable
-  public <T> T deduplicateObject(Class<T> cl, T original) {
+  public synchronized <T> T deduplicateObject(Class<T> cl, T original) {
     if (String.class == cl) {
       throw new IllegalArgumentException("Use #deduplicateString() instead.");
     }
@@ -132,7 +135,7 @@ public class Deduplicator implements Serializable {
   }
 
   @Nullable
-  public <T> List<T> deduplicateImmutableList(Class<T> clazz, List<T> original) {
+  public synchronized <T> List<T> deduplicateImmutableList(Class<T> clazz, List<T> original) {
     if (original == null) {
       return null;
     }
@@ -163,7 +166,7 @@ public class Deduplicator implements Serializable {
    * Returns a string with the size of each canonical collection.
    */
   @Override
-  public String toString() {
+  public synchronized String toString() {
     var builder = ToStringBuilder
       .of(Deduplicator.class)
       .addObj("BitSet", sizeAndCount(canonicalBitSets.size(), BitSet.class))
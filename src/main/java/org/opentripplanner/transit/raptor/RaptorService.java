@@ -1,12 +1,16 @@
 package org.opentripplanner.transit.raptor;
 
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
+import org.opentripplanner.transit.raptor.api.response.IterationStopArrivalsListener;
 import org.opentripplanner.transit.raptor.api.response.RaptorResponse;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Worker;
+import org.opentripplanner.transit.raptor.service.DestinationHeuristicsCache;
 import org.opentripplanner.transit.raptor.service.HeuristicSearchTask;
 import org.opentripplanner.transit.raptor.service.RangeRaptorDynamicSearch;
 import org.slf4j.Logger;
@@ -30,12 +34,46 @@ public class RaptorService<T extends RaptorTripSchedule> {
   public RaptorResponse<T> route(
     RaptorRequest<T> request,
     RaptorTransitDataProvider<T> transitData
+  ) {
+    return route(request, transitData, null);
+  }
+
+  /**
+   * Route and reuse the destination heuristics in the given cache, if the cache is empty the
+   * heuristics are added to it. Use this to page through the results, the cache must only be used
+   * with the same transit data, access, egress and request - except for the search time window.
+   */
+  public RaptorResponse<T> route(
+    RaptorRequest<T> request,
+    RaptorTransitDataProvider<T> transitData,
+    @Nullable DestinationHeuristicsCache heuristicsCache
   ) {
     LOG.debug("Original request: {}", request);
     RaptorResponse<T> response;
 
     if (request.isDynamicSearch()) {
-      response = new RangeRaptorDynamicSearch<>(config, transitData, request).route();
+      // The state of the forward heuristics and the main search is only used by this search, so
+      // it can be reused. The cached reverse heuristics outlive the search, so they are computed
+      // using memory not in the pool.
+      var fwdMemory = config.leaseWorkerMemory();
+      var revMemory = heuristicsCache == null
+        ? config.leaseWorkerMemory()
+        : config.workerMemoryPool().create();
+      try {
+        response =
+          new RangeRaptorDynamicSearch<>(
+            config,
+            transitData,
+            request,
+            fwdMemory,
+            revMemory,
+            heuristicsCache
+          )
+            .route();
+      } finally {
+        config.releaseWorkerMemory(fwdMemory);
+        config.releaseWorkerMemory(revMemory);
+      }
     } else {
       response = routeUsingStdWorker(transitData, request);
     }
@@ -50,6 +88,30 @@ public class RaptorService<T extends RaptorTripSchedule> {
     return response;
   }
 
+  /**
+   * Run a standard Range Raptor search and notify the listener with the stop arrivals at the end
+   * of each iteration, see {@link IterationStopArrivalsListener}. This is used to compute the
+   * travel times to all stops for every departure time in the search window, the paths are not
+   * returned.
+   */
+  public void routeStopArrivals(
+    RaptorRequest<T> request,
+    RaptorTransitDataProvider<T> transitData,
+    IterationStopArrivalsListener listener
+  ) {
+    if (!request.profile().isOneOf(RaptorProfile.STANDARD, RaptorProfile.BEST_TIME)) {
+      throw new IllegalArgumentException(
+        "The stop arrivals are only available for the standard profiles, not: " + request.profile()
+      );
+    }
+    var memory = config.leaseWorkerMemory();
+    try {
+      config.createStdWorker(transitData, request, listener, memory).route();
+    } finally {
+      config.releaseWorkerMemory(memory);
+    }
+  }
+
   /**
    * TODO Add back the possibility to compare heuristics using a test - like the SpeedTest,
    *      but maybe better to make a separate test.
@@ -0,0 +1,110 @@
+package org.opentripplanner.transit.raptor.api.debug;
+
+import org.opentripplanner.util.lang.ToStringBuilder;
+
+/**
+ * The amount of work done by one Range Raptor routing request. A Raptor search may do more than
+ * one routing request, the heuristic searches and the main search report separately, see {@link
+ * RaptorTimers#searchStatistics(RaptorSearchStatistics)}.
+ * <p>
+ * All counts are summed over all rounds in all iterations(minutes) of the search. This is used to
+ * find out why a search is slow, for example if it scan too many routes, or if the pareto-sets
+ * explode.
+ */
+public final class RaptorSearchStatistics {
+
+  private final String alias;
+  private final int iterations;
+  private final int rounds;
+  private final int routesScanned;
+  private final int tripsBoarded;
+  private final int stopsTouched;
+  private final int stopArrivalsAccepted;
+  private final int stopArrivalsRejected;
+
+  public RaptorSearchStatistics(
+    String alias,
+    int iterations,
+    int rounds,
+    int routesScanned,
+    int tripsBoarded,
+    int stopsTouched,
+    int stopArrivalsAccepted,
+    int stopArrivalsRejected
+  ) {
+    this.alias = alias;
+    this.iterations = iterations;
+    this.rounds = rounds;
+    this.routesScanned = routesScanned;
+    this.tripsBoarded = tripsBoarded;
+    this.stopsTouched = stopsTouched;
+    this.stopArrivalsAccepted = stopArrivalsAccepted;
+    this.stopArrivalsRejected = stopArrivalsRejected;
+  }
+
+  /**
+   * The request alias, this identify the profile, direction and optimizations used.
+   */
+  public String alias() {
+    return alias;
+  }
+
+  /** The number of Range Raptor iterations, one for each departure minute. */
+  public int iterations() {
+    return iterations;
+  }
+
+  /** The number of rounds, summed over all iterations. */
+  public int rounds() {
+    return rounds;
+  }
+
+  /**
+   * The number of routes scanned. For the Trip-Based search this is the number of route stop
+   * positions boarded.
+   */
+  public int routesScanned() {
+    return routesScanned;
+  }
+
+  /** The number of times a trip is boarded. */
+  public int tripsBoarded() {
+    return tripsBoarded;
+  }
+
+  /** The number of stops reached by transit, these are the stops transfers are calculated from. */
+  public int stopsTouched() {
+    return stopsTouched;
+  }
+
+  /**
+   * The number of stop arrivals added to the stop arrival pareto-sets. This only apply to
+   * multi-criteria search, it is zero for the other profiles.
+   */
+  public int stopArrivalsAccepted() {
+    return stopArrivalsAccepted;
+  }
+
+  /**
+   * The number of stop arrivals rejected by the stop arrival pareto-sets. This only apply to
+   * multi-criteria search, it is zero for the other profiles.
+   */
+  public int stopArrivalsRejected() {
+    return stopArrivalsRejected;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(RaptorSearchStatistics.class)
+      .addStr("alias", alias)
+      .addNum("iterations", iterations)
+      .addNum("rounds", rounds)
+      .addNum("routesScanned", routesScanned)
+      .addNum("tripsBoarded", tripsBoarded)
+      .addNum("stopsTouched", stopsTouched)
+      .addNum("stopArrivalsAccepted", stopArrivalsAccepted, 0)
+      .addNum("stopArrivalsRejected", stopArrivalsRejected, 0)
+      .toString();
+  }
+}
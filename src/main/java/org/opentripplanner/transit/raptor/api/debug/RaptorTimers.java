@@ -50,6 +50,13 @@ public interface RaptorTimers {
    */
   void findTransfersForRound(Runnable body);
 
+  /**
+   * This method is called when a Range Raptor routing request is complete, with the statistics of
+   * the work done by the search. The counters are cheap to collect, the default implementation
+   * ignores them.
+   */
+  default void searchStatistics(RaptorSearchStatistics statistics) {}
+
   /**
    * Create a new instance with a new name prefix. Useful when creating a new request for heuristic.
    */
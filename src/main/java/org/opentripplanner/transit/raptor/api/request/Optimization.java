@@ -32,7 +32,35 @@ public enum Optimization {
    * <p>
    * This only apply to: multi-criteria search.
    */
-  PARETO_CHECK_AGAINST_DESTINATION;
+  PARETO_CHECK_AGAINST_DESTINATION,
+
+  /**
+   * Use the Trip-Based routing algorithm instead of scanning routes. After alighting a trip, only
+   * the route stop positions listed in the precomputed
+   * {@link org.opentripplanner.transit.raptor.api.transit.RaptorTripBasedTransfers} are boarded,
+   * and each trip is only scanned from the first stop it is boarded at, to the first stop it is
+   * already reached at. The result is the same as with Range Raptor.
+   * <p>
+   * The algorithm is described in: Sascha Witt. “Trip-Based Public Transit Routing.” ESA 2015.
+   * https://arxiv.org/abs/1504.07149.
+   * <p>
+   * This only apply to: standard and best-time search in the forward direction, without
+   * constrained transfers. The transit data must provide the trip-based transfers, if not, the
+   * normal Range Raptor search is used.
+   */
+  TRIP_BASED,
+
+  /**
+   * Store the pareto criteria(arrival-time, round and cost) of the multi-criteria stop arrivals in
+   * a packed int array for each stop, instead of reading them from the stop arrival objects when
+   * comparing arrivals. Comparing a new arrival with the existing arrivals at a stop is then a
+   * linear scan of an int array, which is more cache friendly than following a reference to each
+   * arrival. The result is the same as without this optimization, use the SpeedTest to compare the
+   * performance.
+   * <p>
+   * This only apply to: multi-criteria search.
+   */
+  PACKED_STOP_ARRIVALS;
 
   public boolean is(Optimization other) {
     return this == other;
@@ -1,7 +1,9 @@
 package org.opentripplanner.transit.raptor.api.request;
 
+import static org.opentripplanner.transit.raptor.api.request.Optimization.PACKED_STOP_ARRIVALS;
 import static org.opentripplanner.transit.raptor.api.request.Optimization.PARALLEL;
 import static org.opentripplanner.transit.raptor.api.request.Optimization.PARETO_CHECK_AGAINST_DESTINATION;
+import static org.opentripplanner.transit.raptor.api.request.Optimization.TRIP_BASED;
 
 import java.util.Collection;
 import java.util.EnumSet;
@@ -164,6 +166,14 @@ public class RaptorRequestBuilder<T extends RaptorTripSchedule> {
       // Heuristic to prune on pareto optimal Destination arrivals
       name += "-DP";
     }
+    if (TRIP_BASED.isOneOf(optimizations)) {
+      // Trip-Based search instead of route scanning
+      name += "-TB";
+    }
+    if (PACKED_STOP_ARRIVALS.isOneOf(optimizations)) {
+      // Pareto criteria of stop arrivals stored in packed int arrays
+      name += "-PK";
+    }
     return name;
   }
 
@@ -55,6 +55,21 @@ public interface RaptorTuningParameters {
     return 0;
   }
 
+  /**
+   * The number of idle worker memory instances kept for reuse between requests. The worker state
+   * has arrays with one element for each stop, reusing these between the searches of different
+   * requests reduces the garbage produced by each request. Set it to about the number of requests
+   * expected to run concurrently. Each idle instance keeps the arrays of one request, a few
+   * megabytes for a large network.
+   * <p/>
+   * The default value is the number of available processors, the searches are CPU bound so about
+   * this many requests run at the same time. If 0, the worker state memory is allocated for every
+   * search.
+   */
+  default int workerMemoryPoolSize() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
   /**
    * Coefficients used to calculate raptor-search-window parameters dynamically  from heuristics.
    */
@@ -0,0 +1,18 @@
+package org.opentripplanner.transit.raptor.api.response;
+
+/**
+ * Listen to the stop arrivals at the end of each Range Raptor iteration. In a standard Range Raptor
+ * search the best arrival times after an iteration are the earliest possible arrival times when
+ * departing at the departure time of the iteration. So, one search gives the arrival times for
+ * every departure time in the search window.
+ * <p>
+ * The iterations are run from the latest to the earliest departure time in a forward search.
+ */
+@FunctionalInterface
+public interface IterationStopArrivalsListener {
+  /**
+   * Called at the end of each iteration. The stop arrivals are updated by the next iteration, so
+   * they must be read before this method returns.
+   */
+  void iterationComplete(int iterationDepartureTime, StopArrivals arrivals);
+}
@@ -1,6 +1,7 @@
 package org.opentripplanner.transit.raptor.api.response;
 
 import java.util.Collection;
+import javax.annotation.Nullable;
 import org.opentripplanner.transit.raptor.api.path.Path;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
@@ -41,9 +42,12 @@ public class RaptorResponse<T extends RaptorTripSchedule> {
   }
 
   /**
-   * The end state of the search, with arrival times and lowest number of transfers. If multiple
-   * routing workers are called, the main worker result is returned.
+   * The end state of the search, with arrival times and lowest number of transfers. Only returned
+   * for best-time and one-iteration standard searches, {@code null} for the dynamic searches, see
+   * {@link RaptorRequest#isDynamicSearch()}. The state of the main search of a dynamic search is
+   * reused by the next search.
    */
+  @Nullable
   public StopArrivals getArrivals() {
     return arrivals;
   }
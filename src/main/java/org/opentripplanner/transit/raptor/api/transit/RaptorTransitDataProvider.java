@@ -2,6 +2,7 @@ package org.opentripplanner.transit.raptor.api.transit;
 
 import java.util.Iterator;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * This interface defines the data needed by Raptor. It is the main/top-level interface and together
@@ -83,6 +84,17 @@ public interface RaptorTransitDataProvider<T extends RaptorTripSchedule> {
    */
   RaptorRoute<T> getRouteForIndex(int routeIndex);
 
+  /**
+   * Return the precomputed transfers used by the Trip-Based search, or {@code null} if they are
+   * not available for this search. If {@code null}, Raptor falls back to the normal route scanning,
+   * even if {@link org.opentripplanner.transit.raptor.api.request.Optimization#TRIP_BASED} is
+   * enabled.
+   */
+  @Nullable
+  default RaptorTripBasedTransfers tripBasedTransfers() {
+    return null;
+  }
+
   /**
    * Create/provide the cost criteria calculator.
    */
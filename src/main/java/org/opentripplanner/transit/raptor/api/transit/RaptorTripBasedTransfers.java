@@ -0,0 +1,25 @@
+package org.opentripplanner.transit.raptor.api.transit;
+
+/**
+ * The transfers used by the Trip-Based search, see
+ * {@link org.opentripplanner.transit.raptor.api.request.Optimization#TRIP_BASED}. For each route
+ * stop position where a trip can be alighted, this lists the route stop positions it may pay off
+ * to board next - at the same stop or at a stop reached by a transfer.
+ * <p>
+ * The list is reduced in advance: positions on the same route after the alight position (staying
+ * on board is at least as good) are left out. Reductions which depend on the slack or on the stops
+ * a request can board and alight at, like u-turns, must not be done. The list must include all
+ * other route stop positions reachable by any of the transfers returned by
+ * {@link RaptorTransitDataProvider#getTransfersFromStop(int)}. The list may include routes not in
+ * service for the search, they are skipped.
+ */
+public interface RaptorTripBasedTransfers {
+  /**
+   * Return the route stop positions to board after alighting at the given stop position, as pairs
+   * of {@code [routeIndex, stopPositionInPattern, routeIndex, stopPositionInPattern, ...]}. The
+   * returned array must not be modified.
+   * <p>
+   * This method is called for every stop position visited, so it needs to be FAST.
+   */
+  int[] transfersFrom(int routeIndex, int stopPositionInPattern);
+}
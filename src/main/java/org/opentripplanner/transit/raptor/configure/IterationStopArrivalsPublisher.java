@@ -0,0 +1,36 @@
+package org.opentripplanner.transit.raptor.configure;
+
+import org.opentripplanner.transit.raptor.api.response.IterationStopArrivalsListener;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Worker;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.WorkerLifeCycle;
+
+/**
+ * Notify a {@link IterationStopArrivalsListener} with the stop arrivals of a worker at the end of
+ * each iteration. The life-cycle subscriptions must be added before the worker is created, so the
+ * worker is set after.
+ */
+final class IterationStopArrivalsPublisher<T extends RaptorTripSchedule> {
+
+  private final IterationStopArrivalsListener listener;
+  private Worker<T> worker;
+  private int iterationDepartureTime;
+
+  IterationStopArrivalsPublisher(
+    IterationStopArrivalsListener listener,
+    WorkerLifeCycle lifeCycle
+  ) {
+    this.listener = listener;
+    lifeCycle.onSetupIteration(departureTime -> this.iterationDepartureTime = departureTime);
+    lifeCycle.onIterationComplete(this::iterationComplete);
+  }
+
+  Worker<T> publishFor(Worker<T> worker) {
+    this.worker = worker;
+    return worker;
+  }
+
+  private void iterationComplete() {
+    listener.iterationComplete(iterationDepartureTime, worker.stopArrivals());
+  }
+}
@@ -5,6 +5,7 @@ import java.util.concurrent.Executors;
 import javax.annotation.Nullable;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.transit.raptor.api.response.IterationStopArrivalsListener;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.rangeraptor.RangeRaptorWorker;
@@ -14,26 +15,31 @@ import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Heuristics;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoutingStrategy;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Worker;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.WorkerState;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemoryPool;
 import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.configure.McRangeRaptorConfig;
 import org.opentripplanner.transit.raptor.rangeraptor.standard.configure.StdRangeRaptorConfig;
+import org.opentripplanner.transit.raptor.rangeraptor.tripbased.TripBasedWorker;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.RaptorSearchWindowCalculator;
 
 /**
  * This class is responsible for creating a new search and holding application scoped Raptor state.
  * <p/>
- * This class should have APPLICATION scope. It manage a threadPool, and hold a reference to the
- * application tuning parameters.
+ * This class should have APPLICATION scope. It manage a threadPool and a pool of worker memory, and
+ * hold a reference to the application tuning parameters.
  *
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
 public class RaptorConfig<T extends RaptorTripSchedule> {
 
   private final ExecutorService threadPool;
+  private final WorkerMemoryPool memoryPool;
   private final RaptorTuningParameters tuningParameters;
 
   public RaptorConfig(RaptorTuningParameters tuningParameters) {
     this.tuningParameters = tuningParameters;
     this.threadPool = createNewThreadPool(tuningParameters.searchThreadPoolSize());
+    this.memoryPool = new WorkerMemoryPool(tuningParameters.workerMemoryPoolSize());
   }
 
   public static <T extends RaptorTripSchedule> RaptorConfig<T> defaultConfigForTest() {
@@ -41,36 +47,108 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
   }
 
   public SearchContext<T> context(RaptorTransitDataProvider<T> transit, RaptorRequest<T> request) {
-    return new SearchContext<>(request, tuningParameters, transit);
+    return context(transit, request, memoryPool.create());
+  }
+
+  public SearchContext<T> context(
+    RaptorTransitDataProvider<T> transit,
+    RaptorRequest<T> request,
+    WorkerMemory memory
+  ) {
+    return new SearchContext<>(request, tuningParameters, transit, memory);
   }
 
   public Worker<T> createStdWorker(
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> request
   ) {
-    SearchContext<T> context = context(transitData, request);
+    return createStdWorker(transitData, request, memoryPool.create());
+  }
+
+  /**
+   * Create a standard worker with the state allocated from the given memory. The stop arrivals of
+   * the worker must not be used after the memory is released.
+   */
+  public Worker<T> createStdWorker(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    WorkerMemory memory
+  ) {
+    SearchContext<T> context = context(transitData, request, memory);
     return new StdRangeRaptorConfig<>(context).createSearch((s, w) -> createWorker(context, s, w));
   }
 
+  /**
+   * Create a standard worker, which notify the given listener with the stop arrivals at the end of
+   * each iteration. The stop arrivals are not used after the search, so the worker state is
+   * allocated from the given memory.
+   */
+  public Worker<T> createStdWorker(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    IterationStopArrivalsListener listener,
+    WorkerMemory memory
+  ) {
+    SearchContext<T> context = context(transitData, request, memory);
+    var publisher = new IterationStopArrivalsPublisher<T>(listener, context.lifeCycle());
+    return publisher.publishFor(
+      new StdRangeRaptorConfig<>(context).createSearch((s, w) -> createWorker(context, s, w))
+    );
+  }
+
   public Worker<T> createMcWorker(
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> request,
     Heuristics heuristics
   ) {
-    final SearchContext<T> context = context(transitData, request);
+    return createMcWorker(transitData, request, heuristics, memoryPool.create());
+  }
+
+  /**
+   * Create a multi-criteria worker with the stop indexed state allocated from the given memory.
+   * The stop arrivals of the worker must not be used after the memory is released.
+   */
+  public Worker<T> createMcWorker(
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> request,
+    Heuristics heuristics,
+    WorkerMemory memory
+  ) {
+    final SearchContext<T> context = context(transitData, request, memory);
     return new McRangeRaptorConfig<>(context)
       .createWorker(heuristics, (s, w) -> createWorker(context, s, w));
   }
 
   public HeuristicSearch<T> createHeuristicSearch(
     RaptorTransitDataProvider<T> transitData,
-    RaptorRequest<T> request
+    RaptorRequest<T> request,
+    WorkerMemory memory
   ) {
-    SearchContext<T> context = context(transitData, request);
+    SearchContext<T> context = context(transitData, request, memory);
     return new StdRangeRaptorConfig<>(context)
       .createHeuristicSearch((s, w) -> createWorker(context, s, w));
   }
 
+  /**
+   * Lease memory for the worker state of one or more searches. The memory must be released with
+   * {@link #releaseWorkerMemory(WorkerMemory)} when the searches are done and the state is no
+   * longer used.
+   */
+  public WorkerMemory leaseWorkerMemory() {
+    return memoryPool.lease();
+  }
+
+  public void releaseWorkerMemory(WorkerMemory memory) {
+    memoryPool.release(memory);
+  }
+
+  /**
+   * The worker memory pool, exposed to report the allocation statistics.
+   */
+  public WorkerMemoryPool workerMemoryPool() {
+    return memoryPool;
+  }
+
   public boolean isMultiThreaded() {
     return threadPool != null;
   }
@@ -96,6 +174,20 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
     WorkerState<T> workerState,
     RoutingStrategy<T> routingStrategy
   ) {
+    if (ctx.useTripBasedSearch()) {
+      return new TripBasedWorker<>(
+        workerState,
+        routingStrategy,
+        ctx.transit(),
+        ctx.slackProvider(),
+        ctx.accessPaths(),
+        ctx.roundProvider(),
+        ctx.calculator(),
+        ctx.createLifeCyclePublisher(),
+        ctx.performanceTimers(),
+        ctx.statistics()
+      );
+    }
     return new RangeRaptorWorker<>(
       workerState,
       routingStrategy,
@@ -106,6 +198,7 @@ public class RaptorConfig<T extends RaptorTripSchedule> {
       ctx.calculator(),
       ctx.createLifeCyclePublisher(),
       ctx.performanceTimers(),
+      ctx.statistics(),
       ctx.enableConstrainedTransfers()
     );
   }
@@ -14,6 +14,7 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripScheduleSearch;
 import org.opentripplanner.transit.raptor.api.transit.TransitArrival;
+import org.opentripplanner.transit.raptor.rangeraptor.debug.WorkerStatistics;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoundProvider;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoutingStrategy;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.SlackProvider;
@@ -81,6 +82,8 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
 
   private final RaptorTimers timers;
 
+  private final WorkerStatistics statistics;
+
   private final AccessPaths accessPaths;
 
   private final LifeCycleEventPublisher lifeCycle;
@@ -105,6 +108,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
     TransitCalculator<T> calculator,
     LifeCycleEventPublisher lifeCyclePublisher,
     RaptorTimers timers,
+    WorkerStatistics statistics,
     boolean enableTransferConstraints
   ) {
     this.transitWorker = transitWorker;
@@ -113,6 +117,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
     this.slackProvider = slackProvider;
     this.calculator = calculator;
     this.timers = timers;
+    this.statistics = statistics;
     this.accessPaths = accessPaths;
     this.minNumberOfRounds = accessPaths.calculateMaxNumberOfRides();
     this.enableTransferConstraints = enableTransferConstraints;
@@ -149,10 +154,12 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
         // Run the raptor search for this particular iteration departure time
         iterationDepartureTime = it.next();
         lifeCycle.setupIteration(iterationDepartureTime);
+        statistics.incIterations();
         runRaptorForMinute();
         inFirstIteration = false;
       }
     });
+    timers.searchStatistics(statistics.toRaptorSearchStatistics());
   }
 
   @Override
@@ -173,6 +180,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
 
     while (hasMoreRounds()) {
       lifeCycle.prepareForNextRound(roundTracker.nextRound());
+      statistics.incRounds();
 
       // NB since we have transfer limiting not bothering to cut off search when there are no
       // more transfers as that will be rare and complicates the code
@@ -214,6 +222,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
       while (routeIndexIterator.hasNext()) {
         var routeIndex = routeIndexIterator.next();
         var route = transitData.getRouteForIndex(routeIndex);
+        statistics.incRoutesScanned();
         var pattern = route.pattern();
         var tripSearch = createTripSearch(route.timetable());
         var txSearch = enableTransferConstraints
@@ -284,6 +293,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
     // being reached earlier
     var result = tripSearch.search(earliestBoardTime, stopPos, transitWorker.onTripIndex());
     if (result != null) {
+      statistics.incTripsBoarded();
       transitWorker.board(stopIndex, earliestBoardTime, result);
     } else {
       transitWorker.boardSameTrip(earliestBoardTime, stopPos, stopIndex);
@@ -342,6 +352,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
       return true;
     }
 
+    statistics.incTripsBoarded();
     transitWorker.board(
       targetStopIndex,
       result.getEarliestBoardTimeForConstrainedTransfer(),
@@ -357,6 +368,7 @@ public final class RangeRaptorWorker<T extends RaptorTripSchedule> implements Wo
 
       while (it.hasNext()) {
         final int fromStop = it.next();
+        statistics.incStopsTouched();
         // no need to consider loop transfers, since we don't mark patterns here any more
         // loop transfers are already included by virtue of those stops having been reached
         state.transferToStops(fromStop, calculator.getTransfers(transitData, fromStop));
@@ -11,6 +11,7 @@ import java.util.function.ToIntFunction;
 import javax.annotation.Nullable;
 import org.opentripplanner.transit.raptor.api.debug.RaptorTimers;
 import org.opentripplanner.transit.raptor.api.request.DebugRequest;
+import org.opentripplanner.transit.raptor.api.request.Optimization;
 import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
 import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
 import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
@@ -24,11 +25,13 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorTripPattern;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.api.transit.SearchDirection;
 import org.opentripplanner.transit.raptor.rangeraptor.debug.DebugHandlerFactory;
+import org.opentripplanner.transit.raptor.rangeraptor.debug.WorkerStatistics;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoundProvider;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.SlackProvider;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.WorkerLifeCycle;
 import org.opentripplanner.transit.raptor.rangeraptor.lifecycle.LifeCycleEventPublisher;
 import org.opentripplanner.transit.raptor.rangeraptor.lifecycle.LifeCycleSubscriptions;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.AccessPaths;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.EgressPaths;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.ForwardTransitCalculator;
@@ -61,17 +64,22 @@ public class SearchContext<T extends RaptorTripSchedule> {
   private final DebugHandlerFactory<T> debugFactory;
   private final EgressPaths egressPaths;
   private final AccessPaths accessPaths;
+  private final WorkerMemory memory;
+  private final WorkerStatistics statistics;
 
   private final LifeCycleSubscriptions lifeCycleSubscriptions = new LifeCycleSubscriptions();
 
   public SearchContext(
     RaptorRequest<T> request,
     RaptorTuningParameters tuningParameters,
-    RaptorTransitDataProvider<T> transit
+    RaptorTransitDataProvider<T> transit,
+    WorkerMemory memory
   ) {
     this.request = request;
     this.tuningParameters = tuningParameters;
     this.transit = transit;
+    this.memory = memory;
+    this.statistics = new WorkerStatistics(request.alias());
     this.accessPaths = accessPaths(request);
     this.egressPaths = egressPaths(request);
 
@@ -171,6 +179,21 @@ public class SearchContext<T extends RaptorTripSchedule> {
     return tuningParameters.maxNumberOfTransfers() + 1;
   }
 
+  /**
+   * The memory to allocate the stop indexed worker state from.
+   */
+  public WorkerMemory memory() {
+    return memory;
+  }
+
+  /**
+   * The counters for the work done by the worker, reported to the {@link RaptorTimers} when the
+   * search is complete.
+   */
+  public WorkerStatistics statistics() {
+    return statistics;
+  }
+
   public RoundProvider roundProvider() {
     return roundTracker;
   }
@@ -191,6 +214,28 @@ public class SearchContext<T extends RaptorTripSchedule> {
     return searchParams().constrainedTransfersEnabled();
   }
 
+  /**
+   * Use the Trip-Based search instead of scanning routes, if enabled and supported by the search,
+   * see {@link Optimization#TRIP_BASED}.
+   */
+  public boolean useTripBasedSearch() {
+    return (
+      request.optimizationEnabled(Optimization.TRIP_BASED) &&
+      request.profile().isOneOf(RaptorProfile.STANDARD, RaptorProfile.BEST_TIME) &&
+      request.searchDirection().isForward() &&
+      !enableConstrainedTransfers() &&
+      transit.tripBasedTransfers() != null
+    );
+  }
+
+  /**
+   * Store the multi-criteria stop arrival pareto criteria in packed int arrays, see
+   * {@link Optimization#PACKED_STOP_ARRIVALS}.
+   */
+  public boolean usePackedStopArrivals() {
+    return request.optimizationEnabled(Optimization.PACKED_STOP_ARRIVALS);
+  }
+
   /* private methods */
 
   public RaptorStopNameResolver stopNameResolver() {
@@ -0,0 +1,67 @@
+package org.opentripplanner.transit.raptor.rangeraptor.debug;
+
+import org.opentripplanner.transit.raptor.api.debug.RaptorSearchStatistics;
+
+/**
+ * Count the work done by a worker, the counters are reported with {@link RaptorSearchStatistics}
+ * when the search is complete. The counters are plain int fields, incrementing them is cheap
+ * enough to do it for every search.
+ * <p>
+ * This class is not thread-safe, each worker has its own instance.
+ */
+public final class WorkerStatistics {
+
+  private final String alias;
+  private int iterations = 0;
+  private int rounds = 0;
+  private int routesScanned = 0;
+  private int tripsBoarded = 0;
+  private int stopsTouched = 0;
+  private int stopArrivalsAccepted = 0;
+  private int stopArrivalsRejected = 0;
+
+  public WorkerStatistics(String alias) {
+    this.alias = alias;
+  }
+
+  public void incIterations() {
+    ++iterations;
+  }
+
+  public void incRounds() {
+    ++rounds;
+  }
+
+  public void incRoutesScanned() {
+    ++routesScanned;
+  }
+
+  public void incTripsBoarded() {
+    ++tripsBoarded;
+  }
+
+  public void incStopsTouched() {
+    ++stopsTouched;
+  }
+
+  public void incStopArrivals(boolean accepted) {
+    if (accepted) {
+      ++stopArrivalsAccepted;
+    } else {
+      ++stopArrivalsRejected;
+    }
+  }
+
+  public RaptorSearchStatistics toRaptorSearchStatistics() {
+    return new RaptorSearchStatistics(
+      alias,
+      iterations,
+      rounds,
+      routesScanned,
+      tripsBoarded,
+      stopsTouched,
+      stopArrivalsAccepted,
+      stopArrivalsRejected
+    );
+  }
+}
@@ -0,0 +1,63 @@
+package org.opentripplanner.transit.raptor.rangeraptor.memory;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * An object array, which keep track of the indexes set. This allows the array to be cleared in
+ * O(touched indexes) when it is reused by the next search. If the array is never reused, the
+ * indexes set are not tracked.
+ *
+ * @param <E> The element type
+ */
+public final class ReusableArray<E> {
+
+  /** The size of an object reference, assuming compressed references. */
+  private static final int REFERENCE_SIZE = 4;
+
+  private final Object[] values;
+
+  @Nullable
+  private final TouchedIndexes touched;
+
+  ReusableArray(int size, boolean reusable) {
+    this.values = new Object[size];
+    this.touched = reusable ? new TouchedIndexes(size) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public E get(int index) {
+    return (E) values[index];
+  }
+
+  public void set(int index, E value) {
+    // An index is tracked the first time it is set
+    if (touched != null && values[index] == null) {
+      touched.add(index);
+    }
+    values[index] = value;
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  /** Set all touched elements to {@code null}. */
+  void clear() {
+    if (touched == null) {
+      throw new IllegalStateException("The array is not reusable");
+    }
+    if (touched.isOverflow()) {
+      Arrays.fill(values, null);
+    } else {
+      for (int i = 0; i < touched.size(); ++i) {
+        values[touched.get(i)] = null;
+      }
+    }
+    touched.clear();
+  }
+
+  long sizeInBytes() {
+    return (long) REFERENCE_SIZE * values.length + (touched == null ? 0 : touched.sizeInBytes());
+  }
+}
@@ -0,0 +1,73 @@
+package org.opentripplanner.transit.raptor.rangeraptor.memory;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * An int array, which keep track of the indexes set. This allows the array to be reset to its
+ * initial value in O(touched indexes) when it is reused by the next search, instead of allocating a
+ * new array for each search. If the array is never reused, the indexes set are not tracked.
+ */
+public final class ReusableIntArray {
+
+  private final int[] values;
+
+  @Nullable
+  private final TouchedIndexes touched;
+
+  private int initialValue;
+
+  ReusableIntArray(int size, int initialValue, boolean reusable) {
+    this.values = new int[size];
+    this.touched = reusable ? new TouchedIndexes(size) : null;
+    this.initialValue = initialValue;
+    if (initialValue != 0) {
+      Arrays.fill(values, initialValue);
+    }
+  }
+
+  public int get(int index) {
+    return values[index];
+  }
+
+  public void set(int index, int value) {
+    // An index is tracked the first time it is changed from the initial value
+    if (touched != null && values[index] == initialValue) {
+      touched.add(index);
+    }
+    values[index] = value;
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Set all values to the given initial value. Only the touched indexes are reset, unless the
+   * initial value is changed.
+   */
+  void reset(int initialValue) {
+    if (touched == null) {
+      throw new IllegalStateException("The array is not reusable");
+    }
+    if (initialValue != this.initialValue || touched.isOverflow()) {
+      Arrays.fill(values, initialValue);
+      this.initialValue = initialValue;
+    } else {
+      for (int i = 0; i < touched.size(); ++i) {
+        values[touched.get(i)] = initialValue;
+      }
+    }
+    touched.clear();
+  }
+
+  long sizeInBytes() {
+    return 4L * values.length + (touched == null ? 0 : touched.sizeInBytes());
+  }
+
+  /** The number of indexes touched / the array size */
+  @Override
+  public String toString() {
+    return (touched == null ? "?" : touched.toString()) + "/" + values.length;
+  }
+}
@@ -0,0 +1,60 @@
+package org.opentripplanner.transit.raptor.rangeraptor.memory;
+
+import java.util.Arrays;
+
+/**
+ * A stack of the indexes touched in a {@link ReusableIntArray} or a {@link ReusableArray}. Adding
+ * an index is a single array write on the hot path. A search usually touches a small part of the
+ * stops, so the stack starts small and grows as needed. An index may be added more than once, if
+ * the stack gets as big as the array, the stack overflows, and the whole array is reset instead.
+ */
+final class TouchedIndexes {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final int maxSize;
+  private int[] indexes;
+  private int size = 0;
+
+  TouchedIndexes(int maxSize) {
+    this.maxSize = maxSize;
+    this.indexes = new int[Math.min(maxSize, INITIAL_CAPACITY)];
+  }
+
+  void add(int index) {
+    if (size == indexes.length) {
+      if (size == maxSize) {
+        // Overflow, all indexes are reset
+        return;
+      }
+      indexes = Arrays.copyOf(indexes, (int) Math.min(maxSize, 2L * size));
+    }
+    indexes[size++] = index;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int get(int i) {
+    return indexes[i];
+  }
+
+  /** If {@code true} the indexes added are not all kept, all indexes should be reset. */
+  boolean isOverflow() {
+    return size == maxSize;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  long sizeInBytes() {
+    return 4L * indexes.length;
+  }
+
+  @Override
+  public String toString() {
+    return Integer.toString(size);
+  }
+}
@@ -0,0 +1,125 @@
+package org.opentripplanner.transit.raptor.rangeraptor.memory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The memory used by the worker state of one or more searches. The worker state is dominated by
+ * arrays and bit sets with one element for each stop. With 100k+ stops this is several megabytes
+ * for each search.
+ * <p>
+ * The memory is leased from the {@link WorkerMemoryPool} and must be released when the searches
+ * using it are done and the state is no longer referenced. When released, the arrays and bit sets
+ * handed out are kept, and reused by the next searches leasing the same memory. They are reset
+ * when handed out again, only the touched elements are reset. Memory which is never reused, see
+ * {@link #isReusable()}, does not keep the arrays and bit sets, and does not track the touched
+ * elements.
+ * <p>
+ * THREAD SAFETY - The allocation methods are synchronized, so searches set up in parallel may
+ * share the memory. The arrays and bit sets returned are not thread-safe, each should be used by
+ * one search only.
+ */
+public final class WorkerMemory {
+
+  private final WorkerMemoryPool pool;
+  private final boolean reusable;
+
+  private final Deque<ReusableIntArray> freeIntArrays = new ArrayDeque<>();
+  private final List<ReusableIntArray> usedIntArrays = new ArrayList<>();
+  private final Deque<ReusableArray<?>> freeArrays = new ArrayDeque<>();
+  private final List<ReusableArray<?>> usedArrays = new ArrayList<>();
+  private final Deque<BitSet> freeBitSets = new ArrayDeque<>();
+  private final List<BitSet> usedBitSets = new ArrayList<>();
+
+  WorkerMemory(WorkerMemoryPool pool, boolean reusable) {
+    this.pool = pool;
+    this.reusable = reusable;
+  }
+
+  /**
+   * Return {@code true} if the memory is returned to the pool and reused by the next search
+   * leasing it.
+   */
+  public boolean isReusable() {
+    return reusable;
+  }
+
+  /** Return an int array with all values set to the given initial value. */
+  public synchronized ReusableIntArray intArray(int size, int initialValue) {
+    ReusableIntArray array = pollFree(freeIntArrays, it -> it.size() == size);
+    if (array == null) {
+      array = new ReusableIntArray(size, initialValue, reusable);
+      pool.countAllocated(array.sizeInBytes());
+    } else {
+      array.reset(initialValue);
+      pool.countReused(array.sizeInBytes());
+    }
+    if (reusable) {
+      usedIntArrays.add(array);
+    }
+    return array;
+  }
+
+  /** Return an object array with all elements set to {@code null}. */
+  public synchronized <E> ReusableArray<E> array(int size) {
+    ReusableArray<?> array = pollFree(freeArrays, it -> it.size() == size);
+    if (array == null) {
+      array = new ReusableArray<>(size, reusable);
+      pool.countAllocated(array.sizeInBytes());
+    } else {
+      array.clear();
+      pool.countReused(array.sizeInBytes());
+    }
+    if (reusable) {
+      usedArrays.add(array);
+    }
+    //noinspection unchecked
+    return (ReusableArray<E>) array;
+  }
+
+  /** Return an empty bit set. */
+  public synchronized BitSet bitSet(int size) {
+    // The size of a bit set is rounded up to a multiple of 64
+    BitSet bitSet = pollFree(freeBitSets, it -> it.size() >= size && it.size() - size < 64);
+    if (bitSet == null) {
+      bitSet = new BitSet(size);
+      pool.countAllocated(bitSet.size() / 8);
+    } else {
+      bitSet.clear();
+      pool.countReused(bitSet.size() / 8);
+    }
+    if (reusable) {
+      usedBitSets.add(bitSet);
+    }
+    return bitSet;
+  }
+
+  /**
+   * Make all arrays and bit sets handed out available for reuse. The caller must make sure they
+   * are no longer used.
+   */
+  synchronized void releaseAll() {
+    freeIntArrays.addAll(usedIntArrays);
+    usedIntArrays.clear();
+    freeArrays.addAll(usedArrays);
+    usedArrays.clear();
+    freeBitSets.addAll(usedBitSets);
+    usedBitSets.clear();
+  }
+
+  /**
+   * Return the first free element with the expected size. Elements with another size are
+   * dropped, this only happens if the number of stops in the transit data changes.
+   */
+  private static <E> E pollFree(Deque<E> free, Predicate<E> hasExpectedSize) {
+    E e = free.pollFirst();
+    while (e != null && !hasExpectedSize.test(e)) {
+      e = free.pollFirst();
+    }
+    return e;
+  }
+}
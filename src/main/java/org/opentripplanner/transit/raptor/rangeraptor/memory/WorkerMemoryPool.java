@@ -0,0 +1,100 @@
+package org.opentripplanner.transit.raptor.rangeraptor.memory;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of {@link WorkerMemory}, used to reuse the worker state memory between requests instead
+ * of allocating it for each search. The pool keeps at most {@code maxSize} idle memory instances,
+ * which should be about the number of requests running concurrently. If the pool size is zero,
+ * nothing is reused, the memory is allocated for every search - the same as not using a pool.
+ * <p>
+ * The pool counts the bytes allocated and reused, so the allocation rate can be compared with and
+ * without pooling.
+ * <p>
+ * This class is thread-safe and has APPLICATION scope.
+ */
+public final class WorkerMemoryPool {
+
+  private final int maxSize;
+  private final Deque<WorkerMemory> idle = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger idleSize = new AtomicInteger();
+
+  private final LongAdder leaseCount = new LongAdder();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final LongAdder reusedBytes = new LongAdder();
+
+  public WorkerMemoryPool(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Lease memory from the pool. The memory must be {@link #release(WorkerMemory)}d when the state
+   * allocated from it is no longer used.
+   */
+  public WorkerMemory lease() {
+    leaseCount.increment();
+    WorkerMemory memory = idle.pollFirst();
+    if (memory == null) {
+      return new WorkerMemory(this, maxSize > 0);
+    }
+    idleSize.decrementAndGet();
+    return memory;
+  }
+
+  /**
+   * Return the memory to the pool, it is dropped if the pool is full. The memory is reused by the
+   * next lease, so all searches using it must be done and the state allocated from it must not be
+   * referenced any more. Memory which is not {@link WorkerMemory#isReusable()} is ignored.
+   */
+  public void release(WorkerMemory memory) {
+    if (!memory.isReusable()) {
+      return;
+    }
+    memory.releaseAll();
+    if (idleSize.incrementAndGet() <= maxSize) {
+      // Reuse the most recently used memory first, it is most likely to be in the CPU cache
+      idle.offerFirst(memory);
+    } else {
+      idleSize.decrementAndGet();
+    }
+  }
+
+  /**
+   * Create memory which is never returned to the pool, use this for state outliving the search,
+   * like the stop arrivals returned in the response. The allocations are counted.
+   */
+  public WorkerMemory create() {
+    return new WorkerMemory(this, false);
+  }
+
+  /** The number of times memory is leased from the pool. */
+  public long leaseCount() {
+    return leaseCount.sum();
+  }
+
+  /** The number of bytes allocated for worker state, approximately. */
+  public long allocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  /** The number of bytes reused, instead of allocated, for worker state, approximately. */
+  public long reusedBytes() {
+    return reusedBytes.sum();
+  }
+
+  /** The number of idle memory instances in the pool. */
+  public int idleSize() {
+    return idleSize.get();
+  }
+
+  void countAllocated(long bytes) {
+    allocatedBytes.add(bytes);
+  }
+
+  void countReused(long bytes) {
+    reusedBytes.add(bytes);
+  }
+}
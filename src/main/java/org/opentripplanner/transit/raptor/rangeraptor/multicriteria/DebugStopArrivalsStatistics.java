@@ -4,6 +4,7 @@ import static java.util.Locale.ROOT;
 import static org.opentripplanner.transit.raptor.api.debug.DebugTopic.STOP_ARRIVALS_STATISTICS;
 
 import org.opentripplanner.transit.raptor.api.debug.DebugLogger;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.ReusableArray;
 
 /**
  * Utility class to print some statistics about stop arrivals.
@@ -17,7 +18,7 @@ class DebugStopArrivalsStatistics {
     this.debugLogger = debugLogger;
   }
 
-  void debugStatInfo(StopArrivalParetoSet<?>[] stops) {
+  void debugStatInfo(ReusableArray<? extends StopArrivalSet<?>> stops) {
     if (!debugLogger.isEnabled()) return;
 
     long total = 0;
@@ -25,7 +26,8 @@ class DebugStopArrivalsStatistics {
     long numOfStops = 0;
     int max = 0;
 
-    for (StopArrivalParetoSet<?> stop : stops) {
+    for (int i = 0; i < stops.size(); ++i) {
+      StopArrivalSet<?> stop = stops.get(i);
       if (stop != null) {
         ++numOfStops;
         total += stop.size();
@@ -62,7 +64,7 @@ class DebugStopArrivalsStatistics {
       toStr(arrayLenAvg),
       toStr(arrayLen),
       toStr(numOfStops),
-      toStr(stops.length)
+      toStr(stops.size())
     );
   }
 
@@ -7,6 +7,9 @@ import org.opentripplanner.transit.raptor.api.transit.IntIterator;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.api.view.ArrivalView;
 import org.opentripplanner.transit.raptor.rangeraptor.debug.DebugHandlerFactory;
+import org.opentripplanner.transit.raptor.rangeraptor.debug.WorkerStatistics;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.ReusableArray;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
 import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.arrivals.AbstractStopArrival;
 import org.opentripplanner.transit.raptor.rangeraptor.path.DestinationArrivalPaths;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.EgressPaths;
@@ -21,24 +24,33 @@ import org.opentripplanner.transit.raptor.util.BitSetIterator;
  */
 public final class McStopArrivals<T extends RaptorTripSchedule> implements StopArrivals {
 
-  private final StopArrivalParetoSet<T>[] arrivals;
+  private final ReusableArray<StopArrivalSet<T>> arrivals;
   private final BitSet touchedStops;
+  private final boolean packedStopArrivals;
+  private final WorkerStatistics statistics;
   private final DebugHandlerFactory<T> debugHandlerFactory;
   private final DebugStopArrivalsStatistics debugStats;
 
   /**
    * Set the time at a transit index iff it is optimal. This sets both the best time and the
    * transfer time
+   *
+   * @param packedStopArrivals use the {@link PackedStopArrivalParetoSet} to store the arrivals
+   * @param memory             the memory to allocate the stop indexed arrays from
    */
   public McStopArrivals(
     int nStops,
     EgressPaths egressPaths,
     DestinationArrivalPaths<T> paths,
-    DebugHandlerFactory<T> debugHandlerFactory
+    boolean packedStopArrivals,
+    WorkerStatistics statistics,
+    DebugHandlerFactory<T> debugHandlerFactory,
+    WorkerMemory memory
   ) {
-    //noinspection unchecked
-    this.arrivals = (StopArrivalParetoSet<T>[]) new StopArrivalParetoSet[nStops];
-    this.touchedStops = new BitSet(nStops);
+    this.arrivals = memory.array(nStops);
+    this.touchedStops = memory.bitSet(nStops);
+    this.packedStopArrivals = packedStopArrivals;
+    this.statistics = statistics;
     this.debugHandlerFactory = debugHandlerFactory;
     this.debugStats = new DebugStopArrivalsStatistics(debugHandlerFactory.debugLogger());
 
@@ -47,12 +59,13 @@ public final class McStopArrivals<T extends RaptorTripSchedule> implements StopA
 
   @Override
   public boolean reached(int stopIndex) {
-    return arrivals[stopIndex] != null && !arrivals[stopIndex].isEmpty();
+    var set = arrivals.get(stopIndex);
+    return set != null && !set.isEmpty();
   }
 
   @Override
   public int bestArrivalTime(int stopIndex) {
-    return arrivals[stopIndex].stream()
+    return arrivals.get(stopIndex).stream()
       .mapToInt(AbstractStopArrival::arrivalTime)
       .min()
       .orElseThrow();
@@ -60,15 +73,13 @@ public final class McStopArrivals<T extends RaptorTripSchedule> implements StopA
 
   @Override
   public boolean reachedByTransit(int stopIndex) {
-    return (
-      arrivals[stopIndex] != null &&
-      arrivals[stopIndex].stream().anyMatch(ArrivalView::arrivedByTransit)
-    );
+    var set = arrivals.get(stopIndex);
+    return set != null && set.stream().anyMatch(ArrivalView::arrivedByTransit);
   }
 
   @Override
   public int bestTransitArrivalTime(int stopIndex) {
-    return arrivals[stopIndex].stream()
+    return arrivals.get(stopIndex).stream()
       .filter(ArrivalView::arrivedByTransit)
       .mapToInt(AbstractStopArrival::arrivalTime)
       .min()
@@ -77,7 +88,7 @@ public final class McStopArrivals<T extends RaptorTripSchedule> implements StopA
 
   @Override
   public int smallestNumberOfTransfers(int stopIndex) {
-    return arrivals[stopIndex].stream()
+    return arrivals.get(stopIndex).stream()
       .filter(ArrivalView::arrivedByTransit)
       .mapToInt(AbstractStopArrival::numberOfTransfers)
       .min()
@@ -94,6 +105,7 @@ public final class McStopArrivals<T extends RaptorTripSchedule> implements StopA
 
   void addStopArrival(AbstractStopArrival<T> arrival) {
     boolean added = findOrCreateSet(arrival.stop()).add(arrival);
+    statistics.incStopArrivals(added);
     if (added) {
       touchedStops.set(arrival.stop());
     }
@@ -105,7 +117,7 @@ public final class McStopArrivals<T extends RaptorTripSchedule> implements StopA
 
   /** List all transits arrived this round. */
   Iterable<AbstractStopArrival<T>> listArrivalsAfterMarker(final int stop) {
-    StopArrivalParetoSet<T> it = arrivals[stop];
+    StopArrivalSet<T> it = arrivals.get(stop);
     if (it == null) {
       // Avoid creating new objects in a tight loop
       return Collections::emptyIterator;
@@ -116,18 +128,23 @@ public final class McStopArrivals<T extends RaptorTripSchedule> implements StopA
   void clearTouchedStopsAndSetStopMarkers() {
     IntIterator it = stopsTouchedIterator();
     while (it.hasNext()) {
-      arrivals[it.next()].markAtEndOfSet();
+      arrivals.get(it.next()).markAtEndOfSet();
     }
     touchedStops.clear();
   }
 
   /* private methods */
 
-  private StopArrivalParetoSet<T> findOrCreateSet(final int stop) {
-    if (arrivals[stop] == null) {
-      arrivals[stop] = StopArrivalParetoSet.createStopArrivalSet(stop, debugHandlerFactory);
+  private StopArrivalSet<T> findOrCreateSet(final int stop) {
+    StopArrivalSet<T> set = arrivals.get(stop);
+    if (set == null) {
+      set =
+        packedStopArrivals
+          ? PackedStopArrivalParetoSet.createStopArrivalSet(stop, debugHandlerFactory)
+          : StopArrivalParetoSet.createStopArrivalSet(stop, debugHandlerFactory);
+      arrivals.set(stop, set);
     }
-    return arrivals[stop];
+    return set;
   }
 
   /**
@@ -142,8 +159,20 @@ public final class McStopArrivals<T extends RaptorTripSchedule> implements StopA
       .byStop()
       .forEachEntry((stop, list) -> {
         // The factory is creating the actual "glue"
-        this.arrivals[stop] =
-          StopArrivalParetoSet.createEgressStopArrivalSet(stop, list, paths, debugHandlerFactory);
+        var set = packedStopArrivals
+          ? PackedStopArrivalParetoSet.createEgressStopArrivalSet(
+            stop,
+            list,
+            paths,
+            debugHandlerFactory
+          )
+          : StopArrivalParetoSet.createEgressStopArrivalSet(
+            stop,
+            list,
+            paths,
+            debugHandlerFactory
+          );
+        this.arrivals.set(stop, set);
         return true;
       });
   }
@@ -0,0 +1,291 @@
+package org.opentripplanner.transit.raptor.rangeraptor.multicriteria;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
+import org.opentripplanner.transit.raptor.api.view.ArrivalView;
+import org.opentripplanner.transit.raptor.rangeraptor.debug.DebugHandlerFactory;
+import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.arrivals.AbstractStopArrival;
+import org.opentripplanner.transit.raptor.rangeraptor.path.DestinationArrivalPaths;
+import org.opentripplanner.transit.raptor.util.paretoset.ParetoSetEventListener;
+
+/**
+ * A pareto optimal set of stop arrivals for a given stop, where the pareto criteria are stored in
+ * a packed int array: {@code [arrivalTime, paretoRound, cost, arrivalTime, paretoRound, ...]}. The
+ * arrivals are kept in a parallel array, they are needed to create the paths, but they are not
+ * accessed when a new arrival is compared with the arrivals in the set.
+ * <p>
+ * The set behave exactly like the {@link StopArrivalParetoSet}, it uses the same dominance
+ * function as {@link AbstractStopArrival#compareArrivalTimeRoundAndCost()}, keeps the arrivals in
+ * the same order and notify the event listener of the same events.
+ * <p>
+ * See {@link org.opentripplanner.transit.raptor.api.request.Optimization#PACKED_STOP_ARRIVALS}.
+ *
+ * @param <T> The TripSchedule type defined by the user of the raptor API.
+ */
+final class PackedStopArrivalParetoSet<T extends RaptorTripSchedule> implements StopArrivalSet<T> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Number of criteria for each arrival: arrival-time, pareto-round and cost */
+  private static final int N = 3;
+
+  private final ParetoSetEventListener<ArrivalView<T>> eventListener;
+
+  @SuppressWarnings("unchecked")
+  private AbstractStopArrival<T>[] elements = new AbstractStopArrival[INITIAL_CAPACITY];
+
+  private int[] criteria = new int[N * INITIAL_CAPACITY];
+  private int size = 0;
+  private int marker = 0;
+
+  private AbstractStopArrival<T> goodElement = null;
+  private int goodTime;
+  private int goodRound;
+  private int goodCost;
+
+  /**
+   * Use the factory methods in this class to create a new instance.
+   */
+  PackedStopArrivalParetoSet(ParetoSetEventListener<ArrivalView<T>> eventListener) {
+    this.eventListener = eventListener;
+  }
+
+  /**
+   * Create a stop arrivals pareto set and attach a debugger is handler exist.
+   */
+  static <T extends RaptorTripSchedule> PackedStopArrivalParetoSet<T> createStopArrivalSet(
+    int stop,
+    DebugHandlerFactory<T> debugHandlerFactory
+  ) {
+    return new PackedStopArrivalParetoSet<>(debugHandlerFactory.paretoSetStopArrivalListener(stop));
+  }
+
+  /**
+   * Create a new set for an egress stop, see
+   * {@link StopArrivalParetoSet#createEgressStopArrivalSet(int, List, DestinationArrivalPaths,
+   * DebugHandlerFactory)}.
+   */
+  static <T extends RaptorTripSchedule> PackedStopArrivalParetoSet<T> createEgressStopArrivalSet(
+    int stop,
+    List<RaptorTransfer> egressPaths,
+    DestinationArrivalPaths<T> destinationArrivals,
+    DebugHandlerFactory<T> debugHandlerFactory
+  ) {
+    return new PackedStopArrivalParetoSet<>(
+      StopArrivalParetoSet.createEgressStopArrivalListener(
+        stop,
+        egressPaths,
+        destinationArrivals,
+        debugHandlerFactory
+      )
+    );
+  }
+
+  @Override
+  public boolean add(AbstractStopArrival<T> newValue) {
+    final int time = newValue.arrivalTime();
+    final int round = newValue.paretoRound();
+    final int cost = newValue.cost();
+
+    if (size == 0) {
+      acceptAndAppendValue(newValue, time, round, cost);
+      return true;
+    }
+
+    // Quick shortcut, one element probably dominate most of the new elements
+    if (goodElement != null && dominates(goodTime, goodRound, goodCost, time, round, cost)) {
+      notifyElementRejected(newValue, goodElement);
+      return false;
+    }
+
+    boolean mutualDominanceExist = false;
+    boolean equivalentVectorExist = false;
+
+    for (int i = 0, c = 0; i < size; ++i, c += N) {
+      final int t = criteria[c];
+      final int r = criteria[c + 1];
+      final int k = criteria[c + 2];
+
+      boolean leftDominance = time < t || round < r || cost < k;
+      boolean rightDominance = t < time || r < round || k < cost;
+
+      if (leftDominance && rightDominance) {
+        mutualDominanceExist = true;
+      } else if (leftDominance) {
+        removeDominatedElementsFromRestOfSetAndAddNewElement(newValue, time, round, cost, i);
+        return true;
+      } else if (rightDominance) {
+        goodElement = elements[i];
+        goodTime = t;
+        goodRound = r;
+        goodCost = k;
+        notifyElementRejected(newValue, goodElement);
+        return false;
+      } else {
+        equivalentVectorExist = true;
+      }
+    }
+
+    if (mutualDominanceExist && !equivalentVectorExist) {
+      assertEnoughSpaceInSet();
+      acceptAndAppendValue(newValue, time, round, cost);
+      return true;
+    }
+
+    // No dominance found, newValue is equivalent with all values in the set
+    notifyElementRejected(newValue, elements[0]);
+    return false;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Stream<AbstractStopArrival<T>> stream() {
+    return Arrays.stream(elements, 0, size);
+  }
+
+  @Override
+  public Iterable<AbstractStopArrival<T>> elementsAfterMarker() {
+    final int startInclusive = marker;
+    return () ->
+      new Iterator<>() {
+        int i = startInclusive;
+
+        @Override
+        public boolean hasNext() {
+          return i < size;
+        }
+
+        @Override
+        public AbstractStopArrival<T> next() {
+          return elements[i++];
+        }
+      };
+  }
+
+  @Override
+  public void markAtEndOfSet() {
+    marker = size;
+  }
+
+  @Override
+  public int internalArrayLength() {
+    return elements.length;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(elements, size));
+  }
+
+  /* private methods */
+
+  /**
+   * Remove all elements dominated by the {@code newValue} starting from {@code index + 1}. The
+   * element at {@code index} is dropped.
+   */
+  private void removeDominatedElementsFromRestOfSetAndAddNewElement(
+    final AbstractStopArrival<T> newValue,
+    final int time,
+    final int round,
+    final int cost,
+    final int index
+  ) {
+    // Let 'i' be the current element index for removal
+    int i = index;
+    // Let 'j' be the next element to compare
+    int j = index + 1;
+
+    notifyElementDropped(elements[i], newValue);
+
+    while (j < size) {
+      moveMarker(j, i);
+      int c = N * j;
+      // Move next element(j) forward if it is not dominated by the new value
+      if (!dominates(time, round, cost, criteria[c], criteria[c + 1], criteria[c + 2])) {
+        elements[i] = elements[j];
+        System.arraycopy(criteria, c, criteria, N * i, N);
+        ++i;
+      } else {
+        notifyElementDropped(elements[j], newValue);
+      }
+      // Goto the next element
+      ++j;
+    }
+    moveMarker(j, i);
+    notifyElementAccepted(newValue);
+    set(i, newValue, time, round, cost);
+    size = i + 1;
+  }
+
+  private static boolean dominates(int lt, int lr, int lc, int rt, int rr, int rc) {
+    return (lt < rt || lr < rr || lc < rc) && !(rt < lt || rr < lr || rc < lc);
+  }
+
+  private void acceptAndAppendValue(
+    AbstractStopArrival<T> newValue,
+    int time,
+    int round,
+    int cost
+  ) {
+    notifyElementAccepted(newValue);
+    set(size++, newValue, time, round, cost);
+  }
+
+  private void set(int index, AbstractStopArrival<T> value, int time, int round, int cost) {
+    elements[index] = value;
+    int c = N * index;
+    criteria[c] = time;
+    criteria[c + 1] = round;
+    criteria[c + 2] = cost;
+  }
+
+  private void assertEnoughSpaceInSet() {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, elements.length * 2);
+      criteria = Arrays.copyOf(criteria, criteria.length * 2);
+    }
+  }
+
+  private void moveMarker(int fromIndex, int toIndex) {
+    if (fromIndex == marker) {
+      marker = toIndex;
+    }
+  }
+
+  private void notifyElementAccepted(AbstractStopArrival<T> newElement) {
+    if (eventListener != null) {
+      eventListener.notifyElementAccepted(newElement);
+    }
+  }
+
+  private void notifyElementDropped(
+    AbstractStopArrival<T> element,
+    AbstractStopArrival<T> droppedByElement
+  ) {
+    if (eventListener != null) {
+      eventListener.notifyElementDropped(element, droppedByElement);
+    }
+  }
+
+  private void notifyElementRejected(
+    AbstractStopArrival<T> element,
+    AbstractStopArrival<T> rejectByElement
+  ) {
+    if (eventListener != null) {
+      eventListener.notifyElementRejected(element, rejectByElement);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.opentripplanner.transit.raptor.rangeraptor.multicriteria;
 
 import java.util.List;
+import java.util.stream.Stream;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.api.view.ArrivalView;
@@ -17,7 +18,8 @@ import org.opentripplanner.transit.raptor.util.paretoset.ParetoSetWithMarker;
  * @param <T> The TripSchedule type defined by the user of the raptor API.
  */
 class StopArrivalParetoSet<T extends RaptorTripSchedule>
-  extends ParetoSetWithMarker<AbstractStopArrival<T>> {
+  extends ParetoSetWithMarker<AbstractStopArrival<T>>
+  implements StopArrivalSet<T> {
 
   /**
    * Use the factory methods in this class to create a new instance.
@@ -26,6 +28,11 @@ class StopArrivalParetoSet<T extends RaptorTripSchedule>
     super(AbstractStopArrival.compareArrivalTimeRoundAndCost(), listener);
   }
 
+  @Override
+  public Stream<AbstractStopArrival<T>> stream() {
+    return super.stream();
+  }
+
   /**
    * Create a stop arrivals pareto set and attach a debugger is handler exist.
    */
@@ -46,6 +53,23 @@ class StopArrivalParetoSet<T extends RaptorTripSchedule>
     List<RaptorTransfer> egressPaths,
     DestinationArrivalPaths<T> destinationArrivals,
     DebugHandlerFactory<T> debugHandlerFactory
+  ) {
+    return new StopArrivalParetoSet<>(
+      createEgressStopArrivalListener(stop, egressPaths, destinationArrivals, debugHandlerFactory)
+    );
+  }
+
+  /**
+   * Create the event listener for an egress stop arrival set, the debug listener and the
+   * {@link CalculateTransferToDestination} "glue" is combined if the debugger is attached.
+   */
+  static <
+    T extends RaptorTripSchedule
+  > ParetoSetEventListener<ArrivalView<T>> createEgressStopArrivalListener(
+    int stop,
+    List<RaptorTransfer> egressPaths,
+    DestinationArrivalPaths<T> destinationArrivals,
+    DebugHandlerFactory<T> debugHandlerFactory
   ) {
     ParetoSetEventListener<ArrivalView<T>> listener;
     ParetoSetEventListener<ArrivalView<T>> debugListener;
@@ -56,7 +80,6 @@ class StopArrivalParetoSet<T extends RaptorTripSchedule>
     if (debugListener != null) {
       listener = new ParetoSetEventListenerComposite<>(debugListener, listener);
     }
-
-    return new StopArrivalParetoSet<>(listener);
+    return listener;
   }
 }
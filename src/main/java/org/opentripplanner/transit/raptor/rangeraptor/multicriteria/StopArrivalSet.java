@@ -0,0 +1,42 @@
+package org.opentripplanner.transit.raptor.rangeraptor.multicriteria;
+
+import java.util.stream.Stream;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
+import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.arrivals.AbstractStopArrival;
+
+/**
+ * A pareto optimal set of stop arrivals for a given stop, with a marker to list the arrivals added
+ * since the last round. There are two implementations, the {@link StopArrivalParetoSet} and the
+ * {@link PackedStopArrivalParetoSet}; they keep the exact same arrivals in the same order.
+ *
+ * @param <T> The TripSchedule type defined by the user of the raptor API.
+ */
+interface StopArrivalSet<T extends RaptorTripSchedule> {
+  /**
+   * Add the arrival if it is pareto optimal, other arrivals dominated by it are dropped.
+   *
+   * @return {@code true} if the arrival is added to the set.
+   */
+  boolean add(AbstractStopArrival<T> arrival);
+
+  boolean isEmpty();
+
+  int size();
+
+  Stream<AbstractStopArrival<T>> stream();
+
+  /**
+   * List all arrivals added after the marker.
+   */
+  Iterable<AbstractStopArrival<T>> elementsAfterMarker();
+
+  /**
+   * Move the marker after the last arrival in the set.
+   */
+  void markAtEndOfSet();
+
+  /**
+   * This is used for logging and tuning purposes.
+   */
+  int internalArrayLength();
+}
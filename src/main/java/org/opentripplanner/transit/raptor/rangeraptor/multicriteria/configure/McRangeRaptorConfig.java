@@ -69,7 +69,10 @@ public class McRangeRaptorConfig<T extends RaptorTripSchedule> {
       context.nStops(),
       context.egressPaths(),
       createDestinationArrivalPaths(),
-      context.debugFactory()
+      context.usePackedStopArrivals(),
+      context.statistics(),
+      context.debugFactory(),
+      context.memory()
     );
   }
 
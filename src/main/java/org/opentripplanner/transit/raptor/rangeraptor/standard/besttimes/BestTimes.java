@@ -1,9 +1,9 @@
 package org.opentripplanner.transit.raptor.rangeraptor.standard.besttimes;
 
-import static org.opentripplanner.util.lang.IntUtils.intArray;
-
 import java.util.BitSet;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.WorkerLifeCycle;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.ReusableIntArray;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.TransitCalculator;
 import org.opentripplanner.transit.raptor.util.BitSetIterator;
 import org.opentripplanner.util.lang.ToStringBuilder;
@@ -26,13 +26,13 @@ import org.opentripplanner.util.lang.ToStringBuilder;
 public final class BestTimes {
 
   /** The best times to reach a stop, across rounds and iterations. */
-  private final int[] times;
+  private final ReusableIntArray times;
 
   /**
    * The best "on-board" arrival times to reach a stop, across rounds and iterations. It includes
    * both transit arrivals and access-on-board arrivals.
    */
-  private final int[] transitArrivalTimes;
+  private final ReusableIntArray transitArrivalTimes;
   private final BitSet reachedByTransitCurrentRound;
   private final TransitCalculator<?> calculator;
   /** Stops touched in the CURRENT round. */
@@ -40,14 +40,19 @@ public final class BestTimes {
   /** Stops touched by in LAST round. */
   private BitSet reachedLastRound;
 
-  public BestTimes(int nStops, TransitCalculator<?> calculator, WorkerLifeCycle lifeCycle) {
+  public BestTimes(
+    int nStops,
+    TransitCalculator<?> calculator,
+    WorkerLifeCycle lifeCycle,
+    WorkerMemory memory
+  ) {
     this.calculator = calculator;
-    this.times = intArray(nStops, calculator.unreachedTime());
-    this.reachedCurrentRound = new BitSet(nStops);
-    this.reachedLastRound = new BitSet(nStops);
+    this.times = memory.intArray(nStops, calculator.unreachedTime());
+    this.reachedCurrentRound = memory.bitSet(nStops);
+    this.reachedLastRound = memory.bitSet(nStops);
 
-    this.transitArrivalTimes = intArray(nStops, calculator.unreachedTime());
-    this.reachedByTransitCurrentRound = new BitSet(nStops);
+    this.transitArrivalTimes = memory.intArray(nStops, calculator.unreachedTime());
+    this.reachedByTransitCurrentRound = memory.bitSet(nStops);
 
     // Attach to Worker life cycle
     lifeCycle.onSetupIteration(ignore -> setupIteration());
@@ -55,11 +60,11 @@ public final class BestTimes {
   }
 
   public int time(int stop) {
-    return times[stop];
+    return times.get(stop);
   }
 
   public int transitArrivalTime(int stop) {
-    return transitArrivalTimes[stop];
+    return transitArrivalTimes.get(stop);
   }
 
   /**
@@ -127,16 +132,15 @@ public final class BestTimes {
   }
 
   public int size() {
-    return times.length;
+    return times.size();
   }
 
   @Override
   public String toString() {
-    final int unreachedTime = calculator.unreachedTime();
     return ToStringBuilder
       .of(BestTimes.class)
-      .addIntArraySize("times", times, unreachedTime)
-      .addIntArraySize("transitArrivalTimes", transitArrivalTimes, unreachedTime)
+      .addObj("times", times)
+      .addObj("transitArrivalTimes", transitArrivalTimes)
       .addNum("reachedCurrentRound", reachedCurrentRound.size())
       .addBitSetSize("reachedByTransitCurrentRound", reachedByTransitCurrentRound)
       .addBitSetSize("reachedLastRound", reachedLastRound)
@@ -172,20 +176,20 @@ public final class BestTimes {
   /* private methods */
 
   private void setTime(final int stop, final int time) {
-    times[stop] = time;
+    times.set(stop, time);
     reachedCurrentRound.set(stop);
   }
 
   private boolean isBestTime(int stop, int time) {
-    return calculator.isBefore(time, times[stop]);
+    return calculator.isBefore(time, times.get(stop));
   }
 
   private boolean isBestTransitArrivalTime(int stop, int time) {
-    return calculator.isBefore(time, transitArrivalTimes[stop]);
+    return calculator.isBefore(time, transitArrivalTimes.get(stop));
   }
 
   private void setBestTime(int stop, int time) {
-    transitArrivalTimes[stop] = time;
+    transitArrivalTimes.set(stop, time);
     reachedByTransitCurrentRound.set(stop);
   }
 
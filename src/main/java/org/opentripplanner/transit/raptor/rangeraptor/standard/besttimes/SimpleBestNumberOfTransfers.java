@@ -1,8 +1,9 @@
 package org.opentripplanner.transit.raptor.rangeraptor.standard.besttimes;
 
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoundProvider;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.ReusableIntArray;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
 import org.opentripplanner.transit.raptor.rangeraptor.standard.internalapi.BestNumberOfTransfers;
-import org.opentripplanner.util.lang.IntUtils;
 
 /**
  * The responsibility for this class is to keep track of the best (minimun) number of transfers for
@@ -10,17 +11,17 @@ import org.opentripplanner.util.lang.IntUtils;
  */
 public class SimpleBestNumberOfTransfers implements BestNumberOfTransfers {
 
-  private final int[] bestNumOfTransfers;
+  private final ReusableIntArray bestNumOfTransfers;
   private final RoundProvider roundProvider;
 
-  public SimpleBestNumberOfTransfers(int nStops, RoundProvider roundProvider) {
-    this.bestNumOfTransfers = IntUtils.intArray(nStops, unreachedMinNumberOfTransfers());
+  public SimpleBestNumberOfTransfers(int nStops, RoundProvider roundProvider, WorkerMemory memory) {
+    this.bestNumOfTransfers = memory.intArray(nStops, unreachedMinNumberOfTransfers());
     this.roundProvider = roundProvider;
   }
 
   @Override
   public int calculateMinNumberOfTransfers(int stop) {
-    return bestNumOfTransfers[stop];
+    return bestNumOfTransfers.get(stop);
   }
 
   /**
@@ -28,8 +29,8 @@ public class SimpleBestNumberOfTransfers implements BestNumberOfTransfers {
    */
   void arriveAtStop(int stop) {
     final int numOfTransfers = roundProvider.round() - 1;
-    if (numOfTransfers < bestNumOfTransfers[stop]) {
-      bestNumOfTransfers[stop] = numOfTransfers;
+    if (numOfTransfers < bestNumOfTransfers.get(stop)) {
+      bestNumOfTransfers.set(stop, numOfTransfers);
     }
   }
 }
@@ -130,7 +130,8 @@ public class StdRangeRaptorConfig<T extends RaptorTripSchedule> {
   private SimpleBestNumberOfTransfers simpleBestNumberOfTransfers() {
     SimpleBestNumberOfTransfers value = new SimpleBestNumberOfTransfers(
       ctx.nStops(),
-      ctx.roundProvider()
+      ctx.roundProvider(),
+      ctx.memory()
     );
     setBestNumberOfTransfers(value);
     return value;
@@ -163,7 +164,8 @@ public class StdRangeRaptorConfig<T extends RaptorTripSchedule> {
 
   private StdStopArrivals<T> stopArrivals() {
     if (arrivals == null) {
-      arrivals = new StdStopArrivals<>(ctx.nRounds(), ctx.nStops(), ctx.roundProvider());
+      arrivals =
+        new StdStopArrivals<>(ctx.nRounds(), ctx.nStops(), ctx.roundProvider(), ctx.memory());
       setBestNumberOfTransfers(arrivals);
     }
     return arrivals;
@@ -206,7 +208,7 @@ public class StdRangeRaptorConfig<T extends RaptorTripSchedule> {
   private BestTimes bestTimes() {
     // Cache best times; request scope
     if (bestTimes == null) {
-      bestTimes = new BestTimes(ctx.nStops(), ctx.calculator(), ctx.lifeCycle());
+      bestTimes = new BestTimes(ctx.nStops(), ctx.calculator(), ctx.lifeCycle(), ctx.memory());
     }
     return bestTimes;
   }
@@ -4,6 +4,8 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.api.transit.TransitArrival;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoundProvider;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.ReusableArray;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
 import org.opentripplanner.transit.raptor.rangeraptor.standard.internalapi.BestNumberOfTransfers;
 import org.opentripplanner.transit.raptor.rangeraptor.standard.internalapi.DestinationArrivalListener;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.EgressPaths;
@@ -13,13 +15,22 @@ import org.opentripplanner.transit.raptor.rangeraptor.transit.EgressPaths;
  */
 public final class StdStopArrivals<T extends RaptorTripSchedule> implements BestNumberOfTransfers {
 
-  private final StopArrivalState<T>[][] arrivals;
+  /** The stop arrival states by round and stop */
+  private final ReusableArray<StopArrivalState<T>>[] arrivals;
   private final RoundProvider roundProvider;
 
-  public StdStopArrivals(int nRounds, int nStops, RoundProvider roundProvider) {
+  public StdStopArrivals(
+    int nRounds,
+    int nStops,
+    RoundProvider roundProvider,
+    WorkerMemory memory
+  ) {
     this.roundProvider = roundProvider;
     //noinspection unchecked
-    this.arrivals = (StopArrivalState<T>[][]) new StopArrivalState[nRounds][nStops];
+    this.arrivals = (ReusableArray<StopArrivalState<T>>[]) new ReusableArray[nRounds];
+    for (int i = 0; i < nRounds; i++) {
+      this.arrivals[i] = memory.array(nStops);
+    }
   }
 
   /**
@@ -35,21 +46,23 @@ public final class StdStopArrivals<T extends RaptorTripSchedule> implements Best
       egressPaths
         .byStop()
         .forEachEntry((stop, list) -> {
-          arrivals[round][stop] =
-            new EgressStopArrivalState<>(stop, round, list, destinationArrivalListener);
+          arrivals[round].set(
+            stop,
+            new EgressStopArrivalState<>(stop, round, list, destinationArrivalListener)
+          );
           return true;
         });
     }
   }
 
   public StopArrivalState<T> get(int round, int stop) {
-    return arrivals[round][stop];
+    return arrivals[round].get(stop);
   }
 
   @Override
   public int calculateMinNumberOfTransfers(int stop) {
     for (int i = 0; i < arrivals.length; i++) {
-      if (arrivals[i][stop] != null) {
+      if (arrivals[i].get(stop) != null) {
         return i - 1;
       }
     }
@@ -63,13 +76,15 @@ public final class StdStopArrivals<T extends RaptorTripSchedule> implements Best
     if (existingArrival instanceof AccessStopArrivalState) {
       ((AccessStopArrivalState<?>) existingArrival).setAccessTime(time, access, bestTime);
     } else {
-      arrivals[round()][stop] =
+      arrivals[round()].set(
+        stop,
         new AccessStopArrivalState<>(
           time,
           access,
           bestTime,
           (DefaultStopArrivalState<T>) existingArrival
-        );
+        )
+      );
     }
   }
 
@@ -109,7 +124,7 @@ public final class StdStopArrivals<T extends RaptorTripSchedule> implements Best
     // can be followed by a transfer
     if (state.arrivedByTransfer()) {
       stopIndex = state.transferFromStop();
-      state = arrivals[prevRound][stopIndex];
+      state = get(prevRound, stopIndex);
     }
     return state.arrivedByTransit()
       ? TransitArrival.create(state.trip(), stopIndex, state.onBoardArrivalTime())
@@ -121,8 +136,8 @@ public final class StdStopArrivals<T extends RaptorTripSchedule> implements Best
   }
 
   private StopArrivalState<T> getOrCreateStopIndex(final int round, final int stop) {
-    if (arrivals[round][stop] == null) {
-      arrivals[round][stop] = StopArrivalState.create();
+    if (arrivals[round].get(stop) == null) {
+      arrivals[round].set(stop, StopArrivalState.create());
     }
     return get(round, stop);
   }
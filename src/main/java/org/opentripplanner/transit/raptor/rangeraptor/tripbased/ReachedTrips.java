@@ -0,0 +1,73 @@
+package org.opentripplanner.transit.raptor.rangeraptor.tripbased;
+
+import java.util.Arrays;
+
+/**
+ * Keep track of the first stop position each trip is boarded at in the current iteration of the
+ * Trip-Based search. A trip only needs to be scanned from where it is boarded to the first stop
+ * position it was boarded at before - the rest of the trip is already scanned, with the same or
+ * fewer transfers. Since trips do not pass each other, the same is true for all later trips of the
+ * route.
+ * <p>
+ * The trips of a route are reset the first time the route is used in an iteration, so routes not
+ * used are not touched.
+ */
+final class ReachedTrips {
+
+  private static final int[] EMPTY = new int[0];
+
+  /** The first stop position each trip is boarded at, by route index and trip index. */
+  private int[][] firstBoardPos = new int[0][];
+  private int[] iterationForRoute = new int[0];
+  private int iteration = 0;
+
+  void nextIteration() {
+    ++iteration;
+  }
+
+  /**
+   * Board the given trip at the given stop position.
+   *
+   * @return the last stop position to scan the trip to, or {@code -1} if the trip is already
+   * boarded at the given stop position or before.
+   */
+  int board(int routeIndex, int tripIndex, int numberOfTrips, int stopPos, int lastStopPos) {
+    // Trips not indexed by the order in the time-table, like frequency based trips, can not be
+    // pruned.
+    if (tripIndex < 0 || tripIndex >= numberOfTrips) {
+      return lastStopPos;
+    }
+    int[] boardPos = firstBoardPosForRoute(routeIndex, numberOfTrips, lastStopPos);
+
+    int endPos = boardPos[tripIndex];
+    if (stopPos >= endPos) {
+      return -1;
+    }
+    // The values are in decreasing order, so we can stop at the first trip boarded before
+    for (int i = tripIndex; i < numberOfTrips && boardPos[i] > stopPos; ++i) {
+      boardPos[i] = stopPos;
+    }
+    return endPos;
+  }
+
+  private int[] firstBoardPosForRoute(int routeIndex, int numberOfTrips, int lastStopPos) {
+    if (routeIndex >= firstBoardPos.length) {
+      int oldLength = firstBoardPos.length;
+      int newLength = Math.max(2 * oldLength, routeIndex + 1);
+      firstBoardPos = Arrays.copyOf(firstBoardPos, newLength);
+      iterationForRoute = Arrays.copyOf(iterationForRoute, newLength);
+      Arrays.fill(firstBoardPos, oldLength, newLength, EMPTY);
+    }
+    int[] boardPos = firstBoardPos[routeIndex];
+
+    if (iterationForRoute[routeIndex] != iteration) {
+      iterationForRoute[routeIndex] = iteration;
+      if (boardPos.length < numberOfTrips) {
+        boardPos = new int[numberOfTrips];
+        firstBoardPos[routeIndex] = boardPos;
+      }
+      Arrays.fill(boardPos, 0, numberOfTrips, lastStopPos);
+    }
+    return boardPos;
+  }
+}
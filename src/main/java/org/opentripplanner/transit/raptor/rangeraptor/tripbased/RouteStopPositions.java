@@ -0,0 +1,72 @@
+package org.opentripplanner.transit.raptor.rangeraptor.tripbased;
+
+import java.util.Arrays;
+
+/**
+ * A set of route stop positions to board in a round of the Trip-Based search. The positions are
+ * kept in a list in the order they are added, adding a position already in the set is ignored.
+ * <p>
+ * The set is cleared for each round, so instead of clearing the lookup table we increment a
+ * version number and compare it with the version each position was added in.
+ */
+final class RouteStopPositions {
+
+  private static final int[] EMPTY = new int[0];
+
+  private int[] routes = new int[256];
+  private int[] stopPositions = new int[256];
+  private int size = 0;
+
+  /** The version each position was last added in, by route index and stop position. */
+  private int[][] addedInVersion = new int[0][];
+  private int version = 1;
+
+  void add(int routeIndex, int stopPositionInPattern) {
+    int[] added = addedInVersionForRoute(routeIndex, stopPositionInPattern);
+
+    if (added[stopPositionInPattern] == version) {
+      return;
+    }
+    added[stopPositionInPattern] = version;
+
+    if (size == routes.length) {
+      routes = Arrays.copyOf(routes, 2 * size);
+      stopPositions = Arrays.copyOf(stopPositions, 2 * size);
+    }
+    routes[size] = routeIndex;
+    stopPositions[size] = stopPositionInPattern;
+    ++size;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int routeIndex(int index) {
+    return routes[index];
+  }
+
+  int stopPositionInPattern(int index) {
+    return stopPositions[index];
+  }
+
+  void clear() {
+    size = 0;
+    ++version;
+  }
+
+  private int[] addedInVersionForRoute(int routeIndex, int stopPositionInPattern) {
+    if (routeIndex >= addedInVersion.length) {
+      int oldLength = addedInVersion.length;
+      addedInVersion = Arrays.copyOf(addedInVersion, Math.max(2 * oldLength, routeIndex + 1));
+      Arrays.fill(addedInVersion, oldLength, addedInVersion.length, EMPTY);
+    }
+    int[] added = addedInVersion[routeIndex];
+
+    if (stopPositionInPattern >= added.length) {
+      added = Arrays.copyOf(added, stopPositionInPattern + 1);
+      addedInVersion[routeIndex] = added;
+    }
+    return added;
+  }
+}
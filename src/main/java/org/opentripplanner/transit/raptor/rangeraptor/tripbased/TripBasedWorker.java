@@ -0,0 +1,366 @@
+package org.opentripplanner.transit.raptor.rangeraptor.tripbased;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import org.opentripplanner.transit.raptor.api.debug.RaptorTimers;
+import org.opentripplanner.transit.raptor.api.path.Path;
+import org.opentripplanner.transit.raptor.api.response.StopArrivals;
+import org.opentripplanner.transit.raptor.api.transit.IntIterator;
+import org.opentripplanner.transit.raptor.api.transit.RaptorRoute;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTimeTable;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripBasedTransfers;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripPattern;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripScheduleSearch;
+import org.opentripplanner.transit.raptor.rangeraptor.debug.WorkerStatistics;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoundProvider;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.RoutingStrategy;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.SlackProvider;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Worker;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.WorkerState;
+import org.opentripplanner.transit.raptor.rangeraptor.lifecycle.LifeCycleEventPublisher;
+import org.opentripplanner.transit.raptor.rangeraptor.transit.AccessPaths;
+import org.opentripplanner.transit.raptor.rangeraptor.transit.RoundTracker;
+import org.opentripplanner.transit.raptor.rangeraptor.transit.TransitCalculator;
+import org.opentripplanner.transit.raptor.util.BitSetIterator;
+
+/**
+ * The algorithm used herein is described in
+ * <p>
+ * Sascha Witt. “Trip-Based Public Transit Routing.” In Algorithms - ESA 2015, 1025–36. Springer,
+ * 2015. https://arxiv.org/abs/1504.07149.
+ * <p>
+ * Range Raptor scans every route serving a stop reached in the previous round. This worker instead
+ * boards the route stop positions listed in the precomputed {@link RaptorTripBasedTransfers} for
+ * each stop position alighted in the previous round, and scans each trip boarded only until the
+ * first stop position the trip is already boarded at, see {@link ReachedTrips}. Like in the paper,
+ * the transfers are computed ahead of the search, but they are kept by route stop position, not
+ * by trip. The trip to board is found with the normal trip search, using the best arrival time at
+ * the stop. This makes the transfers independent of the request, and the result the same as with
+ * Range Raptor.
+ * <p>
+ * The worker uses the same {@link WorkerState} and {@link RoutingStrategy} as the
+ * {@link org.opentripplanner.transit.raptor.rangeraptor.RangeRaptorWorker}, so the stop arrivals
+ * and paths are created the same way. It iterates over the departure minutes in the same way.
+ * <p>
+ * This version support the standard and best-time profiles in the forward direction, without
+ * constrained transfers.
+ *
+ * @param <T> The TripSchedule type defined by the user of the raptor API.
+ */
+public final class TripBasedWorker<T extends RaptorTripSchedule> implements Worker<T> {
+
+  private final RoutingStrategy<T> transitWorker;
+
+  private final WorkerState<T> state;
+
+  private final RoundTracker roundTracker;
+
+  private final RaptorTransitDataProvider<T> transitData;
+
+  private final RaptorTripBasedTransfers tripBasedTransfers;
+
+  private final SlackProvider slackProvider;
+
+  private final TransitCalculator<T> calculator;
+
+  private final RaptorTimers timers;
+
+  private final WorkerStatistics statistics;
+
+  private final AccessPaths accessPaths;
+
+  private final LifeCycleEventPublisher lifeCycle;
+
+  private final int minNumberOfRounds;
+
+  private final ReachedTrips reachedTrips = new ReachedTrips();
+
+  /**
+   * The stops reached by an access path, all routes serving these stops are boarded in the next
+   * round. The trip-based transfers are only listed for stop positions alighted.
+   */
+  private final BitSet accessStops = new BitSet();
+
+  private RouteStopPositions boardThisRound = new RouteStopPositions();
+
+  private RouteStopPositions boardNextRound = new RouteStopPositions();
+
+  private boolean inFirstIteration = true;
+
+  private boolean hasTimeDependentAccess = false;
+
+  private int iterationDepartureTime;
+
+  public TripBasedWorker(
+    WorkerState<T> state,
+    RoutingStrategy<T> transitWorker,
+    RaptorTransitDataProvider<T> transitData,
+    SlackProvider slackProvider,
+    AccessPaths accessPaths,
+    RoundProvider roundProvider,
+    TransitCalculator<T> calculator,
+    LifeCycleEventPublisher lifeCyclePublisher,
+    RaptorTimers timers,
+    WorkerStatistics statistics
+  ) {
+    this.transitWorker = transitWorker;
+    this.state = state;
+    this.transitData = transitData;
+    this.tripBasedTransfers = transitData.tripBasedTransfers();
+    this.slackProvider = slackProvider;
+    this.calculator = calculator;
+    this.timers = timers;
+    this.statistics = statistics;
+    this.accessPaths = accessPaths;
+    this.minNumberOfRounds = accessPaths.calculateMaxNumberOfRides();
+
+    // We do a cast here to avoid exposing the round tracker  and the life cycle publisher to
+    // "everyone" by providing access to it in the context.
+    this.roundTracker = (RoundTracker) roundProvider;
+    this.lifeCycle = lifeCyclePublisher;
+  }
+
+  @Override
+  public void route() {
+    timers.route(() -> {
+      lifeCycle.notifyRouteSearchStart(calculator.searchForward());
+      transitData.setup();
+
+      final IntIterator it = calculator.rangeRaptorMinutes();
+      while (it.hasNext()) {
+        iterationDepartureTime = it.next();
+        lifeCycle.setupIteration(iterationDepartureTime);
+        statistics.incIterations();
+        runTripBasedSearchForMinute();
+        inFirstIteration = false;
+      }
+    });
+    timers.searchStatistics(statistics.toRaptorSearchStatistics());
+  }
+
+  @Override
+  public Collection<Path<T>> paths() {
+    return state.extractPaths();
+  }
+
+  @Override
+  public StopArrivals stopArrivals() {
+    return state.extractStopArrivals();
+  }
+
+  /**
+   * Perform one minute of the search.
+   */
+  private void runTripBasedSearchForMinute() {
+    reachedTrips.nextIteration();
+    accessStops.clear();
+    boardNextRound.clear();
+
+    findAccessOnStreetForRound();
+
+    while (hasMoreRounds()) {
+      lifeCycle.prepareForNextRound(roundTracker.nextRound());
+      statistics.incRounds();
+
+      findTransitForRound();
+
+      findAccessOnBoardForRound();
+
+      findTransfersForRound();
+
+      lifeCycle.roundComplete(state.isDestinationReachedInCurrentRound());
+
+      findAccessOnStreetForRound();
+    }
+
+    lifeCycle.iterationComplete();
+  }
+
+  /**
+   * Check if the search should continue with a new round.
+   */
+  private boolean hasMoreRounds() {
+    if (round() < minNumberOfRounds) {
+      return true;
+    }
+    return state.isNewRoundAvailable() && roundTracker.hasMoreRounds();
+  }
+
+  private void findTransitForRound() {
+    timers.findTransitForRound(() -> {
+      var board = boardNextRound;
+      boardNextRound = boardThisRound;
+      boardThisRound = board;
+      boardNextRound.clear();
+
+      addAllRoutesAtAccessStops();
+
+      for (int i = 0; i < boardThisRound.size(); ++i) {
+        boardAndScanTrip(boardThisRound.routeIndex(i), boardThisRound.stopPositionInPattern(i));
+      }
+      lifeCycle.transitsForRoundComplete();
+    });
+  }
+
+  private void addAllRoutesAtAccessStops() {
+    if (accessStops.isEmpty()) {
+      return;
+    }
+    IntIterator routeIndexIterator = transitData.routeIndexIterator(
+      new BitSetIterator(accessStops)
+    );
+
+    while (routeIndexIterator.hasNext()) {
+      int routeIndex = routeIndexIterator.next();
+      var pattern = transitData.getRouteForIndex(routeIndex).pattern();
+
+      for (int stopPos = 0; stopPos < pattern.numberOfStopsInPattern(); ++stopPos) {
+        if (accessStops.get(pattern.stopIndex(stopPos))) {
+          boardThisRound.add(routeIndex, stopPos);
+        }
+      }
+    }
+    accessStops.clear();
+  }
+
+  private void boardAndScanTrip(int routeIndex, int stopPos) {
+    RaptorRoute<T> route = transitData.getRouteForIndex(routeIndex);
+
+    // The transfers may list routes not in service for this search
+    if (route == null || !calculator.boardingPossibleAt(route.pattern(), stopPos)) {
+      return;
+    }
+    int stopIndex = route.pattern().stopIndex(stopPos);
+
+    statistics.incRoutesScanned();
+    transitWorker.prepareForTransitWith();
+    transitWorker.forEachBoarding(
+      stopIndex,
+      (int prevArrivalTime) -> boardTrip(routeIndex, route, stopIndex, stopPos, prevArrivalTime)
+    );
+  }
+
+  private void boardTrip(
+    int routeIndex,
+    RaptorRoute<T> route,
+    int stopIndex,
+    int stopPos,
+    int prevArrivalTime
+  ) {
+    RaptorTripPattern pattern = route.pattern();
+    RaptorTimeTable<T> timetable = route.timetable();
+
+    int earliestBoardTime = calculator.plusDuration(
+      prevArrivalTime,
+      slackProvider.boardSlack(pattern.slackIndex())
+    );
+    var result = createTripSearch(timetable).search(earliestBoardTime, stopPos);
+    if (result == null) {
+      return;
+    }
+
+    int lastStopPos = reachedTrips.board(
+      routeIndex,
+      result.getTripIndex(),
+      timetable.numberOfTripSchedules(),
+      stopPos,
+      pattern.numberOfStopsInPattern() - 1
+    );
+    if (lastStopPos < 0) {
+      return;
+    }
+
+    statistics.incTripsBoarded();
+    transitWorker.board(stopIndex, earliestBoardTime, result);
+
+    int alightSlack = slackProvider.alightSlack(pattern.slackIndex());
+
+    for (int pos = stopPos + 1; pos <= lastStopPos; ++pos) {
+      if (calculator.alightingPossibleAt(pattern, pos)) {
+        transitWorker.alight(pattern.stopIndex(pos), pos, alightSlack);
+
+        int[] transfers = tripBasedTransfers.transfersFrom(routeIndex, pos);
+        for (int i = 0; i < transfers.length; i += 2) {
+          boardNextRound.add(transfers[i], transfers[i + 1]);
+        }
+      }
+    }
+  }
+
+  private void findTransfersForRound() {
+    timers.findTransfersForRound(() -> {
+      IntIterator it = state.stopsTouchedByTransitCurrentRound();
+
+      while (it.hasNext()) {
+        final int fromStop = it.next();
+        statistics.incStopsTouched();
+        state.transferToStops(fromStop, calculator.getTransfers(transitData, fromStop));
+      }
+
+      lifeCycle.transfersForRoundComplete();
+    });
+  }
+
+  /**
+   * Create the trip search, see the same method in
+   * {@link org.opentripplanner.transit.raptor.rangeraptor.RangeRaptorWorker}.
+   */
+  private RaptorTripScheduleSearch<T> createTripSearch(RaptorTimeTable<T> timeTable) {
+    if (!inFirstIteration && roundTracker.isFirstRound() && !hasTimeDependentAccess) {
+      return calculator.createExactTripSearch(timeTable);
+    }
+    return calculator.createTripSearch(timeTable);
+  }
+
+  private void findAccessOnStreetForRound() {
+    addAccessPaths(accessPaths.arrivedOnStreetByNumOfRides().get(round()), false);
+  }
+
+  private void findAccessOnBoardForRound() {
+    addAccessPaths(accessPaths.arrivedOnBoardByNumOfRides().get(round()), true);
+  }
+
+  private void addAccessPaths(Collection<RaptorTransfer> accessPaths, boolean onBoard) {
+    if (accessPaths == null) {
+      return;
+    }
+
+    for (RaptorTransfer it : accessPaths) {
+      int timeDependentDepartureTime = calculator.departureTime(it, iterationDepartureTime);
+
+      // This access is not available after the iteration departure time
+      if (timeDependentDepartureTime == -1) {
+        continue;
+      }
+
+      if (timeDependentDepartureTime != iterationDepartureTime) {
+        hasTimeDependentAccess = true;
+      }
+
+      transitWorker.setAccessToStop(it, iterationDepartureTime, timeDependentDepartureTime);
+
+      accessStops.set(it.stop());
+
+      // Access arriving on-board is followed by a transfer in the same round, like a transit
+      // arrival. There is no trip to look up the trip-based transfers for, so all routes serving
+      // the stops reached by a transfer are boarded in the next round.
+      if (onBoard) {
+        Iterator<? extends RaptorTransfer> transfers = calculator.getTransfers(
+          transitData,
+          it.stop()
+        );
+        while (transfers.hasNext()) {
+          accessStops.set(transfers.next().stop());
+        }
+      }
+    }
+  }
+
+  private int round() {
+    return roundTracker.round();
+  }
+}
@@ -0,0 +1,44 @@
+package org.opentripplanner.transit.raptor.service;
+
+import javax.annotation.Nullable;
+import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Heuristics;
+
+/**
+ * Keep the REVERSE heuristics used for destination pruning, so they can be reused by the next
+ * search with the same transit data, access and egress. This is used when a client pages through
+ * the results, the reverse heuristic search is then the same for every page, as long as the
+ * latest-arrival-time used by the heuristic search is the same.
+ * <p>
+ * The caller is responsible for passing the cache into searches with the same transit data,
+ * access, egress and request parameters only - the cache only checks the latest-arrival-time. The
+ * heuristics are computed using memory that is not returned to the worker memory pool, so they
+ * stay valid as long as the cache is referenced.
+ * <p>
+ * THREAD SAFETY - The cache can be used by more than one search at the time.
+ */
+public final class DestinationHeuristicsCache {
+
+  private int latestArrivalTime;
+  private Heuristics heuristics = null;
+
+  /**
+   * Return the cached heuristics if computed with the given latest-arrival-time, if not return
+   * {@code null}.
+   */
+  @Nullable
+  synchronized Heuristics get(int latestArrivalTime) {
+    return this.latestArrivalTime == latestArrivalTime ? heuristics : null;
+  }
+
+  synchronized void put(int latestArrivalTime, Heuristics heuristics) {
+    // Calculate the aggregated results, the heuristics are read-only after this
+    heuristics.bestOverallJourneyTravelDuration();
+    this.latestArrivalTime = latestArrivalTime;
+    this.heuristics = heuristics;
+  }
+
+  /** Return {@code true} if the cache contains heuristics. */
+  public synchronized boolean isEmpty() {
+    return heuristics == null;
+  }
+}
@@ -13,6 +13,7 @@ import org.opentripplanner.transit.raptor.api.transit.SearchDirection;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.HeuristicSearch;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Heuristics;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
 import org.opentripplanner.util.time.DurationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +34,7 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
   private final String name;
   private final RaptorConfig<T> config;
   private final RaptorTransitDataProvider<T> transitData;
+  private final WorkerMemory memory;
 
   private boolean run = false;
   private HeuristicSearch<T> search = null;
@@ -44,7 +46,13 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
     RaptorConfig<T> config,
     RaptorTransitDataProvider<T> transitData
   ) {
-    this(request.searchDirection(), request.alias(), config, transitData);
+    this(
+      request.searchDirection(),
+      request.alias(),
+      config,
+      transitData,
+      config.workerMemoryPool().create()
+    );
     this.originalRequest = request;
   }
 
@@ -52,12 +60,14 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
     SearchDirection direction,
     String name,
     RaptorConfig<T> config,
-    RaptorTransitDataProvider<T> transitData
+    RaptorTransitDataProvider<T> transitData,
+    WorkerMemory memory
   ) {
     this.direction = direction;
     this.name = name;
     this.config = config;
     this.transitData = transitData;
+    this.memory = memory;
   }
 
   public String name() {
@@ -149,7 +159,7 @@ public class HeuristicSearchTask<T extends RaptorTripSchedule> {
 
       heuristicReq = builder.build();
 
-      search = config.createHeuristicSearch(transitData, heuristicReq);
+      search = config.createHeuristicSearch(transitData, heuristicReq, memory);
     }
   }
 }
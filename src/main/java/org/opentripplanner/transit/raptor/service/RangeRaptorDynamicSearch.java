@@ -20,6 +20,7 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
 import org.opentripplanner.transit.raptor.configure.RaptorConfig;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Heuristics;
 import org.opentripplanner.transit.raptor.rangeraptor.internalapi.Worker;
+import org.opentripplanner.transit.raptor.rangeraptor.memory.WorkerMemory;
 import org.opentripplanner.transit.raptor.rangeraptor.transit.RaptorSearchWindowCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,19 +47,59 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
   private final HeuristicSearchTask<T> fwdHeuristics;
   private final HeuristicSearchTask<T> revHeuristics;
 
+  /** The memory used by the forward heuristic search and by the main search. */
+  private final WorkerMemory memory;
+
+  @Nullable
+  private final DestinationHeuristicsCache heuristicsCache;
+
+  private Heuristics cachedDestinationHeuristics = null;
+
   public RangeRaptorDynamicSearch(
     RaptorConfig<T> config,
     RaptorTransitDataProvider<T> transitData,
     RaptorRequest<T> originalRequest
+  ) {
+    this(
+      config,
+      transitData,
+      originalRequest,
+      config.workerMemoryPool().create(),
+      config.workerMemoryPool().create(),
+      null
+    );
+  }
+
+  /**
+   * @param memory              the memory used by the forward heuristic search and by the main
+   *                            search, it is done when the main search starts.
+   * @param revHeuristicsMemory the memory used by the reverse heuristic search. The forward and
+   *                            reverse searches may run in parallel, so they must not use the
+   *                            same memory. If the heuristics are cached, they outlive this search
+   *                            and must be computed using memory not in the pool.
+   * @param heuristicsCache     if not {@code null} the destination heuristics are reused from the
+   *                            cache, or put into the cache when computed.
+   */
+  public RangeRaptorDynamicSearch(
+    RaptorConfig<T> config,
+    RaptorTransitDataProvider<T> transitData,
+    RaptorRequest<T> originalRequest,
+    WorkerMemory memory,
+    WorkerMemory revHeuristicsMemory,
+    @Nullable DestinationHeuristicsCache heuristicsCache
   ) {
     this.config = config;
+    this.memory = memory;
     this.transitData = transitData;
     this.originalRequest = originalRequest;
+    this.heuristicsCache = heuristicsCache;
     this.dynamicSearchParamsCalculator =
       config.searchWindowCalculator().withSearchParams(originalRequest.searchParams());
 
-    this.fwdHeuristics = new HeuristicSearchTask<>(FORWARD, "Forward", config, transitData);
-    this.revHeuristics = new HeuristicSearchTask<>(REVERSE, "Reverse", config, transitData);
+    this.fwdHeuristics =
+      new HeuristicSearchTask<>(FORWARD, "Forward", config, transitData, memory);
+    this.revHeuristics =
+      new HeuristicSearchTask<>(REVERSE, "Reverse", config, transitData, revHeuristicsMemory);
   }
 
   public RaptorResponse<T> route() {
@@ -95,7 +136,9 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
       return null;
     }
     LOG.debug("RangeRaptor - Destination pruning enabled.");
-    return revHeuristics.result();
+    return cachedDestinationHeuristics != null
+      ? cachedDestinationHeuristics
+      : revHeuristics.result();
   }
 
   /**
@@ -118,12 +161,50 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
    * @throws DestinationNotReachedException if destination is not reached.
    */
   private void runHeuristics() {
+    if (reuseCachedDestinationHeuristics()) {
+      return;
+    }
     if (isItPossibleToRunHeuristicsInParallel()) {
       runHeuristicsInParallel();
     } else {
       runHeuristicsSequentially();
     }
     fwdHeuristics.debugCompareResult(revHeuristics);
+
+    if (heuristicsCache != null && revHeuristics.isEnabled()) {
+      heuristicsCache.put(reverseHeuristicsLatestArrivalTime(), revHeuristics.result());
+    }
+  }
+
+  /**
+   * The cached destination heuristics can replace both heuristic searches if the EDT and the
+   * search-window is set, the forward heuristics is then only used to check that the destination
+   * is reachable - witch the cached heuristics already prove. This is the case when paging.
+   */
+  private boolean reuseCachedDestinationHeuristics() {
+    if (heuristicsCache == null || !revHeuristics.isEnabled()) {
+      return false;
+    }
+    SearchParams s = originalRequest.searchParams();
+    if (!s.isEarliestDepartureTimeSet() || !s.isSearchWindowSet()) {
+      return false;
+    }
+    cachedDestinationHeuristics = heuristicsCache.get(reverseHeuristicsLatestArrivalTime());
+
+    if (cachedDestinationHeuristics != null) {
+      LOG.debug("RangeRaptor - REVERSE heuristics reused, no heuristic search performed.");
+    }
+    return cachedDestinationHeuristics != null;
+  }
+
+  /**
+   * The latest-arrival-time used by the REVERSE heuristic search, the search is run with the same
+   * LAT in both the parallel and the sequential case.
+   */
+  private int reverseHeuristicsLatestArrivalTime() {
+    return requestForReverseHeurSearchWithDynamicSearchParams()
+      .searchParams()
+      .latestArrivalTime();
   }
 
   private RaptorResponse<T> createAndRunDynamicRRWorker(RaptorRequest<T> request) {
@@ -132,16 +213,16 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
 
     // Create worker
     if (request.profile().is(MULTI_CRITERIA)) {
-      worker = config.createMcWorker(transitData, request, getDestinationHeuristics());
+      worker = config.createMcWorker(transitData, request, getDestinationHeuristics(), memory);
     } else {
-      worker = config.createStdWorker(transitData, request);
+      worker = config.createStdWorker(transitData, request, memory);
     }
 
     // Route
     worker.route();
 
-    // create and return response
-    return new RaptorResponse<>(worker.paths(), worker.stopArrivals(), originalRequest, request);
+    // create and return response, the stop arrivals are not returned since the memory is reused
+    return new RaptorResponse<>(worker.paths(), null, originalRequest, request);
   }
 
   private boolean isItPossibleToRunHeuristicsInParallel() {
@@ -165,8 +246,12 @@ public class RangeRaptorDynamicSearch<T extends RaptorTripSchedule> {
       revHeuristics.withRequest(originalRequest);
 
       Future<?> f = config.threadPool().submit(fwdHeuristics::run);
-      revHeuristics.run();
-      f.get();
+      try {
+        revHeuristics.run();
+      } finally {
+        // Always wait for the forward search, its memory is reused when this search is done
+        f.get();
+      }
       LOG.debug(
         "Route using RangeRaptor - " + "REVERSE and FORWARD heuristic search performed in parallel."
       );
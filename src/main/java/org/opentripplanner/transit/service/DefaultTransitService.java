@@ -506,6 +506,11 @@ public class DefaultTransitService implements TransitEditorService {
     return this.transitModelIndex.getFlexIndex();
   }
 
+  @Override
+  public TripMatchingIndex getTripMatchingIndex() {
+    return this.transitModelIndex.getTripMatchingIndex();
+  }
+
   @Override
   public ZonedDateTime getTransitServiceEnds() {
     return transitModel.getTransitServiceEnds();
@@ -59,6 +59,8 @@ public class TransitModelIndex {
   private final Map<FeedScopedId, GroupOfRoutes> groupOfRoutesForId = new HashMap<>();
   private FlexIndex flexIndex = null;
 
+  private volatile TripMatchingIndex tripMatchingIndex = null;
+
   TransitModelIndex(TransitModel transitModel) {
     LOG.info("Transit model index init...");
 
@@ -215,6 +217,24 @@ public class TransitModelIndex {
     return flexIndex;
   }
 
+  /**
+   * The trip matching index is only used by realtime updaters without trip ids, so it is built
+   * the first time it is requested. The index is immutable and safe to share between threads.
+   */
+  public TripMatchingIndex getTripMatchingIndex() {
+    TripMatchingIndex index = tripMatchingIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = tripMatchingIndex;
+        if (index == null) {
+          index = TripMatchingIndex.of(patternsForRoute.values());
+          tripMatchingIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+
   private void initalizeServiceCodesForDate(TransitModel transitModel) {
     CalendarService calendarService = transitModel.getCalendarService();
 
@@ -176,6 +176,11 @@ public interface TransitService {
 
   FlexIndex getFlexIndex();
 
+  /**
+   * Index used to match realtime updates without trip ids to scheduled trips.
+   */
+  TripMatchingIndex getTripMatchingIndex();
+
   ZonedDateTime getTransitServiceEnds();
 
   ZonedDateTime getTransitServiceStarts();
@@ -0,0 +1,160 @@
+package org.opentripplanner.transit.service;
+
+import gnu.trove.set.TIntSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.Direction;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index used by the realtime updaters to match updates without a trip id to scheduled trips. The
+ * index is immutable, it is built once per transit model from the scheduled timetables, and shared
+ * by all updaters. Lookups do not lock.
+ * <p>
+ * The index contains:
+ * <ul>
+ *   <li>(route, direction, start time) -> trip times, for GTFS-RT trip descriptors.</li>
+ *   <li>(last stop, arrival time) -> trips, for SIRI journeys without a known id.</li>
+ *   <li>NeTEx internal planning code (SIRI vehicle ref) -> trips.</li>
+ * </ul>
+ * The service date is not part of the keys, use the service codes running on the date to filter
+ * the result.
+ */
+public class TripMatchingIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TripMatchingIndex.class);
+
+  private final Map<RouteDirectionAndStartTime, List<TripTimes>> tripTimesByStartTime;
+  private final Map<StopAndTime, Set<Trip>> tripsByLastStopArrival;
+  private final Map<String, Set<Trip>> tripsByInternalPlanningCode;
+
+  private TripMatchingIndex(
+    Map<RouteDirectionAndStartTime, List<TripTimes>> tripTimesByStartTime,
+    Map<StopAndTime, Set<Trip>> tripsByLastStopArrival,
+    Map<String, Set<Trip>> tripsByInternalPlanningCode
+  ) {
+    this.tripTimesByStartTime = tripTimesByStartTime;
+    this.tripsByLastStopArrival = tripsByLastStopArrival;
+    this.tripsByInternalPlanningCode = tripsByInternalPlanningCode;
+  }
+
+  /**
+   * Build the index from the scheduled timetables of the given patterns.
+   */
+  public static TripMatchingIndex of(Collection<TripPattern> patterns) {
+    Map<RouteDirectionAndStartTime, List<TripTimes>> byStartTime = new HashMap<>();
+    Map<StopAndTime, Set<Trip>> byLastStopArrival = new HashMap<>();
+    Map<String, Set<Trip>> byInternalPlanningCode = new HashMap<>();
+
+    for (TripPattern pattern : patterns) {
+      var route = pattern.getRoute();
+      var direction = pattern.getDirection();
+      var lastStopId = pattern.lastStop().getId();
+
+      for (TripTimes times : pattern.getScheduledTimetable().getTripTimes()) {
+        var trip = times.getTrip();
+        byStartTime
+          .computeIfAbsent(
+            new RouteDirectionAndStartTime(route, direction, times.getScheduledDepartureTime(0)),
+            k -> new ArrayList<>(1)
+          )
+          .add(times);
+        byLastStopArrival
+          .computeIfAbsent(
+            new StopAndTime(lastStopId, times.getArrivalTime(times.getNumStops() - 1)),
+            k -> new HashSet<>()
+          )
+          .add(trip);
+        if (trip.getNetexInternalPlanningCode() != null) {
+          byInternalPlanningCode
+            .computeIfAbsent(trip.getNetexInternalPlanningCode(), k -> new HashSet<>())
+            .add(trip);
+        }
+      }
+    }
+
+    var index = new TripMatchingIndex(
+      immutableListValues(byStartTime),
+      immutableSetValues(byLastStopArrival),
+      immutableSetValues(byInternalPlanningCode)
+    );
+    LOG.info(
+      "Trip matching index built [start times: {}, last stop arrivals: {}, planning codes: {}].",
+      byStartTime.size(),
+      byLastStopArrival.size(),
+      byInternalPlanningCode.size()
+    );
+    return index;
+  }
+
+  /**
+   * Find the first scheduled trip on the given route and direction departing from the first stop
+   * at the given time, and running on one of the given services.
+   *
+   * @return {@code null} if no trip is found.
+   */
+  public Trip findTrip(
+    Route route,
+    Direction direction,
+    int startTime,
+    TIntSet serviceCodesRunning
+  ) {
+    var candidates = tripTimesByStartTime.get(
+      new RouteDirectionAndStartTime(route, direction, startTime)
+    );
+    if (candidates == null) {
+      return null;
+    }
+    for (TripTimes times : candidates) {
+      if (serviceCodesRunning.contains(times.getServiceCode())) {
+        return times.getTrip();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Find the trips arriving at the given stop at the given time, where the stop is the last stop
+   * in the trip pattern.
+   *
+   * @return an immutable set, empty if no trip is found.
+   */
+  public Set<Trip> findTripsByLastStopArrival(FeedScopedId lastStopId, int arrivalTime) {
+    return tripsByLastStopArrival.getOrDefault(new StopAndTime(lastStopId, arrivalTime), Set.of());
+  }
+
+  /**
+   * Find the trips with the given NeTEx internal planning code. The internal planning code is used
+   * as vehicle ref in SIRI.
+   *
+   * @return an immutable set, empty if no trip is found.
+   */
+  public Set<Trip> findTripsByInternalPlanningCode(String internalPlanningCode) {
+    return tripsByInternalPlanningCode.getOrDefault(internalPlanningCode, Set.of());
+  }
+
+  private static <K, V> Map<K, List<V>> immutableListValues(Map<K, List<V>> map) {
+    map.replaceAll((k, v) -> List.copyOf(v));
+    return Map.copyOf(map);
+  }
+
+  private static <K, V> Map<K, Set<V>> immutableSetValues(Map<K, Set<V>> map) {
+    map.replaceAll((k, v) -> Set.copyOf(v));
+    return Map.copyOf(map);
+  }
+
+  private record RouteDirectionAndStartTime(Route route, Direction direction, int startTime) {}
+
+  private record StopAndTime(FeedScopedId stopId, int time) {}
+}
@@ -1,6 +1,7 @@
 package org.opentripplanner.updater;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Metrics;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -36,25 +37,35 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
    * OTP's multi-version concurrency control model for graph updating allows simultaneous reads, but
    * never simultaneous writes. We ensure this policy is respected by having a single writer thread,
    * which sequentially executes all graph updater tasks. Each task is a runnable that is scheduled
-   * with the ExecutorService to run at regular intervals.
-   * FIXME: In reality we're not using scheduleAtFixedInterval.
-   *        We're scheduling for immediate execution from separate threads that sleep in a loop.
-   *        We should perhaps switch to having polling GraphUpdaters call scheduleAtFixedInterval.
+   * with the ExecutorService to run at regular intervals. The tasks are queued in the
+   * {@link #writeQueue} and executed in batches on this thread.
    */
   private final ScheduledExecutorService scheduler;
 
   /**
-   * A pool of threads on which the updaters will run. This creates a pool that will auto-scale up
-   * to any size (maximum pool size is MAX_INT).
-   * FIXME The polling updaters occupy an entire thread, sleeping in between polling operations.
+   * A pool of threads on which the non-polling updaters will run. This creates a pool that will
+   * auto-scale up to any size (maximum pool size is MAX_INT).
    */
   private final ExecutorService updaterPool;
 
+  /**
+   * The polling updaters share this scheduler, which has one thread for each polling updater. A
+   * thread is only occupied while polling, not between polls. Updaters fetching data
+   * asynchronously do not occupy a thread while waiting for the response either, see
+   * {@link PollingGraphUpdater#runPollingAsync()}.
+   */
+  private final ScheduledExecutorService pollingScheduler;
+
   /**
    * Keep track of all updaters so we can cleanly free resources associated with them at shutdown.
    */
   private final List<GraphUpdater> updaterList = new ArrayList<>();
 
+  /**
+   * Graph writer tasks waiting to be executed by the {@link #scheduler}.
+   */
+  private final GraphWriterBatchQueue writeQueue;
+
   /**
    * The Graph that will be updated.
    */
@@ -73,6 +84,17 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
     var threadFactory = new ThreadFactoryBuilder().setNameFormat("GraphUpdater-%d").build();
     this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
     this.updaterPool = Executors.newCachedThreadPool(threadFactory);
+    this.pollingScheduler =
+      Executors.newScheduledThreadPool(
+        pollingSchedulerSize(updaters),
+        new ThreadFactoryBuilder().setNameFormat("GraphUpdaterPolling-%d").build()
+      );
+    this.writeQueue =
+      new GraphWriterBatchQueue(
+        scheduler,
+        runnable -> runnable.run(graph, transitModel),
+        Metrics.globalRegistry
+      );
 
     for (GraphUpdater updater : updaters) {
       updaterList.add(updater);
@@ -86,6 +108,10 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
    */
   public void startUpdaters() {
     for (GraphUpdater updater : updaterList) {
+      if (updater instanceof PollingGraphUpdater pollingUpdater) {
+        pollingUpdater.schedulePolling(pollingScheduler);
+        continue;
+      }
       LOG.info("Starting new thread for updater {}", updater.toString());
       updaterPool.execute(() -> {
         try {
@@ -102,9 +128,12 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
     // TODO: find a better way to stop these threads
 
     // Shutdown updaters
+    pollingScheduler.shutdownNow();
     updaterPool.shutdownNow();
     try {
-      boolean ok = updaterPool.awaitTermination(30, TimeUnit.SECONDS);
+      boolean ok =
+        pollingScheduler.awaitTermination(30, TimeUnit.SECONDS) &&
+        updaterPool.awaitTermination(30, TimeUnit.SECONDS);
       if (!ok) {
         LOG.warn("Timeout waiting for updaters to finish.");
       }
@@ -132,15 +161,28 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
     }
   }
 
+  /**
+   * The runnable is queued and executed together with the other runnables queued at the same time,
+   * see {@link GraphWriterBatchQueue}.
+   */
   @Override
   public Future<?> execute(GraphWriterRunnable runnable) {
-    return scheduler.submit(() -> {
-      try {
-        runnable.run(graph, transitModel);
-      } catch (Exception e) {
-        LOG.error("Error while running graph writer {}:", runnable.getClass().getName(), e);
-      }
-    });
+    return writeQueue.submit(runnable);
+  }
+
+  /**
+   * Register a listener notified before and after each batch of graph writer runnables. Must be
+   * called before the updaters are started.
+   */
+  public void addWriteBatchListener(GraphWriterBatchListener listener) {
+    writeQueue.addListener(listener);
+  }
+
+  /**
+   * The number of graph writer runnables waiting to be executed.
+   */
+  public int writeQueueDepth() {
+    return writeQueue.queueDepth();
   }
 
   @Override
@@ -204,6 +246,20 @@ public class GraphUpdaterManager implements WriteToGraphCallback, GraphUpdaterSt
     return scheduler;
   }
 
+  public ScheduledExecutorService getPollingScheduler() {
+    return pollingScheduler;
+  }
+
+  /**
+   * One thread per polling updater. Most polling updaters still block the polling thread while
+   * fetching data, see {@link PollingGraphUpdater#runPollingAsync()}. With fewer threads than
+   * updaters, a slow blocking updater would delay the polling of the others.
+   */
+  private static int pollingSchedulerSize(List<GraphUpdater> updaters) {
+    int n = (int) updaters.stream().filter(PollingGraphUpdater.class::isInstance).count();
+    return Math.max(1, n);
+  }
+
   /**
    * This method start a task during startup and log a message when all updaters are initialized.
    * When all updaters are ready, then OTP is ready for processing routing requests.
@@ -0,0 +1,22 @@
+package org.opentripplanner.updater;
+
+/**
+ * The {@link GraphUpdaterManager} executes the queued {@link GraphWriterRunnable}s in batches. A
+ * listener is notified before and after each batch. This is used by the timetable snapshot sources
+ * to defer the snapshot commit to the end of the batch, making one commit per batch instead of one
+ * per update message.
+ * <p>
+ * Both methods are called on the graph writer thread.
+ */
+public interface GraphWriterBatchListener {
+  /**
+   * Called before the first runnable in a batch is executed.
+   */
+  void beforeWriteBatch();
+
+  /**
+   * Called after the last runnable in a batch is executed, also if one or more of the runnables
+   * failed.
+   */
+  void afterWriteBatch();
+}
@@ -0,0 +1,219 @@
+package org.opentripplanner.updater;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of {@link GraphWriterRunnable}s waiting to be applied to the graph. The runnables are not
+ * executed one by one, instead all runnables queued up when the writer thread becomes available
+ * are drained and executed as one batch:
+ * <ol>
+ *   <li>The runnables are grouped by type (class), keeping the order within each group. Since all
+ *   runnables from the same updater have the same type, the order of the runnables submitted by one
+ *   updater is kept.</li>
+ *   <li>Runnables superseded by a later runnable in the same group, with the same
+ *   {@link GraphWriterRunnable#coalesceKey()}, are skipped.</li>
+ *   <li>The {@link GraphWriterBatchListener}s are notified before and after the batch, so the
+ *   timetable snapshot is committed once per batch.</li>
+ * </ol>
+ * All batches are executed on the given single-threaded executor, so only one runnable is active
+ * at any time.
+ */
+class GraphWriterBatchQueue {
+
+  private static final Logger LOG = LoggerFactory.getLogger(GraphWriterBatchQueue.class);
+
+  /**
+   * Limit the batch size to avoid starving the routing threads when the queue is backed up. The
+   * remaining runnables are executed in the next batch.
+   */
+  static final int MAX_BATCH_SIZE = 200;
+
+  private final Queue<QueuedWrite> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+  private final List<GraphWriterBatchListener> listeners = new CopyOnWriteArrayList<>();
+  private final Executor writerThread;
+  private final Consumer<GraphWriterRunnable> writer;
+
+  private final DistributionSummary batchSize;
+  private final Timer writeLatency;
+  private final Timer batchDuration;
+
+  /**
+   * @param writerThread a single-threaded executor, all batches are executed on it.
+   * @param writer       executes one runnable, any exception is caught and logged by the queue.
+   */
+  GraphWriterBatchQueue(
+    Executor writerThread,
+    Consumer<GraphWriterRunnable> writer,
+    MeterRegistry registry
+  ) {
+    this.writerThread = writerThread;
+    this.writer = writer;
+
+    Gauge
+      .builder("updater.writer.queueDepth", queueDepth, AtomicInteger::get)
+      .register(registry);
+    this.batchSize = DistributionSummary.builder("updater.writer.batchSize").register(registry);
+    this.writeLatency = Timer.builder("updater.writer.latency").register(registry);
+    this.batchDuration = Timer.builder("updater.writer.batch").register(registry);
+  }
+
+  void addListener(GraphWriterBatchListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * Add the runnable to the queue, and make sure a batch is scheduled to execute it.
+   *
+   * @return a future completed when the runnable is executed or skipped.
+   */
+  Future<?> submit(GraphWriterRunnable runnable) {
+    var write = new QueuedWrite(runnable, System.nanoTime());
+    queue.add(write);
+    queueDepth.incrementAndGet();
+    scheduleDrain();
+    return write.future;
+  }
+
+  int queueDepth() {
+    return queueDepth.get();
+  }
+
+  /* private methods */
+
+  private void scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      writerThread.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    // Reset the flag before polling, runnables added after this point are picked up by this
+    // batch or by a new one.
+    drainScheduled.set(false);
+
+    List<QueuedWrite> batch = new ArrayList<>();
+    QueuedWrite next;
+    while (batch.size() < MAX_BATCH_SIZE && (next = queue.poll()) != null) {
+      if (!next.future.isCancelled()) {
+        batch.add(next);
+      }
+      queueDepth.decrementAndGet();
+    }
+    if (!queue.isEmpty()) {
+      scheduleDrain();
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    batchSize.record(batch.size());
+    batchDuration.record(() -> executeBatch(batch));
+  }
+
+  private void executeBatch(List<QueuedWrite> batch) {
+    List<QueuedWrite> skipped = new ArrayList<>();
+    List<QueuedWrite> writes = coalesce(batch, skipped);
+
+    if (!skipped.isEmpty()) {
+      LOG.debug(
+        "Skipping {} superseded graph writers in batch of {}",
+        skipped.size(),
+        batch.size()
+      );
+      skipped.forEach(QueuedWrite::complete);
+    }
+
+    listeners.forEach(GraphWriterBatchListener::beforeWriteBatch);
+    try {
+      for (QueuedWrite it : writes) {
+        try {
+          writer.accept(it.runnable);
+        } catch (Exception e) {
+          LOG.error("Error while running graph writer {}:", it.runnable.getClass().getName(), e);
+        } finally {
+          it.complete();
+        }
+      }
+    } finally {
+      for (GraphWriterBatchListener listener : listeners) {
+        try {
+          listener.afterWriteBatch();
+        } catch (Exception e) {
+          LOG.error("Error while committing graph writer batch {}:", listener, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Group the runnables by type and remove the superseded ones. The order within each type is kept,
+   * and the types are ordered by their first occurrence in the batch.
+   *
+   * @return the writes to execute, the skipped writes are added to the given list.
+   */
+  private static List<QueuedWrite> coalesce(List<QueuedWrite> batch, List<QueuedWrite> skipped) {
+    Map<Class<?>, List<QueuedWrite>> byType = new LinkedHashMap<>();
+    for (QueuedWrite it : batch) {
+      byType.computeIfAbsent(it.runnable.getClass(), k -> new ArrayList<>()).add(it);
+    }
+
+    List<QueuedWrite> result = new ArrayList<>(batch.size());
+    for (List<QueuedWrite> group : byType.values()) {
+      // Walk backwards, the last runnable with a given key wins
+      Set<Object> seenKeys = new HashSet<>();
+      List<QueuedWrite> kept = new ArrayList<>(group.size());
+      for (int i = group.size() - 1; i >= 0; --i) {
+        QueuedWrite it = group.get(i);
+        Object key = it.runnable.coalesceKey();
+        if (key != null && !seenKeys.add(key)) {
+          skipped.add(it);
+        } else {
+          kept.add(it);
+        }
+      }
+      for (int i = kept.size() - 1; i >= 0; --i) {
+        result.add(kept.get(i));
+      }
+    }
+    return result;
+  }
+
+  private final class QueuedWrite {
+
+    private final GraphWriterRunnable runnable;
+    private final long enqueuedNanos;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    QueuedWrite(GraphWriterRunnable runnable, long enqueuedNanos) {
+      this.runnable = runnable;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+
+    private void complete() {
+      writeLatency.record(System.nanoTime() - enqueuedNanos, TimeUnit.NANOSECONDS);
+      future.complete(null);
+    }
+  }
+}
@@ -17,4 +17,14 @@ public interface GraphWriterRunnable {
    * This function is executed to modify the graph.
    */
   void run(Graph graph, TransitModel transitModel);
+
+  /**
+   * Runnables returning the same non-null key replace each other: the result of running the later
+   * one is the same as running both in sequence, e.g. a full dataset update for the same feed. The
+   * {@link GraphUpdaterManager} uses this to skip superseded runnables when several are queued in
+   * the same write batch. The default is {@code null}, which means the runnable is never skipped.
+   */
+  default Object coalesceKey() {
+    return null;
+  }
 }
@@ -8,11 +8,10 @@ import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.gtfs.mapping.DirectionMapper;
 import org.opentripplanner.transit.model.framework.FeedScopedId;
 import org.opentripplanner.transit.model.network.Route;
-import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.timetable.Direction;
 import org.opentripplanner.transit.model.timetable.Trip;
-import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.transit.service.TripMatchingIndex;
 import org.opentripplanner.util.time.ServiceDateUtils;
 import org.opentripplanner.util.time.TimeUtils;
 
@@ -26,6 +25,7 @@ import org.opentripplanner.util.time.TimeUtils;
 public class GtfsRealtimeFuzzyTripMatcher {
 
   private final TransitService transitService;
+  private final TripMatchingIndex tripMatchingIndex;
 
   // TODO: replace this with a runtime solution
   private final DirectionMapper directionMapper = new DirectionMapper(
@@ -34,6 +34,7 @@ public class GtfsRealtimeFuzzyTripMatcher {
 
   public GtfsRealtimeFuzzyTripMatcher(TransitService transitService) {
     this.transitService = transitService;
+    this.tripMatchingIndex = transitService.getTripMatchingIndex();
   }
 
   public TripDescriptor match(String feedId, TripDescriptor trip) {
@@ -80,24 +81,13 @@ public class GtfsRealtimeFuzzyTripMatcher {
     return trip.toBuilder().setTripId(matchedTrip.getId().getId()).build();
   }
 
-  public synchronized Trip getTrip(
-    Route route,
-    Direction direction,
-    int startTime,
-    LocalDate date
-  ) {
+  /**
+   * Find the scheduled trip on the given route and direction starting at the given time on the
+   * given service date. The lookup uses the shared {@link TripMatchingIndex} and does not lock, so
+   * it is safe to call from several updaters at the same time.
+   */
+  public Trip getTrip(Route route, Direction direction, int startTime, LocalDate date) {
     TIntSet servicesRunningForDate = transitService.getServiceCodesRunningForDate(date);
-    for (TripPattern pattern : transitService.getPatternsForRoute(route)) {
-      if (pattern.getDirection() != direction) continue;
-      for (TripTimes times : pattern.getScheduledTimetable().getTripTimes()) {
-        if (
-          times.getScheduledDepartureTime(0) == startTime &&
-          servicesRunningForDate.contains(times.getServiceCode())
-        ) {
-          return times.getTrip();
-        }
-      }
-    }
-    return null;
+    return tripMatchingIndex.findTrip(route, direction, startTime, servicesRunningForDate);
   }
 }
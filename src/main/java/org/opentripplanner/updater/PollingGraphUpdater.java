@@ -1,5 +1,9 @@
 package org.opentripplanner.updater;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +47,11 @@ public abstract class PollingGraphUpdater implements GraphUpdater {
     return pollingPeriodSeconds;
   }
 
+  /**
+   * Run the polling loop in the calling thread, sleeping between polls. The
+   * {@link GraphUpdaterManager} uses {@link #schedulePolling(ScheduledExecutorService)} instead, so
+   * no thread is occupied between polls.
+   */
   @Override
   public final void run() {
     try {
@@ -75,6 +84,16 @@ public abstract class PollingGraphUpdater implements GraphUpdater {
     }
   }
 
+  /**
+   * Poll on the given scheduler. The next poll is scheduled {@link #pollingPeriodSeconds()} after
+   * the future returned by {@link #runPollingAsync()} is complete. A non-positive polling period
+   * means that the updater runs only once.
+   */
+  public final void schedulePolling(ScheduledExecutorService scheduler) {
+    LOG.info("Polling updater scheduled: {}", this);
+    scheduler.execute(() -> pollAndReschedule(scheduler));
+  }
+
   /**
    * Allow clients to wait for all realtime data to be loaded before submitting any travel plan
    * requests. This does not block use of the OTP server. The client must voluntarily hit an
@@ -95,4 +114,60 @@ public abstract class PollingGraphUpdater implements GraphUpdater {
    * with pauses in between. The length of the pause is defined in the preference frequencySec.
    */
   protected abstract void runPolling() throws Exception;
+
+  /**
+   * Same as {@link #runPolling()}, but the returned future is completed when the poll is done.
+   * Updaters fetching data over the network should override this and fetch the data without
+   * blocking the calling thread, the calling thread is shared with the other polling updaters. The
+   * default implementation calls {@link #runPolling()} in the calling thread.
+   */
+  protected CompletableFuture<?> runPollingAsync() throws Exception {
+    runPolling();
+    return CompletableFuture.completedFuture(null);
+  }
+
+  private void pollAndReschedule(ScheduledExecutorService scheduler) {
+    CompletableFuture<?> poll;
+    try {
+      poll = runPollingAsync();
+    } catch (Exception e) {
+      poll = CompletableFuture.failedFuture(e);
+    }
+    if (poll == null) {
+      poll = CompletableFuture.completedFuture(null);
+    }
+    poll.whenComplete((result, e) -> {
+      try {
+        if (e != null) {
+          LOG.error("Error while running polling updater of type {}", configRef, e);
+        }
+        primed = true;
+      } finally {
+        reschedule(scheduler);
+      }
+    });
+  }
+
+  /**
+   * Schedule the next poll. This must be called when a poll is complete, whatever the outcome, or
+   * the updater stops polling.
+   */
+  private void reschedule(ScheduledExecutorService scheduler) {
+    if (pollingPeriodSeconds <= 0) {
+      LOG.info(
+        "As requested in configuration, updater {} has run only once and will now stop.",
+        this.getClass().getSimpleName()
+      );
+      return;
+    }
+    try {
+      scheduler.schedule(
+        () -> pollAndReschedule(scheduler),
+        pollingPeriodSeconds,
+        TimeUnit.SECONDS
+      );
+    } catch (RejectedExecutionException ex) {
+      LOG.info("Polling updater {} is stopping.", this.getClass().getName());
+    }
+  }
 }
@@ -10,16 +10,22 @@ package org.opentripplanner.updater;
  *                               Timetables. Apply to GTFS-RT and Siri updates.
  * @param purgeExpiredData       Should expired realtime data be purged from the graph. Apply to
  *                               GTFS-RT and Siri updates.
+ * @param parallelPrepare        Match, validate and parse the trip updates of large GTFS-RT
+ *                               messages in parallel. Only the preparation runs in parallel, the
+ *                               prepared updates are applied to the buffer one by one, in the order
+ *                               of the message. Apply to GTFS-RT updates only.
  */
 public record TimetableSnapshotSourceParameters(
   int logFrequency,
   int maxSnapshotFrequencyMs,
-  boolean purgeExpiredData
+  boolean purgeExpiredData,
+  boolean parallelPrepare
 ) {
   public static final TimetableSnapshotSourceParameters DEFAULT = new TimetableSnapshotSourceParameters(
     2000,
     1000,
-    true
+    true,
+    false
   );
 
   /* Factory functions, used instead of a builder - useful in tests. */
@@ -28,7 +34,8 @@ public record TimetableSnapshotSourceParameters(
     return new TimetableSnapshotSourceParameters(
       this.logFrequency,
       maxSnapshotFrequencyMs,
-      this.purgeExpiredData
+      this.purgeExpiredData,
+      this.parallelPrepare
     );
   }
 
@@ -36,7 +43,17 @@ public record TimetableSnapshotSourceParameters(
     return new TimetableSnapshotSourceParameters(
       this.logFrequency,
       this.maxSnapshotFrequencyMs,
-      purgeExpiredData
+      purgeExpiredData,
+      this.parallelPrepare
+    );
+  }
+
+  public TimetableSnapshotSourceParameters withParallelPrepare(boolean parallelPrepare) {
+    return new TimetableSnapshotSourceParameters(
+      this.logFrequency,
+      this.maxSnapshotFrequencyMs,
+      this.purgeExpiredData,
+      parallelPrepare
     );
   }
 }
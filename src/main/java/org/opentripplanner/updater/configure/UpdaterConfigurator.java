@@ -80,6 +80,12 @@ public class UpdaterConfigurator {
     );
 
     GraphUpdaterManager updaterManager = new GraphUpdaterManager(graph, transitModel, updaters);
+    if (gtfsTimetableSnapshotSource != null) {
+      updaterManager.addWriteBatchListener(gtfsTimetableSnapshotSource);
+    }
+    if (siriTimetableSnapshotSource != null) {
+      updaterManager.addWriteBatchListener(siriTimetableSnapshotSource);
+    }
     updaterManager.startUpdaters();
 
     // Stop the updater manager if it contains nothing
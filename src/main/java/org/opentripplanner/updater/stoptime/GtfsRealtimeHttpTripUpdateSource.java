@@ -6,11 +6,15 @@ import com.google.transit.realtime.GtfsRealtime.FeedEntity;
 import com.google.transit.realtime.GtfsRealtime.FeedMessage;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import de.mfdz.Mfdz;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.opentripplanner.util.HttpUtils;
 import org.opentripplanner.util.lang.ToStringBuilder;
 import org.slf4j.Logger;
@@ -19,6 +23,17 @@ import org.slf4j.LoggerFactory;
 public class GtfsRealtimeHttpTripUpdateSource implements TripUpdateSource {
 
   private static final Logger LOG = LoggerFactory.getLogger(GtfsRealtimeHttpTripUpdateSource.class);
+  private static final Map<String, String> REQUEST_HEADERS = Map.of(
+    "Accept",
+    "application/x-google-protobuf, application/x-protobuf, application/protobuf, application/octet-stream, */*"
+  );
+
+  /**
+   * The maximum time used by {@link #getUpdatesAsync()} to fetch and parse the feed. The request
+   * timeout does not cover reading the response body.
+   */
+  private static final long MAX_ASYNC_FETCH_TIME_SECONDS = 60;
+
   /**
    * Feed id that is used to match trip ids in the TripUpdates
    */
@@ -40,45 +55,30 @@ public class GtfsRealtimeHttpTripUpdateSource implements TripUpdateSource {
 
   @Override
   public List<TripUpdate> getUpdates() {
-    FeedMessage feedMessage = null;
-    List<FeedEntity> feedEntityList = null;
-    List<TripUpdate> updates = null;
-    fullDataset = true;
     try {
-      InputStream is = HttpUtils.getData(
-        URI.create(url),
-        Map.of(
-          "Accept",
-          "application/x-google-protobuf, application/x-protobuf, application/protobuf, application/octet-stream, */*"
-        )
-      );
-      if (is != null) {
-        // Decode message
-        feedMessage = FeedMessage.parseFrom(is, registry);
-        feedEntityList = feedMessage.getEntityList();
-
-        // Change fullDataset value if this is an incremental update
-        if (
-          feedMessage.hasHeader() &&
-          feedMessage.getHeader().hasIncrementality() &&
-          feedMessage
-            .getHeader()
-            .getIncrementality()
-            .equals(GtfsRealtime.FeedHeader.Incrementality.DIFFERENTIAL)
-        ) {
-          fullDataset = false;
-        }
-
-        // Create List of TripUpdates
-        updates = new ArrayList<>(feedEntityList.size());
-        for (FeedEntity feedEntity : feedEntityList) {
-          if (feedEntity.hasTripUpdate()) updates.add(feedEntity.getTripUpdate());
-        }
-      }
+      return parseFeed(HttpUtils.getData(URI.create(url), REQUEST_HEADERS));
     } catch (Exception e) {
       LOG.warn("Failed to parse gtfs-rt feed from " + url + ":", e);
+      return null;
     }
-    return updates;
+  }
+
+  @Override
+  public CompletableFuture<List<TripUpdate>> getUpdatesAsync() {
+    return HttpUtils
+      .getDataAsync(URI.create(url), REQUEST_HEADERS)
+      .thenApply(is -> {
+        try {
+          return parseFeed(is);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      })
+      .orTimeout(MAX_ASYNC_FETCH_TIME_SECONDS, TimeUnit.SECONDS)
+      .exceptionally(e -> {
+        LOG.warn("Failed to parse gtfs-rt feed from " + url + ":", e);
+        return null;
+      });
   }
 
   @Override
@@ -99,6 +99,37 @@ public class GtfsRealtimeHttpTripUpdateSource implements TripUpdateSource {
       .toString();
   }
 
+  private List<TripUpdate> parseFeed(InputStream is) throws IOException {
+    fullDataset = true;
+    if (is == null) {
+      return null;
+    }
+    try (is) {
+      // Decode message
+      FeedMessage feedMessage = FeedMessage.parseFrom(is, registry);
+      List<FeedEntity> feedEntityList = feedMessage.getEntityList();
+
+      // Change fullDataset value if this is an incremental update
+      if (
+        feedMessage.hasHeader() &&
+        feedMessage.getHeader().hasIncrementality() &&
+        feedMessage
+          .getHeader()
+          .getIncrementality()
+          .equals(GtfsRealtime.FeedHeader.Incrementality.DIFFERENTIAL)
+      ) {
+        fullDataset = false;
+      }
+
+      // Create List of TripUpdates
+      List<TripUpdate> updates = new ArrayList<>(feedEntityList.size());
+      for (FeedEntity feedEntity : feedEntityList) {
+        if (feedEntity.hasTripUpdate()) updates.add(feedEntity.getTripUpdate());
+      }
+      return updates;
+    }
+  }
+
   interface Parameters {
     String getFeedId();
 
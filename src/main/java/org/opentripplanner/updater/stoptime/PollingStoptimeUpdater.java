@@ -2,6 +2,7 @@ package org.opentripplanner.updater.stoptime;
 
 import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher;
@@ -88,7 +89,28 @@ public class PollingStoptimeUpdater extends PollingGraphUpdater {
   @Override
   public void runPolling() {
     // Get update lists from update source
-    List<TripUpdate> updates = updateSource.getUpdates();
+    applyUpdates(updateSource.getUpdates());
+  }
+
+  /**
+   * Fetch the updates without blocking the polling thread, and apply them when they arrive.
+   */
+  @Override
+  protected CompletableFuture<?> runPollingAsync() {
+    return updateSource.getUpdatesAsync().thenAccept(this::applyUpdates);
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(this.getClass())
+      .addObj("updateSource", updateSource)
+      .addStr("feedId", feedId)
+      .addBoolIfTrue("fuzzyTripMatching", fuzzyTripMatcher != null)
+      .toString();
+  }
+
+  private void applyUpdates(List<TripUpdate> updates) {
     boolean fullDataset = updateSource.getFullDatasetValueOfLastUpdates();
 
     if (updates != null) {
@@ -105,16 +127,6 @@ public class PollingStoptimeUpdater extends PollingGraphUpdater {
     }
   }
 
-  @Override
-  public String toString() {
-    return ToStringBuilder
-      .of(this.getClass())
-      .addObj("updateSource", updateSource)
-      .addStr("feedId", feedId)
-      .addBoolIfTrue("fuzzyTripMatching", fuzzyTripMatcher != null)
-      .toString();
-  }
-
   private static TripUpdateSource createSource(PollingStoptimeUpdaterParameters parameters) {
     switch (parameters.getSourceType()) {
       case GTFS_RT_HTTP:
@@ -17,6 +17,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 import org.opentripplanner.gtfs.mapping.TransitModeMapper;
 import org.opentripplanner.model.StopTime;
 import org.opentripplanner.model.Timetable;
@@ -39,6 +40,7 @@ import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.TransitModel;
 import org.opentripplanner.transit.service.TransitService;
+import org.opentripplanner.updater.GraphWriterBatchListener;
 import org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher;
 import org.opentripplanner.updater.GtfsRealtimeMapper;
 import org.opentripplanner.updater.TimetableSnapshotSourceParameters;
@@ -51,7 +53,8 @@ import org.slf4j.LoggerFactory;
  * necessary to provide planning threads a consistent constant view of a graph with realtime data at
  * a specific point in time.
  */
-public class TimetableSnapshotSource implements TimetableSnapshotProvider {
+public class TimetableSnapshotSource
+  implements TimetableSnapshotProvider, GraphWriterBatchListener {
 
   private static final Logger LOG = LoggerFactory.getLogger(TimetableSnapshotSource.class);
 
@@ -60,6 +63,12 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
    */
   private static final long MAX_ARRIVAL_DEPARTURE_TIME = 48 * 60 * 60;
 
+  /**
+   * Messages with fewer trip updates than this are always prepared sequentially, the overhead of
+   * splitting the work is larger than the gain.
+   */
+  private static final int PARALLEL_PREPARE_MIN_UPDATES = 100;
+
   /**
    * The working copy of the timetable snapshot. Should not be visible to routing threads. Should
    * only be modified by a thread that holds a lock on {@link #bufferLock}. All public methods that
@@ -72,6 +81,12 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
    */
   private final ReentrantLock bufferLock = new ReentrantLock(true);
 
+  /**
+   * Set while a batch of graph writers is executed, the snapshot commit is then deferred to the end
+   * of the batch. Should only be accessed by a thread holding the {@link #bufferLock}.
+   */
+  private boolean writeBatchInProgress = false;
+
   /**
    * A synchronized cache of trip patterns that are added to the graph due to GTFS-realtime
    * messages.
@@ -102,6 +117,9 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
   /** Should expired realtime data be purged from the graph. */
   private final boolean purgeExpiredData;
 
+  /** Should large trip update messages be prepared in parallel. */
+  private final boolean parallelPrepare;
+
   protected LocalDate lastPurgeDate = null;
 
   /** Epoch time in milliseconds at which the last snapshot was generated. */
@@ -141,6 +159,7 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     this.logFrequency = parameters.logFrequency();
     this.maxSnapshotFrequencyMs = parameters.maxSnapshotFrequencyMs();
     this.purgeExpiredData = parameters.purgeExpiredData();
+    this.parallelPrepare = parameters.parallelPrepare();
     this.localDateNow = localDateNow;
 
     // Inject this into the transit model
@@ -198,6 +217,14 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       return;
     }
 
+    // Matching and validation do not use the buffer, so it is done before the lock is acquired
+    List<PreparedTripUpdate> preparedUpdates = prepareTripUpdates(
+      fuzzyTripMatcher,
+      backwardsDelayPropagationType,
+      updates,
+      feedId
+    );
+
     // Acquire lock on buffer
     bufferLock.lock();
 
@@ -212,60 +239,21 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       LOG.debug("message contains {} trip updates", updates.size());
       int successfullyApplied = 0;
       int uIndex = 0;
-      for (TripUpdate tripUpdate : updates) {
-        if (!tripUpdate.hasTrip()) {
-          warn(feedId, "", "Missing TripDescriptor in gtfs-rt trip update: \n{}", tripUpdate);
-          continue;
-        }
-
-        if (fuzzyTripMatcher != null) {
-          final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
-          tripUpdate = tripUpdate.toBuilder().setTrip(trip).build();
-        }
-
+      for (PreparedTripUpdate prepared : preparedUpdates) {
+        final TripUpdate tripUpdate = prepared.tripUpdate();
         final TripDescriptor tripDescriptor = tripUpdate.getTrip();
-
-        if (!tripDescriptor.hasTripId() || tripDescriptor.getTripId().isBlank()) {
-          warn(feedId, "", "No trip id found for gtfs-rt trip update: \n{}", tripUpdate);
-          continue;
-        }
-
-        FeedScopedId tripId = new FeedScopedId(feedId, tripUpdate.getTrip().getTripId());
-
-        LocalDate serviceDate = LocalDate.now(timeZone);
-        if (tripDescriptor.hasStartDate()) {
-          try {
-            serviceDate = ServiceDateUtils.parseString(tripDescriptor.getStartDate());
-          } catch (final ParseException e) {
-            warn(
-              tripId,
-              "Failed to parse start date in gtfs-rt trip update: {}",
-              tripDescriptor.getStartDate()
-            );
-            continue;
-          }
-        } else {
-          // TODO: figure out the correct service date. For the special case that a trip
-          // starts for example at 40:00, yesterday would probably be a better guess.
-        }
+        final FeedScopedId tripId = prepared.tripId();
+        final LocalDate serviceDate = prepared.serviceDate();
 
         uIndex += 1;
         LOG.debug("trip update #{} ({} updates) :", uIndex, tripUpdate.getStopTimeUpdateCount());
         LOG.trace("{}", tripUpdate);
 
-        // Determine what kind of trip update this is
-        final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
-          tripDescriptor
-        );
+        final var tripScheduleRelationship = prepared.scheduleRelationship();
 
         boolean applied =
           switch (tripScheduleRelationship) {
-            case SCHEDULED -> handleScheduledTrip(
-              tripUpdate,
-              tripId,
-              serviceDate,
-              backwardsDelayPropagationType
-            );
+            case SCHEDULED -> handleScheduledTrip(prepared);
             case ADDED -> validateAndHandleAddedTrip(
               tripUpdate,
               tripDescriptor,
@@ -318,14 +306,13 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
         }
       }
 
-      // Make a snapshot after each message in anticipation of incoming requests
+      // Make a snapshot after each message in anticipation of incoming requests, unless the
+      // message is part of a write batch - then the snapshot is made after the batch.
       // Purge data if necessary (and force new snapshot if anything was purged)
       // Make sure that the public (locking) getTimetableSnapshot function is not called.
-      if (purgeExpiredData) {
-        final boolean modified = purgeExpiredData();
+      final boolean modified = purgeExpiredData && purgeExpiredData();
+      if (modified || !writeBatchInProgress) {
         getTimetableSnapshot(modified);
-      } else {
-        getTimetableSnapshot(false);
       }
     } finally {
       // Always release lock
@@ -333,6 +320,131 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     }
   }
 
+  @Override
+  public void beforeWriteBatch() {
+    bufferLock.lock();
+    try {
+      writeBatchInProgress = true;
+    } finally {
+      bufferLock.unlock();
+    }
+  }
+
+  /**
+   * Make a snapshot after the batch, if the buffer is modified. The same snapshot frequency limit
+   * applies as for single updates.
+   */
+  @Override
+  public void afterWriteBatch() {
+    bufferLock.lock();
+    try {
+      writeBatchInProgress = false;
+      getTimetableSnapshot(false);
+    } finally {
+      bufferLock.unlock();
+    }
+  }
+
+  /**
+   * Match, validate and parse the trip updates, and create the updated trip times for scheduled
+   * trips. This does not read or modify the buffer. If parallel prepare is enabled, large messages
+   * are prepared in parallel. The returned list is in the same order as the updates, invalid
+   * updates are left out.
+   */
+  private List<PreparedTripUpdate> prepareTripUpdates(
+    GtfsRealtimeFuzzyTripMatcher fuzzyTripMatcher,
+    BackwardsDelayPropagationType backwardsDelayPropagationType,
+    List<TripUpdate> updates,
+    String feedId
+  ) {
+    Stream<TripUpdate> stream = parallelPrepare && updates.size() >= PARALLEL_PREPARE_MIN_UPDATES
+      ? updates.parallelStream()
+      : updates.stream();
+
+    return stream
+      .map(it -> prepareTripUpdate(fuzzyTripMatcher, backwardsDelayPropagationType, it, feedId))
+      .filter(Objects::nonNull)
+      .toList();
+  }
+
+  /**
+   * @return {@code null} if the update is invalid and should be skipped.
+   */
+  private PreparedTripUpdate prepareTripUpdate(
+    GtfsRealtimeFuzzyTripMatcher fuzzyTripMatcher,
+    BackwardsDelayPropagationType backwardsDelayPropagationType,
+    TripUpdate tripUpdate,
+    String feedId
+  ) {
+    if (!tripUpdate.hasTrip()) {
+      warn(feedId, "", "Missing TripDescriptor in gtfs-rt trip update: \n{}", tripUpdate);
+      return null;
+    }
+
+    if (fuzzyTripMatcher != null) {
+      final TripDescriptor trip = fuzzyTripMatcher.match(feedId, tripUpdate.getTrip());
+      tripUpdate = tripUpdate.toBuilder().setTrip(trip).build();
+    }
+
+    final TripDescriptor tripDescriptor = tripUpdate.getTrip();
+
+    if (!tripDescriptor.hasTripId() || tripDescriptor.getTripId().isBlank()) {
+      warn(feedId, "", "No trip id found for gtfs-rt trip update: \n{}", tripUpdate);
+      return null;
+    }
+
+    FeedScopedId tripId = new FeedScopedId(feedId, tripUpdate.getTrip().getTripId());
+
+    LocalDate serviceDate = LocalDate.now(timeZone);
+    if (tripDescriptor.hasStartDate()) {
+      try {
+        serviceDate = ServiceDateUtils.parseString(tripDescriptor.getStartDate());
+      } catch (final ParseException e) {
+        warn(
+          tripId,
+          "Failed to parse start date in gtfs-rt trip update: {}",
+          tripDescriptor.getStartDate()
+        );
+        return null;
+      }
+    } else {
+      // TODO: figure out the correct service date. For the special case that a trip
+      // starts for example at 40:00, yesterday would probably be a better guess.
+    }
+
+    // Determine what kind of trip update this is
+    final TripDescriptor.ScheduleRelationship tripScheduleRelationship = determineTripScheduleRelationship(
+      tripDescriptor
+    );
+
+    TripPattern pattern = null;
+    TripTimesPatch tripTimesPatch = null;
+    if (tripScheduleRelationship == TripDescriptor.ScheduleRelationship.SCHEDULED) {
+      pattern = getPatternForTripId(tripId);
+      if (pattern != null && tripUpdate.getStopTimeUpdateCount() > 0) {
+        // Get new TripTimes based on scheduled timetable
+        tripTimesPatch =
+          pattern
+            .getScheduledTimetable()
+            .createUpdatedTripTimes(
+              tripUpdate,
+              timeZone,
+              serviceDate,
+              backwardsDelayPropagationType
+            );
+      }
+    }
+
+    return new PreparedTripUpdate(
+      tripUpdate,
+      tripId,
+      serviceDate,
+      tripScheduleRelationship,
+      pattern,
+      tripTimesPatch
+    );
+  }
+
   private TimetableSnapshot getTimetableSnapshot(final boolean force) {
     final long now = System.currentTimeMillis();
     if (force || now - lastSnapshotTime > maxSnapshotFrequencyMs) {
@@ -370,13 +482,13 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     return tripScheduleRelationship;
   }
 
-  private boolean handleScheduledTrip(
-    TripUpdate tripUpdate,
-    FeedScopedId tripId,
-    LocalDate serviceDate,
-    BackwardsDelayPropagationType backwardsDelayPropagationType
-  ) {
-    final TripPattern pattern = getPatternForTripId(tripId);
+  private boolean handleScheduledTrip(PreparedTripUpdate prepared) {
+    final TripUpdate tripUpdate = prepared.tripUpdate();
+    final FeedScopedId tripId = prepared.tripId();
+    final LocalDate serviceDate = prepared.serviceDate();
+    // The scheduled pattern of a trip does not change, so the pattern and the new trip times are
+    // resolved when the update is prepared.
+    final TripPattern pattern = prepared.pattern();
 
     if (pattern == null) {
       warn(tripId, "No pattern found for tripId, skipping TripUpdate.");
@@ -392,10 +504,7 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     // changed, and is now changing back to the originally scheduled one) cancel that previously created trip.
     cancelPreviouslyAddedTrip(tripId, serviceDate);
 
-    // Get new TripTimes based on scheduled timetable
-    final TripTimesPatch tripTimesPatch = pattern
-      .getScheduledTimetable()
-      .createUpdatedTripTimes(tripUpdate, timeZone, serviceDate, backwardsDelayPropagationType);
+    final TripTimesPatch tripTimesPatch = prepared.tripTimesPatch();
 
     if (tripTimesPatch == null) {
       return false;
@@ -1111,4 +1220,17 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     String m = "[feedId: %s, tripId: %s] %s".formatted(feedId, tripId, message);
     LOG.warn(m, params);
   }
+
+  /**
+   * A matched and validated trip update. For scheduled trips the pattern and the updated trip
+   * times are resolved when the update is prepared, the pattern is {@code null} if not found.
+   */
+  private record PreparedTripUpdate(
+    TripUpdate tripUpdate,
+    FeedScopedId tripId,
+    LocalDate serviceDate,
+    TripDescriptor.ScheduleRelationship scheduleRelationship,
+    TripPattern pattern,
+    TripTimesPatch tripTimesPatch
+  ) {}
 }
@@ -54,4 +54,13 @@ class TripUpdateGraphWriterRunnable implements GraphWriterRunnable {
       feedId
     );
   }
+
+  /**
+   * A full dataset clears all previous updates for the feed, so only the last full dataset in a
+   * batch needs to be applied.
+   */
+  @Override
+  public Object coalesceKey() {
+    return fullDataset ? List.of(snapshotSource, feedId) : null;
+  }
 }
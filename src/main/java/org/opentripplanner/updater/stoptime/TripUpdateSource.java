@@ -2,6 +2,7 @@ package org.opentripplanner.updater.stoptime;
 
 import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface TripUpdateSource {
   /**
@@ -12,6 +13,15 @@ public interface TripUpdateSource {
    */
   List<TripUpdate> getUpdates();
 
+  /**
+   * Same as {@link #getUpdates()}, but sources reading from the network should not block the
+   * calling thread while waiting for the response. The default implementation calls
+   * {@link #getUpdates()} in the calling thread.
+   */
+  default CompletableFuture<List<TripUpdate>> getUpdatesAsync() {
+    return CompletableFuture.completedFuture(getUpdates());
+  }
+
   /**
    * @return true iff the last list with updates represent all updates that are active right now,
    * i.e. all previous updates should be disregarded
@@ -4,8 +4,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.net.http.HttpRequest;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
@@ -69,6 +71,44 @@ public class HttpUtils {
     return getData(uri, DEFAULT_TIMEOUT, requestHeaderValues);
   }
 
+  /**
+   * Same as {@link #getData(URI, Map)}, but the request is sent without blocking the calling
+   * thread. The future is completed with the response body when the response headers are received,
+   * or with {@code null} if the response status is not 200 OK.
+   */
+  public static CompletableFuture<InputStream> getDataAsync(
+    URI uri,
+    Map<String, String> requestHeaderValues
+  ) {
+    var request = HttpRequest.newBuilder(uri).timeout(DEFAULT_TIMEOUT).GET();
+    return sendAsync(request, requestHeaderValues);
+  }
+
+  /**
+   * Post the given body without blocking the calling thread. The future is completed with the
+   * response body when the response headers are received, or with {@code null} if the response
+   * status is not 200 OK.
+   * <p>
+   * The timeout only applies until the response headers are received. Reading the body does not
+   * time out, so callers streaming the body should bound the time spent reading it.
+   *
+   * @param timeout the request timeout
+   */
+  public static CompletableFuture<InputStream> postDataAsync(
+    URI uri,
+    String body,
+    String contentType,
+    Duration timeout,
+    Map<String, String> requestHeaderValues
+  ) {
+    var request = HttpRequest
+      .newBuilder(uri)
+      .header("Content-Type", contentType)
+      .POST(HttpRequest.BodyPublishers.ofString(body))
+      .timeout(timeout);
+    return sendAsync(request, requestHeaderValues);
+  }
+
   public static InputStream openInputStream(String url, Map<String, String> headers)
     throws IOException {
     return openInputStream(URI.create(url), headers);
@@ -85,4 +125,40 @@ public class HttpUtils {
       return downloadUrl.openStream();
     }
   }
+
+  private static CompletableFuture<InputStream> sendAsync(
+    HttpRequest.Builder request,
+    Map<String, String> requestHeaderValues
+  ) {
+    if (requestHeaderValues != null) {
+      requestHeaderValues.forEach(request::header);
+    }
+    return AsyncClientHolder.CLIENT
+      .sendAsync(request.build(), java.net.http.HttpResponse.BodyHandlers.ofInputStream())
+      .thenApply(response -> {
+        if (response.statusCode() != 200) {
+          closeQuietly(response.body());
+          return null;
+        }
+        return response.body();
+      });
+  }
+
+  private static void closeQuietly(InputStream is) {
+    try {
+      is.close();
+    } catch (IOException ignore) {}
+  }
+
+  /**
+   * The async client is shared, and created when first used.
+   */
+  private static class AsyncClientHolder {
+
+    private static final java.net.http.HttpClient CLIENT = java.net.http.HttpClient
+      .newBuilder()
+      .connectTimeout(DEFAULT_TIMEOUT)
+      .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
+      .build();
+  }
 }
@@ -0,0 +1,404 @@
+package org.opentripplanner.util.lang;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * An immutable hash map where each modification returns a new map, sharing most of its structure
+ * with the old one. It is implemented as a hash array mapped trie (HAMT): each node has up to 32
+ * children, indexed by 5 bits of the key hash code, so {@link #put(Object, Object)} and
+ * {@link #remove(Object)} only copy the nodes on the path to the key - O(log32 n).
+ * <p>
+ * Use this when many versions of a big map must be kept alive at the same time, and each version
+ * only differs a little from the previous one. Keeping a reference to an old version is cheap.
+ * <p>
+ * Keys and values can not be {@code null}. The map is thread-safe, since it is immutable.
+ */
+public final class PersistentMap<K, V> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+  private final Node root;
+  private final int size;
+
+  private PersistentMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentMap<K, V> empty() {
+    return (PersistentMap<K, V>) EMPTY;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return the value mapped to the key, or {@code null} if the map does not contain the key.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (key == null) {
+      return null;
+    }
+    return (V) root.get(key, hash(key), 0);
+  }
+
+  public V getOrDefault(Object key, V defaultValue) {
+    V value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * @return a map with the key mapped to the value, or this map if it already contains the same
+   * mapping.
+   */
+  public PersistentMap<K, V> put(K key, V value) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(value);
+    var change = new SizeChange();
+    Node newRoot = root.put(key, value, hash(key), 0, change);
+    return newRoot == root ? this : new PersistentMap<>(newRoot, size + change.delta);
+  }
+
+  /**
+   * @return a map without the key, or this map if it does not contain the key.
+   */
+  public PersistentMap<K, V> remove(Object key) {
+    if (key == null) {
+      return this;
+    }
+    var change = new SizeChange();
+    Node newRoot = root.remove(key, hash(key), 0, change);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? empty() : new PersistentMap<>(newRoot, size + change.delta);
+  }
+
+  /**
+   * @return a map without the entries matching the predicate, or this map if no entry matches.
+   */
+  public PersistentMap<K, V> removeIf(BiPredicate<? super K, ? super V> predicate) {
+    List<K> toRemove = new ArrayList<>();
+    forEach((k, v) -> {
+      if (predicate.test(k, v)) {
+        toRemove.add(k);
+      }
+    });
+    PersistentMap<K, V> result = this;
+    for (K key : toRemove) {
+      result = result.remove(key);
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super K, ? super V> consumer) {
+    root.forEach((BiConsumer<Object, Object>) consumer);
+  }
+
+  /**
+   * A read-only {@link Map} view of this map. Lookups use the trie, iterating copies the entries.
+   */
+  public Map<K, V> asMap() {
+    return new MapView();
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bitpos(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /** Create a node containing two keys with different hash codes, or a collision node. */
+  private static Node createNode(
+    int shift,
+    Object key1,
+    Object value1,
+    int hash1,
+    Object key2,
+    Object value2,
+    int hash2
+  ) {
+    if (hash1 == hash2) {
+      return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+    }
+    var change = new SizeChange();
+    return BitmapNode.EMPTY
+      .put(key1, value1, hash1, shift, change)
+      .put(key2, value2, hash2, shift, change);
+  }
+
+  private static Object[] replace(Object[] array, int index, Object value) {
+    Object[] copy = array.clone();
+    copy[index] = value;
+    return copy;
+  }
+
+  private static final class SizeChange {
+
+    int delta = 0;
+  }
+
+  private interface Node {
+    Object get(Object key, int hash, int shift);
+
+    /** Return this node if unchanged. */
+    Node put(Object key, Object value, int hash, int shift, SizeChange change);
+
+    /** Return this node if unchanged, and {@code null} if the node becomes empty. */
+    Node remove(Object key, int hash, int shift, SizeChange change);
+
+    void forEach(BiConsumer<Object, Object> consumer);
+  }
+
+  /**
+   * A node with up to 32 entries. The bitmap tells which of the 32 positions are in use, and the
+   * array contains a (key, value) pair for each of them. The key is {@code null} if the value is a
+   * child node.
+   */
+  private static final class BitmapNode implements Node {
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] array;
+
+    private BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    public Object get(Object key, int hash, int shift) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      if (k == null) {
+        return ((Node) array[i + 1]).get(key, hash, shift + BITS);
+      }
+      return key.equals(k) ? array[i + 1] : null;
+    }
+
+    @Override
+    public Node put(Object key, Object value, int hash, int shift, SizeChange change) {
+      int bit = bitpos(hash, shift);
+      int i = 2 * index(bit);
+
+      if ((bitmap & bit) == 0) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, i);
+        newArray[i] = key;
+        newArray[i + 1] = value;
+        System.arraycopy(array, i, newArray, i + 2, array.length - i);
+        change.delta = 1;
+        return new BitmapNode(bitmap | bit, newArray);
+      }
+
+      Object k = array[i];
+      Object v = array[i + 1];
+
+      if (k == null) {
+        Node child = ((Node) v).put(key, value, hash, shift + BITS, change);
+        return child == v ? this : new BitmapNode(bitmap, replace(array, i + 1, child));
+      }
+      if (key.equals(k)) {
+        return value == v ? this : new BitmapNode(bitmap, replace(array, i + 1, value));
+      }
+
+      Node child = createNode(shift + BITS, k, v, hash(k), key, value, hash);
+      Object[] newArray = replace(array, i, null);
+      newArray[i + 1] = child;
+      change.delta = 1;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    @Override
+    public Node remove(Object key, int hash, int shift, SizeChange change) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+
+      if (k == null) {
+        Node child = ((Node) v).remove(key, hash, shift + BITS, change);
+        if (child == v) {
+          return this;
+        }
+        if (child != null) {
+          return new BitmapNode(bitmap, replace(array, i + 1, child));
+        }
+        // The child became empty, remove the entry below
+      } else if (!key.equals(k)) {
+        return this;
+      } else {
+        change.delta = -1;
+      }
+
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new BitmapNode(bitmap ^ bit, newArray);
+    }
+
+    @Override
+    public void forEach(BiConsumer<Object, Object> consumer) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (array[i] == null) {
+          ((Node) array[i + 1]).forEach(consumer);
+        } else {
+          consumer.accept(array[i], array[i + 1]);
+        }
+      }
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+  }
+
+  /**
+   * Keys with the same hash code, stored as (key, value) pairs in an array.
+   */
+  private static final class CollisionNode implements Node {
+
+    private final int hash;
+    private final Object[] array;
+
+    private CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    public Object get(Object key, int hash, int shift) {
+      int i = indexOf(key);
+      return i < 0 ? null : array[i + 1];
+    }
+
+    @Override
+    public Node put(Object key, Object value, int hash, int shift, SizeChange change) {
+      if (hash != this.hash) {
+        // Push this node one level down, below a bitmap node
+        var node = new BitmapNode(bitpos(this.hash, shift), new Object[] { null, this });
+        return node.put(key, value, hash, shift, change);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        return array[i + 1] == value ? this : new CollisionNode(hash, replace(array, i + 1, value));
+      }
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      change.delta = 1;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    public Node remove(Object key, int hash, int shift, SizeChange change) {
+      int i = indexOf(key);
+      if (i < 0) {
+        return this;
+      }
+      change.delta = -1;
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    public void forEach(BiConsumer<Object, Object> consumer) {
+      for (int i = 0; i < array.length; i += 2) {
+        consumer.accept(array[i], array[i + 1]);
+      }
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  private final class MapView extends AbstractMap<K, V> {
+
+    @Override
+    public V get(Object key) {
+      return PersistentMap.this.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return PersistentMap.this.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+          List<Entry<K, V>> entries = new ArrayList<>(size);
+          PersistentMap.this.forEach((k, v) -> entries.add(new SimpleImmutableEntry<>(k, v)));
+          return entries.iterator();
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+  }
+}
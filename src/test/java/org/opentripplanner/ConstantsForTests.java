@@ -315,7 +315,8 @@ public class ConstantsForTests {
       fareServiceFactory,
       false,
       true,
-      300
+      300,
+      1
     );
 
     module.buildGraph();
@@ -3,6 +3,7 @@ package org.opentripplanner;
 import static org.opentripplanner.standalone.configure.ConstructApplication.creatTransitLayerForRaptor;
 
 import io.micrometer.core.instrument.Metrics;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.PagingSessionCache;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.standalone.api.OtpServerRequestContext;
 import org.opentripplanner.standalone.config.RouterConfig;
@@ -25,6 +26,7 @@ public class TestServerContext {
     DefaultServerRequestContext context = DefaultServerRequestContext.create(
       routerConfig,
       new RaptorConfig<>(routerConfig.raptorTuningParameters()),
+      PagingSessionCache.DISABLED,
       graph,
       new DefaultTransitService(transitModel),
       Metrics.globalRegistry,
@@ -2,11 +2,16 @@ package org.opentripplanner.graph_builder.module;
 
 import static graphql.Assert.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeMap;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.ConstantsForTests;
+import org.opentripplanner.ext.fares.impl.DefaultFareServiceFactory;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.model.GtfsBundle;
 import org.opentripplanner.model.calendar.ServiceDateInterval;
 import org.opentripplanner.routing.graph.Graph;
@@ -49,4 +54,76 @@ class GtfsModuleTest {
     assertNotNull(pattern.getGeometry());
     assertNotNull(pattern.getHopGeometry(0));
   }
+
+  /**
+   * The two feeds have the same feed id and agency id, so the agency of the second feed is given
+   * a generated id. The agencies are read in bundle order before the feeds are loaded in
+   * parallel, so the result should be the same for any parallelism.
+   */
+  @Test
+  public void sameResultWhenFeedsAreLoadedInParallel() {
+    var expectedIssues = new DataImportIssueStore();
+    var expected = entities(buildTwoFeeds(1, expectedIssues));
+
+    assertTrue(expected.contains("Agency VVS:1"));
+    assertTrue(expected.contains("Agency VVS:F1"));
+
+    for (int loadParallelism : new int[] { 2, 3 }) {
+      var issues = new DataImportIssueStore();
+      var result = entities(buildTwoFeeds(loadParallelism, issues));
+
+      assertEquals(expected, result);
+      assertEquals(expectedIssues.getIssues().size(), issues.getIssues().size());
+    }
+  }
+
+  private static TransitModel buildTwoFeeds(int loadParallelism, DataImportIssueStore issueStore) {
+    var deduplicator = new Deduplicator();
+    var graph = new Graph(deduplicator);
+    var transitModel = new TransitModel(new StopModel(), deduplicator);
+    var feedId = new GtfsFeedId.Builder().id("VVS").build();
+
+    var files = List.of(ConstantsForTests.VVS_BUS_764_ONLY, ConstantsForTests.VVS_BUS_751_ONLY);
+    var bundles = new ArrayList<GtfsBundle>();
+    for (String file : files) {
+      var bundle = new GtfsBundle(new File(file));
+      bundle.setFeedId(feedId);
+      bundles.add(bundle);
+    }
+
+    new GtfsModule(
+      bundles,
+      transitModel,
+      graph,
+      issueStore,
+      ServiceDateInterval.unbounded(),
+      new DefaultFareServiceFactory(),
+      false,
+      true,
+      100,
+      loadParallelism
+    )
+      .buildGraph();
+
+    return transitModel;
+  }
+
+  /**
+   * The entities which depend on the order the feeds are added to the graph: the agency ids, the
+   * agency of each pattern and the service codes.
+   */
+  private static List<String> entities(TransitModel transitModel) {
+    var result = new ArrayList<String>();
+    transitModel.getAgencies().forEach(a -> result.add("Agency " + a.getId()));
+    transitModel
+      .getStopModel()
+      .listRegularStops()
+      .forEach(s -> result.add("Stop " + s.getId()));
+    transitModel
+      .getAllTripPatterns()
+      .forEach(p -> result.add("Pattern " + p.getId() + " " + p.getRoute().getAgency().getId()));
+    result.add("ServiceCodes " + new TreeMap<>(transitModel.getServiceCodes()));
+    result.sort(String::compareTo);
+    return result;
+  }
 }
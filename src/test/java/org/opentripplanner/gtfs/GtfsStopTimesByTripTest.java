@@ -0,0 +1,122 @@
+package org.opentripplanner.gtfs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.onebusaway.gtfs.model.StopTime.MISSING_VALUE;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.onebusaway.gtfs.model.AgencyAndId;
+import org.onebusaway.gtfs.model.Stop;
+import org.onebusaway.gtfs.model.StopTime;
+import org.onebusaway.gtfs.model.Trip;
+
+public class GtfsStopTimesByTripTest {
+
+  private static final Trip TRIP = new Trip();
+  private static final Stop STOP = new Stop();
+
+  static {
+    TRIP.setId(new AgencyAndId("A", "T1"));
+    STOP.setId(new AgencyAndId("A", "S1"));
+  }
+
+  private final GtfsStopTimesByTrip subject = new GtfsStopTimesByTrip();
+
+  @Test
+  public void roundTripStopTimes() {
+    subject.add(stopTime(1, 0, 1, 1, "Head sign", 0.0));
+    subject.add(stopTime(2, 1, 3, 2, null, 120.5));
+    assertEquals(2, subject.size());
+
+    var result = drain();
+
+    assertEquals(2, result.size());
+    assertStopTime(result.get(0), 1, 0, 1, 1, "Head sign", 0.0);
+    assertStopTime(result.get(1), 2, 1, 3, 2, null, 120.5);
+    assertEquals(0, subject.size());
+  }
+
+  @Test
+  public void roundTripMissingValues() {
+    subject.add(stopTime(1, MISSING_VALUE, MISSING_VALUE, MISSING_VALUE, null, MISSING_VALUE));
+
+    var result = drain();
+
+    assertEquals(1, result.size());
+    assertStopTime(
+      result.get(0),
+      1,
+      MISSING_VALUE,
+      MISSING_VALUE,
+      MISSING_VALUE,
+      null,
+      MISSING_VALUE
+    );
+  }
+
+  @Test
+  public void keepStopTimesWhichCanNotBeCompacted() {
+    var flex = stopTime(2, 0, 1, 1, null, MISSING_VALUE);
+    flex.setStartPickupDropOffWindow(3600);
+
+    subject.add(stopTime(1, 0, 1, 1, null, MISSING_VALUE));
+    subject.add(flex);
+
+    var result = drain();
+
+    assertEquals(2, result.size());
+    assertStopTime(result.get(0), 1, 0, 1, 1, null, MISSING_VALUE);
+    assertSame(flex, result.get(1));
+  }
+
+  private List<StopTime> drain() {
+    var result = new ArrayList<StopTime>();
+    subject.drain(result::addAll);
+    return result;
+  }
+
+  private static StopTime stopTime(
+    int seq,
+    int timepoint,
+    int pickupType,
+    int dropOffType,
+    String headsign,
+    double shapeDistTraveled
+  ) {
+    var st = new StopTime();
+    st.setTrip(TRIP);
+    st.setStop(STOP);
+    st.setStopSequence(seq);
+    st.setArrivalTime(seq * 60);
+    st.setDepartureTime(seq * 60 + 30);
+    st.setTimepoint(timepoint);
+    st.setPickupType(pickupType);
+    st.setDropOffType(dropOffType);
+    st.setStopHeadsign(headsign);
+    st.setShapeDistTraveled(shapeDistTraveled);
+    return st;
+  }
+
+  private static void assertStopTime(
+    StopTime st,
+    int seq,
+    int timepoint,
+    int pickupType,
+    int dropOffType,
+    String headsign,
+    double shapeDistTraveled
+  ) {
+    assertSame(TRIP, st.getTrip());
+    assertSame(STOP, st.getStop());
+    assertEquals(seq, st.getStopSequence());
+    assertEquals(seq * 60, st.getArrivalTime());
+    assertEquals(seq * 60 + 30, st.getDepartureTime());
+    assertEquals(timepoint, st.getTimepoint());
+    assertEquals(pickupType, st.getPickupType());
+    assertEquals(dropOffType, st.getDropOffType());
+    assertEquals(headsign, st.getStopHeadsign());
+    assertEquals(shapeDistTraveled, st.getShapeDistTraveled());
+  }
+}
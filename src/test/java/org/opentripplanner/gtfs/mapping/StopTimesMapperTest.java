@@ -4,7 +4,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
-import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collection;
@@ -134,13 +133,4 @@ public class StopTimesMapperTest {
     assertEquals(0, result.getStopSequence());
     assertFalse(result.isTimepointSet());
   }
-
-  /** Mapping the same object twice, should return the the same instance. */
-  @Test
-  public void testMapCache() {
-    org.opentripplanner.model.StopTime result1 = subject.map(STOP_TIME);
-    org.opentripplanner.model.StopTime result2 = subject.map(STOP_TIME);
-
-    assertSame(result1, result2);
-  }
 }
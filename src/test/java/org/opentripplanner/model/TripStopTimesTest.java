@@ -0,0 +1,94 @@
+package org.opentripplanner.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.model._data.TransitModelForTest.stopTime;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.timetable.Trip;
+
+public class TripStopTimesTest {
+
+  private final Trip trip = TransitModelForTest.trip("T1").build();
+  private final TripStopTimes subject = new TripStopTimes();
+
+  @Test
+  public void getReturnsAnEmptyListForUnknownTrip() {
+    assertTrue(subject.get(trip).isEmpty());
+  }
+
+  @Test
+  public void stopTimesAreStoredAndRestored() {
+    var st1 = stopTime(trip, 1, 3600);
+    var st2 = stopTime(trip, 2, 3700);
+    st1.setTimepoint(1);
+    st1.setPickupType(PickDrop.COORDINATE_WITH_DRIVER);
+    st2.setDropOffType(PickDrop.NONE);
+    st2.setStopHeadsign("Headsign");
+    st2.setShapeDistTraveled(120.5);
+
+    subject.put(trip, List.of(st1, st2));
+
+    var result = subject.get(trip);
+    assertEquals(List.of(st1, st2).toString(), result.toString());
+
+    var r1 = result.get(0);
+    assertEquals(1, r1.getTimepoint());
+    assertEquals(PickDrop.COORDINATE_WITH_DRIVER, r1.getPickupType());
+    assertNull(r1.getStopHeadsign());
+    assertFalse(r1.isShapeDistTraveledSet());
+
+    var r2 = result.get(1);
+    assertEquals(StopTime.MISSING_VALUE, r2.getTimepoint());
+    assertEquals(PickDrop.NONE, r2.getDropOffType());
+    assertEquals("Headsign", r2.getStopHeadsign());
+    assertEquals(120.5, r2.getShapeDistTraveled());
+    assertSame(st2.getStop(), r2.getStop());
+    assertSame(trip, r2.getTrip());
+  }
+
+  @Test
+  public void stopTimesWithFlexOrBookingInfoAreKeptAsIs() {
+    var st1 = stopTime(trip, 1, 3600);
+    var st2 = stopTime(trip, 2, 3700);
+    st2.setRouteShortName("R2");
+
+    subject.put(trip, List.of(st2, st1));
+
+    var result = subject.get(trip);
+    assertSame(st1, result.get(0));
+    assertSame(st2, result.get(1));
+  }
+
+  @Test
+  public void addAllMergesAndSortsStopTimesForEachTrip() {
+    var otherTrip = TransitModelForTest.trip("T2").build();
+    var st1 = stopTime(trip, 1, 3600);
+    var st2 = stopTime(trip, 2, 3700);
+    var st3 = stopTime(trip, 3, 3800);
+    var other = stopTime(otherTrip, 1, 3600);
+
+    subject.addAll(List.of(st3, other));
+    subject.addAll(List.of(st2, st1));
+
+    assertEquals(2, subject.size());
+    assertEquals(List.of(st1, st2, st3).toString(), subject.get(trip).toString());
+    assertEquals(List.of(other).toString(), subject.get(otherTrip).toString());
+  }
+
+  @Test
+  public void copyIsNotChangedWhenTheSourceIsChanged() {
+    subject.put(trip, List.of(stopTime(trip, 1, 3600)));
+    var copy = subject.copy();
+
+    subject.replace(trip, List.of());
+
+    assertTrue(subject.get(trip).isEmpty());
+    assertEquals(1, copy.get(trip).size());
+  }
+}
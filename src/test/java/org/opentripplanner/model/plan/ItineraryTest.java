@@ -159,6 +159,28 @@ public class ItineraryTest implements PlanTestConstants {
     );
   }
 
+  @Test
+  public void setLegsUpdatesDerivedFields() {
+    Itinerary result = newItinerary(A, T11_05)
+      .walk(D2m, B)
+      .bus(1, T11_10, T11_20, C)
+      .walk(D3m, D)
+      .build();
+    Itinerary expected = newItinerary(A, T11_05)
+      .walk(D5m, B)
+      .bus(1, T11_10, T11_20, C)
+      .walk(D3m, D)
+      .build();
+
+    result.setLegs(expected.getLegs());
+
+    assertEquals(expected.getDuration(), result.getDuration());
+    assertEquals(ofMinutes(8), result.getNonTransitDuration());
+    assertEquals(ZERO, result.getWaitingDuration());
+    assertEquals(expected.getNonTransitDistanceMeters(), result.getNonTransitDistanceMeters());
+    assertEquals(expected.getNumberOfTransfers(), result.getNumberOfTransfers());
+  }
+
   @Test
   public void legIndex() {
     var itinerary = newItinerary(A, T11_00)
@@ -0,0 +1,83 @@
+package org.opentripplanner.netex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ConstantsForTests;
+import org.opentripplanner.datastore.api.FileType;
+import org.opentripplanner.datastore.file.ZipFileDataSource;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.model.OtpTransitService;
+import org.opentripplanner.netex.loader.NetexDataSourceHierarchy;
+import org.opentripplanner.standalone.config.BuildConfig;
+import org.opentripplanner.standalone.config.ConfigLoader;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+
+/**
+ * Load the minimal NeTEx bundle, which has two independent group files, with the group files
+ * parsed in sequence and in parallel. The result should be the same.
+ */
+public class NetexBundleParseParallelismTest {
+
+  private static final File NETEX_FILE = new File(ConstantsForTests.NETEX_MINIMAL);
+
+  @Test
+  public void sameResultWhenGroupFilesAreParsedInParallel() {
+    var expectedIssues = new DataImportIssueStore();
+    var expected = load(1, expectedIssues);
+    assertFalse(expected.getAllTrips().isEmpty());
+
+    for (int parseParallelism : new int[] { 2, 4 }) {
+      var issues = new DataImportIssueStore();
+      var result = load(parseParallelism, issues);
+
+      // All entities of both group files are parsed once, and the ids do not depend on the order
+      assertEquals(entityIds(expected), entityIds(result));
+      assertEquals(expectedIssues.getIssues().size(), issues.getIssues().size());
+    }
+  }
+
+  private static OtpTransitService load(int parseParallelism, DataImportIssueStore issueStore) {
+    BuildConfig config = new ConfigLoader(NETEX_FILE.getParentFile()).loadBuildConfig();
+    var source = new ZipFileDataSource(NETEX_FILE, FileType.NETEX);
+    var hierarchy = new NetexDataSourceHierarchy(source)
+      .prepare(
+        config.netex.ignoreFilePattern,
+        config.netex.sharedFilePattern,
+        config.netex.sharedGroupFilePattern,
+        config.netex.groupFilePattern
+      );
+    var bundle = new NetexBundle(
+      config.netex.netexFeedId,
+      source,
+      hierarchy,
+      config.netex.ferryIdsNotAllowedForBicycle,
+      config.maxStopToShapeSnapDistance,
+      parseParallelism
+    );
+    return bundle.loadBundle(new Deduplicator(), issueStore).build();
+  }
+
+  private static List<String> entityIds(OtpTransitService service) {
+    var result = new ArrayList<String>();
+    result.addAll(ids("Agency", service.getAllAgencies(), a -> a.getId()));
+    result.addAll(ids("Operator", service.getAllOperators(), o -> o.getId()));
+    result.addAll(ids("Stop", service.stopModel().listRegularStops(), s -> s.getId()));
+    result.addAll(ids("Station", service.stopModel().listStations(), s -> s.getId()));
+    result.addAll(ids("Trip", service.getAllTrips(), t -> t.getId()));
+    result.addAll(ids("ServiceId", service.getAllServiceIds(), id -> id));
+    result.addAll(ids("Pattern", service.getTripPatterns(), p -> p.getId()));
+    result.add("NoticeAssignments " + service.getNoticeAssignments().size());
+    return result;
+  }
+
+  private static <T> List<String> ids(String type, Collection<T> entities, Function<T, Object> id) {
+    return entities.stream().map(e -> type + " " + id.apply(e)).sorted().toList();
+  }
+}
@@ -0,0 +1,146 @@
+package org.opentripplanner.routing.algorithm.filterchain;
+
+import static org.opentripplanner.model.plan.TestItineraryBuilder.newItinerary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.model.plan.PlanTestConstants;
+import org.opentripplanner.routing.algorithm.filterchain.comparator.SortOrderComparator;
+import org.opentripplanner.routing.algorithm.filterchain.deletionflagger.MaxLimitFilter;
+import org.opentripplanner.routing.algorithm.filterchain.deletionflagger.OtherThanSameLegsMaxGeneralizedCostFilter;
+import org.opentripplanner.routing.algorithm.filterchain.filter.DeletionFlaggingFilter;
+import org.opentripplanner.routing.algorithm.filterchain.filter.GroupByFilter;
+import org.opentripplanner.routing.algorithm.filterchain.filter.SameFirstOrLastTripFilter;
+import org.opentripplanner.routing.algorithm.filterchain.filter.SortingFilter;
+import org.opentripplanner.routing.algorithm.filterchain.groupids.GroupBySameRoutesAndStops;
+import org.opentripplanner.routing.algorithm.filterchain.groupids.GroupId;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.network.Route;
+
+/**
+ * Measure the grouping filters in the itinerary filter chain for an increasing number of
+ * itineraries. Run the main method and check that the time used for each itinerary stays about the
+ * same when the number of itineraries grows. For comparison, the grouping is also done by
+ * comparing each itinerary with all existing groups.
+ * <p>
+ * This is not a unit test, it is not run as part of the build.
+ */
+public class ItineraryListFilterBenchmark implements PlanTestConstants {
+
+  private static final int[] N_ITINERARIES = { 100, 200, 400, 800, 1600, 3200 };
+  /** The number of itineraries in each group */
+  private static final int GROUP_SIZE = 4;
+  private static final int WARM_UP_ROUNDS = 20;
+  private static final int TEST_ROUNDS = 50;
+
+  public static void main(String[] args) {
+    System.out.printf("%-30s %8s %12s %16s%n", "Filter", "N", "Total", "Per itinerary");
+
+    for (int n : N_ITINERARIES) {
+      List<Itinerary> itineraries = createItineraries(n);
+
+      measure("Group by key", itineraries, () -> groupBySameRoutesAndStops(itineraries));
+      measure("Group by comparing all", itineraries, () -> groupByComparingAll(itineraries));
+      measure("Same first or last trip", itineraries, () -> sameFirstOrLastTrip(itineraries));
+      measure("Other than same legs cost", itineraries, () -> otherThanSameLegs(itineraries));
+    }
+  }
+
+  /**
+   * Create itineraries with two bus legs. The first leg use one of {@code n / GROUP_SIZE} routes,
+   * so the itineraries fall into groups of {@code GROUP_SIZE} itineraries with the same routes.
+   */
+  private static List<Itinerary> createItineraries(int n) {
+    List<Route> routes = new ArrayList<>();
+    for (int i = 0; i < n / GROUP_SIZE; ++i) {
+      routes.add(TransitModelForTest.route("R" + i).build());
+    }
+
+    List<Itinerary> itineraries = new ArrayList<>();
+    for (int i = 0; i < n; ++i) {
+      int start = T11_00 + i * 10;
+      itineraries.add(
+        newItinerary(A)
+          .bus(routes.get(i % routes.size()), i, start, start + 600, B)
+          .bus(n + i, start + 700, start + 1200, C)
+          .build()
+      );
+    }
+    return itineraries;
+  }
+
+  private static int groupBySameRoutesAndStops(List<Itinerary> itineraries) {
+    return new GroupByFilter<>(GroupBySameRoutesAndStops::new, nestedFilters())
+      .filter(itineraries)
+      .size();
+  }
+
+  private static int groupByComparingAll(List<Itinerary> itineraries) {
+    return new GroupByFilter<>(CompareAllGroupId::new, nestedFilters())
+      .filter(itineraries)
+      .size();
+  }
+
+  private static int sameFirstOrLastTrip(List<Itinerary> itineraries) {
+    return new SameFirstOrLastTripFilter().filter(itineraries).size();
+  }
+
+  private static int otherThanSameLegs(List<Itinerary> itineraries) {
+    return new OtherThanSameLegsMaxGeneralizedCostFilter(2.0).flagForRemoval(itineraries).size();
+  }
+
+  private static List<ItineraryListFilter> nestedFilters() {
+    return List.of(
+      new SortingFilter(SortOrderComparator.defaultComparatorDepartAfter()),
+      new DeletionFlaggingFilter(new MaxLimitFilter("benchmark", 1))
+    );
+  }
+
+  private static void measure(String name, List<Itinerary> itineraries, Supplier<Integer> body) {
+    int result = 0;
+    for (int i = 0; i < WARM_UP_ROUNDS; ++i) {
+      result += body.get();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < TEST_ROUNDS; ++i) {
+      result += body.get();
+    }
+    double avgMs = (System.nanoTime() - start) / (1_000_000.0 * TEST_ROUNDS);
+    double usPerItinerary = 1000.0 * avgMs / itineraries.size();
+
+    System.out.printf(
+      "%-30s %8d %9.2f ms %13.2f us  (%d)%n",
+      name,
+      itineraries.size(),
+      avgMs,
+      usPerItinerary,
+      result
+    );
+    itineraries.forEach(Itinerary::removeDeletionFlags);
+  }
+
+  /**
+   * Group by the same routes and stops, but without the key. This forces the {@link GroupByFilter}
+   * to compare each itinerary with all existing groups.
+   */
+  private static class CompareAllGroupId implements GroupId<CompareAllGroupId> {
+
+    private final GroupBySameRoutesAndStops delegate;
+
+    private CompareAllGroupId(Itinerary itinerary) {
+      this.delegate = new GroupBySameRoutesAndStops(itinerary);
+    }
+
+    @Override
+    public boolean match(CompareAllGroupId other) {
+      return delegate.match(other.delegate);
+    }
+
+    @Override
+    public CompareAllGroupId merge(CompareAllGroupId other) {
+      return this;
+    }
+  }
+}
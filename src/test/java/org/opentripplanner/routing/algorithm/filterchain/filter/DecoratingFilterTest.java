@@ -0,0 +1,42 @@
+package org.opentripplanner.routing.algorithm.filterchain.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.model.plan.Itinerary.toStr;
+import static org.opentripplanner.model.plan.TestItineraryBuilder.newItinerary;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.SystemNotice;
+import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.model.plan.PlanTestConstants;
+
+public class DecoratingFilterTest implements PlanTestConstants {
+
+  private final Itinerary i1 = newItinerary(A).bus(21, T11_06, T11_09, E).build();
+  private final Itinerary i2 = newItinerary(A).bus(31, T11_10, T11_14, E).build();
+  private final List<Itinerary> decorated = new ArrayList<>();
+
+  @Test
+  public void decorateItinerariesKept() {
+    i1.flagForDeletion(new SystemNotice("test", "Removed by test"));
+
+    var subject = new DecoratingFilter(new AddItineraryDetailsFilter(decorated::add, false), false);
+
+    // The list of itineraries is not changed
+    assertEquals(toStr(List.of(i1, i2)), toStr(subject.filter(List.of(i1, i2))));
+
+    // Only the itinerary kept is decorated
+    assertEquals(toStr(List.of(i2)), toStr(decorated));
+  }
+
+  @Test
+  public void decorateAllItinerariesWhenDebugging() {
+    i1.flagForDeletion(new SystemNotice("test", "Removed by test"));
+
+    var subject = new DecoratingFilter(new AddItineraryDetailsFilter(decorated::add, false), true);
+
+    assertEquals(toStr(List.of(i1, i2)), toStr(subject.filter(List.of(i1, i2))));
+    assertEquals(toStr(List.of(i1, i2)), toStr(decorated));
+  }
+}
@@ -1,7 +1,9 @@
 package org.opentripplanner.routing.algorithm.filterchain.filter;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.model.plan.Itinerary.toStr;
 import static org.opentripplanner.model.plan.TestItineraryBuilder.newItinerary;
 
 import java.util.List;
@@ -10,6 +12,7 @@ import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.model.plan.PlanTestConstants;
 import org.opentripplanner.routing.algorithm.filterchain.comparator.SortOrderComparator;
 import org.opentripplanner.routing.algorithm.filterchain.deletionflagger.MaxLimitFilter;
+import org.opentripplanner.routing.algorithm.filterchain.groupids.GroupBySameRoutesAndStops;
 import org.opentripplanner.routing.algorithm.filterchain.groupids.GroupId;
 
 public class GroupByFilterTest implements PlanTestConstants {
@@ -84,6 +87,37 @@ public class GroupByFilterTest implements PlanTestConstants {
     }
   }
 
+  /**
+   * Group-ids with a key are grouped using a hash lookup, itineraries without a key are put in a
+   * group of their own.
+   */
+  @Test
+  public void groupByHashableGroupId() {
+    Itinerary i1 = newItinerary(A).bus(1, 0, 10, E).build();
+    Itinerary i2 = newItinerary(A).bus(2, 1, 12, E).build();
+    Itinerary i3 = newItinerary(A).bus(3, 0, 20, C).build();
+    Itinerary i4 = newItinerary(A).walk(600, E).build();
+    Itinerary i5 = newItinerary(A).walk(700, E).build();
+
+    var subject = new GroupByFilter<>(
+      GroupBySameRoutesAndStops::new,
+      List.of(
+        new SortingFilter(SortOrderComparator.defaultComparatorDepartAfter()),
+        new DeletionFlaggingFilter(new MaxLimitFilter("test", 1))
+      )
+    );
+
+    var result = subject.filter(List.of(i1, i2, i3, i4, i5));
+
+    // The groups are returned in the order they are first seen
+    assertEquals(toStr(List.of(i1, i2, i3, i4, i5)), toStr(result));
+    assertFalse(i1.isFlaggedForDeletion());
+    assertTrue(i2.isFlaggedForDeletion());
+    assertFalse(i3.isFlaggedForDeletion());
+    assertFalse(i4.isFlaggedForDeletion());
+    assertFalse(i5.isFlaggedForDeletion());
+  }
+
   /**
    * Create a filter that group by the first leg trip-id, and uses the default sort for each group.
    */
@@ -0,0 +1,98 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.router;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.GenericLocation;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+
+class PagingSessionTest {
+
+  private static final ZonedDateTime TIME_ZERO = ZonedDateTime.parse(
+    "2022-05-20T00:00+02:00[Europe/Oslo]"
+  );
+  private static final AdditionalSearchDays SEARCH_DAYS = AdditionalSearchDays.defaults(
+    TIME_ZERO.plusHours(12)
+  );
+
+  private final RoutingRequest request = createRequest();
+  private final PagingSession subject = new PagingSession(
+    null,
+    TIME_ZERO,
+    SEARCH_DAYS,
+    request,
+    null,
+    null
+  );
+
+  @Test
+  void matchSameRequest() {
+    assertTrue(matches(request.clone()));
+  }
+
+  @Test
+  void matchRequestWithOtherPagingParameters() {
+    var next = request.clone();
+    next.setDateTime(TIME_ZERO.plusHours(13).toInstant());
+    next.modes = request.modes.copy().withDirectMode(StreetMode.NOT_SET).build();
+
+    assertTrue(matches(next));
+  }
+
+  @Test
+  void matchRequestWithOtherItineraryParameters() {
+    var next = request.clone();
+    next.numItineraries = 3;
+    next.itineraryFilters.debug = true;
+
+    assertTrue(matches(next));
+  }
+
+  @Test
+  void doNotMatchRequestWithOtherParameters() {
+    var walkSpeed = request.clone();
+    walkSpeed.walkSpeed = 2.0;
+    assertFalse(matches(walkSpeed));
+
+    var destination = request.clone();
+    destination.to = new GenericLocation(59.95, 10.77);
+    assertFalse(matches(destination));
+
+    var bannedTrips = request.clone();
+    bannedTrips.setBannedTrips(List.of(TransitModelForTest.id("T1")));
+    assertFalse(matches(bannedTrips));
+
+    var searchWindow = request.clone();
+    searchWindow.searchWindow = Duration.ofMinutes(30);
+    assertFalse(matches(searchWindow));
+
+    var transferSlack = request.clone();
+    transferSlack.transferSlack = 60;
+    assertFalse(matches(transferSlack));
+
+    var bannedAgencies = request.clone();
+    bannedAgencies.setBannedAgencies(List.of(TransitModelForTest.id("A1")));
+    assertFalse(matches(bannedAgencies));
+  }
+
+  private boolean matches(RoutingRequest other) {
+    return subject.matches(null, TIME_ZERO, SEARCH_DAYS, other);
+  }
+
+  private static RoutingRequest createRequest() {
+    var request = new RoutingRequest();
+    request.from = new GenericLocation(59.91, 10.75);
+    request.to = new GenericLocation(59.93, 10.76);
+    request.setDateTime(Instant.parse("2022-05-20T10:00:00Z"));
+    request.searchWindow = Duration.ofHours(1);
+    request.modes = request.modes.copy().withDirectMode(StreetMode.WALK).build();
+    return request;
+  }
+}
@@ -0,0 +1,104 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.basic.TransitMode;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+public class StopMajorTripTimesCacheTest {
+
+  private static final LocalDate DAY_1 = LocalDate.of(2022, 10, 1);
+  private static final LocalDate DAY_2 = LocalDate.of(2022, 10, 2);
+  private static final int[] OFFSETS = { 0, 86400 };
+
+  private final RoutingTripPattern pattern = TripPattern
+    .of(TransitModelForTest.id("P1"))
+    .withRoute(TransitModelForTest.route("R1").withMode(TransitMode.BUS).build())
+    .withStopPattern(new StopPattern(List.of(stopTime(0), stopTime(1))))
+    .build()
+    .getRoutingTripPattern();
+
+  private final List<TripTimes> tripTimes = List.of(tripTimes("T1", 600), tripTimes("T2", 1200));
+
+  private final List<TripPatternForDate> dates = List.of(
+    new TripPatternForDate(pattern, tripTimes, List.of(), DAY_1),
+    new TripPatternForDate(pattern, tripTimes, List.of(), DAY_2)
+  );
+
+  @Test
+  public void timesAreShiftedAndStopMajor() {
+    var times = new StopMajorTripTimes(dates, OFFSETS);
+
+    assertEquals(4, times.numberOfTrips());
+    var departures = times.departureTimesAtStop(0);
+    assertEquals(600, departures.applyAsInt(0));
+    assertEquals(1200, departures.applyAsInt(1));
+    assertEquals(86400 + 600, departures.applyAsInt(2));
+    assertEquals(86400 + 1200, departures.applyAsInt(3));
+    assertEquals(86400 + 1200 + 300, times.arrivalTimesForTrip(3).applyAsInt(1));
+
+    assertEquals(0, times.dateIndex(1));
+    assertEquals(1, times.dateIndex(2));
+    assertEquals(1, times.tripIndexInDate(3));
+  }
+
+  @Test
+  public void shareTimesOfTheSameDates() {
+    var subject = new StopMajorTripTimesCache();
+
+    var times = subject.get(dates, OFFSETS);
+
+    // An equal list of the same dates, as created by the next request
+    assertSame(times, subject.get(List.copyOf(dates), OFFSETS.clone()));
+    assertEquals(1, subject.size());
+  }
+
+  @Test
+  public void createTimesForOtherOffsetsOrUpdatedDates() {
+    var subject = new StopMajorTripTimesCache();
+
+    var times = subject.get(dates, OFFSETS);
+
+    // A search from the day before
+    assertNotSame(times, subject.get(dates, new int[] { 86400, 2 * 86400 }));
+
+    // A realtime update replaces the TripPatternForDate of the second day
+    var updated = List.of(
+      dates.get(0),
+      new TripPatternForDate(pattern, tripTimes, List.of(), DAY_2)
+    );
+    assertNotSame(times, subject.get(updated, OFFSETS));
+    assertEquals(3, subject.size());
+  }
+
+  private static StopTime stopTime(int index) {
+    var st = new StopTime();
+    st.setStop(TransitModelForTest.stopForTest("S" + index, 60.0, 10.0 + index / 100.0));
+    return st;
+  }
+
+  private static TripTimes tripTimes(String id, int departureTime) {
+    var st1 = new StopTime();
+    var st2 = new StopTime();
+    st1.setDepartureTime(departureTime);
+    st1.setArrivalTime(departureTime);
+    st2.setDepartureTime(departureTime + 300);
+    st2.setArrivalTime(departureTime + 300);
+    return new TripTimes(
+      TransitModelForTest.trip(id).build(),
+      List.of(st1, st2),
+      new Deduplicator()
+    );
+  }
+}
@@ -84,6 +84,14 @@ public class RaptorRoutingRequestTransitDataCreatorTest {
     assertEquals(-82800, ((TripScheduleWithOffset) r3.getTripSchedule(0)).getSecondsOffset());
     assertEquals(0, ((TripScheduleWithOffset) r3.getTripSchedule(1)).getSecondsOffset());
     assertEquals(86400, ((TripScheduleWithOffset) r3.getTripSchedule(2)).getSecondsOffset());
+
+    // The shared stop-major times are shifted by the offset of each day
+    var departures = r3.getDepartureTimes(0);
+    var arrivals = r3.getArrivalTimes(1);
+    assertEquals(-82800, departures.applyAsInt(0));
+    assertEquals(0, departures.applyAsInt(1));
+    assertEquals(86400 + 7200, arrivals.applyAsInt(2));
+    assertEquals(86400 + 7200, r3.getTripSchedule(2).arrival(1));
   }
 
   private static TripPatternForDates findTripPatternForDate(
@@ -2,6 +2,7 @@ package org.opentripplanner.routing.algorithm.raptoradapter.transit.request;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
@@ -498,6 +499,91 @@ public class RoutingRequestTransitDataProviderFilterTest {
     assertFalse(filter.tripTimesPredicate(failingTripTimes5));
   }
 
+  @Test
+  public void filterTripsGivesSameResultAsTripTimesPredicate() {
+    var bikeAndWheelchairBus = createTestTripTimes(
+      TransitModelForTest.id("T1"),
+      ROUTE,
+      BikeAccess.ALLOWED,
+      TransitMode.BUS,
+      null,
+      WheelchairAccessibility.POSSIBLE,
+      TripAlteration.PLANNED
+    );
+    var rail = createTestTripTimes(
+      TransitModelForTest.id("T2"),
+      ROUTE,
+      BikeAccess.ALLOWED,
+      TransitMode.RAIL,
+      null,
+      WheelchairAccessibility.POSSIBLE,
+      TripAlteration.PLANNED
+    );
+    var canceledBus = createTestTripTimes(
+      TransitModelForTest.id("T3"),
+      ROUTE,
+      BikeAccess.ALLOWED,
+      TransitMode.BUS,
+      null,
+      WheelchairAccessibility.POSSIBLE,
+      TripAlteration.CANCELLATION
+    );
+    var bannedBus = createTestTripTimes(
+      TransitModelForTest.id("T4"),
+      ROUTE,
+      BikeAccess.ALLOWED,
+      TransitMode.BUS,
+      null,
+      WheelchairAccessibility.POSSIBLE,
+      TripAlteration.PLANNED
+    );
+    var inaccessibleBus = createTestTripTimes(
+      TransitModelForTest.id("T5"),
+      ROUTE,
+      BikeAccess.NOT_ALLOWED,
+      TransitMode.BUS,
+      null,
+      WheelchairAccessibility.NOT_POSSIBLE,
+      TripAlteration.PLANNED
+    );
+    var tripTimes = List.of(bikeAndWheelchairBus, rail, canceledBus, bannedBus, inaccessibleBus);
+    var tripPatternForDate = new TripPatternForDate(
+      createTestTripPatternForDate().getTripPattern(),
+      tripTimes,
+      List.of(),
+      LocalDate.now()
+    );
+
+    var filter = new RoutingRequestTransitDataProviderFilter(
+      true,
+      ENABLED_ACCESSIBILITY,
+      false,
+      List.of(new MainAndSubMode(TransitMode.BUS)),
+      Set.of(),
+      Set.of(TransitModelForTest.id("T4"))
+    );
+
+    BitSet expected = new BitSet();
+    for (int i = 0; i < tripTimes.size(); ++i) {
+      if (filter.tripTimesPredicate(tripTimes.get(i))) {
+        expected.set(i);
+      }
+    }
+    assertEquals(expected, filter.filterTrips(tripPatternForDate));
+    assertEquals("{0}", expected.toString());
+
+    // All trips are allowed, no mask is needed
+    var noFilter = new RoutingRequestTransitDataProviderFilter(
+      false,
+      DEFAULT_ACCESSIBILITY,
+      true,
+      MainAndSubMode.all(),
+      Set.of(),
+      Set.of()
+    );
+    assertNull(noFilter.filterTrips(tripPatternForDate));
+  }
+
   private boolean validateModesOnTripTimes(
     Collection<MainAndSubMode> allowedModes,
     TripTimes tripTimes
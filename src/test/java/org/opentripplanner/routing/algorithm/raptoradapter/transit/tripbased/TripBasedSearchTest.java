@@ -0,0 +1,127 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.raptor._data.api.PathUtils.pathsToString;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+import static org.opentripplanner.transit.raptor.api.transit.RaptorSlackProvider.defaultSlackProvider;
+
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.Optimization;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+
+/**
+ * The Trip-Based search with the transfers generated by the {@link
+ * TripBasedTransferIndexGenerator}, including its reductions, should find the same paths as the
+ * standard Range Raptor search.
+ */
+class TripBasedSearchTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(
+    RaptorConfig.defaultConfigForTest()
+  );
+
+  @Test
+  void boardLaterTripOfSameRouteAtEarlierStop() {
+    data.withRoute(
+      route(pattern("R1", STOP_A, STOP_B)).withTimetable(schedule().times("0:02, 0:03"))
+    );
+    data.withTransfer(STOP_B, walk(STOP_C, D30s));
+    data.withTransfer(STOP_E, walk(STOP_D, D30s));
+    data.withRoute(
+      route(pattern("R2", STOP_D, STOP_C, STOP_E))
+        .withTimetable(
+          schedule().times("0:02, 0:04, 0:05"),
+          schedule().times("0:06, 0:08, 0:09")
+        )
+    );
+
+    var result = routeStandardAndTripBased(STOP_A, STOP_C);
+
+    assertTrue(result.contains("BUS R2 0:06 0:08"), result);
+  }
+
+  @Test
+  void uTurnIsUsedIfTheEarlierStopCanNotBeBoarded() {
+    data.withRoute(
+      route(pattern("R1", STOP_A, STOP_B, STOP_C))
+        .withTimetable(schedule().times("0:02, 0:04, 0:06"))
+    );
+    var r2 = pattern("R2", STOP_C, STOP_B, STOP_D);
+    r2.restrictions("* A *");
+    data.withRoute(route(r2).withTimetable(schedule().times("0:08, 0:10, 0:12")));
+
+    var result = routeStandardAndTripBased(STOP_A, STOP_D);
+
+    assertTrue(result.contains("~ C ~ BUS R2 0:08 0:12"), result);
+  }
+
+  @Test
+  void uTurnAndEarlierStopGiveTheSameArrival() {
+    data.withRoute(
+      route(pattern("R1", STOP_A, STOP_B, STOP_C))
+        .withTimetable(schedule().times("0:02, 0:04, 0:06"))
+    );
+    data.withRoute(
+      route(pattern("R2", STOP_C, STOP_B, STOP_D))
+        .withTimetable(schedule().times("0:08, 0:10, 0:12"))
+    );
+
+    var result = routeStandardAndTripBased(STOP_A, STOP_D);
+
+    assertTrue(result.contains("BUS R2"), result);
+  }
+
+  /**
+   * Route with Range Raptor and with the Trip-Based search, assert that the paths are the same
+   * and return them.
+   */
+  private String routeStandardAndTripBased(int accessStop, int egressStop) {
+    var generator = new TripBasedTransferIndexGenerator(transferStopsByStop());
+    data.withTripBasedTransfers(generator.update(data.getPatterns()));
+
+    requestBuilder.slackProvider(defaultSlackProvider(D30s, 0, 0));
+    requestBuilder
+      .profile(RaptorProfile.STANDARD)
+      .searchParams()
+      .addAccessPaths(walk(accessStop, D30s))
+      .addEgressPaths(walk(egressStop, D20s))
+      .earliestDepartureTime(T00_00)
+      .latestArrivalTime(T00_30)
+      .searchWindowInSeconds(D3m);
+
+    var expected = pathsToString(raptorService.route(requestBuilder.build(), data));
+
+    requestBuilder.enableOptimization(Optimization.TRIP_BASED);
+    var result = pathsToString(raptorService.route(requestBuilder.build(), data));
+
+    assertEquals(expected, result);
+    return result;
+  }
+
+  private int[][] transferStopsByStop() {
+    int[][] result = new int[data.numberOfStops()][];
+    for (int stop = 0; stop < result.length; ++stop) {
+      result[stop] =
+        StreamSupport
+          .stream(Spliterators.spliteratorUnknownSize(data.getTransfersFromStop(stop), 0), false)
+          .mapToInt(RaptorTransfer::stop)
+          .toArray();
+    }
+    return result;
+  }
+}
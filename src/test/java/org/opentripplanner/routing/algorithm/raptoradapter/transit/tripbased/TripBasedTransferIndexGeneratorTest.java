@@ -0,0 +1,137 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit.tripbased;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.PickDrop;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.RoutingTripPattern;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.site.RegularStop;
+
+class TripBasedTransferIndexGeneratorTest {
+
+  private static final Route ROUTE = TransitModelForTest.route("R1").build();
+
+  private static final RegularStop A = TransitModelForTest.stopForTest("A", 60.0, 10.0);
+  private static final RegularStop B = TransitModelForTest.stopForTest("B", 60.0, 10.1);
+  private static final RegularStop C = TransitModelForTest.stopForTest("C", 60.0, 10.2);
+  private static final RegularStop D = TransitModelForTest.stopForTest("D", 60.0, 10.3);
+
+  private static final RoutingTripPattern P1 = pattern("P1", A, B, C);
+  private static final RoutingTripPattern P2 = pattern("P2", C, D);
+  private static final RoutingTripPattern P3 = pattern("P3", C, B, D);
+  private static final RoutingTripPattern NOT_INCLUDED = pattern("P4", D, A);
+
+  private final TripBasedTransferIndexGenerator generator = TripBasedTransferIndexGenerator.of(
+    transfersByStopIndex(C, new Transfer(B.getIndex(), 100))
+  );
+
+  private final TripBasedTransferIndex subject = generator.update(List.of(P1, P2, P3));
+
+  @Test
+  void covers() {
+    assertTrue(subject.covers(P1.patternIndex()));
+    assertTrue(subject.covers(P3.patternIndex()));
+    assertFalse(subject.covers(NOT_INCLUDED.patternIndex()));
+  }
+
+  @Test
+  void firstStopCanNotBeAlighted() {
+    assertArrayEquals(new int[0], subject.transfersFrom(P1.patternIndex(), 0));
+  }
+
+  @Test
+  void sameStopPositionIsNotIncluded() {
+    // P1 at B is left out, P3 at B is included
+    assertArrayEquals(
+      new int[] { P3.patternIndex(), 1 },
+      subject.transfersFrom(P1.patternIndex(), 1)
+    );
+  }
+
+  @Test
+  void uTurnAndEarlierStopInSamePatternAreIncluded() {
+    // P3 at C is a u-turn, it is kept since the slack and stop filtering of a request can make it
+    // the only way to board P3. The transfer from C to B makes it possible to board a later trip of
+    // P1 at an earlier stop in the pattern.
+    assertArrayEquals(
+      new int[] {
+        P2.patternIndex(),
+        0,
+        P3.patternIndex(),
+        0,
+        P1.patternIndex(),
+        1,
+        P3.patternIndex(),
+        1,
+      },
+      subject.transfersFrom(P1.patternIndex(), 2)
+    );
+  }
+
+  @Test
+  void lastStopCanNotBeBoarded() {
+    // P2 and P3 end at D, there is nothing to board at D
+    assertArrayEquals(new int[0], subject.transfersFrom(P2.patternIndex(), 1));
+  }
+
+  @Test
+  void removedPatternIsNotBoarded() {
+    var updated = generator.update(List.of(P1, P2));
+
+    assertFalse(updated.covers(P3.patternIndex()));
+    assertArrayEquals(
+      new int[] { P2.patternIndex(), 0, P1.patternIndex(), 1 },
+      updated.transfersFrom(P1.patternIndex(), 2)
+    );
+    // The index generated before the update is not changed
+    assertTrue(subject.covers(P3.patternIndex()));
+  }
+
+  @Test
+  void addedPatternIsBoarded() {
+    var updated = generator.update(List.of(P1, P2, P3, NOT_INCLUDED));
+
+    assertTrue(updated.covers(NOT_INCLUDED.patternIndex()));
+    // P2 and P3 can now transfer to P4 at D
+    assertArrayEquals(
+      new int[] { NOT_INCLUDED.patternIndex(), 0 },
+      updated.transfersFrom(P2.patternIndex(), 1)
+    );
+    assertArrayEquals(new int[0], subject.transfersFrom(P2.patternIndex(), 1));
+  }
+
+  private static RoutingTripPattern pattern(String id, RegularStop... stops) {
+    var builder = StopPattern.create(stops.length);
+    for (int i = 0; i < stops.length; i++) {
+      builder.stops[i] = stops[i];
+      builder.pickups[i] = PickDrop.SCHEDULED;
+      builder.dropoffs[i] = PickDrop.SCHEDULED;
+    }
+    return TripPattern
+      .of(TransitModelForTest.id(id))
+      .withRoute(ROUTE)
+      .withStopPattern(builder.build())
+      .build()
+      .getRoutingTripPattern();
+  }
+
+  private static List<List<Transfer>> transfersByStopIndex(RegularStop from, Transfer transfer) {
+    int size = Stream.of(A, B, C, D).mapToInt(RegularStop::getIndex).max().orElseThrow() + 1;
+    List<List<Transfer>> transfers = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      transfers.add(new ArrayList<>());
+    }
+    transfers.get(from.getIndex()).add(transfer);
+    return transfers;
+  }
+}
@@ -2,6 +2,10 @@ package org.opentripplanner.routing.algorithm.transferoptimization.services;
 
 import static java.time.Duration.ofMinutes;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.opentripplanner.transit.raptor._data.stoparrival.BasicPathTestCase.COST_CALCULATOR;
 import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
 import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
@@ -9,7 +13,10 @@ import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.
 import static org.opentripplanner.transit.raptor.api.transit.RaptorSlackProvider.defaultSlackProvider;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
@@ -18,8 +25,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.opentripplanner.model.transfer.ConstrainedTransfer;
 import org.opentripplanner.model.transfer.TransferConstraint;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripSchedule;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TestRouteData;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.TestTransitCaseData;
+import org.opentripplanner.routing.algorithm.transferoptimization.model.TripStopTime;
 import org.opentripplanner.test.support.VariableSource;
+import org.opentripplanner.transit.model.basic.TransitMode;
 import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
 import org.opentripplanner.transit.raptor._data.api.TestPathBuilder;
 import org.opentripplanner.transit.raptor._data.transit.TestRoute;
@@ -29,7 +42,9 @@ import org.opentripplanner.transit.raptor._data.transit.TestTripPattern;
 import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
 import org.opentripplanner.transit.raptor.api.path.Path;
 import org.opentripplanner.transit.raptor.api.path.TransitPathLeg;
+import org.opentripplanner.transit.raptor.api.transit.BoardAndAlightTime;
 import org.opentripplanner.transit.raptor.api.transit.RaptorSlackProvider;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
 import org.opentripplanner.util.time.TimeUtils;
 
 public class TransferGeneratorTest implements RaptorTestConstants {
@@ -108,6 +123,90 @@ public class TransferGeneratorTest implements RaptorTestConstants {
     );
   }
 
+  @Test
+  void transfersBetweenTheSameTripsAreOnlyGeneratedOnce() {
+    data.withRoutes(
+      route("L1", STOP_A, STOP_B, STOP_C, STOP_D)
+        .withTimetable(schedule("10:02 10:10 10:20 10:30"), schedule("10:04 10:12 10:22 10:32"))
+    );
+    var lookups = new AtomicInteger();
+    var adaptor = new TransferServiceAdaptor<TestTripSchedule>(null, null) {
+      @Override
+      protected ConstrainedTransfer findTransfer(
+        TripStopTime<TestTripSchedule> from,
+        TestTripSchedule toTrip,
+        int toStop,
+        int toStopPosition
+      ) {
+        lookups.incrementAndGet();
+        return TS_ADAPTOR.findTransfer(from, toTrip, toStop, toStopPosition);
+      }
+    };
+    var subject = new TransferGenerator<>(adaptor, SLACK_PROVIDER, data);
+
+    var expected = subject.findAllPossibleTransfers(transitLegsSameRoute(STOP_A, STOP_C, STOP_D));
+    int expectedLookups = lookups.get();
+
+    // The transfers between the two trips are reused by the next path
+    var result = subject.findAllPossibleTransfers(transitLegsSameRoute(STOP_A, STOP_C, STOP_D));
+    assertEquals(expected.toString(), result.toString());
+    assertEquals(expectedLookups, lookups.get());
+
+    // The transfers are still filtered on the last stop in the path
+    result = subject.findAllPossibleTransfers(transitLegsSameRoute(STOP_A, STOP_B, STOP_C));
+    assertEquals(
+      "[[TripToTripTransfer{from: [2 10:10 BUS L1], to: [2 10:12 BUS L1]}]]",
+      result.toString()
+    );
+    assertEquals(expectedLookups, lookups.get());
+  }
+
+  @Test
+  void transfersAreReusedForTripSchedulesCreatedForEachPath() {
+    var route1 = new TestRouteData(
+      "L1",
+      TransitMode.BUS,
+      List.of(TestTransitCaseData.STOP_A, TestTransitCaseData.STOP_B),
+      "10:00 10:10"
+    );
+    var route2 = new TestRouteData(
+      "L2",
+      TransitMode.BUS,
+      List.of(TestTransitCaseData.STOP_B, TestTransitCaseData.STOP_C),
+      "10:20 10:30"
+    );
+    var lookups = new AtomicInteger();
+    var adaptor = new TransferServiceAdaptor<TripSchedule>(null, null) {
+      @Override
+      protected ConstrainedTransfer findTransfer(
+        TripStopTime<TripSchedule> from,
+        TripSchedule toTrip,
+        int toStop,
+        int toStopPosition
+      ) {
+        lookups.incrementAndGet();
+        return null;
+      }
+    };
+    @SuppressWarnings("unchecked")
+    RaptorTransitDataProvider<TripSchedule> stdTransfers = mock(RaptorTransitDataProvider.class);
+    when(stdTransfers.getTransfersFromStop(anyInt())).thenAnswer(it -> Collections.emptyIterator());
+    var subject = new TransferGenerator<>(adaptor, SLACK_PROVIDER, stdTransfers);
+
+    // The trip schedules are created each time a trip is read from the timetable
+    var firstPath = transitLegs(route1, route2);
+    var secondPath = transitLegs(route1, route2);
+    assertNotSame(firstPath.get(0).trip(), secondPath.get(0).trip());
+
+    var expected = subject.findAllPossibleTransfers(firstPath);
+    assertEquals(1, expected.get(0).size(), expected.toString());
+    int expectedLookups = lookups.get();
+
+    var result = subject.findAllPossibleTransfers(secondPath);
+    assertEquals(expected.toString(), result.toString());
+    assertEquals(expectedLookups, lookups.get());
+  }
+
   @Test
   void findGuaranteedTransferWithNoSlack() {
     data.withRoutes(
@@ -644,6 +743,8 @@ public class TransferGeneratorTest implements RaptorTestConstants {
 
     data.clearConstrainedTransfers();
     data.withConstrainedTransfer(tripA, STOP_C, tripB, STOP_D, transfer);
+    // The generator cache the transfers found, so we need a new one when the transfers change
+    subject = new TransferGenerator<>(TS_ADAPTOR, SLACK_PROVIDER, data);
     result = subject.findAllPossibleTransfers(transitLegs);
 
     // The same stop transfer is no longer an option
@@ -660,6 +761,17 @@ public class TransferGeneratorTest implements RaptorTestConstants {
     return transitLegs(schedule1, schedule2, accessStop, transferStop, egressStop);
   }
 
+  /** Create the transit legs of a path riding the first trip of each route from start to end. */
+  private static List<TransitPathLeg<TripSchedule>> transitLegs(TestRouteData... routes) {
+    var legs = new ArrayList<TransitPathLeg<TripSchedule>>();
+    for (TestRouteData route : routes) {
+      var trip = route.getTimetable().getTripSchedule(0);
+      var times = new BoardAndAlightTime(trip, 0, trip.pattern().numberOfStopsInPattern() - 1);
+      legs.add(new TransitPathLeg<>(trip, times, null, 0, null));
+    }
+    return legs;
+  }
+
   private List<TransitPathLeg<TestTripSchedule>> transitLegsSameRoute(
     int accessStop,
     int transferStop,
@@ -0,0 +1,178 @@
+package org.opentripplanner.routing.algorithm.transferoptimization.services;
+
+import static org.opentripplanner.transit.raptor._data.stoparrival.BasicPathTestCase.COST_CALCULATOR;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+import static org.opentripplanner.transit.raptor.api.transit.RaptorSlackProvider.defaultSlackProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.opentripplanner.routing.algorithm.transferoptimization.OptimizeTransferService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.api.TestPathBuilder;
+import org.opentripplanner.transit.raptor._data.transit.TestRoute;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.path.Path;
+import org.opentripplanner.transit.raptor.api.transit.RaptorSlackProvider;
+import org.opentripplanner.util.time.TimeUtils;
+
+/**
+ * Measure the transfer optimization on a dense corridor, using the same test data as the {@link
+ * TransferGeneratorTest}. Run the main method to compare:
+ * <ol>
+ *   <li>A new transfer generator for each path - nothing is shared between the paths.</li>
+ *   <li>One generator for all paths - the transfers between the same trips are reused.</li>
+ *   <li>One generator for all paths, and the paths optimized in parallel.</li>
+ * </ol>
+ * This is not a unit test, it is not run as part of the build.
+ */
+public class TransferOptimizationBenchmark implements RaptorTestConstants {
+
+  private static final int BOARD_SLACK = 10;
+  private static final int TRANSFER_SLACK = 15;
+  private static final int ALIGHT_SLACK = 5;
+
+  private static final RaptorSlackProvider SLACK_PROVIDER = defaultSlackProvider(
+    TRANSFER_SLACK,
+    BOARD_SLACK,
+    ALIGHT_SLACK
+  );
+
+  /** The corridor stops are 1..N_STOPS, all routes visit all stops. */
+  private static final int N_STOPS = 40;
+  private static final int N_ROUTES = 4;
+  private static final int N_TRIPS = 60;
+  private static final int TRIP_HEADWAY = 120;
+  private static final int STOP_INTERVAL = 60;
+  private static final int ROUTE_OFFSET = 20;
+  private static final int FIRST_DEPARTURE = TimeUtils.time("06:00");
+
+  private static final int WARM_UP_ROUNDS = 20;
+  private static final int TEST_ROUNDS = 50;
+
+  private final TestTransitData data = new TestTransitData();
+  private final TestPathBuilder pathBuilder = new TestPathBuilder(ALIGHT_SLACK, COST_CALCULATOR);
+  private final List<TestRoute> routes = new ArrayList<>();
+  private final List<Path<TestTripSchedule>> paths = new ArrayList<>();
+
+  public static void main(String[] args) {
+    new TransferOptimizationBenchmark().run();
+  }
+
+  private void run() {
+    setupCorridor();
+    setupPaths();
+
+    System.out.printf("Optimize %d paths with %d transit legs each%n", paths.size(), N_ROUTES);
+
+    measure("Generator per path", this::optimizeWithGeneratorPerPath);
+    measure("Shared generator", () -> optimize(false));
+    measure("Shared generator, parallel", () -> optimize(true));
+  }
+
+  /**
+   * Create {@code N_ROUTES} routes visiting all stops in the corridor, with a trip every 2 minutes.
+   * The routes are 20 seconds apart, and you may walk to the next stop in the corridor.
+   */
+  private void setupCorridor() {
+    int[] stops = new int[N_STOPS];
+    for (int i = 0; i < N_STOPS; ++i) {
+      stops[i] = i + 1;
+    }
+
+    for (int r = 0; r < N_ROUTES; ++r) {
+      var route = route(pattern("L" + (r + 1), stops));
+      var trips = new TestTripSchedule.Builder[N_TRIPS];
+
+      for (int t = 0; t < N_TRIPS; ++t) {
+        int[] times = new int[N_STOPS];
+        for (int s = 0; s < N_STOPS; ++s) {
+          times[s] = FIRST_DEPARTURE + t * TRIP_HEADWAY + s * STOP_INTERVAL + r * ROUTE_OFFSET;
+        }
+        trips[t] = schedule().times(times);
+      }
+      routes.add(route.withTimetable(trips));
+    }
+    data.withRoutes(routes.toArray(TestRoute[]::new));
+
+    for (int s = 1; s < N_STOPS; ++s) {
+      data.withTransfer(s, walk(s + 1, D1m));
+      data.withTransfer(s + 1, walk(s, D1m));
+    }
+  }
+
+  /**
+   * Create paths riding each route a quarter of the corridor, changing to the next trip on the
+   * next route. As for Raptor results, many paths share the same trips and differ only in the
+   * access and egress.
+   */
+  private void setupPaths() {
+    int legLength = N_STOPS / N_ROUTES;
+
+    for (int t = 0; t < N_TRIPS - N_ROUTES; ++t) {
+      for (int accessStop = 1; accessStop <= 3; ++accessStop) {
+        for (int egressStop = N_STOPS - 2; egressStop <= N_STOPS; ++egressStop) {
+          int departure = routes.get(0).getTripSchedule(t).departure(accessStop - 1);
+          var builder = pathBuilder.access(departure - BOARD_SLACK - D1m, D1m, accessStop);
+
+          for (int r = 0; r < N_ROUTES; ++r) {
+            var trip = routes.get(r).getTripSchedule(t + r);
+            int alightStop = r == N_ROUTES - 1 ? egressStop : (r + 1) * legLength;
+            builder.bus(trip, alightStop);
+          }
+          paths.add(builder.egress(D1m));
+        }
+      }
+    }
+  }
+
+  private int optimizeWithGeneratorPerPath() {
+    int count = 0;
+    for (Path<TestTripSchedule> path : paths) {
+      count += domainService(generator()).findBestTransitPath(path).size();
+    }
+    return count;
+  }
+
+  private int optimize(boolean runInParallel) {
+    var service = new OptimizeTransferService<>(domainService(generator()), runInParallel);
+    return service.optimize(paths).size();
+  }
+
+  private TransferGenerator<TestTripSchedule> generator() {
+    return new TransferGenerator<>(data.transferServiceAdaptor(), SLACK_PROVIDER, data);
+  }
+
+  private static OptimizePathDomainService<TestTripSchedule> domainService(
+    TransferGenerator<TestTripSchedule> generator
+  ) {
+    return new OptimizePathDomainService<>(
+      generator,
+      COST_CALCULATOR,
+      SLACK_PROVIDER,
+      null,
+      null,
+      0.0,
+      TransferOptimizedFilterFactory.filter(true, false),
+      (new RaptorTestConstants() {})::stopIndexToName
+    );
+  }
+
+  private static void measure(String name, Supplier<Integer> body) {
+    int result = 0;
+    for (int i = 0; i < WARM_UP_ROUNDS; ++i) {
+      result += body.get();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < TEST_ROUNDS; ++i) {
+      result += body.get();
+    }
+    double avgMs = (System.nanoTime() - start) / (1_000_000.0 * TEST_ROUNDS);
+
+    System.out.printf("%-30s %8.2f ms  (%d paths returned)%n", name, avgMs, result);
+  }
+}
@@ -0,0 +1,99 @@
+package org.opentripplanner.routing.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TimePeriod;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+import org.opentripplanner.transit.model.framework.FeedScopedId;
+
+public class TransitAlertIndexTest {
+
+  private static final EntitySelector STOP_A = new EntitySelector.Stop(new FeedScopedId("F", "A"));
+  private static final EntitySelector STOP_B = new EntitySelector.Stop(new FeedScopedId("F", "B"));
+
+  @Test
+  public void getAlertsForEntity() {
+    var a1 = alert("A1", STOP_A, new TimePeriod(100, 200));
+    var a2 = alert("A2", STOP_B, new TimePeriod(100, 200));
+
+    var subject = new TransitAlertIndex(List.of(a1, a2));
+
+    assertEquals(Set.of(a1), Set.copyOf(subject.get(STOP_A)));
+    assertEquals(Set.of(a1, a2), Set.copyOf(subject.getAllAlerts()));
+    assertSame(a2, subject.getAlertById("A2"));
+  }
+
+  @Test
+  public void getAlertsDisplayedDuring() {
+    var before = alert("Before", STOP_A, new TimePeriod(100, 200));
+    var overlapping = alert("Overlapping", STOP_A, new TimePeriod(250, 350));
+    var openEnded = alert("OpenEnded", STOP_A, new TimePeriod(150, 0));
+    var after = alert("After", STOP_A, new TimePeriod(400, 500));
+    var twoPeriods = alert(
+      "TwoPeriods",
+      STOP_A,
+      new TimePeriod(100, 150),
+      new TimePeriod(290, 300)
+    );
+    var noPeriods = alert("NoPeriods", STOP_A);
+
+    var subject = new TransitAlertIndex(
+      List.of(before, overlapping, openEnded, after, twoPeriods, noPeriods)
+    );
+
+    assertEquals(
+      Set.of(overlapping, openEnded, twoPeriods),
+      Set.copyOf(subject.getDisplayedDuring(STOP_A, 200, 300))
+    );
+    assertEquals(Set.of(), Set.copyOf(subject.getDisplayedDuring(STOP_B, 200, 300)));
+  }
+
+  @Test
+  public void sameResultAsDisplayDuring() {
+    var random = new Random(42);
+    List<TransitAlert> alerts = new ArrayList<>();
+
+    for (int i = 0; i < 200; ++i) {
+      List<TimePeriod> periods = new ArrayList<>();
+      for (int j = random.nextInt(3); j >= 0; --j) {
+        long start = random.nextInt(10_000);
+        long end = random.nextInt(10) == 0 ? 0 : start + random.nextInt(1_000);
+        periods.add(new TimePeriod(start, end));
+      }
+      alerts.add(alert("A" + i, STOP_A, periods.toArray(TimePeriod[]::new)));
+    }
+
+    var subject = new TransitAlertIndex(alerts);
+
+    for (int i = 0; i < 200; ++i) {
+      long start = random.nextInt(11_000);
+      long end = start + random.nextInt(500);
+      Set<TransitAlert> expected = alerts
+        .stream()
+        .filter(it -> it.displayDuring(start, end))
+        .collect(Collectors.toSet());
+
+      var result = subject.getDisplayedDuring(STOP_A, start, end);
+
+      assertEquals(expected, Set.copyOf(result));
+      // Each alert is only returned once
+      assertEquals(expected.size(), result.size());
+    }
+  }
+
+  private static TransitAlert alert(String id, EntitySelector entity, TimePeriod... periods) {
+    var alert = new TransitAlert();
+    alert.setId(id);
+    alert.addEntity(entity);
+    alert.setTimePeriods(List.of(periods));
+    return alert;
+  }
+}
@@ -27,6 +27,7 @@ import org.opentripplanner.transit.raptor.api.transit.RaptorStopNameResolver;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTimeTable;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransfer;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTransitDataProvider;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripBasedTransfers;
 import org.opentripplanner.transit.raptor.api.transit.RaptorTripPattern;
 import org.opentripplanner.transit.raptor.rangeraptor.SystemErrDebugLogger;
 import org.opentripplanner.transit.raptor.util.BitSetIterator;
@@ -55,6 +56,7 @@ public class TestTransitData
   private final List<TestRoute> routes = new ArrayList<>();
   private final List<ConstrainedTransfer> constrainedTransfers = new ArrayList<>();
   private final McCostParamsBuilder costParamsBuilder = new McCostParamsBuilder();
+  private RaptorTripBasedTransfers tripBasedTransfers = null;
 
   @Override
   public Iterator<? extends RaptorTransfer> getTransfersFromStop(int fromStop) {
@@ -96,6 +98,27 @@ public class TestTransitData
     );
   }
 
+  /**
+   * List all route stop positions reachable from each stop position, without the reductions,
+   * unless other transfers are set with {@link #withTripBasedTransfers(RaptorTripBasedTransfers)}.
+   * The Trip-Based search should find the same paths with or without the reductions.
+   */
+  @Override
+  public RaptorTripBasedTransfers tripBasedTransfers() {
+    if (tripBasedTransfers != null) {
+      return tripBasedTransfers;
+    }
+    return (routeIndex, stopPositionInPattern) -> {
+      int stop = routes.get(routeIndex).pattern().stopIndex(stopPositionInPattern);
+      List<Integer> result = new ArrayList<>();
+      addBoardPositions(stop, result);
+      for (RaptorTransfer transfer : transfersFromStop.get(stop)) {
+        addBoardPositions(transfer.stop(), result);
+      }
+      return result.stream().mapToInt(Integer::intValue).toArray();
+    };
+  }
+
   @Override
   public RaptorPathConstrainedTransferSearch<TestTripSchedule> transferConstraintsSearch() {
     return new RaptorPathConstrainedTransferSearch<>() {
@@ -225,6 +248,11 @@ public class TestTransitData
     return withConstrainedTransfer(fromTrip, fromStop, toTrip, toStop, TX_GUARANTEED);
   }
 
+  public TestTransitData withTripBasedTransfers(RaptorTripBasedTransfers tripBasedTransfers) {
+    this.tripBasedTransfers = tripBasedTransfers;
+    return this;
+  }
+
   public void clearConstrainedTransfers() {
     constrainedTransfers.clear();
     for (TestRoute route : routes) {
@@ -315,6 +343,18 @@ public class TestTransitData
 
   /* private methods */
 
+  private void addBoardPositions(int stop, List<Integer> result) {
+    for (int routeIndex : routeIndexesByStopIndex.get(stop)) {
+      RaptorTripPattern pattern = routes.get(routeIndex).pattern();
+      for (int pos = 0; pos < pattern.numberOfStopsInPattern(); ++pos) {
+        if (pattern.stopIndex(pos) == stop) {
+          result.add(routeIndex);
+          result.add(pos);
+        }
+      }
+    }
+  }
+
   private int[] stopBoardAlightCost() {
     // Not implemented, no test for this yet.
     return null;
@@ -0,0 +1,98 @@
+package org.opentripplanner.transit.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.transit.raptor._data.api.PathUtils.pathsToString;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+import static org.opentripplanner.transit.raptor.api.transit.RaptorSlackProvider.defaultSlackProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.Optimization;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * The Trip-Based search should find the same paths as the standard Range Raptor search. This
+ * includes boarding a later trip of the same route at an earlier stop in the pattern, and arriving
+ * at the egress stop on-board, after walking to it earlier in the search.
+ * <p>
+ * The expected result is an itinerary with 3 transit legs, riding R2 twice.
+ */
+public class C04_TripBasedSearchTest implements RaptorTestConstants {
+
+  /** The expected result is the same for all tests */
+  private static final String EXPECTED_RESULT =
+    "Walk 30s ~ A ~ " +
+    "BUS R1 0:02 0:03 ~ B ~ " +
+    "Walk 30s ~ C ~ " +
+    "BUS R2 0:04 0:05 ~ E ~ " +
+    "Walk 30s ~ D ~ " +
+    "BUS R2 0:06 0:08 ~ C ~ " +
+    "Walk 20s " +
+    "[0:01:30 0:08:20 6m50s 2tx]";
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(
+    RaptorConfig.defaultConfigForTest()
+  );
+
+  @BeforeEach
+  public void setup() {
+    //Given slack: transfer 30s, board 0s, alight 0s
+    requestBuilder.slackProvider(defaultSlackProvider(D30s, 0, 0));
+
+    data.withRoute(
+      route(pattern("R1", STOP_A, STOP_B)).withTimetable(schedule().times("0:02, 0:03"))
+    );
+
+    // The egress stop C is reached by walking, but the egress can only be used after transit
+    data.withTransfer(STOP_B, walk(STOP_C, D30s));
+    data.withTransfer(STOP_E, walk(STOP_D, D30s));
+
+    // R2 goes from D to E via C, ride it from C to E and then walk back to D to ride it to C
+    data.withRoute(
+      route(pattern("R2", STOP_D, STOP_C, STOP_E))
+        .withTimetable(
+          schedule().times("0:02, 0:04, 0:05"),
+          schedule().times("0:06, 0:08, 0:09")
+        )
+    );
+
+    requestBuilder
+      .searchParams()
+      .addAccessPaths(walk(STOP_A, D30s))
+      .addEgressPaths(walk(STOP_C, D20s))
+      .earliestDepartureTime(T00_00)
+      .latestArrivalTime(T00_30)
+      .searchWindowInSeconds(D3m);
+
+    ModuleTestDebugLogging.setupDebugLogging(data, requestBuilder);
+  }
+
+  @Test
+  public void standard() {
+    var request = requestBuilder.profile(RaptorProfile.STANDARD).build();
+    var response = raptorService.route(request, data);
+    assertEquals(EXPECTED_RESULT, pathsToString(response));
+  }
+
+  @Test
+  public void tripBased() {
+    var request = requestBuilder
+      .profile(RaptorProfile.STANDARD)
+      .enableOptimization(Optimization.TRIP_BASED)
+      .build();
+    var response = raptorService.route(request, data);
+    assertEquals(EXPECTED_RESULT, pathsToString(response));
+  }
+}
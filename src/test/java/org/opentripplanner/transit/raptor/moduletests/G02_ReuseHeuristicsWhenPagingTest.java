@@ -0,0 +1,124 @@
+package org.opentripplanner.transit.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.Optimization;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+import org.opentripplanner.transit.raptor.service.DestinationHeuristicsCache;
+import org.opentripplanner.transit.raptor.service.RangeRaptorDynamicSearch;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * When paging, the destination heuristics computed by the first search should be reused by the
+ * next page search, and the result should be the same as without reusing the heuristics.
+ */
+public class G02_ReuseHeuristicsWhenPagingTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorConfig<TestTripSchedule> config = RaptorConfig.defaultConfigForTest();
+  private final DestinationHeuristicsCache cache = new DestinationHeuristicsCache();
+
+  /**
+   * <pre>
+   * Stops: 0..4
+   *
+   * Stop on route (stop indexes):
+   *   R1:  1 - 2
+   *   R2:  3 - 4
+   *
+   * Schedule:
+   *   R1: 00:01 - 00:03, 00:11 - 00:13
+   *   R2: 00:05 - 00:08, 00:15 - 00:18
+   *
+   * Transfers:
+   *   2 -> 3 30s
+   * </pre>
+   */
+  @BeforeEach
+  public void setup() {
+    data.withRoute(
+      route(pattern("R1", STOP_A, STOP_B))
+        .withTimetable(schedule("00:01, 00:03"), schedule("00:11, 00:13"))
+    );
+    data.withRoute(
+      route(pattern("R2", STOP_C, STOP_D))
+        .withTimetable(schedule("00:05, 00:08"), schedule("00:15, 00:18"))
+    );
+    data.withTransfer(STOP_B, walk(STOP_C, D30s));
+
+    requestBuilder
+      .profile(RaptorProfile.MULTI_CRITERIA)
+      .searchParams()
+      .addAccessPaths(walk(STOP_A, D30s))
+      .addEgressPaths(walk(STOP_D, D20s))
+      .searchWindowInSeconds(D5m)
+      .timetableEnabled(true);
+
+    requestBuilder.optimizations().add(Optimization.PARETO_CHECK_AGAINST_DESTINATION);
+
+    ModuleTestDebugLogging.setupDebugLogging(data, requestBuilder);
+  }
+
+  @Test
+  public void reuseHeuristicsForNextPage() {
+    requestBuilder.searchParams().earliestDepartureTime(T00_00);
+    var firstPage = new RangeRaptorDynamicSearch<>(
+      config,
+      data,
+      requestBuilder.build(),
+      config.workerMemoryPool().create(),
+      config.workerMemoryPool().create(),
+      cache
+    );
+    firstPage.route();
+
+    assertFalse(cache.isEmpty());
+
+    requestBuilder.searchParams().earliestDepartureTime(T00_10);
+    var nextPage = new RangeRaptorDynamicSearch<>(
+      config,
+      data,
+      requestBuilder.build(),
+      config.workerMemoryPool().create(),
+      config.workerMemoryPool().create(),
+      cache
+    );
+    nextPage.route();
+
+    assertNotNull(nextPage.getDestinationHeuristics());
+    assertSame(firstPage.getDestinationHeuristics(), nextPage.getDestinationHeuristics());
+  }
+
+  @Test
+  public void sameResultWithAndWithoutReusedHeuristics() {
+    var service = new RaptorService<>(config);
+
+    requestBuilder.searchParams().earliestDepartureTime(T00_00);
+    service.route(requestBuilder.build(), data, cache);
+
+    requestBuilder.searchParams().earliestDepartureTime(T00_10);
+    var request = requestBuilder.build();
+
+    var expected = service.route(request, data).paths();
+    var actual = service.route(request, data, cache).paths();
+
+    assertEquals(expected.toString(), actual.toString());
+  }
+}
@@ -0,0 +1,131 @@
+package org.opentripplanner.transit.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.debug.RaptorSearchStatistics;
+import org.opentripplanner.transit.raptor.api.debug.RaptorTimers;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * Raptor should report the work done by each search to the {@link RaptorTimers}, with the number
+ * of iterations, rounds, routes scanned, trips boarded and stops touched. The stop arrival
+ * pareto-set counts are only reported for the multi-criteria search.
+ */
+public class H01_SearchStatisticsTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(
+    RaptorConfig.defaultConfigForTest()
+  );
+  private final List<RaptorSearchStatistics> statistics = new ArrayList<>();
+
+  /**
+   * Stops: 0..3
+   *
+   * Stop on route (stop indexes):
+   *   R1:  1 - 2 - 3
+   *
+   * Schedule:
+   *   R1: 00:01 - 00:03 - 00:05
+   */
+  @BeforeEach
+  public void setup() {
+    data.withRoute(
+      route(pattern("R1", STOP_B, STOP_C, STOP_D)).withTimetable(schedule("00:01, 00:03, 00:05"))
+    );
+    requestBuilder
+      .performanceTimers(new StatisticsCollector())
+      .searchParams()
+      .addAccessPaths(walk(STOP_B, D30s))
+      .addEgressPaths(walk(STOP_D, D20s))
+      .earliestDepartureTime(T00_00)
+      .latestArrivalTime(T00_10)
+      .timetableEnabled(true);
+
+    ModuleTestDebugLogging.setupDebugLogging(data, requestBuilder);
+  }
+
+  @Test
+  public void standardOneIteration() {
+    var request = requestBuilder
+      .profile(RaptorProfile.STANDARD)
+      .searchParams()
+      .searchOneIterationOnly()
+      .build();
+
+    raptorService.route(request, data);
+
+    assertEquals(1, statistics.size(), statistics.toString());
+    var it = statistics.get(0);
+    assertEquals(request.alias(), it.alias());
+    assertEquals(1, it.iterations());
+    assertTrue(it.rounds() >= 1, it.toString());
+    assertTrue(it.routesScanned() >= 1, it.toString());
+    assertTrue(it.tripsBoarded() >= 1, it.toString());
+    // Stop C and D is reached by transit
+    assertTrue(it.stopsTouched() >= 2, it.toString());
+    assertEquals(0, it.stopArrivalsAccepted());
+    assertEquals(0, it.stopArrivalsRejected());
+  }
+
+  @Test
+  public void multiCriteria() {
+    var request = requestBuilder.profile(RaptorProfile.MULTI_CRITERIA).build();
+
+    raptorService.route(request, data);
+
+    // The main search is the last search to complete, the heuristics are reported first
+    var it = statistics.get(statistics.size() - 1);
+    assertEquals(request.alias(), it.alias());
+    assertTrue(it.iterations() >= 1, it.toString());
+    assertTrue(it.tripsBoarded() >= 1, it.toString());
+    // The access arrival at stop B and the transit arrivals at stop C and D
+    assertTrue(it.stopArrivalsAccepted() >= 3, it.toString());
+  }
+
+  private class StatisticsCollector implements RaptorTimers {
+
+    @Override
+    public void route(Runnable body) {
+      body.run();
+    }
+
+    @Override
+    public void findTransitForRound(Runnable body) {
+      body.run();
+    }
+
+    @Override
+    public void findTransfersForRound(Runnable body) {
+      body.run();
+    }
+
+    @Override
+    public void searchStatistics(RaptorSearchStatistics searchStatistics) {
+      statistics.add(searchStatistics);
+    }
+
+    @Override
+    public RaptorTimers withNamePrefix(String namePrefix) {
+      return this;
+    }
+  }
+}
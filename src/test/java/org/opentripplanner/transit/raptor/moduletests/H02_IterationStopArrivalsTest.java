@@ -0,0 +1,112 @@
+package org.opentripplanner.transit.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+import static org.opentripplanner.transit.raptor.api.transit.RaptorSlackProvider.defaultSlackProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+import org.opentripplanner.util.time.TimeUtils;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * Raptor should notify the listener passed to {@link RaptorService#routeStopArrivals} at the end of
+ * each iteration, from the latest to the earliest departure time. The stop arrivals are the
+ * earliest arrival times when departing at the departure time of the iteration.
+ */
+public class H02_IterationStopArrivalsTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(
+    RaptorConfig.defaultConfigForTest()
+  );
+
+  /**
+   * Stops: 0..2
+   *
+   * Stop on route (stop indexes):
+   *   R1:  1 - 2
+   *
+   * Schedule:
+   *   R1: 00:02 - 00:05
+   *   R1: 00:06 - 00:09
+   */
+  @BeforeEach
+  public void setup() {
+    data.withRoute(
+      route(pattern("R1", STOP_A, STOP_B))
+        .withTimetable(schedule().times("0:02, 0:05"), schedule().times("0:06, 0:09"))
+    );
+    requestBuilder.slackProvider(defaultSlackProvider(D30s, 0, 0));
+    requestBuilder
+      .searchParams()
+      .addAccessPaths(walk(STOP_A, D30s))
+      .addEgressPaths(walk(STOP_B, D20s))
+      .earliestDepartureTime(T00_00)
+      .latestArrivalTime(T00_30)
+      .searchWindowInSeconds(D5m);
+
+    ModuleTestDebugLogging.setupDebugLogging(data, requestBuilder);
+  }
+
+  @Test
+  public void stopArrivalsForEachIteration() {
+    var request = requestBuilder.profile(RaptorProfile.STANDARD).build();
+    List<Integer> departureTimes = new ArrayList<>();
+    List<String> errors = new ArrayList<>();
+
+    raptorService.routeStopArrivals(
+      request,
+      data,
+      (departureTime, arrivals) -> {
+        departureTimes.add(departureTime);
+        // With the 30s access walk, the first trip is reached departing at 00:01:30 or earlier
+        int expected = departureTime + D30s <= TimeUtils.time("0:02")
+          ? TimeUtils.time("0:05")
+          : TimeUtils.time("0:09");
+        if (!arrivals.reachedByTransit(STOP_B)) {
+          errors.add(TimeUtils.timeToStrLong(departureTime) + ": B not reached");
+        } else if (arrivals.bestTransitArrivalTime(STOP_B) != expected) {
+          errors.add(
+            TimeUtils.timeToStrLong(departureTime) +
+            ": " +
+            TimeUtils.timeToStrLong(arrivals.bestTransitArrivalTime(STOP_B))
+          );
+        }
+      }
+    );
+
+    assertEquals(List.of(), errors);
+    assertTrue(departureTimes.size() > 1, departureTimes.toString());
+    assertTrue(departureTimes.contains(T00_00), departureTimes.toString());
+    for (int i = 1; i < departureTimes.size(); ++i) {
+      assertTrue(departureTimes.get(i) < departureTimes.get(i - 1), departureTimes.toString());
+    }
+  }
+
+  @Test
+  public void multiCriteriaIsNotSupported() {
+    var request = requestBuilder.profile(RaptorProfile.MULTI_CRITERIA).build();
+
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> raptorService.routeStopArrivals(request, data, (departureTime, arrivals) -> {})
+    );
+  }
+}
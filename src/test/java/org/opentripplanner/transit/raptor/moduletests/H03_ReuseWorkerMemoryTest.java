@@ -0,0 +1,84 @@
+package org.opentripplanner.transit.raptor.moduletests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.raptor._data.api.PathUtils.pathsToString;
+import static org.opentripplanner.transit.raptor._data.transit.TestRoute.route;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripPattern.pattern;
+import static org.opentripplanner.transit.raptor._data.transit.TestTripSchedule.schedule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor.RaptorService;
+import org.opentripplanner.transit.raptor._data.RaptorTestConstants;
+import org.opentripplanner.transit.raptor._data.transit.TestTransitData;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.request.RaptorProfile;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequest;
+import org.opentripplanner.transit.raptor.api.request.RaptorRequestBuilder;
+import org.opentripplanner.transit.raptor.api.request.RaptorTuningParameters;
+import org.opentripplanner.transit.raptor.configure.RaptorConfig;
+
+/**
+ * FEATURE UNDER TEST
+ * <p>
+ * Raptor should reuse the worker memory of the heuristic searches and the main search between
+ * requests. When the pool is warm, a search should not allocate new stop indexed arrays, and it
+ * should find the same paths as the first search.
+ */
+public class H03_ReuseWorkerMemoryTest implements RaptorTestConstants {
+
+  private final TestTransitData data = new TestTransitData();
+  private final RaptorRequestBuilder<TestTripSchedule> requestBuilder = new RaptorRequestBuilder<>();
+  private final RaptorConfig<TestTripSchedule> config = new RaptorConfig<>(
+    new RaptorTuningParameters() {
+      @Override
+      public int workerMemoryPoolSize() {
+        return 2;
+      }
+    }
+  );
+  private final RaptorService<TestTripSchedule> raptorService = new RaptorService<>(config);
+
+  @BeforeEach
+  public void setup() {
+    data.withRoute(
+      route(pattern("R1", STOP_A, STOP_B, STOP_C))
+        .withTimetable(schedule("00:02, 00:04, 00:06"), schedule("00:12, 00:14, 00:16"))
+    );
+    requestBuilder
+      .searchParams()
+      .addAccessPaths(walk(STOP_A, D30s))
+      .addEgressPaths(walk(STOP_C, D20s))
+      .earliestDepartureTime(T00_00)
+      .latestArrivalTime(T00_30);
+
+    ModuleTestDebugLogging.setupDebugLogging(data, requestBuilder);
+  }
+
+  @Test
+  public void multiCriteria() {
+    assertMemoryIsReused(requestBuilder.profile(RaptorProfile.MULTI_CRITERIA).build());
+  }
+
+  @Test
+  public void standard() {
+    assertMemoryIsReused(requestBuilder.profile(RaptorProfile.STANDARD).build());
+  }
+
+  private void assertMemoryIsReused(RaptorRequest<TestTripSchedule> request) {
+    var pool = config.workerMemoryPool();
+    var expected = pathsToString(raptorService.route(request, data));
+
+    // The memory instances in the pool are used for the forward heuristics and main search, and
+    // for the reverse heuristics, in turn. After two searches all of them hold all arrays.
+    raptorService.route(request, data);
+    long allocatedBytes = pool.allocatedBytes();
+    long reusedBytes = pool.reusedBytes();
+
+    assertEquals(expected, pathsToString(raptorService.route(request, data)));
+    assertEquals(allocatedBytes, pool.allocatedBytes());
+    assertTrue(pool.reusedBytes() > reusedBytes);
+  }
+}
@@ -0,0 +1,165 @@
+package org.opentripplanner.transit.raptor.rangeraptor.memory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class WorkerMemoryPoolTest {
+
+  private static final int N_STOPS = 100;
+  private static final int UNREACHED = Integer.MAX_VALUE;
+
+  private final WorkerMemoryPool subject = new WorkerMemoryPool(1);
+
+  @Test
+  void reuseReleasedMemory() {
+    var memory = subject.lease();
+    var array = memory.intArray(N_STOPS, UNREACHED);
+    var bitSet = memory.bitSet(N_STOPS);
+    subject.release(memory);
+
+    assertEquals(1, subject.idleSize());
+    assertSame(memory, subject.lease());
+    assertSame(array, memory.intArray(N_STOPS, UNREACHED));
+    assertSame(bitSet, memory.bitSet(N_STOPS));
+    assertEquals(0, subject.idleSize());
+    assertEquals(2, subject.leaseCount());
+    assertTrue(subject.reusedBytes() > 0);
+  }
+
+  @Test
+  void dropMemoryWhenPoolIsFull() {
+    var m1 = subject.lease();
+    var m2 = subject.lease();
+    subject.release(m1);
+    subject.release(m2);
+
+    assertEquals(1, subject.idleSize());
+    assertSame(m1, subject.lease());
+    assertNotSame(m2, subject.lease());
+  }
+
+  @Test
+  void noReuseWithPoolSizeZero() {
+    var pool = new WorkerMemoryPool(0);
+    var memory = pool.lease();
+    var array = memory.intArray(N_STOPS, UNREACHED);
+    array.set(3, 7);
+    pool.release(memory);
+
+    assertFalse(memory.isReusable());
+    // The indexes set are not tracked
+    assertEquals("?/" + N_STOPS, array.toString());
+    assertNotSame(memory, pool.lease());
+    assertEquals(0, pool.reusedBytes());
+    assertTrue(pool.allocatedBytes() >= 4 * N_STOPS);
+  }
+
+  @Test
+  void createdMemoryIsNotReturnedToThePool() {
+    var memory = subject.create();
+    memory.intArray(N_STOPS, UNREACHED);
+    subject.release(memory);
+
+    assertFalse(memory.isReusable());
+    assertEquals(0, subject.idleSize());
+    assertTrue(subject.lease().isReusable());
+  }
+
+  @Test
+  void resetIntArray() {
+    var memory = subject.lease();
+    var array = memory.intArray(N_STOPS, UNREACHED);
+    array.set(3, 7);
+    array.set(99, 8);
+    subject.release(memory);
+
+    // Same initial value, only the touched values are reset
+    array = memory.intArray(N_STOPS, UNREACHED);
+    assertEquals(UNREACHED, array.get(3));
+    assertEquals(UNREACHED, array.get(99));
+    array.set(5, 1);
+    subject.release(memory);
+
+    // New initial value, all values are reset
+    array = memory.intArray(N_STOPS, Integer.MIN_VALUE);
+    for (int i = 0; i < N_STOPS; i++) {
+      assertEquals(Integer.MIN_VALUE, array.get(i));
+    }
+  }
+
+  @Test
+  void onlyTrackTheFirstChangeOfEachIndex() {
+    var memory = subject.lease();
+    var array = memory.intArray(N_STOPS, UNREACHED);
+    array.set(3, 7);
+    array.set(3, 6);
+    array.set(4, 5);
+
+    assertEquals("2/" + N_STOPS, array.toString());
+  }
+
+  @Test
+  void resetAllValuesWhenTheTouchedIndexesOverflow() {
+    var memory = subject.lease();
+    var array = memory.intArray(N_STOPS, UNREACHED);
+    // Set back to the initial value, so each index is tracked twice
+    for (int i = 0; i < N_STOPS; i++) {
+      array.set(i, i);
+      array.set(i, UNREACHED);
+      array.set(i, i);
+    }
+    subject.release(memory);
+
+    array = memory.intArray(N_STOPS, UNREACHED);
+    for (int i = 0; i < N_STOPS; i++) {
+      assertEquals(UNREACHED, array.get(i));
+    }
+  }
+
+  @Test
+  void clearArrayAndBitSet() {
+    var memory = subject.lease();
+    ReusableArray<String> array = memory.array(N_STOPS);
+    array.set(42, "A");
+    memory.bitSet(N_STOPS).set(42);
+    subject.release(memory);
+
+    assertNull(memory.<String>array(N_STOPS).get(42));
+    assertTrue(memory.bitSet(N_STOPS).isEmpty());
+  }
+
+  @Test
+  void clearAllElementsWhenTheTouchedIndexesOverflow() {
+    var memory = subject.lease();
+    ReusableArray<String> array = memory.array(N_STOPS);
+    for (int i = 0; i < N_STOPS; i++) {
+      array.set(i, "A");
+      array.set(i, null);
+      array.set(i, "B");
+    }
+    subject.release(memory);
+
+    array = memory.array(N_STOPS);
+    for (int i = 0; i < N_STOPS; i++) {
+      assertNull(array.get(i));
+    }
+  }
+
+  @Test
+  void doNotReuseArraysWithAnotherSize() {
+    var memory = subject.lease();
+    var array = memory.intArray(N_STOPS, UNREACHED);
+    subject.release(memory);
+
+    var other = memory.intArray(N_STOPS + 1, UNREACHED);
+
+    assertNotSame(array, other);
+    assertEquals(N_STOPS + 1, other.size());
+  }
+}
@@ -0,0 +1,136 @@
+package org.opentripplanner.transit.raptor.rangeraptor.multicriteria;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.transit.raptor._data.transit.TestTransfer.walk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.transit.raptor._data.transit.TestTripSchedule;
+import org.opentripplanner.transit.raptor.api.transit.RaptorTripSchedule;
+import org.opentripplanner.transit.raptor.api.view.ArrivalView;
+import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.arrivals.AbstractStopArrival;
+import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.arrivals.AccessStopArrival;
+import org.opentripplanner.transit.raptor.rangeraptor.multicriteria.arrivals.TransitStopArrival;
+import org.opentripplanner.transit.raptor.util.paretoset.ParetoSetEventListener;
+
+/**
+ * The {@link PackedStopArrivalParetoSet} should behave exactly like the {@link
+ * StopArrivalParetoSet}. Random arrivals are added to both sets, and the content, the arrivals
+ * after the marker and the events are compared.
+ */
+public class PackedStopArrivalParetoSetTest {
+
+  // 08:35 in seconds
+  private static final int A_TIME = ((8 * 60) + 35) * 60;
+  private static final RaptorTripSchedule ANY_TRIP = TestTripSchedule
+    .schedule("10:00 10:30")
+    .build();
+  private static final AbstractStopArrival<RaptorTripSchedule> ACCESS = new AccessStopArrival<>(
+    A_TIME,
+    walk(999, 60, 100)
+  );
+  private static final AbstractStopArrival<RaptorTripSchedule> TRANSIT = new TransitStopArrival<>(
+    ACCESS,
+    998,
+    A_TIME + 600,
+    200,
+    ANY_TRIP
+  );
+
+  private final EventRecorder expEvents = new EventRecorder();
+  private final EventRecorder events = new EventRecorder();
+  private final StopArrivalParetoSet<RaptorTripSchedule> expected = new StopArrivalParetoSet<>(
+    expEvents
+  );
+  private final StopArrivalSet<RaptorTripSchedule> subject = new PackedStopArrivalParetoSet<>(
+    events
+  );
+
+  @Test
+  public void addRandomArrivals() {
+    Random rnd = new Random(17);
+
+    for (int stop = 0; stop < 2000; ++stop) {
+      var arrival = newArrival(rnd, stop);
+
+      assertEquals(expected.add(arrival), subject.add(arrival));
+
+      if (rnd.nextInt(10) == 0) {
+        expected.markAtEndOfSet();
+        subject.markAtEndOfSet();
+      }
+      assertEquals(
+        toString(expected.elementsAfterMarker()),
+        toString(subject.elementsAfterMarker())
+      );
+      assertEquals(expected.size(), subject.size());
+    }
+    assertEquals(toString(expected), toString(subject.stream()::iterator));
+    assertEquals(expEvents.toString(), events.toString());
+  }
+
+  @Test
+  public void emptySet() {
+    assertEquals(0, subject.size());
+    assertTrue(subject.isEmpty());
+    assertEquals("", toString(subject.elementsAfterMarker()));
+  }
+
+  private static AbstractStopArrival<RaptorTripSchedule> newArrival(Random rnd, int stop) {
+    int time = A_TIME + 1200 + rnd.nextInt(60);
+    int cost = 300 + rnd.nextInt(60);
+
+    switch (rnd.nextInt(3)) {
+      case 0:
+        return new AccessStopArrival<>(A_TIME, walk(stop, time - A_TIME, cost));
+      case 1:
+        return new TransitStopArrival<>(ACCESS, stop, time, cost, ANY_TRIP);
+      default:
+        return new TransitStopArrival<>(TRANSIT, stop, time, cost, ANY_TRIP);
+    }
+  }
+
+  private static String toString(Iterable<AbstractStopArrival<RaptorTripSchedule>> arrivals) {
+    return StreamSupport
+      .stream(arrivals.spliterator(), false)
+      .map(it -> Integer.toString(it.stop()))
+      .collect(Collectors.joining(", "));
+  }
+
+  private static class EventRecorder
+    implements ParetoSetEventListener<ArrivalView<RaptorTripSchedule>> {
+
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void notifyElementAccepted(ArrivalView<RaptorTripSchedule> newElement) {
+      events.add("A " + newElement.stop());
+    }
+
+    @Override
+    public void notifyElementDropped(
+      ArrivalView<RaptorTripSchedule> element,
+      ArrivalView<RaptorTripSchedule> droppedByElement
+    ) {
+      events.add("D " + element.stop() + " " + droppedByElement.stop());
+    }
+
+    @Override
+    public void notifyElementRejected(
+      ArrivalView<RaptorTripSchedule> element,
+      ArrivalView<RaptorTripSchedule> rejectedByElement
+    ) {
+      events.add("R " + element.stop() + " " + rejectedByElement.stop());
+    }
+
+    @Override
+    public String toString() {
+      return String.join("\n", events);
+    }
+  }
+}
@@ -15,6 +15,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.opentripplanner.datastore.OtpDataStore;
+import org.opentripplanner.routing.algorithm.raptoradapter.router.PagingSessionCache;
 import org.opentripplanner.routing.api.response.RoutingResponse;
 import org.opentripplanner.routing.framework.DebugTimingAggregator;
 import org.opentripplanner.routing.graph.Graph;
@@ -78,6 +79,7 @@ public class SpeedTest {
       DefaultServerRequestContext.create(
         routerConfig,
         new RaptorConfig<>(routerConfig.raptorTuningParameters()),
+        PagingSessionCache.DISABLED,
         graph,
         new DefaultTransitService(transitModel),
         timer.getRegistry(),
@@ -14,6 +14,13 @@ public enum SpeedTestProfile {
     RaptorProfile.STANDARD,
     SearchDirection.FORWARD
   ),
+  trip_based(
+    "trb",
+    "Trip-Based search, same result as Standard Range Raptor. Require 'enableTripBasedSearch'.",
+    RaptorProfile.STANDARD,
+    SearchDirection.FORWARD,
+    Optimization.TRIP_BASED
+  ),
   std_reverse(
     "rrr",
     "Reverse Standard Range Raptor",
@@ -68,6 +75,13 @@ public enum SpeedTestProfile {
     RaptorProfile.MULTI_CRITERIA,
     SearchDirection.FORWARD,
     Optimization.PARETO_CHECK_AGAINST_DESTINATION
+  ),
+  mc_packed(
+    "mp",
+    "Multi-Criteria Range Raptor with the stop arrival criteria in packed int arrays.",
+    RaptorProfile.MULTI_CRITERIA,
+    SearchDirection.FORWARD,
+    Optimization.PACKED_STOP_ARRIVALS
   );
 
   final String shortName;
@@ -0,0 +1,180 @@
+package org.opentripplanner.transit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.opentripplanner.transit.model._data.TransitModelForTest.stopTime;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.transit.model._data.TransitModelForTest;
+import org.opentripplanner.transit.model.framework.Deduplicator;
+import org.opentripplanner.transit.model.network.Route;
+import org.opentripplanner.transit.model.network.StopPattern;
+import org.opentripplanner.transit.model.network.TripPattern;
+import org.opentripplanner.transit.model.timetable.Direction;
+import org.opentripplanner.transit.model.timetable.Trip;
+import org.opentripplanner.transit.model.timetable.TripTimes;
+
+class TripMatchingIndexTest {
+
+  private static final int T08_00 = 8 * 3600;
+  private static final int T08_30 = T08_00 + 1800;
+  private static final int T09_00 = 9 * 3600;
+
+  private static final Route ROUTE = TransitModelForTest.route("R1").build();
+  private static final Route OTHER_ROUTE = TransitModelForTest.route("R2").build();
+
+  private final List<TripPattern> patterns = List.of(
+    pattern(
+      "P1",
+      2,
+      trip("A", Direction.OUTBOUND, T08_00, 1),
+      trip("B", Direction.OUTBOUND, T08_00, 2),
+      trip("C", Direction.OUTBOUND, T09_00, 1)
+    ),
+    pattern("P2", 2, trip("D", Direction.INBOUND, T08_00, 1)),
+    // Same route and direction as P1, but another stop pattern
+    pattern("P3", 3, trip("E", Direction.OUTBOUND, T08_00, 3)),
+    pattern("P4", 2, trip("F", OTHER_ROUTE, Direction.OUTBOUND, T08_00, 1))
+  );
+
+  private final TripMatchingIndex subject = TripMatchingIndex.of(patterns);
+
+  @Test
+  void sameRouteDirectionAndStartTime() {
+    assertEquals("A", findTrip(ROUTE, Direction.OUTBOUND, T08_00, 1));
+    assertEquals("B", findTrip(ROUTE, Direction.OUTBOUND, T08_00, 2));
+    assertEquals("E", findTrip(ROUTE, Direction.OUTBOUND, T08_00, 3));
+    // The first trip running on one of the services is returned
+    assertEquals("A", findTrip(ROUTE, Direction.OUTBOUND, T08_00, 1, 2, 3));
+    assertEquals("B", findTrip(ROUTE, Direction.OUTBOUND, T08_00, 2, 3));
+  }
+
+  @Test
+  void filterOnServicesRunningOnServiceDate() {
+    assertNull(findTrip(ROUTE, Direction.OUTBOUND, T08_00));
+    assertNull(findTrip(ROUTE, Direction.OUTBOUND, T08_00, 4));
+    assertNull(findTrip(ROUTE, Direction.OUTBOUND, T09_00, 2));
+    assertEquals("C", findTrip(ROUTE, Direction.OUTBOUND, T09_00, 1, 2));
+  }
+
+  @Test
+  void noMatch() {
+    assertNull(findTrip(ROUTE, Direction.OUTBOUND, T08_30, 1, 2, 3));
+    assertNull(findTrip(ROUTE, Direction.UNKNOWN, T08_00, 1, 2, 3));
+    assertNull(findTrip(TransitModelForTest.route("R3").build(), Direction.OUTBOUND, T08_00, 1));
+  }
+
+  @Test
+  void otherDirectionAndRoute() {
+    assertEquals("D", findTrip(ROUTE, Direction.INBOUND, T08_00, 1));
+    assertEquals("F", findTrip(OTHER_ROUTE, Direction.OUTBOUND, T08_00, 1));
+  }
+
+  @Test
+  void sameResultAsLinearMatcher() {
+    var routes = List.of(ROUTE, OTHER_ROUTE);
+    var times = List.of(T08_00, T08_30, T09_00);
+    var serviceCodeSets = List.of(
+      new int[] {},
+      new int[] { 1 },
+      new int[] { 2, 3 },
+      new int[] { 3 }
+    );
+
+    for (Route route : routes) {
+      for (Direction direction : Direction.values()) {
+        for (int time : times) {
+          for (int[] serviceCodes : serviceCodeSets) {
+            var services = new TIntHashSet(serviceCodes);
+            assertEquals(
+              findTripLinear(route, direction, time, services),
+              subject.findTrip(route, direction, time, services)
+            );
+          }
+        }
+      }
+    }
+  }
+
+  private String findTrip(Route route, Direction direction, int startTime, int... serviceCodes) {
+    Trip trip = subject.findTrip(route, direction, startTime, new TIntHashSet(serviceCodes));
+    return trip == null ? null : trip.getId().getId();
+  }
+
+  /**
+   * The linear search over all patterns and trip times, as done by the fuzzy trip matcher before
+   * the index was introduced.
+   */
+  private Trip findTripLinear(
+    Route route,
+    Direction direction,
+    int startTime,
+    TIntSet serviceCodesRunning
+  ) {
+    for (TripPattern pattern : patterns) {
+      if (!pattern.getRoute().equals(route) || pattern.getDirection() != direction) {
+        continue;
+      }
+      for (TripTimes times : pattern.getScheduledTimetable().getTripTimes()) {
+        if (
+          times.getScheduledDepartureTime(0) == startTime &&
+          serviceCodesRunning.contains(times.getServiceCode())
+        ) {
+          return times.getTrip();
+        }
+      }
+    }
+    return null;
+  }
+
+  private static ScheduledTrip trip(
+    String id,
+    Direction direction,
+    int startTime,
+    int serviceCode
+  ) {
+    return trip(id, ROUTE, direction, startTime, serviceCode);
+  }
+
+  private static ScheduledTrip trip(
+    String id,
+    Route route,
+    Direction direction,
+    int startTime,
+    int serviceCode
+  ) {
+    var trip = TransitModelForTest.trip(id).withRoute(route).withDirection(direction).build();
+    return new ScheduledTrip(trip, startTime, serviceCode);
+  }
+
+  private static TripPattern pattern(String id, int numStops, ScheduledTrip... trips) {
+    var first = trips[0].trip();
+    var pattern = TripPattern
+      .of(TransitModelForTest.id(id))
+      .withRoute(first.getRoute())
+      .withStopPattern(new StopPattern(stopTimes(first, numStops, 0)))
+      .build();
+    for (ScheduledTrip it : trips) {
+      var stopTimes = stopTimes(it.trip(), numStops, it.startTime());
+      var tripTimes = new TripTimes(it.trip(), stopTimes, new Deduplicator());
+      tripTimes.setServiceCode(it.serviceCode());
+      pattern.add(tripTimes);
+    }
+    return pattern;
+  }
+
+  private static List<StopTime> stopTimes(Trip trip, int numStops, int startTime) {
+    var stopTimes = new ArrayList<StopTime>();
+    for (int i = 0; i < numStops; ++i) {
+      stopTimes.add(stopTime(trip, i, startTime + 300 * i));
+    }
+    return stopTimes;
+  }
+
+  private record ScheduledTrip(Trip trip, int startTime, int serviceCode) {}
+}
@@ -0,0 +1,130 @@
+package org.opentripplanner.updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.transit.service.TransitModel;
+
+class GraphWriterBatchQueueTest {
+
+  private final List<Runnable> scheduledTasks = new ArrayList<>();
+  private final List<String> events = new ArrayList<>();
+
+  private final GraphWriterBatchQueue subject = new GraphWriterBatchQueue(
+    scheduledTasks::add,
+    it -> it.run(null, null),
+    new SimpleMeterRegistry()
+  );
+
+  @Test
+  void executeAllQueuedRunnablesInOneBatch() {
+    subject.addListener(new Listener());
+
+    subject.submit(new WriterA("A1"));
+    subject.submit(new WriterB("B1", null));
+    subject.submit(new WriterA("A2"));
+
+    assertEquals(3, subject.queueDepth());
+    assertEquals(1, scheduledTasks.size(), "One drain task scheduled");
+
+    runScheduledTasks();
+
+    assertEquals(0, subject.queueDepth());
+    assertEquals("[begin, A1, A2, B1, commit]", events.toString());
+  }
+
+  @Test
+  void skipSupersededRunnables() {
+    Future<?> superseded = subject.submit(new WriterB("B1", "feed"));
+    subject.submit(new WriterB("B2", null));
+    subject.submit(new WriterB("B3", "other"));
+    subject.submit(new WriterB("B4", "feed"));
+
+    runScheduledTasks();
+
+    assertEquals("[B2, B3, B4]", events.toString());
+    assertTrue(superseded.isDone());
+  }
+
+  @Test
+  void limitBatchSize() {
+    subject.addListener(new Listener());
+    int n = GraphWriterBatchQueue.MAX_BATCH_SIZE + 1;
+    for (int i = 0; i < n; ++i) {
+      subject.submit(new WriterA("A"));
+    }
+
+    runScheduledTasks();
+
+    assertEquals(2, events.stream().filter("commit"::equals).count());
+    assertEquals(n, events.stream().filter("A"::equals).count());
+  }
+
+  @Test
+  void failingRunnableDoesNotStopTheBatch() {
+    subject.addListener(new Listener());
+    Future<?> failed = subject.submit((graph, transitModel) -> {
+      throw new IllegalStateException("Expected");
+    });
+    subject.submit(new WriterA("A1"));
+
+    runScheduledTasks();
+
+    assertTrue(failed.isDone());
+    assertEquals("[begin, A1, commit]", events.toString());
+  }
+
+  private void runScheduledTasks() {
+    while (!scheduledTasks.isEmpty()) {
+      scheduledTasks.remove(0).run();
+    }
+  }
+
+  private class Listener implements GraphWriterBatchListener {
+
+    @Override
+    public void beforeWriteBatch() {
+      events.add("begin");
+    }
+
+    @Override
+    public void afterWriteBatch() {
+      events.add("commit");
+    }
+  }
+
+  private class WriterA implements GraphWriterRunnable {
+
+    private final String name;
+
+    WriterA(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void run(Graph graph, TransitModel transitModel) {
+      events.add(name);
+    }
+  }
+
+  private class WriterB extends WriterA {
+
+    private final Object key;
+
+    WriterB(String name, Object key) {
+      super(name);
+      this.key = key;
+    }
+
+    @Override
+    public Object coalesceKey() {
+      return key;
+    }
+  }
+}
@@ -2,6 +2,7 @@ package org.opentripplanner.updater;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
 import org.junit.jupiter.api.Test;
@@ -56,6 +57,14 @@ public class GtfsRealtimeFuzzyTripMatcherTest extends GtfsTest {
     assertFalse(trip1.hasTripId());
   }
 
+  @Test
+  public void testTripMatchingIndexIsSharedBetweenServices() {
+    assertSame(
+      new DefaultTransitService(transitModel).getTripMatchingIndex(),
+      new DefaultTransitService(transitModel).getTripMatchingIndex()
+    );
+  }
+
   @Override
   public String getFeedName() {
     return "portland/portland.gtfs.zip";
@@ -0,0 +1,56 @@
+package org.opentripplanner.updater;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class PollingGraphUpdaterTest {
+
+  @Test
+  public void rescheduleAfterFailedPoll() throws InterruptedException {
+    var polls = new CountDownLatch(3);
+    var updater = new PollingGraphUpdater(parameters()) {
+      @Override
+      protected void runPolling() {}
+
+      @Override
+      protected CompletableFuture<?> runPollingAsync() throws Exception {
+        polls.countDown();
+        if (polls.getCount() == 2) {
+          return CompletableFuture.failedFuture(new IllegalStateException("Expected failure"));
+        }
+        throw new IllegalStateException("Expected failure");
+      }
+
+      @Override
+      public void setGraphUpdaterManager(WriteToGraphCallback saveResultOnGraph) {}
+    };
+
+    var scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      updater.schedulePolling(scheduler);
+      assertTrue(polls.await(10, TimeUnit.SECONDS));
+      assertTrue(updater.isPrimed());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private static PollingGraphUpdaterParameters parameters() {
+    return new PollingGraphUpdaterParameters() {
+      @Override
+      public int getFrequencySec() {
+        return 1;
+      }
+
+      @Override
+      public String getConfigRef() {
+        return "test";
+      }
+    };
+  }
+}
@@ -18,6 +18,7 @@ import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate.StopTimeEvent;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate.StopTimeUpdate;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
@@ -219,6 +220,110 @@ public class TimetableSnapshotSourceTest {
     assertEquals(RealTimeState.SCHEDULED, forToday.getTripTimes(tripIndex2).getRealTimeState());
   }
 
+  @Test
+  public void testParallelPrepareGivesSameResultAsSequentialPrepare() {
+    // Delays on a range of service dates, with some dates updated twice and some cancelled
+    List<TripUpdate> updates = new ArrayList<>();
+    for (int i = 0; i < 300; ++i) {
+      var date = ServiceDateUtils.asCompactString(serviceDate.plusDays(i % 120));
+      var tripDescriptor = TripDescriptor.newBuilder().setTripId("1.1").setStartDate(date);
+      var tripUpdate = TripUpdate.newBuilder();
+      if (i % 7 == 0) {
+        tripDescriptor.setScheduleRelationship(ScheduleRelationship.CANCELED);
+      } else {
+        tripUpdate
+          .addStopTimeUpdateBuilder()
+          .setStopSequence(2)
+          .setArrival(StopTimeEvent.newBuilder().setDelay(i))
+          .setDeparture(StopTimeEvent.newBuilder().setDelay(i));
+      }
+      updates.add(tripUpdate.setTrip(tripDescriptor).build());
+    }
+
+    var sequential = applyAndResolveTripTimes(updates, false, List.of("1.1"), 120);
+    var parallel = applyAndResolveTripTimes(updates, true, List.of("1.1"), 120);
+
+    assertEquals(sequential, parallel);
+  }
+
+  @Test
+  public void testParallelPrepareOfSeveralTripsAndPatterns() {
+    // Each trip is updated three times on each date, the last update on a date should win. Some
+    // updates of trip 3.1 skip a stop, and move the trip to a new pattern.
+    List<String> tripIds = List.of("1.2", "2.1", "3.1");
+    List<TripUpdate> updates = new ArrayList<>();
+    for (int i = 0; i < 360; ++i) {
+      var tripId = tripIds.get(i % 3);
+      var date = ServiceDateUtils.asCompactString(serviceDate.plusDays((i / 3) % 40));
+      var tripDescriptor = TripDescriptor.newBuilder().setTripId(tripId).setStartDate(date);
+      var tripUpdate = TripUpdate.newBuilder();
+      tripUpdate
+        .addStopTimeUpdateBuilder()
+        .setStopSequence(1)
+        .setArrival(StopTimeEvent.newBuilder().setDelay(i))
+        .setDeparture(StopTimeEvent.newBuilder().setDelay(i));
+      if (tripId.equals("3.1") && i % 7 < 3) {
+        tripUpdate
+          .addStopTimeUpdateBuilder()
+          .setStopSequence(3)
+          .setScheduleRelationship(StopTimeUpdate.ScheduleRelationship.SKIPPED);
+      }
+      updates.add(tripUpdate.setTrip(tripDescriptor).build());
+    }
+
+    var sequential = applyAndResolveTripTimes(updates, false, tripIds, 40);
+    var parallel = applyAndResolveTripTimes(updates, true, tripIds, 40);
+
+    assertEquals(sequential, parallel);
+    // The updates of trip 1.2 on the first date are number 0, 120 and 240
+    assertEquals("1.2 day 0: UPDATED 240", parallel.get(0));
+    // The last update of trip 3.1 on the second date, number 245, skips a stop
+    assertEquals("3.1 day 1: CANCELED 0, added pattern: UPDATED 245", parallel.get(81));
+    // None of the updates of trip 3.1 on the fourth date, number 11, 131 and 251, skip a stop
+    assertEquals("3.1 day 3: UPDATED 251", parallel.get(83));
+  }
+
+  private List<String> applyAndResolveTripTimes(
+    List<TripUpdate> updates,
+    boolean parallelPrepare,
+    List<String> tripIds,
+    int nDays
+  ) {
+    var model = ConstantsForTests.buildGtfsGraph(ConstantsForTests.FAKE_GTFS).transitModel();
+    var updater = new TimetableSnapshotSource(
+      TimetableSnapshotSourceParameters.DEFAULT
+        .withMaxSnapshotFrequencyMs(-1)
+        .withParallelPrepare(parallelPrepare),
+      model
+    );
+    updater.applyTripUpdates(TRIP_MATCHER_NOOP, REQUIRED_NO_DATA, true, updates, feedId);
+    final TimetableSnapshot snapshot = updater.getTimetableSnapshot();
+
+    List<String> result = new ArrayList<>();
+    for (String id : tripIds) {
+      final FeedScopedId tripId = new FeedScopedId(feedId, id);
+      final Trip trip = model.getTransitModelIndex().getTripForId().get(tripId);
+      final TripPattern pattern = model.getTransitModelIndex().getPatternForTrip().get(trip);
+
+      for (int i = 0; i < nDays; ++i) {
+        var date = serviceDate.plusDays(i);
+        var tripTimes = snapshot.resolve(pattern, date).getTripTimes(trip);
+        var s = id + " day " + i + ": " + describe(tripTimes);
+        var addedPattern = snapshot.getRealtimeAddedTripPattern(tripId, date);
+        if (addedPattern != null) {
+          var addedTripTimes = snapshot.resolve(addedPattern, date).getTripTimes(trip);
+          s += ", added pattern: " + describe(addedTripTimes);
+        }
+        result.add(s);
+      }
+    }
+    return result;
+  }
+
+  private static String describe(TripTimes tripTimes) {
+    return tripTimes.getRealTimeState() + " " + tripTimes.getArrivalDelay(0);
+  }
+
   /**
    * This test just asserts that invalid trip ids don't throw an exception and are ignored instead
    */
@@ -0,0 +1,79 @@
+package org.opentripplanner.util.lang;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PersistentMapTest {
+
+  @Test
+  void putGetAndRemove() {
+    PersistentMap<String, Integer> empty = PersistentMap.empty();
+    var m1 = empty.put("A", 1);
+    var m2 = m1.put("B", 2);
+    var m3 = m2.remove("A");
+
+    assertTrue(empty.isEmpty());
+    assertEquals(1, m1.size());
+    assertEquals(2, m2.size());
+    assertEquals(1, m3.size());
+
+    // Old versions are not changed
+    assertNull(m1.get("B"));
+    assertEquals(1, m2.get("A"));
+    assertNull(m3.get("A"));
+    assertEquals(2, m3.get("B"));
+    assertEquals(0, m3.getOrDefault("C", 0));
+  }
+
+  @Test
+  void unchangedMapIsReturnedIfNothingChanges() {
+    var map = PersistentMap.<String, Integer>empty().put("A", 1);
+    Integer one = map.get("A");
+
+    assertSame(map, map.put("A", one));
+    assertSame(map, map.remove("B"));
+    assertSame(map, map.removeIf((k, v) -> false));
+  }
+
+  @Test
+  void sameResultAsHashMapWithRandomOperations() {
+    var random = new Random(42);
+    Map<Key, Integer> expected = new HashMap<>();
+    PersistentMap<Key, Integer> subject = PersistentMap.empty();
+
+    for (int i = 0; i < 20_000; ++i) {
+      // Few hash codes to get collisions, and enough keys to get deep tries
+      var key = new Key(random.nextInt(3000), random.nextInt(3));
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        subject = subject.remove(key);
+      } else {
+        expected.put(key, i);
+        subject = subject.put(key, i);
+      }
+      assertEquals(expected.size(), subject.size());
+    }
+    assertEquals(expected, subject.asMap());
+
+    var evenIds = subject.removeIf((k, v) -> k.id % 2 == 1);
+    expected.keySet().removeIf(k -> k.id % 2 == 1);
+    assertEquals(expected, evenIds.asMap());
+    assertFalse(evenIds.containsKey(new Key(1, 0)));
+  }
+
+  /** A key where many instances share the same hash code. */
+  private record Key(int id, int variant) {
+    @Override
+    public int hashCode() {
+      return id / 2;
+    }
+  }
+}